@@ -29,6 +29,7 @@
  */
 package org.chocosolver.memory;
 
+import org.chocosolver.memory.copy.EnvironmentCopying;
 import org.chocosolver.memory.trailing.EnvironmentTrailing;
 import org.chocosolver.memory.trailing.trail.*;
 import org.chocosolver.memory.trailing.trail.chunck.*;
@@ -198,6 +199,18 @@ public class EnvironmentBuilder {
         return env;
     }
 
+    /**
+     * Build an environment which saves and restores data by copy instead of trailing.
+     * Only the operation trail is considered, the other trails being useless.
+     * @return the resulting environment
+     */
+    public EnvironmentCopying buildCopying(){
+        if (ot == null) {
+            ot = new OperationTrail(worldsize, worldnumber, loadfactor);
+        }
+        return new EnvironmentCopying(ot);
+    }
+
     /**
      * Build a chunk environment
      * @return {@code this}
@@ -223,4 +236,20 @@ public class EnvironmentBuilder {
         setTrail(new OperationTrail(worldsize, worldnumber, loadfactor));
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Build an environment with a single trail for ints, bools, longs, doubles and operations,
+     * see {@link UnifiedTrail}.
+     * Int and double vectors are still saved in their own trails.
+     * @return {@code this}
+     */
+    public EnvironmentBuilder fromUnified(){
+        UnifiedTrail trail = new UnifiedTrail(worldsize, worldnumber, loadfactor);
+        setTrail((IStoredBoolTrail) trail);
+        setTrail((IStoredIntTrail) trail);
+        setTrail((IStoredDoubleTrail) trail);
+        setTrail((IStoredLongTrail) trail);
+        setTrail((IOperationTrail) trail);
+        return this;
+    }
+}
@@ -191,4 +191,70 @@ public interface IEnvironment  {
      * @return the timestamp
      */
     int getTimeStamp();
+
+    /**
+     * Return the trails used by this environment to save the previous states of backtrackable data.
+     * It enables to get the memory footprint of each of them, see {@link IStorage#getSize()} and {@link IStorage#getPeakSize()}.
+     * @return the trails of this environment, may be empty
+     */
+    default IStorage[] getTrails() {
+        return new IStorage[0];
+    }
+
+    /**
+     * @return the number of entries currently stored in the trails of this environment
+     */
+    default long getTrailSize() {
+        long n = 0;
+        for (IStorage t : getTrails()) {
+            n += t.getSize();
+        }
+        return n;
+    }
+
+    /**
+     * Note that the high-water marks of the trails are summed up, even if they have not been reached at the same time.
+     * @return the largest number of entries stored in the trails of this environment
+     */
+    default long getPeakTrailSize() {
+        long n = 0;
+        for (IStorage t : getTrails()) {
+            n += t.getPeakSize();
+        }
+        return n;
+    }
+
+    /**
+     * @return an estimation of the number of bytes currently used by the entries of the trails of this environment
+     */
+    default long getTrailBytes() {
+        long n = 0;
+        for (IStorage t : getTrails()) {
+            n += (long) t.getSize() * t.getEntryBytes();
+        }
+        return n;
+    }
+
+    /**
+     * Note that the high-water marks of the trails are summed up, even if they have not been reached at the same time.
+     * @return an estimation of the largest number of bytes used by the entries of the trails of this environment
+     */
+    default long getPeakTrailBytes() {
+        long n = 0;
+        for (IStorage t : getTrails()) {
+            n += (long) t.getPeakSize() * t.getEntryBytes();
+        }
+        return n;
+    }
+
+    /**
+     * @return the number of times the inner structures of the trails of this environment have been enlarged
+     */
+    default long getTrailResizeCount() {
+        long n = 0;
+        for (IStorage t : getTrails()) {
+            n += t.getResizeCount();
+        }
+        return n;
+    }
 }
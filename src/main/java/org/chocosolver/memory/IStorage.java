@@ -73,5 +73,33 @@ public interface IStorage  {
 
     void worldCommit(int worldIndex);
 
-}
+    /**
+     * @return the number of entries currently stored in this trail
+     */
+    default int getSize() {
+        return 0;
+    }
 
+    /**
+     * @return the largest number of entries stored at once in this trail, that is, its high-water mark
+     */
+    default int getPeakSize() {
+        return getSize();
+    }
+
+    /**
+     * @return an estimation of the number of bytes required to store one entry of this trail
+     * (references are supposed to be compressed, that is, 4 bytes)
+     */
+    default int getEntryBytes() {
+        return 0;
+    }
+
+    /**
+     * @return the number of times the inner structures of this trail have been enlarged
+     */
+    default int getResizeCount() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.memory.copy;
+
+import org.chocosolver.memory.IStateDoubleVector;
+
+/**
+ * A backtrackable double vector whose elements are saved and restored by copy, see {@link EnvironmentCopying}.
+ * The size of the vector is a backtrackable int of the environment.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class CopiedDoubleVector extends IStateDoubleVector {
+
+    /**
+     * Copies of the elements, one per world
+     */
+    private double[][] worlds;
+
+    /**
+     * Constructs a copied vector with an initial size, and initial values.
+     *
+     * @param env          The current environment.
+     * @param initialSize  The initial size.
+     * @param initialValue The initial common value.
+     */
+    public CopiedDoubleVector(EnvironmentCopying env, int initialSize, double initialValue) {
+        super(env, initialSize, initialValue);
+        this.worlds = new double[EnvironmentCopying.NBWORLDS][];
+        env.add(this);
+    }
+
+    /**
+     * Checks if the capacity is great enough, else the capacity
+     * is extended.
+     *
+     * @param minCapacity the necessary capacity.
+     */
+    public void ensureCapacity(int minCapacity) {
+        int oldCapacity = elementData.length;
+        if (minCapacity > oldCapacity) {
+            double[] oldData = elementData;
+            int newCapacity = (oldCapacity * 3) / 2 + 1;
+            if (newCapacity < minCapacity)
+                newCapacity = minCapacity;
+            elementData = new double[newCapacity];
+            System.arraycopy(oldData, 0, elementData, 0, size.get());
+        }
+    }
+
+    @Override
+    public void add(double i) {
+        int newsize = size.get() + 1;
+        ensureCapacity(newsize);
+        size.set(newsize);
+        elementData[newsize - 1] = i;
+    }
+
+    @Override
+    public void remove(int i) {
+        int newsize = size.get() - 1;
+        if (newsize >= 0) {
+            System.arraycopy(elementData, i + 1, elementData, i, newsize - i);
+            size.set(newsize);
+        }
+    }
+
+    @Override
+    public void removeLast() {
+        int newsize = size.get() - 1;
+        if (newsize >= 0)
+            size.set(newsize);
+    }
+
+    @Override
+    public double set(int index, double val) {
+        if (rangeCheck(index)) {
+            return quickSet(index, val);
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size.get());
+    }
+
+    @Override
+    public final double quickSet(int index, double val) {
+        assert (rangeCheck(index));
+        final double oldValue = elementData[index];
+        elementData[index] = val;
+        return oldValue;
+    }
+
+    /**
+     * Copies the current elements for <i>world</i>.
+     * @param world the world being pushed
+     */
+    void save(int world) {
+        if (world >= worlds.length) {
+            double[][] tmp = worlds;
+            worlds = new double[Math.max(world + 1, (int) (tmp.length * EnvironmentCopying.LOADFACTOR))][];
+            System.arraycopy(tmp, 0, worlds, 0, tmp.length);
+        }
+        double[] copy = worlds[world];
+        if (copy == null || copy.length < elementData.length) {
+            copy = worlds[world] = new double[elementData.length];
+        }
+        System.arraycopy(elementData, 0, copy, 0, elementData.length);
+    }
+
+    /**
+     * Restores the elements copied for <i>world</i>, if any.
+     * @param world the world being popped
+     */
+    void restore(int world) {
+        if (world < worlds.length && worlds[world] != null) {
+            System.arraycopy(worlds[world], 0, elementData, 0, Math.min(elementData.length, worlds[world].length));
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.memory.copy;
+
+import org.chocosolver.memory.*;
+import org.chocosolver.memory.structure.IOperation;
+import org.chocosolver.memory.trailing.trail.IOperationTrail;
+import org.chocosolver.memory.trailing.trail.flatten.OperationTrail;
+
+import java.util.Arrays;
+
+/**
+ * An environment which saves and restores backtrackable data by copy.
+ * <p>
+ * Unlike {@link org.chocosolver.memory.trailing.EnvironmentTrailing}, where each modification
+ * stores the former value on a trail, modifying a backtrackable data only consists in updating its value.
+ * On {@link #worldPush()}, the values of all the backtrackable data are copied into contiguous primitive arrays,
+ * one per type and per world, which are reused from one node to another.
+ * On {@link #worldPop()}, the values are copied back.
+ * <p>
+ * Thus, pushing and popping a world costs the number of backtrackable data, whatever the number of modifications.
+ * This is cheaper than trailing on shallow search trees with many modifications per node,
+ * and more expensive on search trees with few modifications per node.
+ * <p>
+ * Operations (see {@link #save(IOperation)}) cannot be copied and are trailed as usual.
+ * Backtrackable data are referenced by the environment as long as it exists,
+ * so they should preferably be created before the search starts.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class EnvironmentCopying extends AbstractEnvironment {
+
+    /**
+     * The initial number of worlds that can be handled.
+     */
+    public static final int NBWORLDS = 128;
+
+    /**
+     * The initial number of backtrackable data of each type that can be handled.
+     */
+    public static final int NBOBJECTS = 64;
+
+    /**
+     * The load factor to resize structures.
+     */
+    public static final double LOADFACTOR = 2;
+
+    private CopiedInt[] ints = new CopiedInt[NBOBJECTS];
+    private int nbInts;
+    private int[][] intWorlds = new int[NBWORLDS][];
+    private int[] intSizes = new int[NBWORLDS];
+
+    private CopiedBool[] bools = new CopiedBool[NBOBJECTS];
+    private int nbBools;
+    private boolean[][] boolWorlds = new boolean[NBWORLDS][];
+    private int[] boolSizes = new int[NBWORLDS];
+
+    private CopiedLong[] longs = new CopiedLong[NBOBJECTS];
+    private int nbLongs;
+    private long[][] longWorlds = new long[NBWORLDS][];
+    private int[] longSizes = new int[NBWORLDS];
+
+    private CopiedDouble[] doubles = new CopiedDouble[NBOBJECTS];
+    private int nbDoubles;
+    private double[][] doubleWorlds = new double[NBWORLDS][];
+    private int[] doubleSizes = new int[NBWORLDS];
+
+    private CopiedIntVector[] intVectors = new CopiedIntVector[0];
+    private CopiedDoubleVector[] doubleVectors = new CopiedDoubleVector[0];
+
+    /**
+     * Operations are trailed
+     */
+    private final IOperationTrail operationTrail;
+
+    /**
+     * Number of values currently copied, and the largest one
+     */
+    private long copied, peakCopied;
+    /**
+     * Number of bytes currently used by copied values, and the largest one
+     */
+    private long copiedBytes, peakCopiedBytes;
+    /**
+     * Number of times the worlds have been enlarged
+     */
+    private int resizes;
+
+    /**
+     * Creates an environment which saves data by copy, operations being stored in a default trail.
+     */
+    public EnvironmentCopying() {
+        this(new OperationTrail(NBOBJECTS, NBWORLDS, LOADFACTOR));
+    }
+
+    /**
+     * Creates an environment which saves data by copy, operations being stored in <i>operationTrail</i>.
+     * @param operationTrail the trail to store operations
+     */
+    public EnvironmentCopying(IOperationTrail operationTrail) {
+        this.operationTrail = operationTrail;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void worldPush() {
+        timestamp++;
+        final int wi = currentWorld + 1;
+        if (wi == intSizes.length) {
+            increaseWorlds();
+        }
+        int[] iw = intWorlds[wi] = ensure(intWorlds[wi], nbInts);
+        for (int i = 0; i < nbInts; i++) {
+            iw[i] = ints[i].get();
+        }
+        intSizes[wi] = nbInts;
+        boolean[] bw = boolWorlds[wi] = ensure(boolWorlds[wi], nbBools);
+        for (int i = 0; i < nbBools; i++) {
+            bw[i] = bools[i].get();
+        }
+        boolSizes[wi] = nbBools;
+        long[] lw = longWorlds[wi] = ensure(longWorlds[wi], nbLongs);
+        for (int i = 0; i < nbLongs; i++) {
+            lw[i] = longs[i].get();
+        }
+        longSizes[wi] = nbLongs;
+        double[] dw = doubleWorlds[wi] = ensure(doubleWorlds[wi], nbDoubles);
+        for (int i = 0; i < nbDoubles; i++) {
+            dw[i] = doubles[i].get();
+        }
+        doubleSizes[wi] = nbDoubles;
+        for (int i = 0; i < intVectors.length; i++) {
+            intVectors[i].save(wi);
+        }
+        for (int i = 0; i < doubleVectors.length; i++) {
+            doubleVectors[i].save(wi);
+        }
+        operationTrail.worldPush(wi);
+        count(nbInts, 4);
+        count(nbBools, 1);
+        count(nbLongs, 8);
+        count(nbDoubles, 8);
+        currentWorld++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void worldPop() {
+        timestamp++;
+        final int wi = currentWorld;
+        operationTrail.worldPop(wi);
+        forget(wi);
+        for (int i = doubleVectors.length - 1; i >= 0; i--) {
+            doubleVectors[i].restore(wi);
+        }
+        for (int i = intVectors.length - 1; i >= 0; i--) {
+            intVectors[i].restore(wi);
+        }
+        final int pw = wi - 1;
+        double[] dw = doubleWorlds[wi];
+        for (int i = doubleSizes[wi] - 1; i >= 0; i--) {
+            doubles[i]._set(dw[i], pw);
+        }
+        long[] lw = longWorlds[wi];
+        for (int i = longSizes[wi] - 1; i >= 0; i--) {
+            longs[i]._set(lw[i], pw);
+        }
+        boolean[] bw = boolWorlds[wi];
+        for (int i = boolSizes[wi] - 1; i >= 0; i--) {
+            bools[i]._set(bw[i], pw);
+        }
+        int[] iw = intWorlds[wi];
+        for (int i = intSizes[wi] - 1; i >= 0; i--) {
+            ints[i]._set(iw[i], pw);
+        }
+        currentWorld--;
+        assert currentWorld >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void worldCommit() {
+        if (currentWorld == 0) {
+            throw new IllegalStateException("Commit in world 0?");
+        }
+        operationTrail.worldCommit(currentWorld);
+        forget(currentWorld);
+        currentWorld--;
+    }
+
+    private void count(int values, int bytes) {
+        copied += values;
+        copiedBytes += (long) values * bytes;
+        if (copied > peakCopied) {
+            peakCopied = copied;
+        }
+        if (copiedBytes > peakCopiedBytes) {
+            peakCopiedBytes = copiedBytes;
+        }
+    }
+
+    private void forget(int wi) {
+        copied -= intSizes[wi] + boolSizes[wi] + longSizes[wi] + doubleSizes[wi];
+        copiedBytes -= intSizes[wi] * 4L + boolSizes[wi] + longSizes[wi] * 8L + doubleSizes[wi] * 8L;
+    }
+
+    private void increaseWorlds() {
+        resizes++;
+        int n = (int) (intSizes.length * LOADFACTOR);
+        intWorlds = Arrays.copyOf(intWorlds, n);
+        intSizes = Arrays.copyOf(intSizes, n);
+        boolWorlds = Arrays.copyOf(boolWorlds, n);
+        boolSizes = Arrays.copyOf(boolSizes, n);
+        longWorlds = Arrays.copyOf(longWorlds, n);
+        longSizes = Arrays.copyOf(longSizes, n);
+        doubleWorlds = Arrays.copyOf(doubleWorlds, n);
+        doubleSizes = Arrays.copyOf(doubleSizes, n);
+    }
+
+    private static int capacity(int current, int needed) {
+        return Math.max(needed, (int) (current * LOADFACTOR));
+    }
+
+    private static int[] grow(int[] copy, int size) {
+        if (copy.length < size) {
+            return Arrays.copyOf(copy, capacity(copy.length, size));
+        }
+        return copy;
+    }
+
+    private static int[] ensure(int[] copy, int size) {
+        if (copy == null || copy.length < size) {
+            return new int[capacity(copy == null ? NBOBJECTS : copy.length, size)];
+        }
+        return copy;
+    }
+
+    private static boolean[] grow(boolean[] copy, int size) {
+        if (copy.length < size) {
+            return Arrays.copyOf(copy, capacity(copy.length, size));
+        }
+        return copy;
+    }
+
+    private static boolean[] ensure(boolean[] copy, int size) {
+        if (copy == null || copy.length < size) {
+            return new boolean[capacity(copy == null ? NBOBJECTS : copy.length, size)];
+        }
+        return copy;
+    }
+
+    private static long[] grow(long[] copy, int size) {
+        if (copy.length < size) {
+            return Arrays.copyOf(copy, capacity(copy.length, size));
+        }
+        return copy;
+    }
+
+    private static long[] ensure(long[] copy, int size) {
+        if (copy == null || copy.length < size) {
+            return new long[capacity(copy == null ? NBOBJECTS : copy.length, size)];
+        }
+        return copy;
+    }
+
+    private static double[] grow(double[] copy, int size) {
+        if (copy.length < size) {
+            return Arrays.copyOf(copy, capacity(copy.length, size));
+        }
+        return copy;
+    }
+
+    private static double[] ensure(double[] copy, int size) {
+        if (copy == null || copy.length < size) {
+            return new double[capacity(copy == null ? NBOBJECTS : copy.length, size)];
+        }
+        return copy;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // REGISTRATION                                                                                                   //
+    // When a fake history is needed, the value of a new data is copied in all the previous worlds                   //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    void add(CopiedInt v) {
+        if (nbInts == ints.length) {
+            ints = Arrays.copyOf(ints, capacity(nbInts, nbInts + 1));
+        }
+        ints[nbInts++] = v;
+        if (fakeHistoryNeeded()) {
+            for (int w = 1; w <= currentWorld; w++) {
+                int[] iw = intWorlds[w] = grow(intWorlds[w], nbInts);
+                for (int i = intSizes[w]; i < nbInts; i++) {
+                    iw[i] = ints[i].get();
+                }
+                count(nbInts - intSizes[w], 4);
+                intSizes[w] = nbInts;
+            }
+        }
+    }
+
+    void add(CopiedBool v) {
+        if (nbBools == bools.length) {
+            bools = Arrays.copyOf(bools, capacity(nbBools, nbBools + 1));
+        }
+        bools[nbBools++] = v;
+        if (fakeHistoryNeeded()) {
+            for (int w = 1; w <= currentWorld; w++) {
+                boolean[] bw = boolWorlds[w] = grow(boolWorlds[w], nbBools);
+                for (int i = boolSizes[w]; i < nbBools; i++) {
+                    bw[i] = bools[i].get();
+                }
+                count(nbBools - boolSizes[w], 1);
+                boolSizes[w] = nbBools;
+            }
+        }
+    }
+
+    void add(CopiedLong v) {
+        if (nbLongs == longs.length) {
+            longs = Arrays.copyOf(longs, capacity(nbLongs, nbLongs + 1));
+        }
+        longs[nbLongs++] = v;
+        if (fakeHistoryNeeded()) {
+            for (int w = 1; w <= currentWorld; w++) {
+                long[] lw = longWorlds[w] = grow(longWorlds[w], nbLongs);
+                for (int i = longSizes[w]; i < nbLongs; i++) {
+                    lw[i] = longs[i].get();
+                }
+                count(nbLongs - longSizes[w], 8);
+                longSizes[w] = nbLongs;
+            }
+        }
+    }
+
+    void add(CopiedDouble v) {
+        if (nbDoubles == doubles.length) {
+            doubles = Arrays.copyOf(doubles, capacity(nbDoubles, nbDoubles + 1));
+        }
+        doubles[nbDoubles++] = v;
+        if (fakeHistoryNeeded()) {
+            for (int w = 1; w <= currentWorld; w++) {
+                double[] dw = doubleWorlds[w] = grow(doubleWorlds[w], nbDoubles);
+                for (int i = doubleSizes[w]; i < nbDoubles; i++) {
+                    dw[i] = doubles[i].get();
+                }
+                count(nbDoubles - doubleSizes[w], 8);
+                doubleSizes[w] = nbDoubles;
+            }
+        }
+    }
+
+    void add(CopiedIntVector v) {
+        intVectors = Arrays.copyOf(intVectors, intVectors.length + 1);
+        intVectors[intVectors.length - 1] = v;
+    }
+
+    void add(CopiedDoubleVector v) {
+        doubleVectors = Arrays.copyOf(doubleVectors, doubleVectors.length + 1);
+        doubleVectors[doubleVectors.length - 1] = v;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateInt makeInt() {
+        return makeInt(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateInt makeInt(final int initialValue) {
+        return new CopiedInt(this, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateBool makeBool(final boolean initialValue) {
+        return new CopiedBool(this, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateIntVector makeIntVector(final int size, final int initialValue) {
+        return new CopiedIntVector(this, size, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateDoubleVector makeDoubleVector(final int size, final double initialValue) {
+        return new CopiedDoubleVector(this, size, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateDouble makeFloat() {
+        return makeFloat(Double.NaN);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateDouble makeFloat(final double initialValue) {
+        return new CopiedDouble(this, initialValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateLong makeLong() {
+        return makeLong(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IStateLong makeLong(final long init) {
+        return new CopiedLong(this, init);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(IOperation operation) {
+        operationTrail.savePreviousState(operation);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only operations are trailed by this environment, the values copied are counted apart.
+     */
+    @Override
+    public IStorage[] getTrails() {
+        return new IStorage[]{operationTrail};
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each value copied, except the ones of vectors, counts for one entry.
+     */
+    @Override
+    public long getTrailSize() {
+        return copied + operationTrail.getSize();
+    }
+
+    @Override
+    public long getPeakTrailSize() {
+        return peakCopied + operationTrail.getPeakSize();
+    }
+
+    @Override
+    public long getTrailBytes() {
+        return copiedBytes + (long) operationTrail.getSize() * operationTrail.getEntryBytes();
+    }
+
+    @Override
+    public long getPeakTrailBytes() {
+        return peakCopiedBytes + (long) operationTrail.getPeakSize() * operationTrail.getEntryBytes();
+    }
+
+    @Override
+    public long getTrailResizeCount() {
+        return resizes + operationTrail.getResizeCount();
+    }
+}
@@ -35,6 +35,8 @@ import org.chocosolver.memory.structure.IOperation;
 import org.chocosolver.memory.trailing.trail.*;
 import org.chocosolver.memory.trailing.trail.flatten.*;
 
+import java.util.Arrays;
+
 /**
  * The root class for managing memory and sessions.
  * <p/>
@@ -118,7 +120,7 @@ public class EnvironmentTrailing extends AbstractEnvironment {
             throw new IllegalStateException("Commit in world 0?");
         }
         final int wi = currentWorld;
-        for (int i = trailSize; i >= 0; i--) {
+        for (int i = trailSize - 1; i >= 0; i--) {
             trails[i].worldCommit(wi);
         }
         currentWorld--;
@@ -197,16 +199,35 @@ public class EnvironmentTrailing extends AbstractEnvironment {
     }
 
 
-    private void increaseTrail() {// TODO check resizing
-        IStorage[] tmp = trails;
-        trails = new IStorage[tmp.length + 1];
-        System.arraycopy(tmp, 0, trails, 0, tmp.length);
+    /**
+     * Declares a trail to be pushed and popped along with the environment.
+     * A trail shared among many types of data, like {@link UnifiedTrail}, is only declared once.
+     * @param trail a trail
+     */
+    private void addTrail(IStorage trail) {
+        for (int i = 0; i < trailSize; i++) {
+            if (trails[i] == trail) {
+                return;
+            }
+        }
+        if (trailSize == trails.length) {
+            trails = Arrays.copyOf(trails, Math.max(4, trails.length * 2));
+        }
+        trails[trailSize++] = trail;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The trails are returned in the order they have been declared.
+     */
+    @Override
+    public IStorage[] getTrails() {
+        return Arrays.copyOf(trails, trailSize);
     }
 
     public void setIntTrail(IStoredIntTrail itrail){
         if(intTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = intTrail = itrail;
+            addTrail(intTrail = itrail);
         }else{
             throw new UnsupportedOperationException("A trail has already been declared.");
         }
@@ -222,8 +243,7 @@ public class EnvironmentTrailing extends AbstractEnvironment {
 
     public void setLongTrail(IStoredLongTrail ltrail){
         if(longTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = longTrail = ltrail;
+            addTrail(longTrail = ltrail);
         }else{
             throw new UnsupportedOperationException("A trail has already been declared.");
         }
@@ -238,8 +258,7 @@ public class EnvironmentTrailing extends AbstractEnvironment {
 
     public void setBoolTrail(IStoredBoolTrail btrail){
         if(boolTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = boolTrail = btrail;
+            addTrail(boolTrail = btrail);
         }else{
             throw new UnsupportedOperationException("A trail has already been declared.");
         }
@@ -254,8 +273,7 @@ public class EnvironmentTrailing extends AbstractEnvironment {
 
     public void setDoubleTrail(IStoredDoubleTrail dtrail){
         if(doubleTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = doubleTrail = dtrail;
+            addTrail(doubleTrail = dtrail);
         }else{
             throw new UnsupportedOperationException("A trail has already been declared.");
         }
@@ -270,8 +288,7 @@ public class EnvironmentTrailing extends AbstractEnvironment {
 
     public void setOperationTrail(IOperationTrail otrail){
         if(operationTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = operationTrail = otrail;
+            addTrail(operationTrail = otrail);
         }else{
             throw new UnsupportedOperationException("A trail has already been declared.");
         }
@@ -291,16 +308,14 @@ public class EnvironmentTrailing extends AbstractEnvironment {
 
     public StoredIntVectorTrail getIntVectorTrail() {
         if (intVectorTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = intVectorTrail = new StoredIntVectorTrail(this, NBUPATES, NBWORLDS, LOADFACTOR);
+            addTrail(intVectorTrail = new StoredIntVectorTrail(this, NBUPATES, NBWORLDS, LOADFACTOR));
         }
         return intVectorTrail;
     }
 
     public StoredDoubleVectorTrail getDoubleVectorTrail() {
         if (doubleVectorTrail == null) {
-            increaseTrail();
-            trails[trailSize++] = doubleVectorTrail = new StoredDoubleVectorTrail(this, NBUPATES, NBWORLDS, LOADFACTOR);
+            addTrail(doubleVectorTrail = new StoredDoubleVectorTrail(this, NBUPATES, NBWORLDS, LOADFACTOR));
         }
         return doubleVectorTrail;
     }
@@ -90,6 +90,16 @@ public class StoredDoubleVectorTrail implements IStorage {
 
     private int[] worldStartLevels;
 
+    /**
+     * Largest level reached so far.
+     */
+    private int peak;
+
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
 
     /**
      * Constructs a trail for the specified environment with the
@@ -127,6 +137,7 @@ public class StoredDoubleVectorTrail implements IStorage {
     }
 
     private void resizeUpdateCapacity() {
+        resizes++;
         final int newCapacity = (int) (vectorStack.length * loadfactor);
         // first, copy the stack of variables
         final StoredDoubleVector[] tmp1 = new StoredDoubleVector[newCapacity];
@@ -147,6 +158,7 @@ public class StoredDoubleVectorTrail implements IStorage {
     }
 
     public void resizeWorldCapacity(int newWorldCapacity) {
+        resizes++;
         final int[] tmp = new int[newWorldCapacity];
         System.arraycopy(worldStartLevels, 0, tmp, 0, worldStartLevels.length);
         worldStartLevels = tmp;
@@ -173,6 +185,9 @@ public class StoredDoubleVectorTrail implements IStorage {
      */
 
     public void worldPop(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         final int wsl = worldStartLevels[worldIndex];
         while (currentLevel > wsl) {
             currentLevel--;
@@ -187,6 +202,9 @@ public class StoredDoubleVectorTrail implements IStorage {
      */
 
     public void worldCommit(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         // principle:
         //   currentLevel decreases to end of previous world
         //   updates of the committed world are scanned:
@@ -220,7 +238,27 @@ public class StoredDoubleVectorTrail implements IStorage {
      * Returns the current size of the stack.
      */
 
+    @Override
     public int getSize() {
         return currentLevel;
     }
+
+    @Override
+    public int getPeakSize() {
+        return Math.max(peak, currentLevel);
+    }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, an int index, a double value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 20;
+    }
+
+    @Override
+    public int getResizeCount() {
+        return resizes;
+    }
 }
@@ -90,6 +90,16 @@ public class StoredIntVectorTrail implements IStorage {
 
     private int[] worldStartLevels;
 
+    /**
+     * Largest level reached so far.
+     */
+    private int peak;
+
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
     /**
      * Constructs a trail for the specified environment with the
      * specified numbers of updates and worlds.
@@ -126,6 +136,7 @@ public class StoredIntVectorTrail implements IStorage {
     }
 
     private void resizeUpdateCapacity() {
+        resizes++;
         final int newCapacity = (int) (vectorStack.length * loadfactor);
         // first, copy the stack of variables
         final StoredIntVector[] tmp1 = new StoredIntVector[newCapacity];
@@ -146,6 +157,7 @@ public class StoredIntVectorTrail implements IStorage {
     }
 
     public void resizeWorldCapacity(int newWorldCapacity) {
+        resizes++;
         final int[] tmp = new int[newWorldCapacity];
         System.arraycopy(worldStartLevels, 0, tmp, 0, worldStartLevels.length);
         worldStartLevels = tmp;
@@ -172,6 +184,9 @@ public class StoredIntVectorTrail implements IStorage {
      */
 
     public void worldPop(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         final int wsl = worldStartLevels[worldIndex];
         while (currentLevel > wsl) {
             currentLevel--;
@@ -186,6 +201,9 @@ public class StoredIntVectorTrail implements IStorage {
      */
 
     public void worldCommit(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         // principle:
         //   currentLevel decreases to end of previous world
         //   updates of the committed world are scanned:
@@ -219,7 +237,27 @@ public class StoredIntVectorTrail implements IStorage {
      * Returns the current size of the stack.
      */
 
+    @Override
     public int getSize() {
         return currentLevel;
     }
+
+    @Override
+    public int getPeakSize() {
+        return Math.max(peak, currentLevel);
+    }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, an int index, an int value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 16;
+    }
+
+    @Override
+    public int getResizeCount() {
+        return resizes;
+    }
 }
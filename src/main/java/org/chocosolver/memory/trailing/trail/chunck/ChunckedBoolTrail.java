@@ -77,6 +77,7 @@ public class ChunckedBoolTrail extends ChunckedTrail<BoolWorld> implements IStor
     }
 
     private void resizeWorlds() {
+        resizes++;
         int newCapacity = (int) (worlds.length * loadfactor);
         BoolWorld[] tmp = new BoolWorld[newCapacity];
         System.arraycopy(worlds, 0, tmp, 0, worlds.length);
@@ -85,6 +86,7 @@ public class ChunckedBoolTrail extends ChunckedTrail<BoolWorld> implements IStor
 
     @Override
     public void savePreviousState(StoredBool v, boolean oldValue, int oldStamp) {
+        size++;
         current.savePreviousState(v, oldValue, oldStamp);
     }
 
@@ -93,7 +95,17 @@ public class ChunckedBoolTrail extends ChunckedTrail<BoolWorld> implements IStor
         // rewrite older states
         for (int w = olderStamp; w > 0; w--) {
             BoolWorld cur = worlds[w];
+            size++;
             cur.savePreviousState(v, initValue, w - 1);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, a boolean value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 9;
+    }
 }
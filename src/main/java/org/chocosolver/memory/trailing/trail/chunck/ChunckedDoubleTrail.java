@@ -77,6 +77,7 @@ public class ChunckedDoubleTrail extends ChunckedTrail<DoubleWorld> implements I
     }
 
     private void resizeWorlds() {
+        resizes++;
         int newCapacity = (int) (worlds.length * loadfactor);
         DoubleWorld[] tmp = new DoubleWorld[newCapacity];
         System.arraycopy(worlds, 0, tmp, 0, worlds.length);
@@ -85,6 +86,7 @@ public class ChunckedDoubleTrail extends ChunckedTrail<DoubleWorld> implements I
 
     @Override
     public void savePreviousState(StoredDouble v, double oldValue, int oldStamp) {
+        size++;
         current.savePreviousState(v, oldValue, oldStamp);
     }
 
@@ -93,7 +95,17 @@ public class ChunckedDoubleTrail extends ChunckedTrail<DoubleWorld> implements I
         // rewrite older states
         for (int w = olderStamp; w > 0; w--) {
             DoubleWorld cur = worlds[w];
+            size++;
             cur.savePreviousState(v, initValue, w - 1);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, a double value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 16;
+    }
 }
@@ -77,6 +77,7 @@ public class ChunckedIntTrail extends ChunckedTrail<IntWorld> implements IStored
     }
 
     private void resizeWorlds() {
+        resizes++;
         int newCapacity = (int) (worlds.length * loadfactor);
         IntWorld[] tmp = new IntWorld[newCapacity];
         System.arraycopy(worlds, 0, tmp, 0, worlds.length);
@@ -85,6 +86,7 @@ public class ChunckedIntTrail extends ChunckedTrail<IntWorld> implements IStored
 
     @Override
     public void savePreviousState(StoredInt v, int oldValue, int oldStamp) {
+        size++;
         current.savePreviousState(v, oldValue, oldStamp);
     }
 
@@ -93,7 +95,17 @@ public class ChunckedIntTrail extends ChunckedTrail<IntWorld> implements IStored
         // rewrite older states
         for (int w = olderStamp; w > 0; w--) {
             IntWorld cur = worlds[w];
+            size++;
             cur.savePreviousState(v, initValue, w - 1);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, an int value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 12;
+    }
 }
@@ -77,6 +77,7 @@ public class ChunckedLongTrail extends ChunckedTrail<LongWorld> implements IStor
     }
 
     private void resizeWorlds() {
+        resizes++;
         int newCapacity = (int) (worlds.length * loadfactor);
         LongWorld[] tmp = new LongWorld[newCapacity];
         System.arraycopy(worlds, 0, tmp, 0, worlds.length);
@@ -85,6 +86,7 @@ public class ChunckedLongTrail extends ChunckedTrail<LongWorld> implements IStor
 
     @Override
     public void savePreviousState(StoredLong v, long oldValue, int oldStamp) {
+        size++;
         current.savePreviousState(v, oldValue, oldStamp);
     }
 
@@ -93,7 +95,17 @@ public class ChunckedLongTrail extends ChunckedTrail<LongWorld> implements IStor
         // rewrite older states
         for (int w = olderStamp; w > 0; w--) {
             LongWorld cur = worlds[w];
+            size++;
             cur.savePreviousState(v, initValue, w - 1);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, a long value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 16;
+    }
 }
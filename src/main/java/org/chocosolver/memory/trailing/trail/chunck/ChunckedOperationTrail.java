@@ -75,6 +75,7 @@ public class ChunckedOperationTrail extends ChunckedTrail<OperationWorld> implem
     }
 
     private void resizeWorlds() {
+        resizes++;
         int newCapacity = (int) (worlds.length * loadfactor);
         OperationWorld[] tmp = new OperationWorld[newCapacity];
         System.arraycopy(worlds, 0, tmp, 0, worlds.length);
@@ -83,6 +84,16 @@ public class ChunckedOperationTrail extends ChunckedTrail<OperationWorld> implem
 
     @Override
     public void savePreviousState(IOperation oldValue) {
+        size++;
         current.savePreviousState(oldValue);
     }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference to the operation.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 4;
+    }
 }
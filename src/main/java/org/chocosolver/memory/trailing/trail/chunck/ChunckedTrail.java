@@ -49,6 +49,21 @@ public abstract class ChunckedTrail<W extends World> implements IStorage{
      */
     protected W current;
 
+    /**
+     * Number of entries currently stored, over all the worlds.
+     */
+    protected int size;
+
+    /**
+     * Largest number of entries stored at once.
+     */
+    private int peak;
+
+    /**
+     * Number of times the array of worlds has been enlarged.
+     */
+    protected int resizes;
+
 
     /**
      * Moving down to the previous world.
@@ -57,6 +72,10 @@ public abstract class ChunckedTrail<W extends World> implements IStorage{
      */
     @Override
     public void worldPop(int worldIndex) {
+        if (size > peak) {
+            peak = size;
+        }
+        size -= current.used();
         current.revert();
         if (worldIndex > 0) {
             current = worlds[worldIndex - 1];
@@ -85,4 +104,25 @@ public abstract class ChunckedTrail<W extends World> implements IStorage{
         return n;
     }
 
-}
\ No newline at end of file
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getPeakSize() {
+        return Math.max(peak, size);
+    }
+
+    @Override
+    public int getResizeCount() {
+        int n = resizes;
+        for (World w : worlds) {
+            if (w != null) {
+                n += w.resized();
+            }
+        }
+        return n;
+    }
+
+}
@@ -64,6 +64,11 @@ public class IntWorld implements World{
 
     private double loadfactor;
 
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
     /**
      * Make a new world.
      *
@@ -102,6 +107,7 @@ public class IntWorld implements World{
     }
 
     private void resizeUpdateCapacity() {
+        resizes++;
         int newCapacity = (int)(variableStack.length * loadfactor);
         final StoredInt[] tmp1 = new StoredInt[newCapacity];
         System.arraycopy(variableStack, 0, tmp1, 0, variableStack.length);
@@ -128,4 +134,9 @@ public class IntWorld implements World{
     public int allocated() {
         return stampStack == null ? 0 : stampStack.length;
     }
+
+    @Override
+    public int resized() {
+        return resizes;
+    }
 }
@@ -49,6 +49,11 @@ public class OperationWorld implements World{
 
     private double loadfactor;
 
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
     public OperationWorld(int defaultSize, double loadfactor) {
         now = 0;
         this.loadfactor = loadfactor;
@@ -77,6 +82,7 @@ public class OperationWorld implements World{
     }
 
     private void resizeUpdateCapacity() {
+        resizes++;
         final int newCapacity = (int)(variableStack.length * loadfactor);
         final IOperation[] tmp1 = new IOperation[newCapacity];
         System.arraycopy(variableStack, 0, tmp1, 0, variableStack.length);
@@ -96,4 +102,9 @@ public class OperationWorld implements World{
     public int used() {
         return now;
     }
+
+    @Override
+    public int resized() {
+        return resizes;
+    }
 }
@@ -60,4 +60,11 @@ public interface World {
      * @return a positive number
      */
     int allocated();
-}
\ No newline at end of file
+
+    /**
+     * The number of times the stacks of this world have been enlarged.
+     *
+     * @return a positive number
+     */
+    int resized();
+}
@@ -61,6 +61,16 @@ public class OperationTrail implements IOperationTrail {
      */
     private int[] worldStartLevels;
 
+    /**
+     * Largest level reached so far.
+     */
+    private int peak;
+
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
     /**
      * Constructs a trail with predefined size.
      *
@@ -95,6 +105,9 @@ public class OperationTrail implements IOperationTrail {
      * @param worldIndex current world index
      */
     public void worldPop(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         final int wsl = worldStartLevels[worldIndex];
         while (currentLevel > wsl) {
             currentLevel--;
@@ -106,10 +119,30 @@ public class OperationTrail implements IOperationTrail {
     /**
      * Returns the current size of the stack.
      */
+    @Override
     public int getSize() {
         return currentLevel;
     }
 
+    @Override
+    public int getPeakSize() {
+        return Math.max(peak, currentLevel);
+    }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference to the operation.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 4;
+    }
+
+    @Override
+    public int getResizeCount() {
+        return resizes;
+    }
+
 
     /**
      * Comits a world: merging it with the previous one.
@@ -130,6 +163,7 @@ public class OperationTrail implements IOperationTrail {
     }
 
     private void resizeUpdateCapacity() {
+        resizes++;
         final int newCapacity = (int) (valueStack.length * loadfactor);
         // First, copy the stack of former values
         final IOperation[] tmp2 = new IOperation[newCapacity];
@@ -138,6 +172,7 @@ public class OperationTrail implements IOperationTrail {
     }
 
     private void resizeWorldCapacity(int newWorldCapacity) {
+        resizes++;
         final int[] tmp = new int[newWorldCapacity];
         System.arraycopy(worldStartLevels, 0, tmp, 0, worldStartLevels.length);
         worldStartLevels = tmp;
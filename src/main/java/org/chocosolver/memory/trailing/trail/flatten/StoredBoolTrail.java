@@ -70,6 +70,16 @@ public class StoredBoolTrail implements IStoredBoolTrail {
      */
     private int[] worldStartLevels;
 
+    /**
+     * Largest level reached so far.
+     */
+    private int peak;
+
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
 
     /**
      * Constructs a trail with predefined size.
@@ -109,6 +119,9 @@ public class StoredBoolTrail implements IStoredBoolTrail {
      */
     @Override
     public void worldPop(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         final int wsl = worldStartLevels[worldIndex];
         while (currentLevel > wsl) {
             currentLevel--;
@@ -121,16 +134,39 @@ public class StoredBoolTrail implements IStoredBoolTrail {
     /**
      * Returns the current size of the stack.
      */
+    @Override
     public int getSize() {
         return currentLevel;
     }
 
+    @Override
+    public int getPeakSize() {
+        return Math.max(peak, currentLevel);
+    }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference, a boolean value and an int stamp.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 9;
+    }
+
+    @Override
+    public int getResizeCount() {
+        return resizes;
+    }
+
 
     /**
      * Comits a world: merging it with the previous one.
      */
     @Override
     public void worldCommit(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
         // principle:
         //   currentLevel decreases to end of previous world
         //   updates of the committed world are scanned:
@@ -202,6 +238,7 @@ public class StoredBoolTrail implements IStoredBoolTrail {
 
 
     private void resizeUpdateCapacity() {
+        resizes++;
         final int newCapacity = (int) (variableStack.length * loadfactor);
         // first, copy the stack of variables
         final StoredBool[] tmp1 = new StoredBool[newCapacity];
@@ -218,6 +255,7 @@ public class StoredBoolTrail implements IStoredBoolTrail {
     }
 
     private void resizeWorldCapacity(int newWorldCapacity) {
+        resizes++;
         final int[] tmp = new int[newWorldCapacity];
         System.arraycopy(worldStartLevels, 0, tmp, 0, worldStartLevels.length);
         worldStartLevels = tmp;
@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.memory.trailing.trail.flatten;
+
+import org.chocosolver.memory.structure.IOperation;
+import org.chocosolver.memory.trailing.StoredBool;
+import org.chocosolver.memory.trailing.StoredDouble;
+import org.chocosolver.memory.trailing.StoredInt;
+import org.chocosolver.memory.trailing.StoredLong;
+import org.chocosolver.memory.trailing.trail.*;
+
+/**
+ * A trail which stores the former states of ints, bools, longs, doubles and operations in a single stack,
+ * instead of one stack per type.
+ * <p>
+ * Each entry is made of two consecutive <code>long</code>s in {@link #entries}:
+ * the former value (as raw bits) and the former time stamp combined with the type of the entry.
+ * The object to restore is stored at the same level in {@link #objects}.
+ * Thus, a world is popped in a single pass over contiguous arrays, whatever the types of the modified data,
+ * and there is only one world stack to maintain.
+ * <p>
+ * The same instance is expected to be declared as the int, bool, long, double and operation trail of an
+ * {@link org.chocosolver.memory.trailing.EnvironmentTrailing}, see
+ * {@link org.chocosolver.memory.EnvironmentBuilder#fromUnified()}.
+ * Entries of int and double vectors, which also need the index of the modified cell, are not stored here:
+ * they remain in the vector trails of the environment.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class UnifiedTrail implements IStoredIntTrail, IStoredBoolTrail, IStoredLongTrail, IStoredDoubleTrail, IOperationTrail {
+
+    private static final int INT = 0;
+    private static final int BOOL = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int OPERATION = 4;
+    private static final long TYPE = 0x7;
+
+    /**
+     * Load factor
+     */
+    private final double loadfactor;
+
+    /**
+     * Stack of objects to restore.
+     */
+    private Object[] objects;
+
+    /**
+     * Stack of entries, two per level: the former value, then the former time stamp (high bits) and the type (low bits).
+     */
+    private long[] entries;
+
+    /**
+     * Points the level of the last entry.
+     */
+    private int currentLevel;
+
+    /**
+     * A stack of pointers (for each start of a world).
+     */
+    private int[] worldStartLevels;
+
+    /**
+     * Largest level reached so far.
+     */
+    private int peak;
+
+    /**
+     * Number of times the stacks have been enlarged.
+     */
+    private int resizes;
+
+    /**
+     * Constructs a trail with predefined size.
+     *
+     * @param nUpdates maximal number of updates that will be stored
+     * @param nWorlds  maximal number of worlds that will be stored
+     * @param loadfactor load factor for structures
+     */
+    public UnifiedTrail(int nUpdates, int nWorlds, double loadfactor) {
+        currentLevel = 0;
+        objects = new Object[nUpdates];
+        entries = new long[nUpdates << 1];
+        worldStartLevels = new int[nWorlds];
+        this.loadfactor = loadfactor;
+    }
+
+    /**
+     * Moving up to the next world.
+     *
+     * @param worldIndex current world index
+     */
+    @Override
+    public void worldPush(int worldIndex) {
+        worldStartLevels[worldIndex] = currentLevel;
+        if (worldIndex == worldStartLevels.length - 1) {
+            resizeWorldCapacity((int) (worldStartLevels.length * loadfactor));
+        }
+    }
+
+    /**
+     * Moving down to the previous world.
+     *
+     * @param worldIndex current world index
+     */
+    @Override
+    public void worldPop(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
+        final int wsl = worldStartLevels[worldIndex];
+        while (currentLevel > wsl) {
+            currentLevel--;
+            final int e = currentLevel << 1;
+            final long value = entries[e];
+            final long meta = entries[e + 1];
+            final int stamp = (int) (meta >> 32);
+            switch ((int) (meta & TYPE)) {
+                case INT:
+                    ((StoredInt) objects[currentLevel])._set((int) value, stamp);
+                    break;
+                case BOOL:
+                    ((StoredBool) objects[currentLevel])._set(value != 0, stamp);
+                    break;
+                case LONG:
+                    ((StoredLong) objects[currentLevel])._set(value, stamp);
+                    break;
+                case DOUBLE:
+                    ((StoredDouble) objects[currentLevel])._set(Double.longBitsToDouble(value), stamp);
+                    break;
+                default:
+                    ((IOperation) objects[currentLevel]).undo();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns the current size of the stack.
+     */
+    @Override
+    public int getSize() {
+        return currentLevel;
+    }
+
+    @Override
+    public int getPeakSize() {
+        return Math.max(peak, currentLevel);
+    }
+
+    /**
+     * {@inheritDoc}
+     * An entry is made of a reference and two longs.
+     */
+    @Override
+    public int getEntryBytes() {
+        return 20;
+    }
+
+    @Override
+    public int getResizeCount() {
+        return resizes;
+    }
+
+    /**
+     * Comits a world: merging it with the previous one.
+     */
+    @Override
+    public void worldCommit(int worldIndex) {
+        if (currentLevel > peak) {
+            peak = currentLevel;
+        }
+        // see StoredIntTrail#worldCommit(int), operations are always kept
+        final int startLevel = worldStartLevels[worldIndex];
+        final int prevWorld = worldIndex - 1;
+        int writeIdx = startLevel;
+        for (int level = startLevel; level < currentLevel; level++) {
+            final Object o = objects[level];
+            final long meta = entries[(level << 1) + 1];
+            final int type = (int) (meta & TYPE);
+            boolean keep = true;
+            if (type != OPERATION) {
+                overrideTimeStamp(o, type, prevWorld);
+                keep = (int) (meta >> 32) != prevWorld;
+            }
+            if (keep) {
+                if (writeIdx != level) {
+                    objects[writeIdx] = o;
+                    entries[writeIdx << 1] = entries[level << 1];
+                    entries[(writeIdx << 1) + 1] = meta;
+                }
+                writeIdx++;
+            }
+        }
+        currentLevel = writeIdx;
+    }
+
+    private static void overrideTimeStamp(Object o, int type, int stamp) {
+        switch (type) {
+            case INT:
+                ((StoredInt) o).overrideTimeStamp(stamp);
+                break;
+            case BOOL:
+                ((StoredBool) o).overrideTimeStamp(stamp);
+                break;
+            case LONG:
+                ((StoredLong) o).overrideTimeStamp(stamp);
+                break;
+            case DOUBLE:
+                ((StoredDouble) o).overrideTimeStamp(stamp);
+                break;
+        }
+    }
+
+    private void push(Object o, long value, int stamp, int type) {
+        objects[currentLevel] = o;
+        final int e = currentLevel << 1;
+        entries[e] = value;
+        entries[e + 1] = ((long) stamp << 32) | type;
+        currentLevel++;
+        if (currentLevel == objects.length) {
+            resizeUpdateCapacity();
+        }
+    }
+
+    @Override
+    public void savePreviousState(StoredInt v, int oldValue, int oldStamp) {
+        push(v, oldValue, oldStamp, INT);
+    }
+
+    @Override
+    public void savePreviousState(StoredBool v, boolean oldValue, int oldStamp) {
+        push(v, oldValue ? 1 : 0, oldStamp, BOOL);
+    }
+
+    @Override
+    public void savePreviousState(StoredLong v, long oldValue, int oldStamp) {
+        push(v, oldValue, oldStamp, LONG);
+    }
+
+    @Override
+    public void savePreviousState(StoredDouble v, double oldValue, int oldStamp) {
+        push(v, Double.doubleToRawLongBits(oldValue), oldStamp, DOUBLE);
+    }
+
+    @Override
+    public void savePreviousState(IOperation oldValue) {
+        push(oldValue, 0, 0, OPERATION);
+    }
+
+    @Override
+    public void buildFakeHistory(StoredInt v, int initValue, int fromStamp) {
+        buildFakeHistory(v, initValue, fromStamp, INT);
+    }
+
+    @Override
+    public void buildFakeHistory(StoredBool v, boolean initValue, int fromStamp) {
+        buildFakeHistory(v, initValue ? 1 : 0, fromStamp, BOOL);
+    }
+
+    @Override
+    public void buildFakeHistory(StoredLong v, long initValue, int fromStamp) {
+        buildFakeHistory(v, initValue, fromStamp, LONG);
+    }
+
+    @Override
+    public void buildFakeHistory(StoredDouble v, double initValue, int fromStamp) {
+        buildFakeHistory(v, Double.doubleToRawLongBits(initValue), fromStamp, DOUBLE);
+    }
+
+    /**
+     * See {@link StoredIntTrail#buildFakeHistory(StoredInt, int, int)}
+     */
+    private void buildFakeHistory(Object v, long initValue, int olderStamp, int type) {
+        // from world 0 to fromStamp (excluded), create a fake history based on initValue
+        // first save the current state on the top of the stack
+        push(v, initValue, olderStamp - 1, type);
+        // second: ensures capacities
+        while (currentLevel + olderStamp > objects.length) {
+            resizeUpdateCapacity();
+        }
+        int i1, f, s = currentLevel;
+        for (int w = olderStamp; w > 1; w--) {
+            f = worldStartLevels[w];
+            i1 = f + w - 1;
+            s -= f;
+            System.arraycopy(objects, f, objects, i1, s);
+            System.arraycopy(entries, f << 1, entries, i1 << 1, s << 1);
+            objects[i1 - 1] = v;
+            entries[(i1 - 1) << 1] = initValue;
+            entries[((i1 - 1) << 1) + 1] = ((long) (w - 2) << 32) | type;
+            worldStartLevels[w] += w - 1;
+            currentLevel++;
+            s = f;
+        }
+    }
+
+    private void resizeUpdateCapacity() {
+        resizes++;
+        final int newCapacity = (int) (objects.length * loadfactor);
+        final Object[] tmp1 = new Object[newCapacity];
+        System.arraycopy(objects, 0, tmp1, 0, objects.length);
+        objects = tmp1;
+        final long[] tmp2 = new long[newCapacity << 1];
+        System.arraycopy(entries, 0, tmp2, 0, entries.length);
+        entries = tmp2;
+    }
+
+    private void resizeWorldCapacity(int newWorldCapacity) {
+        resizes++;
+        final int[] tmp = new int[newWorldCapacity];
+        System.arraycopy(worldStartLevels, 0, tmp, 0, worldStartLevels.length);
+        worldStartLevels = tmp;
+    }
+}
@@ -30,6 +30,7 @@
 package org.chocosolver.sat;
 
 import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TDoubleArrayList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.map.hash.TLongIntHashMap;
@@ -38,20 +39,29 @@ import org.chocosolver.solver.Model;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.explanations.RuleStore;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.solver.variables.events.IEventType;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.sort.ArraySort;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.chocosolver.sat.SatSolver.*;
 
 
 /**
  * A propagator to store and propagate no-goods.
+ * <p>
+ * Learnt clauses are ranked by their literal block distance (LBD), that is the number of distinct decision levels
+ * among their literals, and by their activity, bumped each time a learnt clause takes part in an explanation.
+ * By default, the learnt clause database is unbounded.
+ * Once limited with {@link #setLearntLimits(int, int, long)}, the worst half of the learnt clauses is forgotten
+ * each time the database is full.
  *
  * Created by cprudhom on 20/01/15.
  * Project: choco.
@@ -69,6 +79,22 @@ public class PropNogoods extends Propagator<IntVar> {
      * The 32^th bit is set to 0 for "= value" and to 1 for "<= value".
      */
     private static final long BITOP = 1L << 32L;
+
+    /**
+     * Learnt clauses with a literal block distance less than or equal to this value are never forgotten
+     * when the learnt clause database is halved.
+     */
+    private static final int GLUE = 2;
+
+    /**
+     * Decay factor of the activity of the learnt clauses
+     */
+    private static final double CLAUSE_DECAY = .999;
+
+    /**
+     * Activity limit beyond which activities are rescaled
+     */
+    private static final double MAX_ACTIVITY = 1e100;
     /**
      * The underlying SAT solver
      */
@@ -132,6 +158,67 @@ public class PropNogoods extends Propagator<IntVar> {
      */
     private boolean initialized = false;
 
+    /**
+     * Informed of each clause learnt, may be <tt>null</tt>
+     */
+    private Consumer<int[]> learntObserver;
+
+    /**
+     * Literal block distance of each learnt clause, in the same order as the learnt clauses of {@link #sat_}
+     */
+    private TIntArrayList lbds;
+
+    /**
+     * Activity of each learnt clause, in the same order as the learnt clauses of {@link #sat_}
+     */
+    private TDoubleArrayList activities;
+
+    /**
+     * Amount to bump the activity of a learnt clause with
+     */
+    private double clauseInc = 1d;
+
+    /**
+     * Number of learnt clauses which triggers the next reduction of the learnt clause database
+     */
+    private int nextReduction = Integer.MAX_VALUE;
+
+    /**
+     * Increment of {@link #nextReduction} after each reduction
+     */
+    private int reductionInc;
+
+    /**
+     * Maximum number of literals stored in learnt clauses
+     */
+    private long maxLearntLiterals = Long.MAX_VALUE;
+
+    /**
+     * Number of literals currently stored in learnt clauses
+     */
+    private long learntLiterals;
+
+    /**
+     * Binds clause variable to the index of the world where it has been valued last, -1 if unknown.
+     * This approximates the decision level of the clause variable.
+     */
+    private int[] levels;
+
+    /**
+     * Local-like parameter, to compute literal block distances.
+     */
+    private BitSet test_lvl;
+
+    /**
+     * Number of reductions of the learnt clause database
+     */
+    private long nbReductions;
+
+    /**
+     * Number of learnt clauses forgotten on reductions
+     */
+    private long nbForgotten;
+
     /**
      * Create a (unique) propagator for no-goods recording and propagation.
      *
@@ -149,6 +236,8 @@ public class PropNogoods extends Propagator<IntVar> {
         Arrays.fill(lit2pos, NO_ENTRY);
         this.var2pos = new int[k];//new TIntIntHashMap(16, .5f, NO_ENTRY, NO_ENTRY);
         Arrays.fill(var2pos, NO_ENTRY);
+        this.levels = new int[k];
+        Arrays.fill(levels, -1);
         //TODO: one satsolver per model...
         sat_ = new SatSolver();
         early_deductions_ = new TIntArrayList();
@@ -156,6 +245,9 @@ public class PropNogoods extends Propagator<IntVar> {
         test_eq = new BitSet();
         fp = new ArrayDeque<>();
         add_var = new ArrayList<>(16);
+        lbds = new TIntArrayList();
+        activities = new TDoubleArrayList();
+        test_lvl = new BitSet();
     }
 
     @Override
@@ -389,6 +481,11 @@ public class PropNogoods extends Propagator<IntVar> {
                 lit2val = new long[var + 1];
                 System.arraycopy(ltmp, 0, lit2val, 0, ltmp.length);
                 Arrays.fill(lit2val, ltmp.length, var + 1, NO_ENTRY);
+
+                itmp = levels;
+                levels = new int[var + 1];
+                System.arraycopy(itmp, 0, levels, 0, itmp.length);
+                Arrays.fill(levels, itmp.length, var + 1, -1);
             }
 
 
@@ -412,6 +509,10 @@ public class PropNogoods extends Propagator<IntVar> {
                 assert (sat_trail_.get() == sat_.trailMarker());
             }
             int lit = makeLiteral(index, sign);
+            int world = model.getEnvironment().getWorldIndex();
+            if (sat_.valueLit(lit) == SatSolver.Boolean.kUndefined) {
+                levels[index] = world;
+            }
             if (!sat_.propagateOneLiteral(lit)) {
                 // force failure by removing the last value: flip the sign
                 // explanations require doing the failure
@@ -420,6 +521,7 @@ public class PropNogoods extends Propagator<IntVar> {
                 sat_trail_.set(sat_.trailMarker());
                 for (int i = 0; i < sat_.touched_variables_.size(); ++i) {
                     lit = sat_.touched_variables_.get(i);
+                    levels[var(lit)] = world;
                     doReduce(lit);
                 }
             }
@@ -548,10 +650,33 @@ public class PropNogoods extends Propagator<IntVar> {
      * @param lits clause
      */
     public void addLearnt(int... lits) {
+        if (learntObserver != null) {
+            learntObserver.accept(lits);
+        }
+        addLearntSilently(lits);
+    }
+
+    /**
+     * Add learnt clause to no-goods store, without informing the learnt clause observer, if any.
+     * This is typically used to import a clause learnt by another model.
+     *
+     * @param lits clause
+     */
+    public void addLearntSilently(int... lits) {
+        int n = sat_.nLearnt();
         sat_.learnClause(lits);
         // early deductions of learnt clause may lead to incorrect behavior on backtrack
         // since early deduction is not backtrackable.
         forcePropagationOnBacktrack(); // issue#327
+        if (sat_.nLearnt() > n) { // unit clauses are not stored
+            lbds.add(lbd(sat_.learnts.get(n)));
+            activities.add(clauseInc);
+            learntLiterals += lits.length;
+        }
+        clauseInc /= CLAUSE_DECAY;
+        if (clauseInc > MAX_ACTIVITY) {
+            rescaleActivities();
+        }
         // compare the current clauses with the previous stored one,
         // just in case the current one dominates the previous none
         if (sat_.nLearnt() > 1) {
@@ -568,11 +693,234 @@ public class PropNogoods extends Propagator<IntVar> {
                         s -= test_eq.get(prev._g(i)) ? 1 : 0;
                     }
                     if (s == 0) { // then last dominates prev
-                        sat_.detachLearnt(c);
+                        forgetLearnt(c);
                     }
                 }
             }
         }
+        if (initialized && (sat_.nLearnt() >= nextReduction || learntLiterals > maxLearntLiterals)) {
+            reduceLearnts();
+        }
+    }
+
+    /**
+     * Bounds the learnt clause database.
+     * The database is reduced as soon as it stores <i>firstReduction</i> learnt clauses,
+     * then each time <i>reductionInc</i> more clauses are stored, or as soon as it stores more than
+     * <i>maxLiterals</i> literals.
+     * On reduction, learnt clauses are ranked by decreasing literal block distance then by increasing activity,
+     * and the worst half of them is forgotten, except glue clauses (with a literal block distance of at most 2).
+     * More clauses, glue ones included, are forgotten while the number of literals exceeds <i>maxLiterals</i>.
+     * Learnt clauses which may explain the current domains, that is whose literals are all valued, are always kept.
+     *
+     * @param firstReduction number of learnt clauses which triggers the first reduction
+     * @param reductionInc   increment of that number after each reduction
+     * @param maxLiterals    maximum number of literals stored in learnt clauses
+     */
+    public void setLearntLimits(int firstReduction, int reductionInc, long maxLiterals) {
+        if (firstReduction < 1 || reductionInc < 0 || maxLiterals < 1) {
+            throw new SolverException("Invalid learnt clause database limits: " + firstReduction + ", "
+                    + reductionInc + ", " + maxLiterals);
+        }
+        this.nextReduction = firstReduction;
+        this.reductionInc = reductionInc;
+        this.maxLearntLiterals = maxLiterals;
+    }
+
+    /**
+     * Forgets the worst learnt clauses, as described in {@link #setLearntLimits(int, int, long)}.
+     */
+    private void reduceLearnts() {
+        int n = sat_.nLearnt();
+        boolean full = n >= nextReduction;
+        int[] order = new int[n];
+        int m = 0, glue = 0;
+        for (int c = 0; c < n; c++) {
+            if (!isLocked(sat_.learnts.get(c))) {
+                order[m++] = c;
+                if (lbds.getQuick(c) <= GLUE) glue++;
+            }
+        }
+        // worst clauses first: larger LBD, then lower activity
+        new ArraySort<>(m, false, true).sort(order, m, (c1, c2) -> {
+            int d = Integer.compare(lbds.getQuick(c2), lbds.getQuick(c1));
+            return d != 0 ? d : Double.compare(activities.getQuick(c1), activities.getQuick(c2));
+        });
+        int half = (m - glue) / 2;
+        long literals = learntLiterals;
+        BitSet forget = new BitSet(n);
+        for (int i = 0; i < m && (i < half || literals > maxLearntLiterals); i++) {
+            forget.set(order[i]);
+            literals -= sat_.learnts.get(order[i]).size();
+        }
+        for (int c = forget.previousSetBit(n - 1); c >= 0; c = forget.previousSetBit(c - 1)) {
+            forgetLearnt(c);
+            nbForgotten++;
+        }
+        nbReductions++;
+        if (full) {
+            nextReduction = Math.max(nextReduction + reductionInc, sat_.nLearnt() + 1);
+        }
+    }
+
+    /**
+     * Removes the <i>c</i>^th learnt clause, and its data.
+     *
+     * @param c index of a learnt clause
+     */
+    private void forgetLearnt(int c) {
+        learntLiterals -= sat_.learnts.get(c).size();
+        sat_.detachLearnt(c);
+        lbds.removeAt(c);
+        activities.removeAt(c);
+    }
+
+    /**
+     * A learnt clause whose literals are all valued may be the reason of a domain reduction
+     * in the current branch, and thus may be required to explain it.
+     *
+     * @param cl a learnt clause
+     * @return <tt>true</tt> if all the literals of <i>cl</i> are valued wrt the current domains
+     */
+    private boolean isLocked(SatSolver.Clause cl) {
+        for (int i = cl.size() - 1; i >= 0; i--) {
+            if (!litIsKnown(cl._g(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param cl a clause
+     * @return the number of distinct levels among the literals of <i>cl</i>,
+     * literals whose level is unknown count for one each
+     */
+    private int lbd(SatSolver.Clause cl) {
+        test_lvl.clear();
+        int unknown = 0;
+        for (int i = cl.size() - 1; i >= 0; i--) {
+            int l = levels[var(cl._g(i))];
+            if (l < 0) {
+                unknown++;
+            } else {
+                test_lvl.set(l);
+            }
+        }
+        return test_lvl.cardinality() + unknown;
+    }
+
+    /**
+     * Bumps the activity of the <i>k</i>^th learnt clause and updates its literal block distance.
+     *
+     * @param k  index of a learnt clause
+     * @param cl the learnt clause
+     */
+    private void bumpLearnt(int k, SatSolver.Clause cl) {
+        activities.setQuick(k, activities.getQuick(k) + clauseInc);
+        if (activities.getQuick(k) > MAX_ACTIVITY) {
+            rescaleActivities();
+        }
+        int l = lbd(cl);
+        if (l < lbds.getQuick(k)) {
+            lbds.setQuick(k, l);
+        }
+    }
+
+    private void rescaleActivities() {
+        for (int k = activities.size() - 1; k >= 0; k--) {
+            activities.setQuick(k, activities.getQuick(k) / MAX_ACTIVITY);
+        }
+        clauseInc /= MAX_ACTIVITY;
+    }
+
+    /**
+     * @return the number of learnt clauses currently stored
+     */
+    public int getNbLearnts() {
+        return sat_.nLearnt();
+    }
+
+    /**
+     * @return the number of literals currently stored in learnt clauses
+     */
+    public long getNbLearntLiterals() {
+        return learntLiterals;
+    }
+
+    /**
+     * @return the number of reductions of the learnt clause database
+     */
+    public long getNbReductions() {
+        return nbReductions;
+    }
+
+    /**
+     * @return the number of learnt clauses forgotten on reductions
+     */
+    public long getNbForgottenLearnts() {
+        return nbForgotten;
+    }
+
+    /**
+     * @param k index of a learnt clause, between 0 and {@link #getNbLearnts()} (excluded)
+     * @return the literal block distance of the <i>k</i>^th learnt clause
+     */
+    public int getLearntLBD(int k) {
+        return lbds.get(k);
+    }
+
+    /**
+     * Declares an observer to inform each time a clause is learnt with {@link #addLearnt(int...)}.
+     * The clause given to the observer must not be modified.
+     * Literals of the clause can be decoded with {@link #getVariable(int)}, {@link #getValue(int)},
+     * {@link #isEqualityLiteral(int)} and {@link #isPositive(int)}.
+     *
+     * @param observer a learnt clause observer, or <tt>null</tt> to remove the current one
+     */
+    public void setLearntObserver(Consumer<int[]> observer) {
+        this.learntObserver = observer;
+    }
+
+    /**
+     * @return the current learnt clause observer, or <tt>null</tt> if none
+     */
+    public Consumer<int[]> getLearntObserver() {
+        return learntObserver;
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return the variable the literal refers to
+     */
+    public IntVar getVariable(int lit) {
+        int pos = lit2pos[var(lit)];
+        return initialized ? vars[pos] : add_var.get(pos);
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return the value the literal refers to
+     */
+    public int getValue(int lit) {
+        return ivalue(lit2val[var(lit)]);
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return <tt>true</tt> if the literal encodes "=", <tt>false</tt> if it encodes "&le;"
+     */
+    public boolean isEqualityLiteral(int lit) {
+        return iseq(lit2val[var(lit)]);
+    }
+
+    /**
+     * @param lit a literal created with {@link #Literal(IntVar, int, boolean)}, or its negation
+     * @return <tt>true</tt> if the literal is the one created with {@link #Literal(IntVar, int, boolean)},
+     * <tt>false</tt> if it is its negation
+     */
+    public boolean isPositive(int lit) {
+        return sign(lit);
     }
 
     private void storeEarlyDeductions() {
@@ -653,7 +1001,13 @@ public class PropNogoods extends Propagator<IntVar> {
         // we cannot rely on watches_ because is not backtrackable
         // So, we iterate over clauses where the two first literal are valued AND which contains bvar
         for (int k = sat_.nLearnt() - 1; k >= 0; k--) {
-            newrules |= _why(neg, lit, sat_.learnts.get(k), ruleStore);
+            SatSolver.Clause cl = sat_.learnts.get(k);
+            if (explains(neg, lit, cl)) {
+                bumpLearnt(k, cl);
+                for (int d = cl.size() - 1; d >= 0; d--) {
+                    newrules |= _why(cl._g(d), ruleStore);
+                }
+            }
         }
         return newrules;
     }
@@ -685,26 +1039,13 @@ public class PropNogoods extends Propagator<IntVar> {
         return newrules;
     }
 
-    private boolean _why(int neg, int lit, SatSolver.Clause cl, RuleStore ruleStore) {
-        boolean newrules = false;
+    private boolean explains(int neg, int lit, SatSolver.Clause cl) {
         // if the variable watches
         if (cl._g(0) == neg || cl._g(0) == lit || cl._g(1) == neg || cl._g(1) == lit) {
-            for (int d = cl.size() - 1; d >= 0; d--) {
-                newrules |= _why(cl._g(d), ruleStore);
-            }
-        } else
-            // if the watched literals are instantiated
-            if (litIsKnown(cl._g(0)) && litIsKnown(cl._g(1))) {
-                // then, look for the lit
-                int p = cl.pos(neg);
-                int q = cl.pos(lit);
-                if (p > -1 || q > -1) { // we found a clause where neg is in
-                    for (int d = cl.size() - 1; d >= 0; d--) {
-                        newrules |= _why(cl._g(d), ruleStore);
-                    }
-                }
-            }
-        return newrules;
+            return true;
+        }
+        // if the watched literals are instantiated, then, look for the lit
+        return litIsKnown(cl._g(0)) && litIsKnown(cl._g(1)) && (cl.pos(neg) > -1 || cl.pos(lit) > -1);
     }
 
     private boolean _why(int l, RuleStore ruleStore) {
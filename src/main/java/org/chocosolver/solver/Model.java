@@ -150,6 +150,11 @@ public class Model implements IModel {
      */
     private int nameId = 1;
 
+    /**
+     * Counter incremented each time a propagator is linked to, or unlinked from, a variable
+     */
+    private int linkStamp;
+
     /**
      * A MiniSat instance, useful to deal with clauses
      */
@@ -670,6 +675,21 @@ public class Model implements IModel {
         return id++;
     }
 
+    /**
+     * Informs the model that a propagator has been linked to, or unlinked from, a variable.
+     * Should not be called by the user.
+     */
+    public void propagatorLinked() {
+        linkStamp++;
+    }
+
+    /**
+     * @return a stamp which changes each time a propagator is linked to, or unlinked from, a variable of this model
+     */
+    public int getLinkStamp() {
+        return linkStamp;
+    }
+
     /**
      * Get a free single-use name id to identify a variable created internally.
      * Should not be called by the user.
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.limits.ICounter;
+import org.chocosolver.solver.search.loop.lns.neighbors.INeighbor;
+import org.chocosolver.solver.search.loop.lns.neighbors.SharedAdaptiveNeighborhood;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.loop.move.MoveLNS;
+import org.chocosolver.solver.search.loop.move.MoveParallelLNS;
+import org.chocosolver.solver.search.loop.parallel.ChannelSharing;
+import org.chocosolver.solver.search.loop.parallel.SharedChannel;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.criteria.Criterion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *     A Large Neighborhood Search helper, to improve one incumbent solution with many threads.
+ * </p>
+ * <p>
+ *     Each model declared here runs a LNS (see {@link MoveParallelLNS}) from the best solution found so far
+ *     by any of them. As soon as a model finds a better solution, it is published, along with its objective value,
+ *     in a lock-free {@link SharedChannel}: the other models load it and restart from it.
+ *     Each model comes with its own neighbors, which are selected adaptively (see {@link SharedAdaptiveNeighborhood}):
+ *     the more fragments of a neighbor lead to new solutions, in any model, the more often it is selected.
+ * </p>
+ * <p>
+ *     The resolution of a problem is made of three steps:
+ *      <ol>
+ *          <li>adding models to be run in parallel, with their neighbors,</li>
+ *          <li>running resolution in parallel,</li>
+ *          <li>getting the model which finds the best solution, if any.</li>
+ *      </ol>
+ *      Since solutions are read from one model to another, all the models <b>HAVE</b> to be built in the very
+ *      same way (same variables, declared in the same order, same constraints), and have to declare
+ *      the same neighbors, in the same order.
+ *      They can be configured with different search strategies, to diversify the search.
+ *      Only optimization problems, with an integer objective variable, can be solved.
+ * </p>
+ * <p>
+ *     The resolution process is synchronized. As soon as one model ends (by hitting a limit, or by proving optimality)
+ *     or finds the best solution so far, the other ones are eagerly stopped.
+ * </p>
+ * <p>
+ *     Example of use.
+ *
+ * <pre>
+ * <code>ParallelLNS plns = new ParallelLNS();
+ * int n = 4; // number of models to use
+ * for (int i = 0; i < n; i++) {
+ *      Model model = modeller();
+ *      IntVar[] vars = model.retrieveIntVars(true);
+ *      plns.addModel(model, INeighborFactory.propagationGuided(vars), INeighborFactory.random(vars));
+ * }
+ * while(plns.solve()){
+ *      IOutputFactory.printSolutions(plns.getBestModel());
+ * }
+ * </code>
+ * </pre>
+ *
+ * </p>
+ *
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ParallelLNS {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////       VARIABLES       //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** List of {@link Model}s to be executed in parallel. */
+    private final List<Model> models;
+
+    /** Neighbors of each model */
+    private final List<INeighbor[]> neighbors;
+
+    /** Fast restart counter of each model */
+    private final List<ICounter> counters;
+
+    /** List of moves, one per model */
+    private final List<MoveParallelLNS> moves;
+
+    /** Stores whether or not prepare() method has been called */
+    private boolean isPrepared = false;
+
+    private final AtomicBoolean solverTerminated = new AtomicBoolean(false);
+    private final AtomicBoolean solutionFound = new AtomicBoolean(false);
+
+    /** Lock-free channel to share the incumbent solution among models */
+    private SharedChannel channel;
+
+    /** Success rates of the neighbors, shared among models */
+    private SharedAdaptiveNeighborhood.Scores scores;
+
+    /** Default number of failures before a fast restart */
+    public static final int DEFAULT_RESTART_FAILS = 1000;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a new ParallelLNS
+     * This class stores the models to be executed in parallel in a {@link ArrayList} initially empty.
+     */
+    public ParallelLNS() {
+        this.models = new ArrayList<>();
+        this.neighbors = new ArrayList<>();
+        this.counters = new ArrayList<>();
+        this.moves = new ArrayList<>();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////          API          //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * <p>
+     * Adds a model to the list of models to run in parallel, with its neighbors.
+     * A fast restart is triggered every {@link #DEFAULT_RESTART_FAILS} failures.
+     * </p>
+     * <p>
+     *     <b>Important:</b>
+     *  <ul>
+     *      <li>the populating process is not managed by this ParallelLNS
+     *  and should be done externally, with a dedicated method for example.
+     *  </li>
+     *  <li>all models have to be built in the very same way, and have to declare the same neighbors.
+     *  </li>
+     *  <li>
+     *      the objective variable <b>HAS</b> to be declared eagerly with
+     *      {@link Model#setObjective(boolean, Variable)}.
+     *  </li>
+     *  </ul>
+     *
+     * </p>
+     * @param model a model to add
+     * @param neighbors neighbors of <i>model</i>
+     */
+    public void addModel(Model model, INeighbor... neighbors){
+        addModel(model, new FailCounter(model, DEFAULT_RESTART_FAILS), neighbors);
+    }
+
+    /**
+     * Adds a model to the list of models to run in parallel, with its neighbors.
+     * See {@link #addModel(Model, INeighbor...)}.
+     * @param model a model to add
+     * @param restartCounter when a fast restart should occur
+     * @param neighbors neighbors of <i>model</i>
+     */
+    public void addModel(Model model, ICounter restartCounter, INeighbor... neighbors){
+        if (isPrepared) {
+            throw new SolverException("Models must be added before the resolution starts.");
+        }
+        this.models.add(model);
+        this.neighbors.add(neighbors);
+        this.counters.add(restartCounter);
+    }
+
+    /**
+     * Run the solve() instruction of every model in parallel, each of them improving the best solution found so far.
+     *
+     * <p>
+     * It stops on the first solution which improves the best one found so far.
+     * Next calls to this method resume the search.
+     * Note that a call to {@link #getBestModel()} returns a model which has found the best solution.
+     * </p>
+     * @return <code>true</code> if and only if at least one new solution has been found.
+     * @throws SolverException if no model has been added.
+     */
+    public boolean solve() {
+        getSolverTerminated().set(false);
+        getSolutionFound().set(false);
+        if (!isPrepared) {
+            prepare();
+        }
+        ForkJoinPool forkJoinPool = new ForkJoinPool(models.size());
+        try {
+            forkJoinPool.submit(() -> {
+                models.parallelStream().forEach(m -> {
+                    Solver s = m.getSolver();
+                    // a solution which does not improve the incumbent (concurrently updated) is not worth stopping for
+                    //noinspection StatementWithEmptyBody
+                    while (!getSolverTerminated().get() && s.solve() && getBestModel() != m) ;
+                    // either the best solution has been found, or the model ends
+                    getSolverTerminated().set(true);
+                });
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+        forkJoinPool.shutdownNow();
+        getSolverTerminated().set(false);// otherwise, solver.isStopCriterionMet() always returns true
+        return getSolutionFound().get();
+    }
+
+    /**
+     * @return the model which finds the best solution, or <tt>null</tt> if no solution has been found.
+     */
+    public Model getBestModel(){
+        return channel == null ? null : channel.getBoundOwner();
+    }
+
+    /**
+     * @return the best solution found, or <tt>null</tt> if no solution has been found.
+     */
+    public Solution getBestSolution(){
+        return channel == null ? null : channel.getBoundSolution();
+    }
+
+    /**
+     * @return the (mutable!) list of models used in this ParallelLNS
+     */
+    public List<Model> getModels(){
+        return models;
+    }
+
+    /**
+     * @return the success rates of the neighbors, shared among models, or <tt>null</tt> if the resolution has not started
+     */
+    public SharedAdaptiveNeighborhood.Scores getScores(){
+        return scores;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////   INTERNAL METHODS    //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @SuppressWarnings("unchecked")
+    private void prepare(){
+        isPrepared = true;
+        check();
+        channel = new SharedChannel(models.get(0).getResolutionPolicy());
+        scores = new SharedAdaptiveNeighborhood.Scores(neighbors.get(0).length);
+        for (int i = 0; i < models.size(); i++) {
+            int id = i;
+            Model model = models.get(i);
+            Solver s = model.getSolver();
+            s.addStopCriterion((Criterion) () -> getSolverTerminated().get());
+            MoveParallelLNS move = new MoveParallelLNS(s.getMove(),
+                    new SharedAdaptiveNeighborhood(i, scores, neighbors.get(i)), counters.get(i), channel);
+            s.setMove(move);
+            moves.add(move);
+            // declared before the move detects the solution, so that it is not loaded back
+            s.plugMonitor((IMonitorSolution) () -> updateFromSolution(id));
+            s.plugMonitor(new ChannelSharing(model, i, channel, 0));
+        }
+    }
+
+    private void updateFromSolution(int id){
+        Model m = models.get(id);
+        Solution solution = new Solution(m).record();
+        if (channel.offerBound(m, ((IntVar) m.getObjective()).getValue(), solution)) {
+            moves.get(id).setIncumbent(solution);
+            getSolutionFound().set(true);
+        }
+    }
+
+    private void check(){
+        if (models.size() == 0) {
+            throw new SolverException("No model found in the ParallelLNS.");
+        }
+        if (models.get(0).getResolutionPolicy() == ResolutionPolicy.SATISFACTION) {
+            throw new UnsupportedOperationException("ParallelLNS cannot deal with satisfaction problems");
+        }
+        Variable objective = models.get(0).getObjective();
+        if (objective == null) {
+            throw new UnsupportedOperationException("No objective has been defined");
+        }
+        if ((objective.getTypeAndKind() & Variable.REAL) != 0) {
+            throw new UnsupportedOperationException("ParallelLNS cannot deal with " +
+                    "real variable objective optimization problems");
+        }
+        for (int i = 0; i < models.size(); i++) {
+            Model m = models.get(i);
+            if (m.getNbVars() != models.get(0).getNbVars()) {
+                throw new SolverException("The models of a ParallelLNS must be built in the very same way.");
+            }
+            if (neighbors.get(i).length == 0 || neighbors.get(i).length != neighbors.get(0).length) {
+                throw new SolverException("The models of a ParallelLNS must declare the same neighbors.");
+            }
+            if (m.getSolver().getMove() instanceof MoveLNS) {
+                throw new SolverException("A model of a ParallelLNS cannot be already configured with LNS.");
+            }
+        }
+    }
+
+    private AtomicBoolean getSolverTerminated(){
+        return solverTerminated;
+    }
+
+    private AtomicBoolean getSolutionFound(){
+        return solutionFound;
+    }
+}
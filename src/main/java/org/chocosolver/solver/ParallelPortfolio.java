@@ -33,6 +33,8 @@ import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.search.loop.lns.INeighborFactory;
 import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.loop.parallel.ChannelSharing;
+import org.chocosolver.solver.search.loop.parallel.SharedChannel;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.RealVar;
 import org.chocosolver.solver.variables.SetVar;
@@ -72,9 +74,13 @@ import static org.chocosolver.solver.search.strategy.Search.*;
  * <p>
  *     The resolution process is synchronized. As soon as one model ends (naturally or by hitting a limit)
  *     the other ones are eagerly stopped.
- *     Moreover, when dealing with an optimization problem, cut on the objective variable's value is propagated
- *     to all models on solution.
+ *     Moreover, when dealing with an optimization problem, cut on the objective variable's value is published
+ *     on solution and read by the other models before going down in their search tree.
  *     It is essential to eagerly declare the objective variable(s) with {@link Model#setObjective(boolean, Variable)}.
+ *     When enabled with {@link #setNogoodSharing(int)}, short no-goods learnt by a model
+ *     (for instance, with {@link Solver#setNoGoodRecordingFromRestarts()})
+ *     are also published, and added to the other models on their next restart.
+ *     Both exchanges go through a lock-free {@link SharedChannel}: no model waits for another one.
  *
  * </p>
  * <p>
@@ -126,11 +132,20 @@ public class ParallelPortfolio {
     /** Stores whether or not prepare() method has been called */
     private boolean isPrepared = false;
 
-    private AtomicBoolean solverTerminated = new AtomicBoolean(false);
-    private AtomicBoolean solutionFound = new AtomicBoolean(false);
+    private final AtomicBoolean solverTerminated = new AtomicBoolean(false);
+    private final AtomicBoolean solutionFound = new AtomicBoolean(false);
 
-    /** Point to (one of) the solver(s) which found a solution */
-    private Model finder;
+    /** Point to (one of) the solver(s) which found a solution, when dealing with a satisfaction problem */
+    private volatile Model finder;
+
+    /** Lock-free channel to share bounds and no-goods among models */
+    private SharedChannel channel;
+
+    /** Maximum number of literals of a no-good to share, 0 to disable no-good sharing */
+    private int nogoodMaxSize = DEFAULT_NOGOOD_MAX_SIZE;
+
+    /** Default maximum number of literals of a no-good to share, no-goods are not shared by default */
+    public static final int DEFAULT_NOGOOD_MAX_SIZE = 0;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
@@ -185,6 +200,20 @@ public class ParallelPortfolio {
         this.models.add(model);
     }
 
+    /**
+     * Sets the maximum number of literals a no-good should have to be shared among models
+     * (default is {@link #DEFAULT_NOGOOD_MAX_SIZE}, that is, no-goods are not shared).
+     * When greater than 0, a no-good store is posted in each model.
+     * Must be called before the first call to {@link #solve()}.
+     * @param maxSize maximum number of literals of a no-good to share, 0 to disable no-good sharing
+     */
+    public void setNogoodSharing(int maxSize){
+        if (isPrepared) {
+            throw new SolverException("No-good sharing must be set before the resolution starts.");
+        }
+        this.nogoodMaxSize = maxSize;
+    }
+
     /**
      * Run the solve() instruction of every model of the portfolio in parallel.
      *
@@ -206,7 +235,7 @@ public class ParallelPortfolio {
                 models.parallelStream().forEach(m -> {
                     if (!getSolverTerminated().get()) {
                         boolean so = m.getSolver().solve();
-                        if (so && finder == m || !so) {
+                        if (so && getBestModel() == m || !so) {
                             getSolverTerminated().set(true);
                         }
                     }
@@ -247,6 +276,9 @@ public class ParallelPortfolio {
      * @return the first model which finds a solution (or the best one) or <tt>null</tt> if no such model exists.
      */
     public Model getBestModel(){
+        if (channel != null && channel.hasBound()) {
+            return channel.getBoundOwner();
+        }
         return finder;
     }
 
@@ -265,36 +297,26 @@ public class ParallelPortfolio {
     private void prepare(){
         isPrepared = true;
         check();
+        channel = new SharedChannel(models.get(0).getResolutionPolicy());
         for(int i=0;i<models.size();i++){
             Solver s = models.get(i).getSolver();
             s.addStopCriterion((Criterion) () -> getSolverTerminated().get());
             s.plugMonitor((IMonitorSolution) () -> {updateFromSolution(s.getModel());});
+            s.plugMonitor(new ChannelSharing(models.get(i), i, channel, nogoodMaxSize));
             if(searchAutoConf){
                 configureModel(i);
             }
         }
     }
 
-    private synchronized void updateFromSolution(Model m){
+    private void updateFromSolution(Model m){
         if (m.getResolutionPolicy() == ResolutionPolicy.SATISFACTION) {
             finder = m;
             getSolutionFound().set(true);
         }else{
             int solverVal = ((IntVar)m.getObjective()).getValue();
-            int bestVal = m.getSolver().getObjectiveManager().getBestSolutionValue().intValue();
-            if(m.getResolutionPolicy()==ResolutionPolicy.MAXIMIZE){
-                assert solverVal<=bestVal:solverVal+">"+bestVal;
-            }else if(m.getResolutionPolicy()==ResolutionPolicy.MINIMIZE){
-                assert solverVal>=bestVal:solverVal+"<"+bestVal;
-            }
-            if(solverVal == bestVal){
+            if(channel.offerBound(m, solverVal)){
                 getSolutionFound().set(true);
-                finder = m;
-                if (m.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
-                    models.forEach(s1 -> s1.getSolver().getObjectiveManager().updateBestLB(bestVal));
-                }else {
-                    models.forEach(s1 -> s1.getSolver().getObjectiveManager().updateBestUB(bestVal));
-                }
             }
         }
     }
@@ -425,11 +447,11 @@ public class ParallelPortfolio {
         }
     }
 
-    private synchronized AtomicBoolean getSolverTerminated(){
+    private AtomicBoolean getSolverTerminated(){
         return solverTerminated;
     }
 
-    private synchronized AtomicBoolean getSolutionFound(){
+    private AtomicBoolean getSolutionFound(){
         return solutionFound;
     }
 }
@@ -0,0 +1,429 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.search.loop.move.Move;
+import org.chocosolver.solver.search.loop.move.MoveDecomposition;
+import org.chocosolver.solver.search.loop.move.MoveLNS;
+import org.chocosolver.solver.search.loop.move.MoveRestart;
+import org.chocosolver.solver.search.loop.move.MoveWorkStealing;
+import org.chocosolver.solver.search.loop.parallel.ChannelSharing;
+import org.chocosolver.solver.search.loop.parallel.SharedChannel;
+import org.chocosolver.solver.search.loop.parallel.SubProblem;
+import org.chocosolver.solver.search.loop.parallel.SubProblemPool;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.criteria.Criterion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *     A work-stealing helper, to explore one search tree with many threads.
+ * </p>
+ * <p>
+ *     Unlike {@link ParallelPortfolio}, where each model explores the entire search tree on its own,
+ *     the models declared here share the exploration of the search tree.
+ *     Each of them is in charge of a sub-tree, described by a {@link SubProblem} (a sequence of decisions).
+ *     As soon as a model is idle, the topmost open node of a busy model is given to it.
+ *     This is dedicated to speed up proofs, that is, exploring the entire search tree
+ *     (enumerating all solutions or proving optimality).
+ * </p>
+ * <p>
+ *     Alternatively, the search tree can be split beforehand, as done in Embarrassingly Parallel Search,
+ *     see {@link #setDecomposition(int)}.
+ *     The first model runs a depth-bounded search which records the consistent nodes met at the bounded depth
+ *     as sub-problems, the depth being increased until there are enough sub-problems for all the models.
+ *     Idle models then take sub-problems in the order they have been recorded,
+ *     work-stealing only occurring when there are no sub-problem left.
+ * </p>
+ * <p>
+ *     The resolution of a problem is made of three steps:
+ *      <ol>
+ *          <li>adding models to be run in parallel,</li>
+ *          <li>running resolution in parallel,</li>
+ *          <li>getting the model which finds a solution (or the best one), if any.</li>
+ *      </ol>
+ *      Since sub-problems are replayed from one model to another, all the models <b>HAVE</b> to be built in the very
+ *      same way (same variables, declared in the same order, same constraints).
+ *      They can be configured with different search strategies, even if that may affect the performances.
+ *      Restarts and LNS are not supported, since they break the sub-tree a model is in charge of.
+ * </p>
+ * <p>
+ *     The resolution process is synchronized. When dealing with a satisfaction problem,
+ *     as soon as one model finds a solution, the other ones are eagerly stopped.
+ *     When dealing with an optimization problem, the cut on the objective variable's value
+ *     is shared among models through a {@link SharedChannel} and the resolution goes on until optimality is proven.
+ *     It is essential to eagerly declare the objective variable(s) with {@link Model#setObjective(boolean, Variable)}.
+ *     If one model ends by hitting a limit, the other ones are eagerly stopped.
+ * </p>
+ * <p>
+ *     Example of use.
+ *
+ * <pre>
+ * <code>ParallelWorkStealing pws = new ParallelWorkStealing();
+ * int n = 4; // number of models to use
+ * for (int i = 0; i < n; i++) {
+ *      pws.addModel(modeller());
+ * }
+ * pws.solve();
+ * IOutputFactory.printSolutions(pws.getBestModel());
+ * </code>
+ * </pre>
+ *
+ * </p>
+ *
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ParallelWorkStealing {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////       VARIABLES       //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /** List of {@link Model}s to be executed in parallel. */
+    private final List<Model> models;
+
+    /** List of moves, one per model, in charge of sharing the search tree */
+    private final List<MoveWorkStealing> moves;
+
+    /** The pool of sub-problems shared among models */
+    private final SubProblemPool pool;
+
+    /** Stores whether or not prepare() method has been called */
+    private boolean isPrepared = false;
+
+    private final AtomicBoolean solverTerminated = new AtomicBoolean(false);
+    private final AtomicBoolean solutionFound = new AtomicBoolean(false);
+
+    /** Point to (one of) the solver(s) which found a solution, when dealing with a satisfaction problem */
+    private volatile Model finder;
+
+    /** Lock-free channel to share bounds among models */
+    private SharedChannel channel;
+
+    /** Number of sub-problems to generate per model before solving, 0 to start from the root node */
+    private int subProblemsPerModel = 0;
+
+    /** Default number of sub-problems per model in decomposition mode, as suggested for Embarrassingly Parallel Search */
+    public static final int DEFAULT_SUBPROBLEMS_PER_MODEL = 30;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////      CONSTRUCTOR      //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a new ParallelWorkStealing
+     * This class stores the models to be executed in parallel in a {@link ArrayList} initially empty.
+     */
+    public ParallelWorkStealing() {
+        this.models = new ArrayList<>();
+        this.moves = new ArrayList<>();
+        this.pool = new SubProblemPool();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////          API          //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * <p>
+     * Adds a model to the list of models to run in parallel.
+     * The model can either be a fresh one, ready for populating, or a populated one.
+     * </p>
+     * <p>
+     *     <b>Important:</b>
+     *  <ul>
+     *      <li>the populating process is not managed by this ParallelWorkStealing
+     *  and should be done externally, with a dedicated method for example.
+     *  </li>
+     *  <li>all models have to be built in the very same way.
+     *  </li>
+     *  <li>
+     *      when dealing with optimization problems, the objective variables <b>HAVE</b> to be declared eagerly with
+     *      {@link Model#setObjective(boolean, Variable)}.
+     *  </li>
+     *  </ul>
+     *
+     * </p>
+     * @param model a model to add
+     */
+    public void addModel(Model model){
+        this.models.add(model);
+    }
+
+    /**
+     * Enables the decomposition mode: before solving, the search tree is split into (about)
+     * <i>subProblemsPerModel</i> &times; <i>number of models</i> sub-problems by the first model,
+     * with its search strategy. Thus, the number of sub-problems grows with the number of models, that is,
+     * the number of threads (ideally, the number of available cores).
+     * A model exploring a sub-problem only consists in replaying at most a few dozens of decisions,
+     * so the first model is then used to solve as any other one.
+     * <p>
+     * Only integer decisions can be recorded as sub-problems.
+     * This must be called before the first call to {@link #solve()}.
+     * @param subProblemsPerModel number of sub-problems to generate per model, for instance {@link #DEFAULT_SUBPROBLEMS_PER_MODEL}
+     * @throws SolverException if the resolution has already started
+     */
+    public void setDecomposition(int subProblemsPerModel){
+        if (isPrepared) {
+            throw new SolverException("The decomposition mode must be set before solving.");
+        }
+        this.subProblemsPerModel = Math.max(0, subProblemsPerModel);
+    }
+
+    /**
+     * Run the solve() instruction of every model in parallel, each of them exploring a part of the search tree.
+     *
+     * <p>
+     * When dealing with a satisfaction problem, it stops on the first solution found.
+     * Next calls to this method resume the search, with the models which still have sub-trees to explore.
+     * When dealing with an optimization problem, it stops once the best solution is found and proven.
+     * </p>
+     * <p>
+     * Note that a call to {@link #getBestModel()} returns a model which has found the best solution.
+     * </p>
+     * @return <code>true</code> if and only if at least one new solution has been found.
+     * @throws SolverException if no model has been added.
+     */
+    public boolean solve() {
+        getSolverTerminated().set(false);
+        getSolutionFound().set(false);
+        if (!isPrepared) {
+            prepare();
+        }
+        // models suspended when the pool has been closed take part in the search again
+        moves.forEach(MoveWorkStealing::resume);
+        pool.open();
+        boolean satisfaction = models.get(0).getResolutionPolicy() == ResolutionPolicy.SATISFACTION;
+        ForkJoinPool forkJoinPool = new ForkJoinPool(models.size());
+        try {
+            forkJoinPool.submit(() -> {
+                models.parallelStream().forEach(m -> {
+                    Solver s = m.getSolver();
+                    MoveWorkStealing w = moves.get(models.indexOf(m));
+                    // a model which cannot get sub-problems anymore has nothing left to explore
+                    //noinspection StatementWithEmptyBody
+                    while (!w.isStarved() && s.solve() && !satisfaction) ;
+                    if (!w.isStarved()) {
+                        // either a solution has been found, or the model stopped while holding a sub-tree
+                        getSolverTerminated().set(true);
+                        pool.close();
+                    }
+                });
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+        forkJoinPool.shutdownNow();
+        getSolverTerminated().set(false);// otherwise, solver.isStopCriterionMet() always returns true
+        return getSolutionFound().get();
+    }
+
+    /**
+     * Returns the first model from the list which, either :
+     * <ul>
+     *     <li>
+     *         finds a solution when dealing with a satisfaction problem,
+     *     </li>
+     *     <li>
+     *         or finds the best solution when dealing with an optimization problem.
+     *     </li>
+     * </ul>
+     * or <tt>null</tt> if no such model exists.
+     *
+     * @return the first model which finds a solution (or the best one) or <tt>null</tt> if no such model exists.
+     */
+    public Model getBestModel(){
+        if (channel != null && channel.hasBound()) {
+            return channel.getBoundOwner();
+        }
+        return finder;
+    }
+
+    /**
+     * @return the (mutable!) list of models used in this ParallelWorkStealing
+     */
+    public List<Model> getModels(){
+        return models;
+    }
+
+    /**
+     * @return <tt>true</tt> if the entire search tree has been explored by the models
+     */
+    public boolean isSearchComplete(){
+        return pool.isExhausted();
+    }
+
+    /**
+     * @return the number of models which can still take part in the search, that is, which are not starved
+     */
+    public int getActiveModelCount(){
+        return (int) moves.stream().filter(m -> !m.isStarved()).count();
+    }
+
+    /**
+     * @return the number of sub-problems which have been shared among models so far
+     */
+    public long getSubProblemCount(){
+        return pool.getSubProblemCount();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////   INTERNAL METHODS    //////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @SuppressWarnings("unchecked")
+    private void prepare(){
+        isPrepared = true;
+        check();
+        List<SubProblem> subproblems = subProblemsPerModel > 0 ?
+                decompose(models.get(0), subProblemsPerModel * models.size()) :
+                Collections.singletonList(SubProblem.ROOT);
+        channel = new SharedChannel(models.get(0).getResolutionPolicy());
+        for (int i = 0; i < models.size(); i++) {
+            Model model = models.get(i);
+            Solver s = model.getSolver();
+            s.addStopCriterion((Criterion) () -> getSolverTerminated().get());
+            s.plugMonitor((IMonitorSolution) () -> updateFromSolution(s.getModel()));
+            // sub-trees are never restarted, so no-goods would never be imported
+            s.plugMonitor(new ChannelSharing(model, i, channel, 0));
+            MoveWorkStealing move = new MoveWorkStealing(model, s.getMove(), pool);
+            s.addStopCriterion((Criterion) move::isIdle);
+            s.setMove(move);
+            moves.add(move);
+            pool.register();
+        }
+        subproblems.forEach(pool::offer);
+    }
+
+    /**
+     * Splits the search tree of <i>model</i> into at least <i>target</i> sub-problems, when possible.
+     * The depth of the decomposition is increased until either the target is reached,
+     * or the search tree is too small to be split more.
+     * <i>model</i> is then reset to its initial state.
+     */
+    private static List<SubProblem> decompose(Model model, int target){
+        Solver s = model.getSolver();
+        Move move = s.getMove();
+        // estimated for a binary search tree, corrected with the actual number of sub-problems
+        int depth = Math.max(1, 32 - Integer.numberOfLeadingZeros(target - 1));
+        MoveDecomposition dec;
+        while (true) {
+            dec = new MoveDecomposition(move.getStrategy(), depth);
+            Criterion done = dec::isDone;
+            s.setMove(dec);
+            s.addStopCriterion(done);
+            s.solve();
+            s.removeStopCriterion(done);
+            s.reset();
+            int count = dec.getSubProblems().size();
+            if (count >= target || !dec.isTruncated()) {
+                break;
+            }
+            depth += Math.max(1, 32 - Integer.numberOfLeadingZeros(target / count));
+        }
+        if (move.getStrategy() == null) {
+            // the default search strategy has been set during the decomposition
+            move.setStrategy(dec.getStrategy());
+        }
+        s.setMove(move);
+        return dec.getSubProblems();
+    }
+
+    private void updateFromSolution(Model m){
+        if (m.getResolutionPolicy() == ResolutionPolicy.SATISFACTION) {
+            finder = m;
+            getSolutionFound().set(true);
+        }else{
+            int solverVal = ((IntVar)m.getObjective()).getValue();
+            if(channel.offerBound(m, solverVal)){
+                getSolutionFound().set(true);
+            }
+        }
+    }
+
+    private void check(){
+        if (models.size() == 0) {
+            throw new SolverException("No model found in the ParallelWorkStealing.");
+        }
+        for (Model m : models) {
+            if (m.getNbVars() != models.get(0).getNbVars()) {
+                throw new SolverException("The models of a ParallelWorkStealing must be built in the very same way.");
+            }
+            if (m.getSolver().getMove() instanceof MoveWorkStealing) {
+                throw new SolverException("A model cannot be declared in more than one ParallelWorkStealing.");
+            }
+            if (breaksSubTrees(m.getSolver().getMove())) {
+                throw new UnsupportedOperationException("ParallelWorkStealing cannot deal with restarts or LNS");
+            }
+        }
+        if(models.get(0).getResolutionPolicy() != ResolutionPolicy.SATISFACTION) {
+            Variable objective = models.get(0).getObjective();
+            if (objective == null) {
+                throw new UnsupportedOperationException("No objective has been defined");
+            }
+            if ((objective.getTypeAndKind() & Variable.REAL) != 0) {
+                throw new UnsupportedOperationException("ParallelWorkStealing cannot deal with " +
+                        "real variable objective optimization problems");
+            }
+        }
+    }
+
+    private static boolean breaksSubTrees(Move move){
+        if (move instanceof MoveRestart || move instanceof MoveLNS) {
+            return true;
+        }
+        for (Move child : move.getChildMoves()) {
+            if (breaksSubTrees(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AtomicBoolean getSolverTerminated(){
+        return solverTerminated;
+    }
+
+    private AtomicBoolean getSolutionFound(){
+        return solutionFound;
+    }
+}
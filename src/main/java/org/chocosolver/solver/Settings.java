@@ -239,6 +239,28 @@ public interface Settings  {
         return nbvars > 1;
     }
 
+    /**
+     * Return true if the incrementality is enabled on sum and scalar product over integer variables,
+     * based on the number of variables involved.
+     * Default condition is : nbvars > 100
+     * @param nbvars number of variables in the constraint
+     * @return <tt>true</tt> if the constraint should be maintained incrementally
+     */
+    default boolean enableIncrementalityOnSum(int nbvars) {
+        return nbvars > 100;
+    }
+
+    /**
+     * Return true if the diffN constraint should be filtered with a sweep-based propagator,
+     * based on the number of boxes involved.
+     * Default condition is : nbboxes > 100
+     * @param nbboxes number of boxes in the constraint
+     * @return <tt>true</tt> if the sweep-based propagator should be used
+     */
+    default boolean enableSweepOnDiffN(int nbboxes) {
+        return nbboxes > 100;
+    }
+
     /**
      * If your terminal support ANSI colors (Windows terminals don't), you can set this to true.
      * @return enable output with colors
@@ -0,0 +1,418 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A compact store of solutions, to record a large number of solutions with a bounded memory.
+ * <p>
+ * Unlike {@link Solution}, which maps each variable id to its value, a pool stores the values of a fixed array of
+ * integer variables. Each value is stored as an offset from the lower bound of the variable (as known when the pool is
+ * created), on as few bits as its domain requires, and solutions are packed into blocks of <i>blockSize</i> rows.
+ * For instance, 20 boolean variables and 10 variables in [0,100] take 90 bits per solution.
+ * <p>
+ * At most <i>maxBlocks</i> blocks are kept in memory. When the limit is reached,
+ * either the oldest blocks are spilled into a temporary file (if a directory is given),
+ * or new solutions are refused (see {@link #record()}).
+ * Solutions are read back one at a time, either by index or with an iterator, without materializing the whole pool.
+ * <p>
+ * A pool is a solution monitor, to record all solutions found:
+ * <pre> {@code
+ * try (SolutionPool pool = new SolutionPool(vars, 4096, 16, Paths.get("/tmp"))) {
+ *     model.getSolver().plugMonitor(pool);
+ *     while (model.getSolver().solve()) ;
+ *     for (int[] values : pool) {
+ *         // values[i] is the value of vars[i]
+ *     }
+ * }
+ * }</pre>
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SolutionPool implements IMonitorSolution, Iterable<int[]>, Closeable {
+
+    /**
+     * Default number of solutions per block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    /** Variables to store */
+    private final IntVar[] vars;
+    /** Lower bound of each variable, when this is created */
+    private final long[] offsets;
+    /** Number of bits required by each variable */
+    private final int[] widths;
+    /** Number of bits per solution */
+    private final long rowBits;
+    /** Number of solutions per block */
+    private final int blockSize;
+    /** Number of longs per block */
+    private final int words;
+    /** Maximum number of blocks in memory */
+    private final int maxBlocks;
+    /** Where blocks are spilled, may be <tt>null</tt> */
+    private final Path directory;
+    /** Blocks, <tt>null</tt> once spilled */
+    private final ArrayList<long[]> blocks;
+    /** Index of the oldest block in memory */
+    private int firstInMemory;
+    /** Number of solutions stored */
+    private long size;
+    /** Number of solutions refused */
+    private long dropped;
+    /** Spill file and its channel, lazily created */
+    private Path spillFile;
+    private FileChannel spill;
+    /** Buffer for I/O */
+    private ByteBuffer io;
+    /** Last spilled block read */
+    private long[] cache;
+    private int cached = -1;
+
+    /**
+     * Create an unbounded pool, in memory, for the values of <i>vars</i>.
+     *
+     * @param vars variables to store
+     */
+    public SolutionPool(IntVar... vars) {
+        this(vars, DEFAULT_BLOCK_SIZE, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Create a pool for the values of <i>vars</i>.
+     *
+     * @param vars      variables to store
+     * @param blockSize number of solutions per block
+     * @param maxBlocks maximum number of blocks kept in memory
+     * @param directory where to spill blocks when <i>maxBlocks</i> is reached, or <tt>null</tt> to refuse new
+     *                  solutions instead
+     */
+    public SolutionPool(IntVar[] vars, int blockSize, int maxBlocks, Path directory) {
+        if (blockSize < 1 || maxBlocks < 1) {
+            throw new SolverException("Block size and maximum number of blocks should be positive");
+        }
+        this.vars = vars.clone();
+        this.offsets = new long[vars.length];
+        this.widths = new int[vars.length];
+        long bits = 0;
+        for (int i = 0; i < vars.length; i++) {
+            offsets[i] = vars[i].getLB();
+            long range = (long) vars[i].getUB() - vars[i].getLB();
+            widths[i] = 64 - Long.numberOfLeadingZeros(range);
+            bits += widths[i];
+        }
+        this.rowBits = bits;
+        this.blockSize = blockSize;
+        long w = (bits * blockSize + 63) / 64;
+        if (w > Integer.MAX_VALUE - 8) {
+            throw new SolverException("Blocks are too large, reduce the block size");
+        }
+        this.words = (int) Math.max(1, w);
+        this.maxBlocks = maxBlocks;
+        this.directory = directory;
+        this.blocks = new ArrayList<>();
+    }
+
+    @Override
+    public void onSolution() {
+        record();
+    }
+
+    /**
+     * Records the current values of the variables.
+     *
+     * @return <tt>false</tt> if the pool is full and cannot spill blocks, <tt>true</tt> otherwise
+     * @throws SolverException if a variable is not instantiated or if its value is out of its initial bounds
+     * @throws UncheckedIOException if a block cannot be spilled
+     */
+    public boolean record() {
+        for (int i = 0; i < vars.length; i++) {
+            if (!vars[i].isInstantiated()) {
+                throw new SolverException(vars[i] + " is not instantiated and cannot be recorded");
+            }
+            long v = vars[i].getValue() - offsets[i];
+            if (v < 0 || v >>> widths[i] != 0) {
+                throw new SolverException(vars[i] + " is out of the bounds it had when the pool was created");
+            }
+        }
+        int r = (int) (size % blockSize);
+        if (r == 0 && !newBlock()) {
+            dropped++;
+            return false;
+        }
+        long[] block = blocks.get(blocks.size() - 1);
+        long bit = r * rowBits;
+        for (int i = 0; i < vars.length; i++) {
+            write(block, bit, widths[i], vars[i].getValue() - offsets[i]);
+            bit += widths[i];
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return the number of solutions stored
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of solutions refused because the pool was full
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * @return the variables whose values are stored, in the order of the values
+     */
+    public IntVar[] getVars() {
+        return vars.clone();
+    }
+
+    /**
+     * Reads the values of the <i>index</i>-th solution.
+     *
+     * @param index  index of the solution, in recording order
+     * @param values an array of at least <i>getVars().length</i> ints, filled with the values
+     * @return <i>values</i>
+     * @throws IndexOutOfBoundsException if <i>index</i> is out of range
+     * @throws UncheckedIOException if a spilled block cannot be read
+     */
+    public int[] get(long index, int[] values) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        long[] block = block((int) (index / blockSize));
+        long bit = (index % blockSize) * rowBits;
+        for (int i = 0; i < vars.length; i++) {
+            values[i] = (int) (read(block, bit, widths[i]) + offsets[i]);
+            bit += widths[i];
+        }
+        return values;
+    }
+
+    /**
+     * Reads the <i>index</i>-th solution, as a {@link Solution}.
+     *
+     * @param index index of the solution, in recording order
+     * @return a new solution, which stores the values of the variables of this pool
+     */
+    public Solution getSolution(long index) {
+        int[] values = get(index, new int[vars.length]);
+        Solution solution = new Solution(vars.length > 0 ? vars[0].getModel() : null, vars);
+        for (int i = 0; i < vars.length; i++) {
+            solution.setIntVal(vars[i], values[i]);
+        }
+        return solution;
+    }
+
+    /**
+     * Iterates over the solutions, in recording order.
+     * Note that the same array is returned by each call to {@link Iterator#next()}: it has to be copied to be kept.
+     *
+     * @return an iterator over the values of the solutions
+     */
+    @Override
+    public Iterator<int[]> iterator() {
+        return new Iterator<int[]>() {
+            final int[] values = new int[vars.length];
+            long next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public int[] next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++, values);
+            }
+        };
+    }
+
+    /**
+     * Removes all the solutions, and the spill file if any.
+     */
+    public void clear() {
+        blocks.clear();
+        firstInMemory = 0;
+        size = 0;
+        dropped = 0;
+        cached = -1;
+        try {
+            deleteSpill();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes the spill file, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        blocks.clear();
+        firstInMemory = 0;
+        size = 0;
+        cached = -1;
+        deleteSpill();
+    }
+
+    private void deleteSpill() throws IOException {
+        if (spill != null) {
+            spill.close();
+            spill = null;
+            Files.deleteIfExists(spillFile);
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Adds an empty block, spilling the oldest one in memory if needed
+     */
+    private boolean newBlock() {
+        long[] block;
+        if (blocks.size() - firstInMemory < maxBlocks) {
+            block = new long[words];
+        } else if (directory == null) {
+            return false;
+        } else {
+            block = blocks.get(firstInMemory);
+            try {
+                transfer(firstInMemory, block, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            blocks.set(firstInMemory++, null);
+            Arrays.fill(block, 0);
+        }
+        blocks.add(block);
+        return true;
+    }
+
+    /**
+     * @return the <i>b</i>-th block, read from the spill file if needed
+     */
+    private long[] block(int b) {
+        long[] block = blocks.get(b);
+        if (block == null) {
+            if (cached != b) {
+                if (cache == null) {
+                    cache = new long[words];
+                }
+                try {
+                    transfer(b, cache, false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                cached = b;
+            }
+            block = cache;
+        }
+        return block;
+    }
+
+    /**
+     * Writes <i>block</i> into, or reads it from, its place in the spill file
+     */
+    private void transfer(int b, long[] block, boolean write) throws IOException {
+        if (spill == null) {
+            spillFile = Files.createTempFile(directory, "choco-pool", ".bin");
+            spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            io = ByteBuffer.allocateDirect(words * 8);
+        }
+        long position = (long) b * words * 8;
+        io.clear();
+        LongBuffer lb = io.asLongBuffer();
+        if (write) {
+            lb.put(block);
+            while (io.hasRemaining()) {
+                position += spill.write(io, position);
+            }
+        } else {
+            while (io.hasRemaining()) {
+                int n = spill.read(io, position);
+                if (n < 0) {
+                    throw new IOException("Unexpected end of the spill file");
+                }
+                position += n;
+            }
+            lb.get(block);
+        }
+    }
+
+    private static void write(long[] block, long bit, int width, long value) {
+        if (width > 0) {
+            int w = (int) (bit >>> 6);
+            int o = (int) (bit & 63);
+            block[w] |= value << o;
+            if (o + width > 64) {
+                block[w + 1] |= value >>> (64 - o);
+            }
+        }
+    }
+
+    private static long read(long[] block, long bit, int width) {
+        if (width == 0) {
+            return 0;
+        }
+        int w = (int) (bit >>> 6);
+        int o = (int) (bit & 63);
+        long v = block[w] >>> o;
+        if (o + width > 64) {
+            v |= block[w + 1] << (64 - o);
+        }
+        return v & ((1L << width) - 1);
+    }
+}
@@ -42,6 +42,7 @@ import org.chocosolver.solver.objective.ObjectiveFactory;
 import org.chocosolver.solver.propagation.IPropagationEngine;
 import org.chocosolver.solver.propagation.NoPropagationEngine;
 import org.chocosolver.solver.propagation.PropagationEngineFactory;
+import org.chocosolver.solver.propagation.PropagationProfiler;
 import org.chocosolver.solver.search.SearchState;
 import org.chocosolver.solver.search.limits.ICounter;
 import org.chocosolver.solver.search.loop.Reporting;
@@ -190,6 +191,9 @@ public final class Solver implements ISolver, IMeasures, IOutputFactory {
     /** The propagation engine to use */
     private IPropagationEngine engine;
 
+    /** Collects statistics on propagators, <tt>null</tt> if not profiling */
+    private PropagationProfiler profiler;
+
     /**
      * Problem feasbility:
      * - UNDEFINED if unknown,
@@ -789,6 +793,38 @@ public final class Solver implements ISolver, IMeasures, IOutputFactory {
      */
     public void setEngine(IPropagationEngine propagationEngine) {
         this.engine = propagationEngine;
+        if (profiler != null) {
+            engine.setProfiler(profiler);
+        }
+    }
+
+    /**
+     * Plugs a profiler which collects statistics on propagators into the current propagation engine,
+     * and into any engine attached later on.
+     * @param profiler a profiler, or <tt>null</tt> to stop profiling
+     * @see #printPropagationProfile(int)
+     */
+    public void setPropagationProfiler(PropagationProfiler profiler) {
+        this.profiler = profiler;
+        engine.setProfiler(profiler);
+    }
+
+    /**
+     * Enables, or disables, the measure of the memory used by the trails of the environment,
+     * see {@link #getTrailSize()} and {@link #getPeakTrailSize()}.
+     * When enabled, these measures are also printed by {@link #printStatistics()}
+     * and {@link #showStatisticsDuringResolution(long)}.
+     * @param enable set to <tt>true</tt> to measure the trails
+     */
+    public void setTrailMeasured(boolean enable) {
+        mMeasures.setEnvironment(enable ? mModel.getEnvironment() : null);
+    }
+
+    /**
+     * @return the profiler which collects statistics on propagators, or <tt>null</tt>
+     */
+    public PropagationProfiler getPropagationProfiler() {
+        return profiler;
     }
 
     /**
@@ -971,6 +1007,36 @@ public final class Solver implements ISolver, IMeasures, IOutputFactory {
         return getMeasures().getCurrentDepth();
     }
 
+    @Override
+    public long getTrailSize() {
+        return getMeasures().getTrailSize();
+    }
+
+    @Override
+    public long getPeakTrailSize() {
+        return getMeasures().getPeakTrailSize();
+    }
+
+    @Override
+    public long getTrailBytes() {
+        return getMeasures().getTrailBytes();
+    }
+
+    @Override
+    public long getPeakTrailBytes() {
+        return getMeasures().getPeakTrailBytes();
+    }
+
+    @Override
+    public long getTrailResizeCount() {
+        return getMeasures().getTrailResizeCount();
+    }
+
+    @Override
+    public boolean isTrailMeasured() {
+        return getMeasures().isTrailMeasured();
+    }
+
     @Override
     public boolean hasObjective() {
         return getMeasures().hasObjective();
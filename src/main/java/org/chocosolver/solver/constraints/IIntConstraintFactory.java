@@ -41,6 +41,7 @@ import org.chocosolver.solver.constraints.extension.TuplesFactory;
 import org.chocosolver.solver.constraints.extension.binary.*;
 import org.chocosolver.solver.constraints.extension.nary.*;
 import org.chocosolver.solver.constraints.nary.PropDiffN;
+import org.chocosolver.solver.constraints.nary.PropDiffNSweep;
 import org.chocosolver.solver.constraints.nary.PropIntValuePrecedeChain;
 import org.chocosolver.solver.constraints.nary.PropKLoops;
 import org.chocosolver.solver.constraints.nary.PropKnapsack;
@@ -61,6 +62,7 @@ import org.chocosolver.solver.constraints.nary.circuit.*;
 import org.chocosolver.solver.constraints.nary.count.PropCountVar;
 import org.chocosolver.solver.constraints.nary.count.PropCount_AC;
 import org.chocosolver.solver.constraints.nary.cumulative.Cumulative;
+import org.chocosolver.solver.constraints.nary.disjunctive.PropDisjunctive;
 import org.chocosolver.solver.constraints.nary.element.PropElementV_fast;
 import org.chocosolver.solver.constraints.nary.globalcardinality.GlobalCardinality;
 import org.chocosolver.solver.constraints.nary.lex.PropLex;
@@ -299,6 +301,9 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	 * @param var2   second variable
 	 */
 	default Constraint table(IntVar var1, IntVar var2, Tuples tuples) {
+		if (tuples.allowUniversalValue()) {
+			return table(new IntVar[]{var1, var2}, tuples);
+		}
 		return table(var1,var2,tuples,"AC3bit+rm");
 	}
 
@@ -315,6 +320,9 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	 * @param tuples the relation between the two variables, among {"AC3", "AC3rm", "AC3bit+rm", "AC2001", "FC"}
 	 */
 	default Constraint table(IntVar var1, IntVar var2, Tuples tuples, String algo) {
+		if (tuples.allowUniversalValue()) {
+			throw new SolverException(algo + " table algorithm cannot be used with short tuples.");
+		}
 		Propagator p;
 		switch (algo) {
 			case "AC2001": p = new PropBinAC2001(var1, var2, tuples);
@@ -966,6 +974,8 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	/**
 	 * Creates a diffN constraint. Constrains each rectangle<sub>i</sub>, given by their origins X<sub>i</sub>,Y<sub>i</sub>
 	 * and sizes width<sub>i</sub>,height<sub>i</sub>, to be non-overlapping.
+	 * Beyond a given number of boxes (see {@link org.chocosolver.solver.Settings#enableSweepOnDiffN(int)}),
+	 * a sweep-based propagator is used instead of the pairwise one.
 	 *
 	 * @param X         collection of coordinates in first dimension
 	 * @param Y         collection of coordinates in second dimension
@@ -976,11 +986,22 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	 */
 	default Constraint diffN(IntVar[] X, IntVar[] Y, IntVar[] width, IntVar[] height, boolean addCumulativeReasoning) {
 		Model model = X[0].getModel();
-		Constraint diffNCons = new Constraint(
-				"DiffN",
-				new PropDiffN(X, Y, width, height, false),
-				new PropDiffN(X, Y, width, height, false)
-		);
+		Constraint diffNCons;
+		if (model.getSettings().enableSweepOnDiffN(X.length)) {
+			IntVar[][] origins = new IntVar[X.length][];
+			IntVar[][] lengths = new IntVar[X.length][];
+			for (int i = 0; i < X.length; i++) {
+				origins[i] = new IntVar[]{X[i], Y[i]};
+				lengths[i] = new IntVar[]{width[i], height[i]};
+			}
+			diffNCons = diffN(origins, lengths);
+		} else {
+			diffNCons = new Constraint(
+					"DiffN",
+					new PropDiffN(X, Y, width, height, false),
+					new PropDiffN(X, Y, width, height, false)
+			);
+		}
 		if (addCumulativeReasoning) {
 			IntVar[] EX = new IntVar[X.length];
 			IntVar[] EY = new IntVar[X.length];
@@ -1018,6 +1039,47 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 		}
 	}
 
+	/**
+	 * Creates a k-dimensional diffN constraint. Constrains each box<sub>i</sub>, given by its origins origins<sub>i</sub>
+	 * and its lengths lengths<sub>i</sub>, to be non-overlapping.
+	 * <br/>
+	 * Relies on a sweep-based propagator, with an energetic reasoning, which scales to thousands of boxes.
+	 *
+	 * @param origins origins[i][d] is the coordinate of the i^th box in dimension d
+	 * @param lengths lengths[i][d] is the size of the i^th box in dimension d (should be >= 0)
+	 * @return a non-overlapping constraint
+	 */
+	default Constraint diffN(IntVar[][] origins, IntVar[][] lengths) {
+		return new Constraint("DiffN", new PropDiffNSweep(origins, lengths));
+	}
+
+	/**
+	 * Creates a disjunctive constraint: Enforces that tasks do not overlap in time,
+	 * that is, a unary resource executes at most one task at a time.
+	 * <br/>
+	 * It is equivalent to a cumulative constraint with unit heights and a capacity of one,
+	 * but filters with dedicated algorithms (overload checking, detectable precedences,
+	 * not-first/not-last and edge-finding), each in O(n log n).
+	 *
+	 * Task duration should be >= 0
+	 * Tasks whose duration can be equal to zero do not require the resource until it becomes positive
+	 *
+	 * @param tasks Task objects containing start, duration and end variables
+	 * @return a disjunctive constraint
+	 */
+	default Constraint disjunctive(Task[] tasks) {
+		int n = tasks.length;
+		IntVar[] s = new IntVar[n];
+		IntVar[] d = new IntVar[n];
+		IntVar[] e = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			s[i] = tasks[i].getStart();
+			d[i] = tasks[i].getDuration();
+			e[i] = tasks[i].getEnd();
+		}
+		return new Constraint("Disjunctive", new PropDisjunctive(s, d, e));
+	}
+
 	/**
 	 * Creates a element constraint: value = table[index-offset]
 	 * where table is an array of variables.
@@ -1674,19 +1736,20 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	 * Creates a table constraint specifying that the sequence of variables vars must belong to the list of tuples
 	 * (or must NOT belong in case of infeasible tuples)
 	 *
-	 * Default configuration with GACSTR+ algorithm for feasible tuples and GAC3rm otherwise
+	 * Default configuration with GACSTR+ algorithm for small feasible tuples, GAC3rm for small infeasible tuples,
+	 * and Compact-Table (CT+ or CT-) for large (more than 500 tuples) or short tuples.
+	 * Short infeasible tuples are expanded over the domains, see {@link PropCompactTableNeg#MAX_EXPANDED_TUPLES}.
 	 *
 	 * @param vars      variables forming the tuples
 	 * @param tuples    the relation between the variables (list of allowed/forbidden tuples)
 	 */
 	default Constraint table(IntVar[] vars, Tuples tuples) {
-		String algo = "GAC3rm";
+		boolean ct = tuples.allowUniversalValue() || tuples.nbTuples() > 500;
+		String algo;
 		if(tuples.isFeasible()){
-			if(tuples.nbTuples()>500){
-				algo = "CT+";
-			}else{
-				algo = "GACSTR+";
-			}
+			algo = ct ? "CT+" : "GACSTR+";
+		}else{
+			algo = ct ? "CT-" : "GAC3rm";
 		}
 		return table(vars,tuples,algo);
 	}
@@ -1694,7 +1757,10 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	/**
 	 * Creates a table constraint, with the specified algorithm defined algo
 	 * <p>
-	 * - <b>CT+</b>: Compact-Table algorithm (AC),
+	 * - <b>CT+</b>: Compact-Table algorithm (AC) for allowed tuples, short tuples are supported (CT*),
+	 * <br/>
+	 * - <b>CT-</b>: Compact-Table algorithm (AC) for forbidden tuples, short tuples are supported (CT-neg)
+	 * as long as they expand to at most {@link PropCompactTableNeg#MAX_EXPANDED_TUPLES} tuples,
 	 * <br/>
 	 * - <b>GAC2001</b>: Arc Consistency version 2001 for tuples,
 	 * <br/>
@@ -1711,21 +1777,36 @@ public interface IIntConstraintFactory extends ISelf<Model> {
 	 * - <b>FC</b>: Forward Checking.
 	 * <br/>
 	 * - <b>MDD+</b>: uses a multi-valued decision diagram for allowed tuples (see mddc constraint),
+	 * <p>
+	 * Only CT+ and CT- accept short tuples, see {@link Tuples#setUniversalValue(int)}.
 	 *
 	 * @param vars      variables forming the tuples
 	 * @param tuples    the relation between the variables (list of allowed/forbidden tuples)
-	 * @param algo to choose among {"TC+", "GAC3rm", "GAC2001", "GACSTR", "GAC2001+", "GAC3rm+", "FC", "STR2+"}
+	 * @param algo to choose among {"CT+", "CT-", "GAC3rm", "GAC2001", "GACSTR", "GAC2001+", "GAC3rm+", "FC", "STR2+"}
 	 */
 	default Constraint table(IntVar[] vars, Tuples tuples, String algo) {
-		if (vars.length == 2) {
+		if (vars.length == 2 && !tuples.allowUniversalValue()) {
 			table(vars[0], vars[1], tuples);
 		}
 		if(algo.contains("+") && !tuples.isFeasible()){
 			throw new SolverException(algo+" table algorithm cannot be used with forbidden tuples.");
 		}
+		if(algo.equals("CT-") && tuples.isFeasible()){
+			throw new SolverException(algo+" table algorithm cannot be used with allowed tuples.");
+		}
+		if(tuples.allowUniversalValue() && !algo.startsWith("CT")){
+			throw new SolverException(algo+" table algorithm cannot be used with short tuples.");
+		}
 		Propagator p;
 		switch (algo) {
-			case "CT+": p = new PropCompactTable(vars, tuples);
+			case "CT+":
+				if (tuples.allowUniversalValue()) {
+					p = new PropCompactTableStar(vars, tuples);
+				} else {
+					p = new PropCompactTable(vars, tuples);
+				}
+				break;
+			case "CT-": p = new PropCompactTableNeg(vars, tuples);
 				break;
 			case "MDD+": p = new PropLargeMDDC(new MultivaluedDecisionDiagram(vars, tuples), vars);
 				break;
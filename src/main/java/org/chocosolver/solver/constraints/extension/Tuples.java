@@ -42,6 +42,9 @@ import java.util.List;
  * A unique interface to declare tuples for table constraints.
  * Handles both feasible tuples and forbidden tuples.
  * <br/>
+ * Short tuples are supported too: once a universal value is declared with {@link #setUniversalValue(int)},
+ * any occurrence of it in a tuple stands for any value of the corresponding variable.
+ * <br/>
  *
  * @author Charles Prud'homme
  * @since 22/04/2014
@@ -56,6 +59,8 @@ public class Tuples {
 	protected final List<int[]> tuples;
 	private int arity;
 	private int[] ranges;
+	private boolean starred;
+	private int star;
 
 	//***********************************************************************************
 	// CONSTRUCTOR
@@ -122,7 +127,7 @@ public class Tuples {
 			int[] tuple = tuples.get(ti);
 			boolean valid = true;
 			for (int i = 0; i < values.length && valid; i++) {
-				if (tuple[i] != values[i]) valid = false;
+				if (tuple[i] != values[i] && !(starred && tuple[i] == star)) valid = false;
 			}
 			if (valid) {
 				return isFeasible()? ESat.TRUE: ESat.FALSE;
@@ -147,12 +152,52 @@ public class Tuples {
 			throw new SolverException("The given tuple does not match the arity: " + arity);
 		}
 		tuples.add(tuple);
+		updateRanges(tuple);
+	}
+
+	private void updateRanges(int[] tuple) {
 		for (int i = 0; i < arity; i++) {
-			ranges[i] = Math.min(ranges[i], tuple[i]);
-			ranges[i + arity] = Math.max(ranges[i + arity], tuple[i]);
+			if (!starred || tuple[i] != star) {
+				ranges[i] = Math.min(ranges[i], tuple[i]);
+				ranges[i + arity] = Math.max(ranges[i + arity], tuple[i]);
+			}
 		}
 	}
 
+	/**
+	 * Declares <i>value</i> as the universal value of these tuples:
+	 * any occurrence of it in a tuple stands for any value of the corresponding variable.
+	 * The universal value is expected to be out of the domains of the variables.
+	 * Only Compact-Table algorithms, "CT+" and "CT-", support short tuples.
+	 *
+	 * @param value the universal value, usually denoted '*'
+	 */
+	public void setUniversalValue(int value) {
+		this.starred = true;
+		this.star = value;
+		if (tuples.size() > 0) {
+			Arrays.fill(ranges, 0, arity, Integer.MAX_VALUE);
+			Arrays.fill(ranges, arity, 2 * arity, Integer.MIN_VALUE);
+			for (int[] t : tuples) {
+				updateRanges(t);
+			}
+		}
+	}
+
+	/**
+	 * @return <tt>true</tt> if a universal value has been declared, that is, tuples may be short
+	 */
+	public boolean allowUniversalValue() {
+		return starred;
+	}
+
+	/**
+	 * @return the universal value, only relevant when {@link #allowUniversalValue()} returns <tt>true</tt>
+	 */
+	public int getUniversalValue() {
+		return star;
+	}
+
 	/**
 	 * Add a tuple set
 	 *
@@ -174,7 +219,7 @@ public class Tuples {
 	}
 
 	/**
-	 * Return the minimum value for the idx^th column among all tuples
+	 * Return the minimum value for the idx^th column among all tuples, universal value excluded
 	 *
 	 * @param idx idx of the column
 	 * @return the minimum value
@@ -184,7 +229,7 @@ public class Tuples {
 	}
 
 	/**
-	 * Return the maximum value for the idx^th column among all tuples
+	 * Return the maximum value for the idx^th column among all tuples, universal value excluded
 	 *
 	 * @param idx index of the column
 	 * @return the maximum value
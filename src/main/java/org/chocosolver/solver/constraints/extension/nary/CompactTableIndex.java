@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable index of the tuples of a Compact-Table propagator:
+ * the tuples valid wrt the initial domains and, for each value, the set of tuples supporting it.
+ * <p>
+ * Building it is the main cost of a Compact-Table propagator, both in time and memory.
+ * Since it does not depend on the propagator, indices are cached, keyed by the identity of the {@link Tuples} object
+ * and by the initial domains of the variables, and shared among all the propagators, even from distinct models,
+ * posted on the same tuples.
+ * The cache does not prevent a {@link Tuples} object from being garbage collected,
+ * and keeps, per {@link Tuples} object, the {@link #MAX_INDICES_PER_TUPLES} most recently used indices only.
+ * Adding tuples to a {@link Tuples} object leads to a new index, but the tuples themselves
+ * (the <code>int[]</code>) must not be modified once a constraint has been created.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+final class CompactTableIndex {
+
+    /**
+     * Maximum number of indices cached per tuples, that is, of distinct initial domains
+     */
+    static final int MAX_INDICES_PER_TUPLES = 8;
+
+    /**
+     * Indices built so far, per tuples and per key, the least recently used ones being evicted first
+     */
+    private static final Map<Tuples, Map<Key, CompactTableIndex>> CACHE = new WeakHashMap<>();
+
+    /**
+     * Tuples valid wrt the initial domains
+     */
+    final Tuples tuples;
+    /**
+     * Initial lower bound of each variable
+     */
+    final int[] offset;
+    /**
+     * Supports of each value, indexed by variable then by value minus offset
+     */
+    final long[][][] supports;
+    /**
+     * Supports of each value, tuples with the universal value excluded,
+     * <tt>null</tt> when tuples are not short
+     */
+    final long[][][] supportsShort;
+
+    /**
+     * Get the index of <i>tuples</i> wrt the current domains of <i>vars</i>, built on the first call
+     * @param vars scope of the table
+     * @param tuples list of tuples
+     * @param expand set to <tt>true</tt> to expand the universal value, if any, and to remove duplicates
+     * @return an immutable index
+     */
+    static CompactTableIndex of(IntVar[] vars, Tuples tuples, boolean expand) {
+        Key key = new Key(vars, tuples, expand);
+        synchronized (CACHE) {
+            Map<Key, CompactTableIndex> indices = CACHE.computeIfAbsent(tuples, t -> new LinkedHashMap<Key, CompactTableIndex>(16, .75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, CompactTableIndex> eldest) {
+                    return size() > MAX_INDICES_PER_TUPLES;
+                }
+            });
+            CompactTableIndex index = indices.get(key);
+            if (index == null) {
+                index = new CompactTableIndex(vars, tuples, expand);
+                indices.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * @param tuples list of tuples
+     * @return the number of indices currently cached for <i>tuples</i>
+     */
+    static int cachedIndices(Tuples tuples) {
+        synchronized (CACHE) {
+            Map<Key, CompactTableIndex> indices = CACHE.get(tuples);
+            return indices == null ? 0 : indices.size();
+        }
+    }
+
+    private CompactTableIndex(IntVar[] vars, Tuples tuples, boolean expand) {
+        int n = vars.length;
+        boolean star = tuples.allowUniversalValue() && !expand;
+        this.tuples = expand ? expandedTuples(vars, tuples) : validTuples(vars, tuples);
+        int nw = this.tuples.nbTuples() / 64;
+        if (nw * 64 < this.tuples.nbTuples()) nw++;
+        long[] empty = new long[nw];
+        offset = new int[n];
+        supports = new long[n][][];
+        supportsShort = star ? new long[n][][] : null;
+        for (int i = 0; i < n; i++) {
+            int lb = vars[i].getLB();
+            int ub = vars[i].getUB();
+            offset[i] = lb;
+            supports[i] = new long[ub - lb + 1][];
+            if (star) {
+                supportsShort[i] = new long[ub - lb + 1][];
+            }
+            // values out of the domain are never accessed, they share an empty set
+            Arrays.fill(supports[i], empty);
+            for (int v = lb; v <= ub; v = vars[i].nextValue(v)) {
+                supports[i][v - lb] = new long[nw];
+                if (star) {
+                    supportsShort[i][v - lb] = new long[nw];
+                }
+            }
+        }
+        for (int ti = 0; ti < this.tuples.nbTuples(); ti++) {
+            int[] tuple = this.tuples.get(ti);
+            int wI = ti / 64;
+            long bit = 1L << (63 - ti % 64);
+            for (int i = 0; i < n; i++) {
+                if (star && tuple[i] == tuples.getUniversalValue()) {
+                    int ub = vars[i].getUB();
+                    for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                        supports[i][v - offset[i]][wI] |= bit;
+                    }
+                } else {
+                    supports[i][tuple[i] - offset[i]][wI] |= bit;
+                    if (star) {
+                        supportsShort[i][tuple[i] - offset[i]][wI] |= bit;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the tuples valid wrt the domains of <i>vars</i>, short ones included
+     */
+    private static Tuples validTuples(IntVar[] vars, Tuples tuples) {
+        boolean star = tuples.allowUniversalValue();
+        Tuples valid = new Tuples(tuples.isFeasible());
+        if (star) {
+            valid.setUniversalValue(tuples.getUniversalValue());
+        }
+        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
+            int[] tuple = tuples.get(ti);
+            boolean ok = true;
+            for (int i = 0; i < vars.length && ok; i++) {
+                if (!vars[i].contains(tuple[i]) && !(star && tuple[i] == tuples.getUniversalValue())) ok = false;
+            }
+            if (ok) {
+                valid.add(tuple);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @return the distinct tuples valid wrt the domains of <i>vars</i>, the universal value being expanded
+     * @throws SolverException if there are more than {@link PropCompactTableNeg#MAX_EXPANDED_TUPLES} such tuples
+     */
+    private static Tuples expandedTuples(IntVar[] vars, Tuples tuples) {
+        long size = 0;
+        for (int ti = 0; ti < tuples.nbTuples() && size <= PropCompactTableNeg.MAX_EXPANDED_TUPLES; ti++) {
+            size += expansionSize(vars, tuples, tuples.get(ti));
+        }
+        if (size > PropCompactTableNeg.MAX_EXPANDED_TUPLES) {
+            throw new SolverException("Short tuples expand to more than " + PropCompactTableNeg.MAX_EXPANDED_TUPLES
+                    + " tuples over the domains of " + Arrays.toString(vars) + ", consider expressing them as allowed tuples");
+        }
+        Tuples valid = new Tuples(tuples.isFeasible());
+        int[] tmp = new int[vars.length];
+        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
+            expand(vars, tuples, tuples.get(ti), tmp, 0, valid);
+        }
+        valid.sort();
+        Tuples distinct = new Tuples(tuples.isFeasible());
+        int[] last = null;
+        for (int ti = 0; ti < valid.nbTuples(); ti++) {
+            int[] tuple = valid.get(ti);
+            if (last == null || !Arrays.equals(last, tuple)) {
+                distinct.add(tuple);
+                last = tuple;
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * @return the number of tuples described by <i>tuple</i> which are valid wrt the domains,
+     * or any value greater than {@link PropCompactTableNeg#MAX_EXPANDED_TUPLES}
+     */
+    private static long expansionSize(IntVar[] vars, Tuples tuples, int[] tuple) {
+        long size = 1;
+        for (int i = 0; i < vars.length && size <= PropCompactTableNeg.MAX_EXPANDED_TUPLES; i++) {
+            if (tuples.allowUniversalValue() && tuple[i] == tuples.getUniversalValue()) {
+                size *= vars[i].getDomainSize();
+            } else if (!vars[i].contains(tuple[i])) {
+                size = 0;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Adds to <i>valid</i> the tuples described by <i>tuple</i> which are valid wrt the domains,
+     * the universal value, if any, being replaced by each value of the domain of the variable.
+     */
+    private static void expand(IntVar[] vars, Tuples tuples, int[] tuple, int[] tmp, int i, Tuples valid) {
+        if (i == vars.length) {
+            valid.add(tmp.clone());
+        } else if (tuples.allowUniversalValue() && tuple[i] == tuples.getUniversalValue()) {
+            int ub = vars[i].getUB();
+            for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                tmp[i] = v;
+                expand(vars, tuples, tuple, tmp, i + 1, valid);
+            }
+        } else if (vars[i].contains(tuple[i])) {
+            tmp[i] = tuple[i];
+            expand(vars, tuples, tuple, tmp, i + 1, valid);
+        }
+    }
+
+    /**
+     * Identifies an index of a given tuples: the initial domains, the number of tuples and how they are read
+     */
+    private static final class Key {
+        private final int[] data;
+        private final int hash;
+
+        private Key(IntVar[] vars, Tuples tuples, boolean expand) {
+            int size = 5;
+            for (IntVar var : vars) {
+                size += 3 + (var.getDomainSize() < var.getUB() - var.getLB() + 1 ? var.getDomainSize() : 0);
+            }
+            data = new int[size];
+            int k = 0;
+            data[k++] = expand ? 1 : 0;
+            data[k++] = tuples.allowUniversalValue() ? 1 : 0;
+            data[k++] = tuples.getUniversalValue();
+            data[k++] = tuples.nbTuples();
+            data[k++] = vars.length;
+            for (IntVar var : vars) {
+                int lb = var.getLB();
+                int ub = var.getUB();
+                data[k++] = lb;
+                data[k++] = ub;
+                data[k++] = var.getDomainSize();
+                if (var.getDomainSize() < ub - lb + 1) {
+                    for (int v = lb; v <= ub; v = var.nextValue(v)) {
+                        data[k++] = v;
+                    }
+                }
+            }
+            hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(data, ((Key) o).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -29,9 +29,6 @@
  */
 package org.chocosolver.solver.constraints.extension.nary;
 
-import org.chocosolver.memory.IEnvironment;
-import org.chocosolver.memory.IStateInt;
-import org.chocosolver.memory.IStateLong;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.constraints.extension.Tuples;
@@ -45,7 +42,8 @@ import org.chocosolver.util.procedure.UnaryIntProcedure;
 /**
  * Propagator for table constraint based on
  * "Compact-Table: Efficiently Filtering Table Constraints with Reversible Sparse Bit-Sets"
- * Only for feasible Tuples
+ * Only for feasible Tuples, see {@link PropCompactTableStar} for short tuples
+ * and {@link PropCompactTableNeg} for infeasible ones.
  *
  * @author Jean-Guillaume FAGES
  * @since 28/04/2016
@@ -56,13 +54,17 @@ public class PropCompactTable extends Propagator<IntVar> {
    	// VARIABLES
    	//***********************************************************************************
 
-    private RSparseBitSet currTable;
-    private Tuples tuples;
-    private long[][][] supports;
-    private int[][] residues;
-    private int[] offset;
-    private IIntDeltaMonitor[] monitors;
-    private UnaryIntProcedure<Integer> onValRem;
+    /**
+     * Immutable index of the tuples, shared with other propagators
+     */
+    final CompactTableIndex index;
+    protected RSparseBitSet currTable;
+    protected Tuples tuples;
+    protected long[][][] supports;
+    protected int[][] residues;
+    protected int[] offset;
+    protected IIntDeltaMonitor[] monitors;
+    protected UnaryIntProcedure<Integer> onValRem;
 
     //***********************************************************************************
    	// CONSTRUCTOR
@@ -75,9 +77,26 @@ public class PropCompactTable extends Propagator<IntVar> {
      * @param tuples list of feasible tuples
      */
     public PropCompactTable(IntVar[] vars, Tuples tuples) {
+        this(vars, tuples, false);
+    }
+
+    /**
+     * Create a propagator for table constraint
+     * @param vars scope
+     * @param tuples list of tuples
+     * @param expand set to <tt>true</tt> to expand short tuples and to remove duplicates
+     */
+    PropCompactTable(IntVar[] vars, Tuples tuples, boolean expand) {
         super(vars, PropagatorPriority.QUADRATIC, true);
-        copyValidTuples(tuples);
-        computeSupports();
+        index = CompactTableIndex.of(vars, tuples, expand);
+        this.tuples = index.tuples;
+        this.supports = index.supports;
+        this.offset = index.offset;
+        currTable = new RSparseBitSet(model.getEnvironment(), this.tuples.nbTuples());
+        residues = new int[vars.length][];
+        for (int i = 0; i < vars.length; i++) {
+            residues[i] = new int[supports[i].length];
+        }
         monitors = new IIntDeltaMonitor[vars.length];
         for (int i = 0; i < vars.length; i++) {
             monitors[i] = vars[i].monitorDelta(this);
@@ -97,54 +116,6 @@ public class PropCompactTable extends Propagator<IntVar> {
         };
     }
 
-    //***********************************************************************************
-   	// INITIALIZATION
-   	//***********************************************************************************
-
-    private void copyValidTuples(Tuples tuples) {
-        this.tuples = new Tuples(tuples.isFeasible());
-        for (int ti = 0; ti < tuples.nbTuples(); ti++) {
-            int[] tuple = tuples.get(ti);
-            boolean valid = true;
-            for (int i = 0; i < vars.length && valid; i++) {
-                if (!vars[i].contains(tuple[i])) valid = false;
-            }
-            if (valid) {
-                this.tuples.add(tuple);
-            }
-        }
-        currTable = new RSparseBitSet(model.getEnvironment(), this.tuples.nbTuples());
-    }
-
-    private void computeSupports() {
-        int n = vars.length;
-        offset = new int[n];
-        supports = new long[n][][];
-        residues = new int[n][];
-        for (int i = 0; i < n; i++) {
-            int lb = vars[i].getLB();
-            int ub = vars[i].getUB();
-            offset[i] = lb;
-            supports[i] = new long[ub - lb + 1][currTable.words.length];
-            residues[i] = new int[ub - lb + 1];
-            for (int v=lb ; v<=ub; v=vars[i].nextValue(v)) {
-                long[] tmp = supports[i][v - lb];
-                int wI = 0;
-                int bI = 63;
-                for (int ti = 0; ti < tuples.nbTuples(); ti++) {
-                    if (tuples.get(ti)[i] == v) {
-                        tmp[wI] |= 1L << (bI);
-                    }
-                    bI--;
-                    if (bI < 0) {
-                        bI = 63;
-                        wI++;
-                    }
-                }
-            }
-        }
-    }
-
     //***********************************************************************************
    	// FILTERING
    	//***********************************************************************************
@@ -169,6 +140,18 @@ public class PropCompactTable extends Propagator<IntVar> {
 
     @Override
     public void propagate(int vIdx, int mask) throws ContradictionException {
+        updateTable(vIdx);
+        if (currTable.isEmpty()) { // fail as soon as possible
+            fails();
+        }
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+    }
+
+    /**
+     * Removes from the current table the tuples which are not valid anymore wrt the domain of vars[vIdx]
+     * @param vIdx index of a modified variable
+     */
+    protected void updateTable(int vIdx) throws ContradictionException {
         currTable.clearMask();
 		monitors[vIdx].freeze();
         if (vars[vIdx].getDomainSize()>monitors[vIdx].sizeApproximation()) {
@@ -182,13 +165,9 @@ public class PropCompactTable extends Propagator<IntVar> {
         }
         currTable.intersectWithMask();
         monitors[vIdx].unfreeze();
-        if (currTable.isEmpty()) { // fail as soon as possible
-            fails();
-        }
-        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
-	private void filterDomains() throws ContradictionException {
+	protected void filterDomains() throws ContradictionException {
 		if(currTable.isEmpty()){// to keep as we skip instantiated vars
 			fails();
 		}
@@ -256,78 +235,4 @@ public class PropCompactTable extends Propagator<IntVar> {
 		// TODO optim : check current according to currTable?
         return tuples.check(vars);
     }
-
-    //***********************************************************************************
-   	// RSparseBitSet
-   	//***********************************************************************************
-
-    private class RSparseBitSet {
-        private IStateLong[] words;
-        private int[] index;
-        private IStateInt limit;
-        private long[] mask;
-
-		private RSparseBitSet(IEnvironment environment, int nbBits) {
-            int nw = nbBits / 64;
-            if (nw * 64 < nbBits) nw++;
-            index = new int[nw];
-            mask = new long[nw];
-            limit = environment.makeInt(nw - 1);
-            words = new IStateLong[nw];
-            for (int i = 0; i < nw; i++) {
-                index[i] = i;
-                words[i] = environment.makeLong(-1L);
-            }
-        }
-
-		private boolean isEmpty() {
-            return limit.get() == -1;
-        }
-
-		private void clearMask() {
-            for (int i = limit.get(); i >= 0; i--) {
-                int offset = index[i];
-                mask[offset] = 0L;
-            }
-        }
-
-		private void reverseMask() {
-            for (int i = limit.get(); i >= 0; i--) {
-                int offset = index[i];
-                mask[offset] = ~mask[offset];
-            }
-        }
-
-		private void addToMask(long[] wordsToAdd) {
-            for (int i = limit.get(); i >= 0; i--) {
-                int offset = index[i];
-                mask[offset] = mask[offset] | wordsToAdd[offset];
-            }
-        }
-
-		private void intersectWithMask() {
-            for (int i = limit.get(); i >= 0; i--) {
-                int offset = index[i];
-                long w = words[offset].get() & mask[offset];
-                if (words[offset].get() != w) {
-                    words[offset].set(w);
-                    if (w == 0L) {
-                        index[i] = index[limit.get()];
-                        index[limit.get()] = offset;
-                        limit.add(-1);
-                    }
-                }
-            }
-        }
-
-		private int intersectIndex(long[] m) {
-            for (int i = limit.get(); i >= 0; i--) {
-                int offset = index[i];
-                if ((words[offset].get() & m[offset]) != 0L) {
-                    return offset;
-                }
-            }
-            return -1;
-        }
-    }
-}
\ No newline at end of file
+}
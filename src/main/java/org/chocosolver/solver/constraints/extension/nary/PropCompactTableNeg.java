@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+
+/**
+ * Propagator for table constraint based on
+ * "Extending Compact-Table to Negative and Short Tables" (CT-neg).
+ * Only for infeasible Tuples.
+ * <p>
+ * The current table stores the forbidden tuples which are valid wrt the current domains.
+ * A value <i>a</i> of a variable <i>x</i> is removed as soon as the number of valid forbidden tuples
+ * with <i>x</i> = <i>a</i> is equal to the number of valid tuples with <i>x</i> = <i>a</i>,
+ * that is, the product of the domain sizes of the other variables.
+ * It requires forbidden tuples to be distinct: duplicates are removed on construction.
+ * Short tuples are accepted too, the universal value being expanded over the domain of the variable,
+ * as long as they expand to at most {@link #MAX_EXPANDED_TUPLES} tuples.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropCompactTableNeg extends PropCompactTable {
+
+    /**
+     * Maximum number of forbidden tuples once short tuples have been expanded over the initial domains
+     */
+    public static final int MAX_EXPANDED_TUPLES = 1_000_000;
+
+    //***********************************************************************************
+    // CONSTRUCTOR
+    //***********************************************************************************
+
+    /**
+     * Create a propagator for table constraint
+     * Only for infeasible Tuples
+     * @param vars scope
+     * @param tuples list of infeasible tuples
+     * @throws SolverException if short tuples expand to more than {@link #MAX_EXPANDED_TUPLES} tuples
+     */
+    public PropCompactTableNeg(IntVar[] vars, Tuples tuples) {
+        super(vars, tuples, true);
+    }
+
+    //***********************************************************************************
+    // FILTERING
+    //***********************************************************************************
+
+    @Override
+    public void propagate(int vIdx, int mask) throws ContradictionException {
+        updateTable(vIdx);
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+    }
+
+    @Override
+    protected void filterDomains() throws ContradictionException {
+        boolean fixpoint;
+        do {
+            fixpoint = true;
+            if (currTable.isEmpty()) {
+                // no forbidden tuple left
+                setPassive();
+                return;
+            }
+            long card = currTable.cardinality();
+            for (int i = 0; i < vars.length; i++) {
+                long others = nbValidTuples(i, card);
+                if (others <= card && filter(i, others)) {
+                    // removed values are not notified to this, the table has to be updated here
+                    currTable.clearMask();
+                    int ub = vars[i].getUB();
+                    for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                        currTable.addToMask(supports[i][v - offset[i]]);
+                    }
+                    currTable.intersectWithMask();
+                    card = currTable.cardinality();
+                    fixpoint = false;
+                }
+            }
+        } while (!fixpoint);
+    }
+
+    /**
+     * Computes the number of valid tuples with a given value for vars[i],
+     * that is, the product of the domain sizes of the other variables
+     * @param i index of a variable
+     * @param max threshold, the computation stops as soon as it is exceeded
+     * @return the number of valid tuples, or any value greater than <i>max</i>
+     */
+    private long nbValidTuples(int i, long max) {
+        long p = 1;
+        for (int j = 0; j < vars.length && p <= max; j++) {
+            if (j != i) {
+                p *= vars[j].getDomainSize();
+            }
+        }
+        return p;
+    }
+
+    private boolean filter(int i, long others) throws ContradictionException {
+        boolean removed = false;
+        if (vars[i].hasEnumeratedDomain()) {
+            int ub = vars[i].getUB();
+            for (int v = vars[i].getLB(); v <= ub; v = vars[i].nextValue(v)) {
+                if (forbidden(i, v, others)) {
+                    removed |= vars[i].removeValue(v, this);
+                }
+            }
+        } else {
+            int lb = vars[i].getLB();
+            int ub = vars[i].getUB();
+            while (lb <= ub && forbidden(i, lb, others)) {
+                lb++;
+            }
+            removed = vars[i].updateLowerBound(lb, this);
+            while (ub > lb && forbidden(i, ub, others)) {
+                ub--;
+            }
+            removed |= vars[i].updateUpperBound(ub, this);
+        }
+        return removed;
+    }
+
+    private boolean forbidden(int i, int v, long others) {
+        return currTable.cardinalityOfIntersection(supports[i][v - offset[i]]) >= others;
+    }
+}
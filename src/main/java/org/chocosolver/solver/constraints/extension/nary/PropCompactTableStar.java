@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.procedure.UnaryIntProcedure;
+
+/**
+ * Propagator for table constraint based on
+ * "Extending Compact-Table to Negative and Short Tables" (CT*).
+ * Only for feasible Tuples, which may be short, that is, may contain the universal value
+ * declared with {@link Tuples#setUniversalValue(int)}.
+ * <p>
+ * A tuple with the universal value for a variable supports all its values.
+ * Such tuple must not be discarded when a value is removed from the domain of the variable,
+ * so the incremental update of the table relies on strict supports, which ignore the universal value.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropCompactTableStar extends PropCompactTable {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    /**
+     * Supports of each value, tuples with the universal value excluded
+     */
+    private long[][][] supportsShort;
+
+    //***********************************************************************************
+    // CONSTRUCTOR
+    //***********************************************************************************
+
+    /**
+     * Create a propagator for table constraint
+     * Only for feasible Tuples, which may be short
+     * @param vars scope
+     * @param tuples list of feasible tuples
+     */
+    public PropCompactTableStar(IntVar[] vars, Tuples tuples) {
+        super(vars, tuples);
+        supportsShort = index.supportsShort;
+        onValRem = new UnaryIntProcedure<Integer>() {
+            int var, off;
+            @Override
+            public UnaryIntProcedure set(Integer o) {
+                var = o;
+                off = offset[var];
+                return this;
+            }
+            @Override
+            public void execute(int i) throws ContradictionException {
+                currTable.addToMask(supportsShort[var][i - off]);
+            }
+        };
+    }
+}
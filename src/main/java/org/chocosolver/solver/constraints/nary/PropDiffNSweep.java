@@ -0,0 +1,477 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.sort.ArraySort;
+
+/**
+ * Non-overlapping constraint over k-dimensional boxes, based on a sweep-point algorithm.
+ * <br/>
+ * For each box and each dimension, the smallest (resp. largest) origin which is not in a forbidden region
+ * is searched in lexicographic order, jumping over the forbidden regions met.
+ * The forbidden region of a box <i>j</i> for a box <i>o</i> is the set of origins of <i>o</i>
+ * which intersect every placement of <i>j</i>,
+ * they are retrieved from an index of the boxes sorted on one dimension, instead of being tested pairwise.
+ * <br/>
+ * In addition, an energetic reasoning is applied, in each dimension,
+ * on the boxes whose reach starts after (resp. ends before) a given point:
+ * the volume of their bounding box must be large enough to contain them
+ * and the box just before them in that order.
+ * <br/>
+ * Filtering is done on origins only, and is iterated until a fix point is reached.
+ * <p>
+ * Based on "Sweep as a Generic Pruning Technique Applied to the Non-Overlapping Rectangles Constraint",
+ * N. Beldiceanu, M. Carlsson, CP 2001,
+ * and "A Generic Geometrical Constraint Kernel in Space and Time for Handling Polymorphic k-Dimensional Objects",
+ * N. Beldiceanu, M. Carlsson, E. Poder, R. Sadek, C. Truchet, CP 2007.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropDiffNSweep extends Propagator<IntVar> {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    private final int n, k;
+    // regions used to compute forbidden regions: [lo, hi) in each dimension
+    private final int[][] lo, hi;
+    // indexed boxes, sorted by lo on dimension 'dim', their keys and a max-tree on hi
+    private final int[] idx, keys, tree;
+    private int nbIdx, dim, size;
+    // sweep point, jump vector and minimal lengths of the current box
+    private final int[] c, jump, len;
+    // energetic reasoning
+    private final int[] order, rlo, rhi;
+    private final long[] bLo, bHi;
+    private final ArraySort sorter;
+
+    //***********************************************************************************
+    // CONSTRUCTOR
+    //***********************************************************************************
+
+    /**
+     * Non-overlapping constraint over k-dimensional boxes
+     *
+     * @param origins origins[i][d] is the origin of the i^th box in dimension d
+     * @param lengths lengths[i][d] is the length of the i^th box in dimension d
+     */
+    public PropDiffNSweep(IntVar[][] origins, IntVar[][] lengths) {
+        super(flatten(origins, lengths), PropagatorPriority.QUADRATIC, false);
+        this.n = origins.length;
+        this.k = origins[0].length;
+        lo = new int[k][n];
+        hi = new int[k][n];
+        idx = new int[n];
+        keys = new int[n];
+        int s = 1;
+        while (s < n) {
+            s <<= 1;
+        }
+        tree = new int[2 * s];
+        c = new int[k];
+        jump = new int[k];
+        len = new int[k];
+        order = new int[n];
+        rlo = new int[n];
+        rhi = new int[n];
+        bLo = new long[k];
+        bHi = new long[k];
+        sorter = new ArraySort(n, false, true);
+    }
+
+    private static IntVar[] flatten(IntVar[][] origins, IntVar[][] lengths) {
+        int n = origins.length;
+        int k = origins[0].length;
+        IntVar[] vars = new IntVar[2 * k * n];
+        for (int i = 0; i < n; i++) {
+            if (origins[i].length != k || lengths[i].length != k) {
+                throw new UnsupportedOperationException();
+            }
+            for (int d = 0; d < k; d++) {
+                vars[d * n + i] = origins[i][d];
+                vars[(k + d) * n + i] = lengths[i][d];
+            }
+        }
+        return vars;
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    private IntVar x(int i, int d) {
+        return vars[d * n + i];
+    }
+
+    private IntVar l(int i, int d) {
+        return vars[(k + d) * n + i];
+    }
+
+    @Override
+    public int getPropagationConditions(int idx) {
+        return IntEventType.boundAndInst();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        boolean change;
+        do {
+            change = false;
+            for (int d = 0; d < k; d++) {
+                change |= energy(d, true);
+                change |= energy(d, false);
+            }
+            buildIndex();
+            for (int o = 0; o < n; o++) {
+                for (int d = 0; d < k; d++) {
+                    change |= pruneMin(o, d);
+                    change |= pruneMax(o, d);
+                }
+            }
+        } while (change);
+    }
+
+    //***********************************************************************************
+    // SWEEP
+    //***********************************************************************************
+
+    /**
+     * Index the boxes which may define a forbidden region,
+     * that is, in each dimension, the boxes whose intersection of all placements is large enough.
+     */
+    private void buildIndex() {
+        long best = -1;
+        dim = 0;
+        for (int d = 0; d < k; d++) {
+            int maxLen = 0;
+            long sumLen = 0;
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                lo[d][i] = x(i, d).getUB();
+                hi[d][i] = x(i, d).getLB() + l(i, d).getLB();
+                maxLen = Math.max(maxLen, l(i, d).getLB());
+                sumLen += l(i, d).getLB();
+                min = Math.min(min, x(i, d).getLB());
+                max = Math.max(max, x(i, d).getUB() + l(i, d).getLB());
+            }
+            // a forbidden region exists if the box is long enough in each dimension
+            for (int i = 0; i < n; i++) {
+                if (hi[d][i] - lo[d][i] < 2 - maxLen) {
+                    hi[d][i] = lo[d][i] = Integer.MIN_VALUE;
+                }
+            }
+            // index the dimension in which boxes are the most spread out
+            long spread = ((long) max - min) * n / (sumLen + n);
+            if (spread > best) {
+                best = spread;
+                dim = d;
+            }
+        }
+        nbIdx = 0;
+        for (int i = 0; i < n; i++) {
+            boolean ok = true;
+            for (int d = 0; d < k && ok; d++) {
+                ok = hi[d][i] != Integer.MIN_VALUE;
+            }
+            if (ok) {
+                idx[nbIdx++] = i;
+            }
+        }
+        int[] l = lo[dim];
+        sorter.sort(idx, nbIdx, (i1, i2) -> Integer.compare(l[i1], l[i2]));
+        size = 1;
+        while (size < nbIdx) {
+            size <<= 1;
+        }
+        for (int r = 0; r < size; r++) {
+            if (r < nbIdx) {
+                keys[r] = l[idx[r]];
+                tree[size + r] = hi[dim][idx[r]];
+            } else {
+                tree[size + r] = Integer.MIN_VALUE;
+            }
+        }
+        for (int v = size - 1; v > 0; v--) {
+            tree[v] = Math.max(tree[2 * v], tree[2 * v + 1]);
+        }
+    }
+
+    /**
+     * @param o a box
+     * @return a box, other than <i>o</i>, whose forbidden region for <i>o</i> contains the sweep point, -1 if none
+     */
+    private int getFR(int o) {
+        // only boxes with lo < c + len may contain the sweep point
+        long bound = (long) c[dim] + len[dim];
+        int a = 0, b = nbIdx;
+        while (a < b) {
+            int m = (a + b) >>> 1;
+            if (keys[m] < bound) {
+                a = m + 1;
+            } else {
+                b = m;
+            }
+        }
+        return a == 0 ? -1 : find(1, 0, size, a, o);
+    }
+
+    private int find(int v, int from, int to, int p, int o) {
+        if (from >= p || tree[v] <= c[dim]) {
+            return -1;
+        }
+        if (v >= size) {
+            int j = idx[v - size];
+            return j != o && contains(j) ? j : -1;
+        }
+        int mid = (from + to) >>> 1;
+        int j = find(2 * v, from, mid, p, o);
+        return j >= 0 ? j : find(2 * v + 1, mid, to, p, o);
+    }
+
+    private boolean contains(int j) {
+        for (int d = 0; d < k; d++) {
+            if ((long) lo[d][j] >= (long) c[d] + len[d] || hi[d][j] <= c[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sweep from the lower corner of the origin of <i>o</i>, dimension <i>d</i> being the most significant one
+     */
+    private boolean pruneMin(int o, int d) throws ContradictionException {
+        for (int j = 0; j < k; j++) {
+            c[j] = x(o, j).getLB();
+            jump[j] = x(o, j).getUB() + 1;
+            len[j] = l(o, j).getLB();
+        }
+        boolean b = true;
+        int f;
+        while (b && (f = getFR(o)) >= 0) {
+            for (int j = 0; j < k; j++) {
+                jump[j] = Math.min(jump[j], hi[j][f]);
+            }
+            b = false;
+            for (int j = k - 1; j >= 0 && !b; j--) {
+                int jj = (j + d) % k;
+                c[jj] = jump[jj];
+                jump[jj] = x(o, jj).getUB() + 1;
+                if (c[jj] <= x(o, jj).getUB()) {
+                    b = true;
+                } else {
+                    c[jj] = x(o, jj).getLB();
+                }
+            }
+        }
+        if (!b) {
+            fails();
+        }
+        return x(o, d).updateLowerBound(c[d], this);
+    }
+
+    /**
+     * Sweep from the upper corner of the origin of <i>o</i>, dimension <i>d</i> being the most significant one
+     */
+    private boolean pruneMax(int o, int d) throws ContradictionException {
+        for (int j = 0; j < k; j++) {
+            c[j] = x(o, j).getUB();
+            jump[j] = x(o, j).getLB() - 1;
+            len[j] = l(o, j).getLB();
+        }
+        boolean b = true;
+        int f;
+        while (b && (f = getFR(o)) >= 0) {
+            for (int j = 0; j < k; j++) {
+                jump[j] = Math.max(jump[j], lo[j][f] - len[j]);
+            }
+            b = false;
+            for (int j = k - 1; j >= 0 && !b; j--) {
+                int jj = (j + d) % k;
+                c[jj] = jump[jj];
+                jump[jj] = x(o, jj).getLB() - 1;
+                if (c[jj] >= x(o, jj).getLB()) {
+                    b = true;
+                } else {
+                    c[jj] = x(o, jj).getUB();
+                }
+            }
+        }
+        if (!b) {
+            fails();
+        }
+        return x(o, d).updateUpperBound(c[d], this);
+    }
+
+    //***********************************************************************************
+    // ENERGY
+    //***********************************************************************************
+
+    /**
+     * Energetic reasoning on the sets of boxes whose reach in dimension <i>d</i>
+     * starts after a given point (<i>after</i> set to true) or ends before a given point.
+     * The reach of a box is the region its minimal box can be placed in.
+     */
+    private boolean energy(int d, boolean after) throws ContradictionException {
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            rlo[i] = x(i, d).getLB();
+            rhi[i] = x(i, d).getUB() + l(i, d).getLB();
+        }
+        if (after) {
+            sorter.sort(order, n, (i1, i2) -> Integer.compare(rlo[i1], rlo[i2]));
+        } else {
+            sorter.sort(order, n, (i1, i2) -> Integer.compare(rhi[i2], rhi[i1]));
+        }
+        boolean change = false;
+        long volume = 0;
+        for (int j = 0; j < k; j++) {
+            bLo[j] = Long.MAX_VALUE;
+            bHi[j] = Long.MIN_VALUE;
+        }
+        for (int r = n - 1; r >= 0; r--) {
+            int i = order[r];
+            long v = 1;
+            for (int j = 0; j < k; j++) {
+                bLo[j] = Math.min(bLo[j], x(i, j).getLB());
+                bHi[j] = Math.max(bHi[j], (long) x(i, j).getUB() + l(i, j).getLB());
+                v = mul(v, l(i, j).getLB());
+            }
+            volume = Math.min(Long.MAX_VALUE - v, volume) + v;
+            long capacity = 1;
+            for (int j = 0; j < k; j++) {
+                capacity = mul(capacity, bHi[j] - bLo[j]);
+            }
+            if (volume > capacity) {
+                fails();
+            }
+            if (r > 0) {
+                change |= pruneByEnergy(order[r - 1], capacity - volume);
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Forbid the origins of <i>o</i> whose minimal intersection with the bounding box exceeds the free volume
+     */
+    private boolean pruneByEnergy(int o, long slack) throws ContradictionException {
+        boolean change = false;
+        for (int j = 0; j < k; j++) {
+            long mo = 1;
+            for (int i = 0; i < k && mo > 0; i++) {
+                if (i != j) {
+                    mo = mul(mo, Math.min(overlap(o, i, x(o, i).getLB()), overlap(o, i, x(o, i).getUB())));
+                }
+            }
+            if (mo == 0) {
+                continue;
+            }
+            long q = slack / mo;
+            long lj = l(o, j).getLB();
+            if (q >= Math.min(lj, bHi[j] - bLo[j])) {
+                continue;
+            }
+            // the intersection exceeds q on [bLo - l + q + 1, bHi - q - 1]
+            long fmin = bLo[j] - lj + q + 1;
+            long fmax = bHi[j] - q - 1;
+            IntVar xj = x(o, j);
+            if (fmin <= xj.getLB() && xj.getLB() <= fmax) {
+                change |= xj.updateLowerBound((int) (fmax + 1), this);
+            }
+            if (fmin <= xj.getUB() && xj.getUB() <= fmax) {
+                change |= xj.updateUpperBound((int) (fmin - 1), this);
+            }
+        }
+        return change;
+    }
+
+    private long overlap(int o, int j, int at) {
+        return Math.max(0, Math.min((long) at + l(o, j).getLB(), bHi[j]) - Math.max(at, bLo[j]));
+    }
+
+    private static long mul(long a, long b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    //***********************************************************************************
+    // OTHERS
+    //***********************************************************************************
+
+    @Override
+    public ESat isEntailed() {
+        buildIndex();
+        boolean all = true;
+        for (int o = 0; o < n; o++) {
+            boolean inst = true;
+            for (int d = 0; d < k; d++) {
+                inst &= x(o, d).isInstantiated() && l(o, d).isInstantiated();
+                c[d] = x(o, d).getLB();
+                len[d] = l(o, d).getLB();
+            }
+            if (inst && getFR(o) >= 0) {
+                return ESat.FALSE;
+            }
+            all &= inst;
+        }
+        return all ? ESat.TRUE : ESat.UNDEFINED;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DIFFN(");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(",");
+            sb.append("[");
+            for (int d = 0; d < k; d++) {
+                sb.append(x(i, d).toString()).append(",");
+            }
+            for (int d = 0; d < k; d++) {
+                if (d > 0) sb.append(",");
+                sb.append(l(i, d).toString());
+            }
+            sb.append("]");
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
+}
@@ -34,7 +34,10 @@ import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.constraints.nary.alldifferent.algo.AlgoAllDiffAC;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.delta.IIntDeltaMonitor;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
+import org.chocosolver.util.procedure.UnaryIntProcedure;
 
 /**
  * Propagator for AllDifferent AC constraint for integer variables
@@ -43,7 +46,9 @@ import org.chocosolver.util.ESat;
  * Runs in O(m.n) worst case time for the initial propagation
  * but has a good average behavior in practice
  * <p/>
- * Runs incrementally for maintaining a matching
+ * Runs incrementally for maintaining a matching:
+ * removed values are given to the algorithm on fine events, so that the value graph, the matching
+ * and the strongly connected components are only repaired where needed
  * <p/>
  *
  * @author Jean-Guillaume Fages
@@ -55,6 +60,8 @@ public class PropAllDiffAC extends Propagator<IntVar> {
     //***********************************************************************************
 
     protected AlgoAllDiffAC filter;
+    protected IIntDeltaMonitor[] monitors;
+    private UnaryIntProcedure<Integer> onValRem;
 
     //***********************************************************************************
     // CONSTRUCTORS
@@ -67,8 +74,24 @@ public class PropAllDiffAC extends Propagator<IntVar> {
      * @param variables array of integer variables
      */
     public PropAllDiffAC(IntVar[] variables) {
-        super(variables, PropagatorPriority.QUADRATIC, false);
-        this.filter = new AlgoAllDiffAC(variables, this);
+        super(variables, PropagatorPriority.QUADRATIC, true);
+        this.filter = new AlgoAllDiffAC(variables, this, true);
+        this.monitors = new IIntDeltaMonitor[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            monitors[i] = vars[i].monitorDelta(this);
+        }
+        onValRem = new UnaryIntProcedure<Integer>() {
+            int var;
+            @Override
+            public UnaryIntProcedure set(Integer o) {
+                var = o;
+                return this;
+            }
+            @Override
+            public void execute(int i) throws ContradictionException {
+                filter.remove(var, i);
+            }
+        };
     }
 
     //***********************************************************************************
@@ -78,6 +101,19 @@ public class PropAllDiffAC extends Propagator<IntVar> {
     @Override
     public void propagate(int evtmask) throws ContradictionException {
         filter.propagate();
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            for (int i = 0; i < vars.length; i++) {
+                monitors[i].unfreeze();
+            }
+        }
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        monitors[idxVarInProp].freeze();
+        monitors[idxVarInProp].forEachRemVal(onValRem.set(idxVarInProp));
+        monitors[idxVarInProp].unfreeze();
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
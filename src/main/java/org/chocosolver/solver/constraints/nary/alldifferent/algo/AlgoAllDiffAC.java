@@ -30,6 +30,7 @@
 package org.chocosolver.solver.constraints.nary.alldifferent.algo;
 
 import gnu.trove.map.hash.TIntIntHashMap;
+import org.chocosolver.memory.IStateInt;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
@@ -42,6 +43,12 @@ import java.util.BitSet;
 
 /**
  * Algorithm of Alldifferent with AC
+ * <p>
+ * The value graph, the matching and the strongly connected components (SCC) are kept from one call to another.
+ * When built incrementally, the algorithm is informed of each value removed by other causes with {@link #remove(int, int)}:
+ * the graph is then repaired, the matching is only repaired for the variables which lost their matched value,
+ * and the SCCs are only recomputed, and the domains only filtered, in the components which lost an arc.
+ * After a backtrack, the graph is rebuilt from scratch on the next call to {@link #propagate()}.
  */
 public class AlgoAllDiffAC {
 
@@ -49,25 +56,52 @@ public class AlgoAllDiffAC {
     // VARIABLES
     //***********************************************************************************
 
+    /**
+     * Values are indexed with an array when their span is at most this factor times the sum of the domain sizes,
+     * with a hash map otherwise
+     */
+    private static final int DENSITY = 4;
+
     private int n, n2;
     private DirectedGraph digraph;
     private int[] matching;
     private int[] nodeSCC;
+    private int nbSCC;
     private BitSet free;
     private StrongConnectivityFinder SCCfinder;
     // for augmenting matching (BFS)
     private int[] father;
     private BitSet in;
-    private TIntIntHashMap map;
     private int[] fifo;
     private IntVar[] vars;
     private ICause aCause;
+    // value index: value to node, dense when possible
+    private int offset;
+    private int[] val2node;
+    private TIntIntHashMap map;
+    // set to true when free values are connected to an artificial sink node (n2)
+    private boolean sink;
+    // incrementality: stamp of the last modification of the graph, restored on backtrack
+    private IStateInt stamp;
+    private int calls;
+    private BitSet dirty;
+    private boolean freeChanged;
+    private BitSet restriction, toVisit;
 
     //***********************************************************************************
     // CONSTRUCTORS
     //***********************************************************************************
 
     public AlgoAllDiffAC(IntVar[] variables, ICause cause) {
+        this(variables, cause, false);
+    }
+
+    /**
+     * @param variables   variables which must take different values
+     * @param cause       the cause of the domain reductions
+     * @param incremental set to <tt>true</tt> when removed values are given with {@link #remove(int, int)}
+     */
+    public AlgoAllDiffAC(IntVar[] variables, ICause cause, boolean incremental) {
         this.vars = variables;
 		aCause = cause;
         n = vars.length;
@@ -75,7 +109,23 @@ public class AlgoAllDiffAC {
         for (int i = 0; i < n; i++) {
             matching[i] = -1;
         }
-        map = new TIntIntHashMap();
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        long size = 0;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, vars[i].getLB());
+            max = Math.max(max, vars[i].getUB());
+            size += vars[i].getDomainSize();
+        }
+        long span = (long) max - min + 1;
+        if (span <= DENSITY * size) {
+            offset = min;
+            val2node = new int[(int) span];
+            for (int j = 0; j < span; j++) {
+                val2node[j] = -1;
+            }
+        } else {
+            map = new TIntIntHashMap(16, .5f, Integer.MIN_VALUE, -1);
+        }
         IntVar v;
         int ub;
         int idx = n;
@@ -83,19 +133,39 @@ public class AlgoAllDiffAC {
             v = vars[i];
             ub = v.getUB();
             for (int j = v.getLB(); j <= ub; j = v.nextValue(j)) {
-                if (!map.containsKey(j)) {
-                    map.put(j, idx);
+                if (node(j) == -1) {
+                    if (map == null) {
+                        val2node[j - offset] = idx;
+                    } else {
+                        map.put(j, idx);
+                    }
                     idx++;
                 }
             }
         }
         n2 = idx;
+        sink = n2 > n * 2;
         fifo = new int[n2];
-        digraph = new DirectedGraph(n2 + 1, SetType.BITSET, false);
+        digraph = new DirectedGraph(n2 + 1, SetType.BITSET, true);
         free = new BitSet(n2);
         father = new int[n2];
         in = new BitSet(n2);
         SCCfinder = new StrongConnectivityFinder(digraph);
+        nodeSCC = new int[n2 + 1];
+        restriction = new BitSet(n2 + 1);
+        toVisit = new BitSet(n2 + 1);
+        if (incremental && n > 0) {
+            stamp = vars[0].getModel().getEnvironment().makeInt(-1);
+            dirty = new BitSet();
+        }
+    }
+
+    /**
+     * @param value a value of the initial domains
+     * @return the node of <i>value</i>, -1 if it is not in the graph
+     */
+    private int node(int value) {
+        return map == null ? val2node[value - offset] : map.get(value);
     }
 
     //***********************************************************************************
@@ -103,16 +173,57 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     public boolean propagate() throws ContradictionException {
-        findMaximumMatching();
+        boolean rebuild = stamp == null || stamp.get() != calls;
+        if (stamp != null) {
+            stamp.set(++calls);
+        }
+        if (rebuild) {
+            findMaximumMatching();
+            buildSCC();
+            restriction.set(0, n2 + 1);
+            return filter();
+        }
+        repairMatching();
+        if (dirty.isEmpty()) {
+            return false;
+        }
+        updateSCC();
         return filter();
     }
 
+    /**
+     * Informs this algorithm that <i>value</i> has been removed from the domain of the <i>i</i>^th variable
+     * by another cause.
+     * It is only relevant when this algorithm is incremental, and does nothing otherwise.
+     *
+     * @param i     index of a variable
+     * @param value a value removed from its domain
+     */
+    public void remove(int i, int value) {
+        if (stamp == null || stamp.get() != calls) {
+            return; // the graph will be rebuilt anyway
+        }
+        stamp.set(++calls);
+        int j = node(value);
+        if (digraph.removeArc(i, j)) {
+            dirty.set(nodeSCC[i]);
+            dirty.set(nodeSCC[j]);
+        } else if (digraph.removeArc(j, i)) {
+            // the matching is repaired on the next call to propagate()
+            matching[i] = -1;
+            free.set(i);
+            setFree(j, true);
+            dirty.set(nodeSCC[i]);
+            dirty.set(nodeSCC[j]);
+        }
+    }
+
     //***********************************************************************************
     // Initialization
     //***********************************************************************************
 
     private void findMaximumMatching() throws ContradictionException {
-        for (int i = 0; i < n2; i++) {
+        for (int i = 0; i <= n2; i++) {
             digraph.getSuccOf(i).clear();
             digraph.getPredOf(i).clear();
         }
@@ -123,36 +234,82 @@ public class AlgoAllDiffAC {
             v = vars[i];
             ub = v.getUB();
             int mate = matching[i];
+            matching[i] = -1;
             for (k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                int j = map.get(k);
+                int j = node(k);
                 if (mate == j) {
                     assert free.get(i) && free.get(j);
                     digraph.addArc(j, i);
                     free.clear(i);
                     free.clear(j);
+                    matching[i] = j;
                 } else {
                     digraph.addArc(i, j);
                 }
             }
         }
+        if (sink) {
+            for (int j = n; j < n2; j++) {
+                if (free.get(j)) {
+                    digraph.addArc(j, n2);
+                } else {
+                    digraph.addArc(n2, j);
+                }
+            }
+        }
+        repairMatching();
+    }
+
+    private void repairMatching() throws ContradictionException {
         for (int i = free.nextSetBit(0); i >= 0 && i < n; i = free.nextSetBit(i + 1)) {
             tryToMatch(i);
         }
-        for (int i = 0; i < n; i++) {
-            matching[i] = digraph.getPredOf(i).isEmpty()?-1:digraph.getPredOf(i).iterator().next();
+    }
+
+    /**
+     * Updates the status of a value node, and its arc with the sink node, if any
+     *
+     * @param j      a value node
+     * @param isFree <tt>true</tt> if <i>j</i> is not matched anymore
+     */
+    private void setFree(int j, boolean isFree) {
+        if (isFree) {
+            free.set(j);
+        } else {
+            free.clear(j);
+        }
+        if (sink) {
+            if (isFree) {
+                digraph.removeArc(n2, j);
+                digraph.addArc(j, n2);
+            } else {
+                digraph.removeArc(j, n2);
+                digraph.addArc(n2, j);
+            }
         }
+        freeChanged = true;
     }
 
     private void tryToMatch(int i) throws ContradictionException {
         int mate = augmentPath_BFS(i);
         if (mate != -1) {
-            free.clear(mate);
+            setFree(mate, false);
             free.clear(i);
             int tmp = mate;
             while (tmp != i) {
-                digraph.removeArc(father[tmp], tmp);
-                digraph.addArc(tmp, father[tmp]);
-                tmp = father[tmp];
+                int f = father[tmp];
+                digraph.removeArc(f, tmp);
+                digraph.addArc(tmp, f);
+                if (tmp >= n) {
+                    matching[f] = tmp;
+                }
+                if (dirty != null) {
+                    dirty.set(nodeSCC[tmp]);
+                }
+                tmp = f;
+            }
+            if (dirty != null) {
+                dirty.set(nodeSCC[i]);
             }
         } else {
             vars[0].instantiateTo(vars[0].getLB()-1,aCause);
@@ -161,6 +318,7 @@ public class AlgoAllDiffAC {
 
     private int augmentPath_BFS(int root) {
         in.clear();
+        in.set(n2); // the sink node is not part of the bipartite graph
         int indexFirst = 0, indexLast = 0;
         fifo[indexLast++] = root;
         int x;
@@ -188,55 +346,101 @@ public class AlgoAllDiffAC {
     //***********************************************************************************
 
     private void buildSCC() {
-        if (n2 > n * 2) {
-            digraph.removeNode(n2);
-            digraph.addNode(n2);
-            for (int i = n; i < n2; i++) {
-                if (free.get(i)) {
-                    digraph.addArc(i, n2);
-                } else {
-                    digraph.addArc(n2, i);
-                }
+        SCCfinder.findAllSCC();
+        System.arraycopy(SCCfinder.getNodesSCC(), 0, nodeSCC, 0, n2 + 1);
+        nbSCC = SCCfinder.getNbSCC();
+        if (dirty != null) {
+            dirty.clear();
+        }
+        freeChanged = false;
+    }
+
+    /**
+     * Recomputes the SCCs of the nodes of the dirty components only.
+     * Other components are not modified since the last call, they have no arc to the dirty ones but the ones
+     * to the sink node, and remain SCCs.
+     * The component of the sink node is also recomputed when the free values changed,
+     * since a dirty component may now reach a free value.
+     */
+    private void updateSCC() {
+        if (sink && freeChanged) {
+            dirty.set(nodeSCC[n2]);
+        }
+        restriction.clear();
+        for (int x = 0; x <= n2; x++) {
+            if (dirty.get(nodeSCC[x])) {
+                restriction.set(x);
             }
         }
-        SCCfinder.findAllSCC();
-        nodeSCC = SCCfinder.getNodesSCC();
-        digraph.removeNode(n2);
+        toVisit.clear();
+        toVisit.or(restriction);
+        SCCfinder.findAllSCCOf(toVisit);
+        int[] scc = SCCfinder.getNodesSCC();
+        for (int x = restriction.nextSetBit(0); x >= 0; x = restriction.nextSetBit(x + 1)) {
+            nodeSCC[x] = nbSCC + scc[x];
+        }
+        nbSCC += SCCfinder.getNbSCC();
+        if (nbSCC > 2 * (n2 + 1)) {
+            renumberSCC();
+        }
+        dirty.clear();
+        freeChanged = false;
+    }
+
+    /**
+     * Renumbers components from 0, to keep the dirty component set small
+     */
+    private void renumberSCC() {
+        int[] ids = new int[nbSCC];
+        int nb = 0;
+        for (int x = 0; x <= n2; x++) {
+            int c = nodeSCC[x];
+            if (ids[c] == 0) {
+                ids[c] = ++nb;
+            }
+            nodeSCC[x] = ids[c] - 1;
+        }
+        nbSCC = nb;
     }
 
     private boolean filter() throws ContradictionException {
         boolean filter =false;
-        buildSCC();
         int j, ub;
         IntVar v;
-        for (int i = 0; i < n; i++) {
+        for (int i = restriction.nextSetBit(0); i >= 0 && i < n; i = restriction.nextSetBit(i + 1)) {
             v = vars[i];
             ub = v.getUB();
+            boolean instantiate = false;
+            int value = 0;
             for (int k = v.getLB(); k <= ub; k = v.nextValue(k)) {
-                j = map.get(k);
+                j = node(k);
                 if (nodeSCC[i] != nodeSCC[j]) {
                     if (matching[i] == j) {
-                        filter |= v.instantiateTo(k, aCause);
+                        instantiate = true;
+                        value = k;
                     } else {
                         filter |= v.removeValue(k, aCause);
                         digraph.removeArc(i, j);
                     }
                 }
             }
+            if (instantiate) {
+                filter |= v.instantiateTo(value, aCause);
+            }
         }
-        for (int i = 0; i < n; i++) {
+        for (int i = restriction.nextSetBit(0); i >= 0 && i < n; i = restriction.nextSetBit(i + 1)) {
             v = vars[i];
             if (!v.hasEnumeratedDomain()) {
                 ub = v.getUB();
                 for (int k = v.getLB(); k <= ub; k++) {
-                    j = map.get(k);
+                    j = node(k);
                     if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
                         filter |= v.removeValue(k, aCause);
                     }
                 }
                 int lb = v.getLB();
                 for (int k = v.getUB(); k >= lb; k--) {
-                    j = map.get(k);
+                    j = node(k);
                     if (!(digraph.arcExists(i, j) || digraph.arcExists(j, i))) {
                         filter |= v.removeValue(k, aCause);
                     }
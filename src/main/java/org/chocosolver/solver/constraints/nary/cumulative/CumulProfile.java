@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary.cumulative;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.structure.IOperation;
+import org.chocosolver.util.PoolManager;
+
+import java.util.Arrays;
+
+/**
+ * Backtrackable profile of the compulsory parts of a set of tasks.
+ * <br/>
+ * The profile is a segment tree over the time window given on creation, whose nodes are created on demand,
+ * so that its size depends on the number of distinct compulsory parts rather than on the horizon.
+ * Each node stores an additive value and the minimum and maximum of its subtree.
+ * The contribution of a task is modified with {@link #set(int, int, int, int)}, in O(log(horizon)),
+ * and restored upon backtracking by an operation saved in the environment.
+ * The value of the profile is 0 out of the time window.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class CumulProfile {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	// trailing
+	private final IEnvironment environment;
+	private final PoolManager<ProfileOP> operationPoolGC;
+	// contribution of each task: [from, to) x height
+	private final int[] from, to, height;
+	// time window of the profile: [lo, hi), covered by a tree of width leaves
+	private final long lo, hi, width;
+	// tree, node 0 stands for a missing node, 1 is the root
+	private int[] left, right;
+	private long[] add, min, max;
+	private int nbNodes;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create an empty profile
+	 * @param environment	backtracking environment
+	 * @param nbTasks		number of tasks
+	 * @param lo			first time point of the profile
+	 * @param hi			last time point of the profile (excluded)
+	 */
+	public CumulProfile(IEnvironment environment, int nbTasks, int lo, int hi) {
+		this.environment = environment;
+		this.operationPoolGC = new PoolManager<>();
+		this.from = new int[nbTasks];
+		this.to = new int[nbTasks];
+		this.height = new int[nbTasks];
+		long w = 1;
+		while (w < (long) hi - lo) {
+			w <<= 1;
+		}
+		this.lo = lo;
+		this.hi = hi;
+		this.width = w;
+		int capa = 64;
+		left = new int[capa];
+		right = new int[capa];
+		add = new long[capa];
+		min = new long[capa];
+		max = new long[capa];
+		nbNodes = 2;
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Set the contribution of <i>task</i> to <i>h</i> on [<i>f</i>, <i>t</i>).
+	 * The part out of the time window is ignored, the contribution is empty if <i>f</i> &ge; <i>t</i>.
+	 * The previous contribution is restored upon backtracking.
+	 * @param task	index of a task
+	 * @param f		start of the compulsory part
+	 * @param t		end of the compulsory part (excluded)
+	 * @param h		height of the compulsory part
+	 */
+	public void set(int task, int f, int t, int h) {
+		if (f >= t || h == 0) {
+			f = t = h = 0;
+		}
+		if (from[task] != f || to[task] != t || height[task] != h) {
+			ProfileOP op = operationPoolGC.getE();
+			if (op == null) {
+				op = new ProfileOP();
+			}
+			op.set(task, from[task], to[task], height[task]);
+			replace(task, f, t, h);
+		}
+	}
+
+	private void replace(int task, int f, int t, int h) {
+		add(from[task], to[task], -height[task]);
+		from[task] = f;
+		to[task] = t;
+		height[task] = h;
+		add(f, t, h);
+	}
+
+	/**
+	 * @param task index of a task
+	 * @return the start of the contribution of <i>task</i>
+	 */
+	public int getFrom(int task) {
+		return from[task];
+	}
+
+	/**
+	 * @param task index of a task
+	 * @return the end (excluded) of the contribution of <i>task</i>
+	 */
+	public int getTo(int task) {
+		return to[task];
+	}
+
+	/**
+	 * @param task index of a task
+	 * @return the height of the contribution of <i>task</i>
+	 */
+	public int getHeight(int task) {
+		return height[task];
+	}
+
+	/**
+	 * @return the maximum value of the profile
+	 */
+	public long getMax() {
+		return Math.max(0, max[1]);
+	}
+
+	/**
+	 * @param a first time point
+	 * @param b last time point (excluded)
+	 * @return the maximum value of the profile on [<i>a</i>, <i>b</i>), 0 if empty
+	 */
+	public long getMax(int a, int b) {
+		long r = 0;
+		if (a < b) {
+			r = max(1, lo, lo + width, Math.max(a, lo), Math.min(b, lo + width), 0);
+		}
+		return Math.max(0, r);
+	}
+
+	/**
+	 * @param a first time point
+	 * @param b last time point (excluded)
+	 * @param thr a threshold
+	 * @return the first time point in [<i>a</i>, <i>b</i>) where the profile is greater than <i>thr</i>, <i>b</i> if none
+	 */
+	public int firstAbove(int a, int b, long thr) {
+		return first(a, b, thr, true);
+	}
+
+	/**
+	 * @param a first time point
+	 * @param b last time point (excluded)
+	 * @param thr a threshold
+	 * @return the first time point in [<i>a</i>, <i>b</i>) where the profile is at most <i>thr</i>, <i>b</i> if none
+	 */
+	public int firstAtMost(int a, int b, long thr) {
+		return first(a, b, thr, false);
+	}
+
+	/**
+	 * @param a first time point
+	 * @param b last time point (excluded)
+	 * @param thr a threshold
+	 * @return the last time point in [<i>a</i>, <i>b</i>) where the profile is greater than <i>thr</i>, <i>a</i>-1 if none
+	 */
+	public int lastAbove(int a, int b, long thr) {
+		return last(a, b, thr, true);
+	}
+
+	/**
+	 * @param a first time point
+	 * @param b last time point (excluded)
+	 * @param thr a threshold
+	 * @return the last time point in [<i>a</i>, <i>b</i>) where the profile is at most <i>thr</i>, <i>a</i>-1 if none
+	 */
+	public int lastAtMost(int a, int b, long thr) {
+		return last(a, b, thr, false);
+	}
+
+	//***********************************************************************************
+	// TREE
+	//***********************************************************************************
+
+	private int newNode() {
+		if (nbNodes == left.length) {
+			int capa = nbNodes * 3 / 2 + 1;
+			left = Arrays.copyOf(left, capa);
+			right = Arrays.copyOf(right, capa);
+			add = Arrays.copyOf(add, capa);
+			min = Arrays.copyOf(min, capa);
+			max = Arrays.copyOf(max, capa);
+		}
+		return nbNodes++;
+	}
+
+	private void add(long a, long b, long v) {
+		a = Math.max(a, lo);
+		b = Math.min(b, hi);
+		if (a < b && v != 0) {
+			add(1, lo, lo + width, a, b, v);
+		}
+	}
+
+	private void add(int node, long nl, long nr, long a, long b, long v) {
+		if (a <= nl && nr <= b) {
+			add[node] += v;
+			min[node] += v;
+			max[node] += v;
+			return;
+		}
+		long mid = nl + (nr - nl) / 2;
+		if (a < mid) {
+			if (left[node] == 0) {
+				int c = newNode();
+				left[node] = c;
+			}
+			add(left[node], nl, mid, a, b, v);
+		}
+		if (b > mid) {
+			if (right[node] == 0) {
+				int c = newNode();
+				right[node] = c;
+			}
+			add(right[node], mid, nr, a, b, v);
+		}
+		int l = left[node], r = right[node];
+		min[node] = add[node] + Math.min(l == 0 ? 0 : min[l], r == 0 ? 0 : min[r]);
+		max[node] = add[node] + Math.max(l == 0 ? 0 : max[l], r == 0 ? 0 : max[r]);
+	}
+
+	private long max(int node, long nl, long nr, long a, long b, long acc) {
+		if (nr <= a || b <= nl) {
+			return Long.MIN_VALUE;
+		}
+		if (node == 0) {
+			return acc;
+		}
+		if (a <= nl && nr <= b) {
+			return acc + max[node];
+		}
+		long mid = nl + (nr - nl) / 2;
+		acc += add[node];
+		return Math.max(max(left[node], nl, mid, a, b, acc), max(right[node], mid, nr, a, b, acc));
+	}
+
+	private static boolean match(long value, long thr, boolean above) {
+		return above ? value > thr : value <= thr;
+	}
+
+	private int first(int a, int b, long thr, boolean above) {
+		if (a >= b) {
+			return b;
+		}
+		boolean out = match(0, thr, above);
+		if (a < lo && out) {
+			return a;
+		}
+		long ia = Math.max(a, lo), ib = Math.min(b, lo + width);
+		if (ia < ib) {
+			long r = first(1, lo, lo + width, ia, ib, 0, thr, above);
+			if (r < ib) {
+				return (int) r;
+			}
+		}
+		if (b > lo + width && out) {
+			return (int) Math.max(a, lo + width);
+		}
+		return b;
+	}
+
+	private long first(int node, long nl, long nr, long a, long b, long acc, long thr, boolean above) {
+		if (nr <= a || b <= nl) {
+			return Long.MAX_VALUE;
+		}
+		if (node == 0) {
+			return match(acc, thr, above) ? Math.max(a, nl) : Long.MAX_VALUE;
+		}
+		if (!match(acc + (above ? max[node] : min[node]), thr, above)) {
+			return Long.MAX_VALUE;
+		}
+		if (nr - nl == 1) {
+			return nl;
+		}
+		long mid = nl + (nr - nl) / 2;
+		acc += add[node];
+		long r = first(left[node], nl, mid, a, b, acc, thr, above);
+		if (r == Long.MAX_VALUE) {
+			r = first(right[node], mid, nr, a, b, acc, thr, above);
+		}
+		return r;
+	}
+
+	private int last(int a, int b, long thr, boolean above) {
+		if (a >= b) {
+			return a - 1;
+		}
+		boolean out = match(0, thr, above);
+		if (b > lo + width && out) {
+			return b - 1;
+		}
+		long ia = Math.max(a, lo), ib = Math.min(b, lo + width);
+		if (ia < ib) {
+			long r = last(1, lo, lo + width, ia, ib, 0, thr, above);
+			if (r >= ia) {
+				return (int) r;
+			}
+		}
+		if (a < lo && out) {
+			return (int) Math.min(b, lo) - 1;
+		}
+		return a - 1;
+	}
+
+	private long last(int node, long nl, long nr, long a, long b, long acc, long thr, boolean above) {
+		if (nr <= a || b <= nl) {
+			return Long.MIN_VALUE;
+		}
+		if (node == 0) {
+			return match(acc, thr, above) ? Math.min(b, nr) - 1 : Long.MIN_VALUE;
+		}
+		if (!match(acc + (above ? max[node] : min[node]), thr, above)) {
+			return Long.MIN_VALUE;
+		}
+		if (nr - nl == 1) {
+			return nl;
+		}
+		long mid = nl + (nr - nl) / 2;
+		acc += add[node];
+		long r = last(right[node], mid, nr, a, b, acc, thr, above);
+		if (r == Long.MIN_VALUE) {
+			r = last(left[node], nl, mid, a, b, acc, thr, above);
+		}
+		return r;
+	}
+
+	//***********************************************************************************
+	// TRAILING OPERATIONS
+	//***********************************************************************************
+
+	private class ProfileOP implements IOperation {
+		private int task, from, to, height;
+
+		@Override
+		public void undo() {
+			replace(task, from, to, height);
+			operationPoolGC.returnE(this);
+		}
+
+		public void set(int task, int from, int to, int height) {
+			this.task = task;
+			this.from = from;
+			this.to = to;
+			this.height = height;
+			environment.save(this);
+		}
+	}
+}
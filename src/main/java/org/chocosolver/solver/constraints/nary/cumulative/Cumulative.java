@@ -61,8 +61,12 @@ public class Cumulative extends Constraint {
 	 *                         - TIME: filters time-table from considering each point in time
 	 *                         (efficient in practice as long as the time horizon is not too high)
 	 *                         - SWEEP: filters time-table with a sweep-based algorithm
+	 *                         - PROFILE: filters time-table with a backtrackable profile, updated incrementally
 	 *                         - NRJ: greedy energy-based filter.
 	 *                         BEWARE: should not be used alone, use it in addition to either SWEEP or TIME.
+	 *                         - EDGE_FINDING: edge-finding based on a Theta-Lambda-tree.
+	 *                         - TIME_TABLE_EDGE_FINDING: edge-finding extended with compulsory parts.
+	 *                         BEWARE: should not be used alone, use them in addition to either SWEEP or TIME.
 	 *
 	 */
 	public Cumulative(Task[] tasks, IntVar[] heights, IntVar capacity, boolean graphBased, Filter... filters) {
@@ -152,6 +156,16 @@ public class Cumulative extends Constraint {
 				return new SweepHeiSortCumulFilter(n,cause);
 			}
 		},
+		/**
+		 * time-table algorithm based on a backtrackable profile of compulsory parts,
+		 * updated incrementally (suited to long horizons and many tasks)
+		 * not idempotent
+		 */
+		PROFILE{
+			public CumulFilter make(int n, Propagator<IntVar> cause){
+				return new ProfileCumulFilter(n,cause);
+			}
+		},
 		/**
 		 * energetic reasoning to filter
 		 * not idempotent
@@ -173,6 +187,26 @@ public class Cumulative extends Constraint {
 				return new DisjunctiveTaskIntervalFilter(n,cause);
 			}
 		},
+		/**
+		 * edge-finding based on a Theta-Lambda-tree, for cumulative and disjunctive resources
+		 * not idempotent
+		 * not enough to ensure correctness (only an additional filtering)
+		 */
+		EDGE_FINDING {
+			public CumulFilter make(int n, Propagator<IntVar> cause){
+				return new EdgeFindingCumulFilter(n,cause,false);
+			}
+		},
+		/**
+		 * edge-finding extended with the compulsory parts of the tasks (time-table edge-finding)
+		 * not idempotent
+		 * not enough to ensure correctness (only an additional filtering)
+		 */
+		TIME_TABLE_EDGE_FINDING {
+			public CumulFilter make(int n, Propagator<IntVar> cause){
+				return new EdgeFindingCumulFilter(n,cause,true);
+			}
+		},
 		/**
 		 * Combines above filters as a black-box
 		 * not idempotent
@@ -0,0 +1,482 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary.cumulative;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+import org.chocosolver.util.sort.ArraySort;
+
+import java.util.Arrays;
+
+/**
+ * Edge-finding for cumulative (and disjunctive) resources, based on a Theta-Lambda-tree:
+ * <br/>
+ * - detection of the tasks which must end after a set of tasks, in O(n log n),
+ * <br/>
+ * - adjustment of their earliest start time, in O(kn log n) where k is the number of distinct heights.
+ * <br/>
+ * Latest completion times are filtered on the mirrored problem.
+ * When <code>timetable</code> is set, the detection is extended with the compulsory parts of the tasks
+ * (time-table edge-finding): only the free part of a task is stored in the tree, its compulsory part being
+ * accounted for by the time-table profile.
+ * <br/>
+ * Variable durations and heights are reasoned on with their lower bounds, the capacity with its upper bound.
+ * <p>
+ * Based on "Edge Finding Filtering Algorithm for Discrete Cumulative Resources in O(kn log n)", P. Vilim, CP 2009,
+ * and "Timetable Edge Finding Filtering Algorithm for Discrete Cumulative Resources", P. Vilim, CPAIOR 2011.
+ * <br/>
+ * not idempotent
+ * not enough to ensure correctness (only an additional filtering)
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class EdgeFindingCumulFilter extends CumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private static final long NONE = Long.MIN_VALUE / 4;
+
+	private final boolean timetable;
+	private final ArraySort sorter;
+	// tasks, in local indices
+	private int m;
+	private final int[] task, est, lct, lst, ect, c;
+	private final long[] nrj, free, ttEst, ttLct;
+	private final int[] byEst, byLct, leaf, prec, heights;
+	private final long[] newStart, newEnd, upd;
+	// Theta-Lambda-tree, leaves sorted by earliest start time
+	private int size;
+	private final int[] taskOf;
+	private final long[] tE, tEnv, tEL, tEnvL;
+	// time-table profile
+	private final int[] evt, evtTime, evtDelta;
+	private final long[] prof, suffix;
+	private final int[] breaks;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * An edge-finding filter for the cumulative constraint
+	 * @param n			maximum number of tasks
+	 * @param cause		a cumulative propagator
+	 * @param timetable	set to <tt>true</tt> to extend the detection with compulsory parts
+	 */
+	public EdgeFindingCumulFilter(int n, Propagator cause, boolean timetable) {
+		super(n, cause);
+		this.timetable = timetable;
+		sorter = new ArraySort(2 * n, false, true);
+		task = new int[n];
+		est = new int[n];
+		lct = new int[n];
+		lst = new int[n];
+		ect = new int[n];
+		c = new int[n];
+		nrj = new long[n];
+		free = new long[n];
+		ttEst = new long[n];
+		ttLct = new long[n];
+		byEst = new int[n];
+		byLct = new int[n];
+		leaf = new int[n];
+		prec = new int[n];
+		heights = new int[n];
+		newStart = new long[n];
+		newEnd = new long[n];
+		upd = new long[n];
+		int s = 1;
+		while (s < n) {
+			s <<= 1;
+		}
+		taskOf = new int[s];
+		tE = new long[2 * s];
+		tEnv = new long[2 * s];
+		tEL = new long[2 * s];
+		tEnvL = new long[2 * s];
+		evt = new int[2 * n];
+		evtTime = new int[2 * n];
+		evtDelta = new int[2 * n];
+		prof = new long[2 * n];
+		suffix = new long[2 * n + 1];
+		breaks = new int[2 * n];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public void filter(IntVar[] s, IntVar[] d, IntVar[] e, IntVar[] h, IntVar capa, ISet tasks) throws ContradictionException {
+		long C = capa.getUB();
+		// earliest start times
+		m = 0;
+		ISetIterator tIter = tasks.iterator();
+		while (tIter.hasNext()) {
+			int t = tIter.nextInt();
+			if (d[t].getLB() > 0 && h[t].getLB() > 0) {
+				task[m] = t;
+				est[m] = s[t].getLB();
+				lct[m] = e[t].getUB();
+				lst[m] = s[t].getUB();
+				ect[m] = e[t].getLB();
+				setEnergy(m, d[t].getLB(), h[t].getLB());
+				m++;
+			}
+		}
+		if (m == 0) {
+			return;
+		}
+		edgeFinding(C);
+		for (int k = 0; k < m; k++) {
+			int t = task[k];
+			if (newStart[k] > est[k]) {
+				s[t].updateLowerBound((int) newStart[k], aCause);
+			}
+			if (newEnd[k] > ect[k]) {
+				e[t].updateLowerBound((int) newEnd[k], aCause);
+			}
+		}
+		// latest completion times, on the mirrored problem
+		for (int k = 0; k < m; k++) {
+			int t = task[k];
+			est[k] = -e[t].getUB();
+			lct[k] = -s[t].getLB();
+			lst[k] = -e[t].getLB();
+			ect[k] = -s[t].getUB();
+			setEnergy(k, d[t].getLB(), h[t].getLB());
+		}
+		edgeFinding(C);
+		for (int k = 0; k < m; k++) {
+			int t = task[k];
+			if (newStart[k] > est[k]) {
+				e[t].updateUpperBound((int) -newStart[k], aCause);
+			}
+			if (newEnd[k] > ect[k]) {
+				s[t].updateUpperBound((int) -newEnd[k], aCause);
+			}
+		}
+	}
+
+	private void setEnergy(int k, int p, int h) {
+		c[k] = h;
+		nrj[k] = (long) p * h;
+		if (timetable && lst[k] < ect[k]) {
+			free[k] = (long) Math.max(0, p - (ect[k] - lst[k])) * h;
+		} else {
+			free[k] = nrj[k];
+		}
+	}
+
+	/**
+	 * Compute new lower bounds for the start (<code>newStart</code>) and the end (<code>newEnd</code>)
+	 * of the <code>m</code> first tasks.
+	 * @param C capacity of the resource
+	 * @throws ContradictionException if the resource is overloaded
+	 */
+	private void edgeFinding(long C) throws ContradictionException {
+		for (int k = 0; k < m; k++) {
+			byEst[k] = k;
+			byLct[k] = k;
+			prec[k] = -1;
+			newStart[k] = est[k];
+			newEnd[k] = ect[k];
+		}
+		sorter.sort(byEst, m, (i1, i2) -> Integer.compare(est[i1], est[i2]));
+		sorter.sort(byLct, m, (i1, i2) -> Integer.compare(lct[i1], lct[i2]));
+		size = 1;
+		while (size < m) {
+			size <<= 1;
+		}
+		for (int k = 0; k < m; k++) {
+			leaf[byEst[k]] = size + k;
+			taskOf[k] = byEst[k];
+		}
+		if (timetable) {
+			buildProfile();
+		}
+		detect(C);
+		adjust(C);
+	}
+
+	//***********************************************************************************
+	// DETECTION
+	//***********************************************************************************
+
+	/**
+	 * Detect, for each task i, the largest prefix of tasks (wrt to latest completion times)
+	 * that must end before i ends.
+	 * Then, i cannot end before the latest completion time of that prefix.
+	 */
+	private void detect(long C) throws ContradictionException {
+		for (int v = size; v < 2 * size; v++) {
+			int l = v - size;
+			if (l < m) {
+				int k = taskOf[l];
+				tE[v] = tEL[v] = free[k];
+				tEnv[v] = tEnvL[v] = C * est[k] + free[k] + ttEst[k];
+			} else {
+				tE[v] = tEL[v] = 0;
+				tEnv[v] = tEnvL[v] = NONE;
+			}
+		}
+		for (int v = size - 1; v > 0; v--) {
+			pullUp(v);
+		}
+		for (int p = m - 1; p >= 0; p--) {
+			int j = byLct[p];
+			long bound = C * lct[j] + ttLct[j];
+			if (tEnv[1] > bound) {
+				aCause.fails();
+			}
+			while (tEnvL[1] > bound) {
+				int i = taskOf[responsibleEnvL(1) - size];
+				if (lct[i] == lct[j]) {
+					aCause.fails();
+				}
+				prec[i] = p;
+				newEnd[i] = Math.max(newEnd[i], lct[j] + 1L);
+				clear(leaf[i]);
+			}
+			// j becomes gray
+			int v = leaf[j];
+			tE[v] = 0;
+			tEnv[v] = NONE;
+			update(v);
+		}
+	}
+
+	private void pullUp(int v) {
+		int l = 2 * v, r = l + 1;
+		tE[v] = tE[l] + tE[r];
+		tEnv[v] = Math.max(tEnv[r], tEnv[l] + tE[r]);
+		tEL[v] = Math.max(tEL[l] + tE[r], tE[l] + tEL[r]);
+		tEnvL[v] = Math.max(tEnvL[r], Math.max(tEnv[l] + tEL[r], tEnvL[l] + tE[r]));
+	}
+
+	private void update(int v) {
+		for (v >>= 1; v > 0; v >>= 1) {
+			pullUp(v);
+		}
+	}
+
+	private void clear(int v) {
+		tE[v] = tEL[v] = 0;
+		tEnv[v] = tEnvL[v] = NONE;
+		update(v);
+	}
+
+	/**
+	 * @return the gray leaf responsible for the value of envL in <i>v</i>
+	 */
+	private int responsibleEnvL(int v) {
+		while (v < size) {
+			int l = 2 * v, r = l + 1;
+			if (tEnvL[v] == tEnvL[r] && tEnvL[r] > tEnv[r]) {
+				v = r;
+			} else if (tEnvL[v] == tEnv[l] + tEL[r] && tEL[r] > tE[r]) {
+				return responsibleEL(r);
+			} else {
+				v = l;
+			}
+		}
+		return v;
+	}
+
+	/**
+	 * @return the gray leaf responsible for the value of eL in <i>v</i>
+	 */
+	private int responsibleEL(int v) {
+		while (v < size) {
+			int l = 2 * v, r = l + 1;
+			if (tEL[v] == tEL[l] + tE[r] && tEL[l] > tE[l]) {
+				v = l;
+			} else {
+				v = r;
+			}
+		}
+		return v;
+	}
+
+	//***********************************************************************************
+	// ADJUSTMENT
+	//***********************************************************************************
+
+	/**
+	 * Update the earliest start time of the detected tasks, for each distinct height.
+	 */
+	private void adjust(long C) {
+		int k = 0;
+		for (int i = 0; i < m; i++) {
+			if (prec[i] >= 0) {
+				heights[k++] = c[i];
+			}
+		}
+		Arrays.sort(heights, 0, k);
+		for (int q = 0; q < k; q++) {
+			if (q > 0 && heights[q] == heights[q - 1]) {
+				continue;
+			}
+			int h = heights[q];
+			int last = -1;
+			for (int i = 0; i < m; i++) {
+				if (prec[i] >= 0 && c[i] == h) {
+					last = Math.max(last, prec[i]);
+				}
+			}
+			// tEnvL is used to store env^c, computed with capacity C - h
+			Arrays.fill(tE, 1, 2 * size, 0);
+			Arrays.fill(tEnv, 1, 2 * size, NONE);
+			Arrays.fill(tEnvL, 1, 2 * size, NONE);
+			long best = NONE;
+			for (int p = 0; p <= last; p++) {
+				int l = byLct[p];
+				int v = leaf[l];
+				tE[v] = nrj[l];
+				tEnv[v] = C * est[l] + nrj[l];
+				tEnvL[v] = (C - h) * est[l] + nrj[l];
+				for (v >>= 1; v > 0; v >>= 1) {
+					int a = 2 * v, b = a + 1;
+					tE[v] = tE[a] + tE[b];
+					tEnv[v] = Math.max(tEnv[b], tEnv[a] + tE[b]);
+					tEnvL[v] = Math.max(tEnvL[b], tEnvL[a] + tE[b]);
+				}
+				long X = (C - h) * lct[l];
+				if (tEnvL[1] > X) {
+					best = Math.max(best, ceilDiv(envUpTo(X) - X, h));
+				}
+				upd[p] = best;
+			}
+			for (int i = 0; i < m; i++) {
+				if (prec[i] >= 0 && c[i] == h) {
+					newStart[i] = Math.max(newStart[i], upd[prec[i]]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Look for the rightmost leaf <i>x</i> such that env^c of the leaves from <i>x</i> is greater than <i>X</i>,
+	 * and return env of the leaves up to <i>x</i> plus the energy of the leaves after <i>x</i>.
+	 */
+	private long envUpTo(long X) {
+		int v = 1;
+		long acc = 0;
+		long env = NONE;
+		while (v < size) {
+			int l = 2 * v, r = l + 1;
+			if (tEnvL[r] + acc > X) {
+				env = Math.max(env, tEnv[l] + tE[r] + acc);
+				v = r;
+			} else {
+				acc += tE[r];
+				v = l;
+			}
+		}
+		return Math.max(env, tEnv[v] + acc);
+	}
+
+	private static long ceilDiv(long a, long b) {
+		return -Math.floorDiv(-a, b);
+	}
+
+	//***********************************************************************************
+	// TIME-TABLE
+	//***********************************************************************************
+
+	/**
+	 * Build the profile of compulsory parts and, for each task,
+	 * the energy of the profile after its earliest start time and after its latest completion time.
+	 */
+	private void buildProfile() {
+		int q = 0;
+		for (int k = 0; k < m; k++) {
+			if (lst[k] < ect[k]) {
+				evtTime[q] = lst[k];
+				evtDelta[q++] = c[k];
+				evtTime[q] = ect[k];
+				evtDelta[q++] = -c[k];
+			}
+		}
+		for (int i = 0; i < q; i++) {
+			evt[i] = i;
+		}
+		sorter.sort(evt, q, (i1, i2) -> Integer.compare(evtTime[i1], evtTime[i2]));
+		// breaks[b] is a time point, prof[b] the height of the profile on [breaks[b], breaks[b+1])
+		int nb = 0;
+		long height = 0;
+		for (int i = 0; i < q; i++) {
+			int t = evtTime[evt[i]];
+			height += evtDelta[evt[i]];
+			if (nb == 0 || breaks[nb - 1] != t) {
+				breaks[nb++] = t;
+			}
+			prof[nb - 1] = height;
+		}
+		suffix[nb] = 0;
+		if (nb > 0) {
+			suffix[nb - 1] = 0;
+		}
+		for (int b = nb - 2; b >= 0; b--) {
+			suffix[b] = suffix[b + 1] + prof[b] * ((long) breaks[b + 1] - breaks[b]);
+		}
+		for (int k = 0; k < m; k++) {
+			ttEst[k] = energyAfter(est[k], nb);
+			ttLct[k] = energyAfter(lct[k], nb);
+		}
+	}
+
+	/**
+	 * @return the energy of the compulsory parts after time <i>t</i>
+	 */
+	private long energyAfter(int t, int nb) {
+		if (nb == 0) {
+			return 0;
+		}
+		int b = Arrays.binarySearch(breaks, 0, nb, t);
+		if (b >= 0) {
+			return suffix[b];
+		}
+		b = -b - 2; // last break before t
+		if (b < 0) {
+			return suffix[0];
+		}
+		if (b == nb - 1) {
+			return 0;
+		}
+		return suffix[b + 1] + prof[b] * ((long) breaks[b + 1] - t);
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary.cumulative;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.setDataStructures.ISet;
+import org.chocosolver.util.objects.setDataStructures.ISetIterator;
+
+/**
+ * Time-table filtering based on a backtrackable profile of compulsory parts ({@link CumulProfile}).
+ * <br/>
+ * The profile is not rebuilt on each call: only the tasks whose compulsory part has changed
+ * since the last call are updated, in O(log(horizon)) each.
+ * Then, each bound is pushed by jumping over the regions of the profile that conflict with the task,
+ * without sorting nor scanning the time points.
+ * The profile is created on the first call, over the current time window of the tasks.
+ * <br/>
+ * not idempotent
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ProfileCumulFilter extends CumulFilter {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private CumulProfile profile;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	public ProfileCumulFilter(int n, Propagator cause) {
+		super(n, cause);
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	@Override
+	public void filter(IntVar[] s, IntVar[] d, IntVar[] e, IntVar[] h, IntVar capa, ISet tasks) throws ContradictionException {
+		if (profile == null) {
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (int i = 0; i < s.length; i++) {
+				min = Math.min(min, s[i].getLB());
+				max = Math.max(max, e[i].getUB());
+			}
+			profile = new CumulProfile(aCause.getModel().getEnvironment(), s.length, min, Math.max(min, max));
+		}
+		ISetIterator tIter = tasks.iterator();
+		while (tIter.hasNext()) {
+			int i = tIter.nextInt();
+			update(i, s[i], d[i], e[i], h[i]);
+		}
+		capa.updateLowerBound((int) profile.getMax(), aCause);
+		tIter = tasks.iterator();
+		while (tIter.hasNext()) {
+			int i = tIter.nextInt();
+			int dlb = d[i].getLB();
+			int hlb = h[i].getLB();
+			if (dlb > 0 && hlb > 0) {
+				int capaMax = capa.getUB();
+				long thr = (long) capaMax - hlb;
+				if (thr < 0) {
+					aCause.fails();
+				}
+				int from = profile.getFrom(i), to = profile.getTo(i);
+				if (from < to && !h[i].isInstantiated()) {
+					// the compulsory part of the task cannot exceed the capacity
+					h[i].updateUpperBound((int) (capaMax - (profile.getMax(from, to) - profile.getHeight(i))), aCause);
+				}
+				if (s[i].updateLowerBound(pushStart(s[i], dlb, from, to, thr), aCause)) {
+					update(i, s[i], d[i], e[i], h[i]);
+					capa.updateLowerBound((int) profile.getMax(), aCause);
+					from = profile.getFrom(i);
+					to = profile.getTo(i);
+				}
+				if (e[i].updateUpperBound(pushEnd(e[i], dlb, from, to, thr), aCause)) {
+					update(i, s[i], d[i], e[i], h[i]);
+					capa.updateLowerBound((int) profile.getMax(), aCause);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Record the current compulsory part of task <i>i</i> in the profile
+	 */
+	private void update(int i, IntVar s, IntVar d, IntVar e, IntVar h) {
+		int dlb = d.getLB();
+		int lst = Math.min(s.getUB(), e.getUB() - dlb);
+		int ect = Math.max(e.getLB(), s.getLB() + dlb);
+		profile.set(i, lst, ect, dlb > 0 ? h.getLB() : 0);
+	}
+
+	/**
+	 * @return the earliest start of a task which, out of its own compulsory part [<i>from</i>,<i>to</i>),
+	 * does not overlap any time point where the profile is greater than <i>thr</i>
+	 */
+	private int pushStart(IntVar s, int dlb, int from, int to, long thr) {
+		int slb = s.getLB();
+		int sub = s.getUB();
+		while (slb <= sub) {
+			int c = conflict(slb, slb + dlb, from, to, thr, true);
+			if (c == slb + dlb) {
+				break;
+			}
+			if (from < to && c < from) {
+				slb = profile.firstAtMost(c, from, thr);
+			} else {
+				slb = profile.firstAtMost(c, Integer.MAX_VALUE, thr);
+			}
+		}
+		return slb;
+	}
+
+	/**
+	 * @return the latest end of a task which, out of its own compulsory part [<i>from</i>,<i>to</i>),
+	 * does not overlap any time point where the profile is greater than <i>thr</i>
+	 */
+	private int pushEnd(IntVar e, int dlb, int from, int to, long thr) {
+		int eub = e.getUB();
+		int elb = e.getLB();
+		while (eub >= elb) {
+			int c = conflict(eub - dlb, eub, from, to, thr, false);
+			if (c == eub - dlb - 1) {
+				break;
+			}
+			if (from < to && c >= to) {
+				eub = profile.lastAtMost(to, c + 1, thr) + 1;
+			} else {
+				eub = profile.lastAtMost(Integer.MIN_VALUE, c + 1, thr) + 1;
+			}
+		}
+		return eub;
+	}
+
+	/**
+	 * Look for the first (resp. last) time point in [<i>a</i>,<i>b</i>) and out of [<i>from</i>,<i>to</i>)
+	 * where the profile is greater than <i>thr</i>.
+	 * @return that point, or <i>b</i> (resp. <i>a</i>-1) if none
+	 */
+	private int conflict(int a, int b, int from, int to, long thr, boolean first) {
+		if (from >= to || to <= a || b <= from) {
+			return first ? profile.firstAbove(a, b, thr) : profile.lastAbove(a, b, thr);
+		}
+		if (first) {
+			int c = profile.firstAbove(a, from, thr);
+			if (c == from) {
+				c = profile.firstAbove(to, b, thr);
+			}
+			return c < b ? c : b;
+		} else {
+			int c = profile.lastAbove(to, b, thr);
+			if (c == to - 1) {
+				c = profile.lastAbove(a, from, thr);
+			}
+			return c >= a ? c : a - 1;
+		}
+	}
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary.disjunctive;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.sort.ArraySort;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Disjunctive (unary resource) propagator: tasks cannot overlap in time.
+ * <br/>
+ * Performs, on earliest start times and, by symmetry, on latest completion times:
+ * overload checking and edge-finding, detectable precedences and not-first/not-last.
+ * Each rule runs in O(n log n) thanks to a {@link ThetaLambdaTree}.
+ * Rules are applied until a fix point is reached, so the propagator is idempotent.
+ * <br/>
+ * Only tasks with a positive minimal duration are considered,
+ * a task that may have a null duration does not require the resource.
+ * <p>
+ * Based on "Filtering Algorithms for the Unary Resource Constraint", P. Vilim, 2008.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropDisjunctive extends Propagator<IntVar> {
+
+    //***********************************************************************************
+    // VARIABLES
+    //***********************************************************************************
+
+    protected final int n;
+    protected final IntVar[] s, d, e;
+
+    private int m;
+    // index of the task, earliest start time, latest completion time, processing time and new bounds
+    private final int[] tsk, est, lct, p, nest, nlct;
+    // tasks sorted by est, lct, lst and ect
+    private final int[] byEst, byLct, byLst, byEct;
+    private final ArraySort sorter;
+    private final ThetaLambdaTree tree;
+
+    //***********************************************************************************
+    // CONSTRUCTORS
+    //***********************************************************************************
+
+    /**
+     * Disjunctive propagator
+     *
+     * @param s start    variables
+     * @param d duration variables
+     * @param e end      variables
+     */
+    public PropDisjunctive(IntVar[] s, IntVar[] d, IntVar[] e) {
+        super(ArrayUtils.append(s, d, e), PropagatorPriority.QUADRATIC, false);
+        this.n = s.length;
+        if (!(n == d.length && n == e.length)) {
+            throw new UnsupportedOperationException();
+        }
+        this.s = Arrays.copyOfRange(vars, 0, n);
+        this.d = Arrays.copyOfRange(vars, n, n * 2);
+        this.e = Arrays.copyOfRange(vars, n * 2, n * 3);
+        tsk = new int[n];
+        est = new int[n];
+        lct = new int[n];
+        p = new int[n];
+        nest = new int[n];
+        nlct = new int[n];
+        byEst = new int[n];
+        byLct = new int[n];
+        byLst = new int[n];
+        byEct = new int[n];
+        sorter = new ArraySort(n, false, true);
+        tree = new ThetaLambdaTree(n);
+    }
+
+    //***********************************************************************************
+    // METHODS
+    //***********************************************************************************
+
+    @Override
+    public int getPropagationConditions(int idx) {
+        return IntEventType.boundAndInst();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            propIni();
+        }
+        boolean change;
+        do {
+            change = false;
+            for (int mirror = 0; mirror < 2; mirror++) {
+                load(mirror == 1);
+                if (m < 2) {
+                    return;
+                }
+                edgeFinding();
+                change |= apply(mirror == 1);
+                load(mirror == 1);
+                detectablePrecedences();
+                change |= apply(mirror == 1);
+                load(mirror == 1);
+                notLast();
+                change |= apply(mirror == 1);
+            }
+        } while (change);
+    }
+
+    protected void propIni() throws ContradictionException {
+        for (int i = 0; i < n; i++) {
+            d[i].updateLowerBound(0, this);
+            s[i].updateBounds(e[i].getLB() - d[i].getUB(), e[i].getUB() - d[i].getLB(), this);
+            e[i].updateBounds(s[i].getLB() + d[i].getLB(), s[i].getUB() + d[i].getUB(), this);
+            d[i].updateBounds(e[i].getLB() - s[i].getUB(), e[i].getUB() - s[i].getLB(), this);
+        }
+    }
+
+    /**
+     * Load the tasks requiring the resource, in the mirrored view (time reversed) if <i>mirror</i> is set
+     */
+    private void load(boolean mirror) {
+        m = 0;
+        for (int i = 0; i < n; i++) {
+            if (d[i].getLB() > 0) {
+                tsk[m] = i;
+                p[m] = d[i].getLB();
+                if (mirror) {
+                    est[m] = -e[i].getUB();
+                    lct[m] = -s[i].getLB();
+                } else {
+                    est[m] = s[i].getLB();
+                    lct[m] = e[i].getUB();
+                }
+                nest[m] = est[m];
+                nlct[m] = lct[m];
+                byEst[m] = byLct[m] = byLst[m] = byEct[m] = m;
+                m++;
+            }
+        }
+        sorter.sort(byEst, m, (i1, i2) -> Integer.compare(est[i1], est[i2]));
+        sorter.sort(byLct, m, (i1, i2) -> Integer.compare(lct[i1], lct[i2]));
+        sorter.sort(byLst, m, (i1, i2) -> Long.compare((long) lct[i1] - p[i1], (long) lct[i2] - p[i2]));
+        sorter.sort(byEct, m, (i1, i2) -> Long.compare((long) est[i1] + p[i1], (long) est[i2] + p[i2]));
+        tree.init(byEst, m);
+    }
+
+    /**
+     * Report the new bounds on the variables
+     * @return <tt>true</tt> if at least one bound has been modified
+     */
+    private boolean apply(boolean mirror) throws ContradictionException {
+        boolean change = false;
+        for (int k = 0; k < m; k++) {
+            int i = tsk[k];
+            if (nest[k] > est[k]) {
+                change |= mirror ? e[i].updateUpperBound(-nest[k], this) : s[i].updateLowerBound(nest[k], this);
+            }
+            if (nlct[k] < lct[k]) {
+                change |= mirror ? s[i].updateLowerBound(-nlct[k], this) : e[i].updateUpperBound(nlct[k], this);
+            }
+        }
+        return change;
+    }
+
+    private long lst(int k) {
+        return (long) lct[k] - p[k];
+    }
+
+    private long ect(int k) {
+        return (long) est[k] + p[k];
+    }
+
+    private void raiseEst(int k, long v) {
+        if (v > nest[k]) {
+            nest[k] = (int) Math.min(v, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Edge-finding: if a task cannot complete before the others, it starts after all of them.
+     * Includes overload checking.
+     */
+    private void edgeFinding() throws ContradictionException {
+        for (int k = 0; k < m; k++) {
+            tree.insert(k, est[k], p[k]);
+        }
+        if (tree.getEct() > lct[byLct[m - 1]]) {
+            fails();
+        }
+        for (int q = m - 1; q > 0; q--) {
+            tree.gray(byLct[q]);
+            int j = byLct[q - 1];
+            if (tree.getEct() > lct[j]) {
+                fails();
+            }
+            while (tree.getEctBar() > lct[j]) {
+                int i = tree.getResponsibleEctBar();
+                raiseEst(i, tree.getEct());
+                tree.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Detectable precedences: a task <i>j</i> whose latest start time is before
+     * the earliest completion time of <i>i</i> precedes <i>i</i>.
+     */
+    private void detectablePrecedences() {
+        int q = 0;
+        for (int r = 0; r < m; r++) {
+            int i = byEct[r];
+            while (q < m && ect(i) > lst(byLst[q])) {
+                int j = byLst[q++];
+                tree.insert(j, est[j], p[j]);
+            }
+            boolean in = tree.isWhite(i);
+            if (in) {
+                tree.remove(i);
+            }
+            raiseEst(i, tree.getEct());
+            if (in) {
+                tree.insert(i, est[i], p[i]);
+            }
+        }
+    }
+
+    /**
+     * Not-last: if a task cannot be the last one among a set of tasks,
+     * it completes before the latest start time of one of them.
+     */
+    private void notLast() {
+        int q = 0, last = -1, prev = -1;
+        for (int r = 0; r < m; r++) {
+            int i = byLct[r];
+            while (q < m && lct[i] > lst(byLst[q])) {
+                int j = byLst[q++];
+                tree.insert(j, est[j], p[j]);
+                prev = last;
+                last = j;
+            }
+            int j = last == i ? prev : last;
+            if (j >= 0) {
+                boolean in = tree.isWhite(i);
+                if (in) {
+                    tree.remove(i);
+                }
+                if (tree.getEct() > lst(i) && lst(j) < nlct[i]) {
+                    nlct[i] = (int) lst(j);
+                }
+                if (in) {
+                    tree.insert(i, est[i], p[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ESat isEntailed() {
+        for (int i = 0; i < n; i++) {
+            if (s[i].getLB() + d[i].getLB() > e[i].getUB()
+                    || s[i].getUB() + d[i].getUB() < e[i].getLB()) {
+                return ESat.FALSE;
+            }
+        }
+        // compulsory parts must not overlap
+        m = 0;
+        for (int i = 0; i < n; i++) {
+            if (s[i].getUB() < e[i].getLB()) {
+                tsk[m] = i;
+                byEst[m] = m;
+                m++;
+            }
+        }
+        sorter.sort(byEst, m, (i1, i2) -> Integer.compare(s[tsk[i1]].getUB(), s[tsk[i2]].getUB()));
+        for (int k = 1; k < m; k++) {
+            if (e[tsk[byEst[k - 1]]].getLB() > s[tsk[byEst[k]]].getUB()) {
+                return ESat.FALSE;
+            }
+        }
+        return isCompletelyInstantiated() ? ESat.TRUE : ESat.UNDEFINED;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getSimpleName() + "(");
+        for (int i = 0; i < n; i++) {
+            sb.append("[").append(vars[i].toString());
+            sb.append(",").append(vars[i + n].toString());
+            sb.append(",").append(vars[i + 2 * n].toString()).append("]");
+            if (i < n - 1) {
+                sb.append(",");
+            }
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary.disjunctive;
+
+/**
+ * Theta-Lambda-tree for unary resources.
+ * <br/>
+ * Leaves are the tasks sorted by earliest start time. A leaf is either empty, white (in Theta) or gray (in Lambda).
+ * Each node stores, for the leaves of its subtree:
+ * the sum of processing times and the earliest completion time of the white tasks,
+ * and the same values when at most one gray task is added.
+ * Inserting, removing or coloring a task costs O(log n).
+ * <p>
+ * Based on "O(n log n) Filtering Algorithms for Unary Resource Constraint", P. Vilim, CPAIOR 2004,
+ * and "Filtering Algorithms for the Unary Resource Constraint", P. Vilim, 2008.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ThetaLambdaTree {
+
+	//***********************************************************************************
+	// VARIABLES
+	//***********************************************************************************
+
+	private static final long NONE = Long.MIN_VALUE / 4;
+
+	private int size;
+	// leaf of each task, and task of each leaf
+	private final int[] leaf, taskOf;
+	private final boolean[] white;
+	// sum of processing times and earliest completion time (white / white plus one gray)
+	private final long[] sp, ect, spL, ectL;
+
+	//***********************************************************************************
+	// CONSTRUCTORS
+	//***********************************************************************************
+
+	/**
+	 * Create a tree for at most <i>n</i> tasks
+	 * @param n maximum number of tasks
+	 */
+	public ThetaLambdaTree(int n) {
+		int s = 1;
+		while (s < n) {
+			s <<= 1;
+		}
+		leaf = new int[n];
+		taskOf = new int[s];
+		white = new boolean[n];
+		sp = new long[2 * s];
+		ect = new long[2 * s];
+		spL = new long[2 * s];
+		ectL = new long[2 * s];
+	}
+
+	//***********************************************************************************
+	// METHODS
+	//***********************************************************************************
+
+	/**
+	 * Empty the tree and define the order of the leaves.
+	 * @param byEst	tasks sorted by earliest start time
+	 * @param m		number of tasks
+	 */
+	public void init(int[] byEst, int m) {
+		size = 1;
+		while (size < m) {
+			size <<= 1;
+		}
+		for (int k = 0; k < m; k++) {
+			leaf[byEst[k]] = size + k;
+			taskOf[k] = byEst[k];
+			white[byEst[k]] = false;
+		}
+		for (int v = 1; v < 2 * size; v++) {
+			sp[v] = spL[v] = 0;
+			ect[v] = ectL[v] = NONE;
+		}
+	}
+
+	/**
+	 * Add a task in Theta
+	 * @param t		a task
+	 * @param est	its earliest start time
+	 * @param p		its processing time
+	 */
+	public void insert(int t, long est, long p) {
+		int v = leaf[t];
+		sp[v] = spL[v] = p;
+		ect[v] = ectL[v] = est + p;
+		white[t] = true;
+		update(v);
+	}
+
+	/**
+	 * Move a task from Theta to Lambda
+	 * @param t a white task
+	 */
+	public void gray(int t) {
+		int v = leaf[t];
+		sp[v] = 0;
+		ect[v] = NONE;
+		white[t] = false;
+		update(v);
+	}
+
+	/**
+	 * Remove a task from the tree
+	 * @param t a task
+	 */
+	public void remove(int t) {
+		int v = leaf[t];
+		sp[v] = spL[v] = 0;
+		ect[v] = ectL[v] = NONE;
+		white[t] = false;
+		update(v);
+	}
+
+	/**
+	 * @param t a task
+	 * @return <tt>true</tt> if <i>t</i> is in Theta
+	 */
+	public boolean isWhite(int t) {
+		return white[t];
+	}
+
+	/**
+	 * @return the earliest completion time of Theta
+	 */
+	public long getEct() {
+		return ect[1];
+	}
+
+	/**
+	 * @return the earliest completion time of Theta with at most one task of Lambda
+	 */
+	public long getEctBar() {
+		return ectL[1];
+	}
+
+	/**
+	 * @return the gray task responsible for the value of {@link #getEctBar()}, -1 if none
+	 */
+	public int getResponsibleEctBar() {
+		if (ectL[1] <= ect[1]) {
+			return -1;
+		}
+		int v = 1;
+		while (v < size) {
+			int l = 2 * v, r = l + 1;
+			if (ectL[v] == ectL[r] && ectL[r] > ect[r]) {
+				v = r;
+			} else if (ectL[v] == ect[l] + spL[r] && spL[r] > sp[r]) {
+				v = responsibleSpBar(r);
+				break;
+			} else {
+				v = l;
+			}
+		}
+		return taskOf[v - size];
+	}
+
+	private int responsibleSpBar(int v) {
+		while (v < size) {
+			int l = 2 * v, r = l + 1;
+			if (spL[v] == spL[l] + sp[r] && spL[l] > sp[l]) {
+				v = l;
+			} else {
+				v = r;
+			}
+		}
+		return v;
+	}
+
+	private void update(int v) {
+		for (v >>= 1; v > 0; v >>= 1) {
+			int l = 2 * v, r = l + 1;
+			sp[v] = sp[l] + sp[r];
+			ect[v] = Math.max(ect[r], ect[l] + sp[r]);
+			spL[v] = Math.max(spL[l] + sp[r], sp[l] + spL[r]);
+			ectL[v] = Math.max(ectL[r], Math.max(ect[l] + spL[r], ectL[l] + sp[r]));
+		}
+	}
+}
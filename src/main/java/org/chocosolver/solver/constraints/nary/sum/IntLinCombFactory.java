@@ -273,6 +273,12 @@ public class IntLinCombFactory {
 
                     }
                 }
+                if (OPERATOR != Operator.NQ && Model.getSettings().enableIncrementalityOnSum(tmpV.length)) {
+                    int[] tmpC = new int[tmpV.length];
+                    Arrays.fill(tmpC, 0, b, 1);
+                    Arrays.fill(tmpC, b, tmpC.length, -1);
+                    return new SumConstraint("Sum", new PropScalarIncr(tmpV, tmpC, b, OPERATOR, RESULT));
+                }
                 return new SumConstraint("Sum", new PropSum(tmpV, b, OPERATOR, RESULT));
         }
     }
@@ -329,6 +335,9 @@ public class IntLinCombFactory {
             OPERATOR = Operator.LE;
             RESULT--;
         }
+        if (OPERATOR != Operator.NQ && s.getSettings().enableIncrementalityOnSum(tmpV.length)) {
+            return new SumConstraint("ScalarProduct", new PropScalarIncr(tmpV, tmpC, b, OPERATOR, RESULT));
+        }
         return new SumConstraint("ScalarProduct", new PropScalar(tmpV, tmpC, b, OPERATOR, RESULT));
     }
 
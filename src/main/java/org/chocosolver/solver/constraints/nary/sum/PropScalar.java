@@ -30,6 +30,7 @@
 package org.chocosolver.solver.constraints.nary.sum;
 
 import org.chocosolver.solver.constraints.Operator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
@@ -49,7 +50,7 @@ public class PropScalar extends PropSum {
     /**
      * The coefficients
      */
-    private final int[] c;
+    protected final int[] c;
 
     /**
      * Create a scalar product: SUM(x_i*c_i) o b
@@ -65,6 +66,11 @@ public class PropScalar extends PropSum {
         this.c = coeffs;
     }
 
+    PropScalar(IntVar[] variables, int[] coeffs, int pos, Operator o, int b, PropagatorPriority priority, boolean reactOnFineEvent) {
+        super(variables, pos, o, b, priority, reactOnFineEvent);
+        this.c = coeffs;
+    }
+
 
     @Override
     protected void prepare() {
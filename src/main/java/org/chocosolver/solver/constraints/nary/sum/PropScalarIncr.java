@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary.sum;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Operator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+
+/**
+ * A propagator for SUM(x_i*c_i) o b, maintained incrementally, dedicated to long linear constraints.
+ * <br/>
+ * The sums of lower and upper bounds are updated on each fine event from the bound deltas of the modified variable,
+ * instead of being recomputed over all variables.
+ * The maximal variability is kept as an upper bound, and the variables are only scanned
+ * when this bound exceeds the current slack, that is, when filtering may happen.
+ * <br/>
+ * Based on "Bounds Consistency Techniques for Long Linear Constraint" </br>
+ * W. Harvey and J. Schimpf
+ * <p>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropScalarIncr extends PropScalar {
+
+    /**
+     * Sum of lower bounds maintained incrementally.
+     */
+    private final IStateInt rLB;
+    /**
+     * Sum of upper bounds maintained incrementally.
+     */
+    private final IStateInt rUB;
+    /**
+     * Upper bound of the maximal variability, made exact on each scan.
+     */
+    private final IStateInt rMaxI;
+    /**
+     * Lower bound of each variable, as last seen by this propagator.
+     */
+    private final IStateInt[] lbs;
+    /**
+     * Upper bound of each variable, as last seen by this propagator.
+     */
+    private final IStateInt[] ubs;
+
+    /**
+     * Set to <tt>true</tt> when the last call to {@link #prepare()} scanned all variables.
+     */
+    private boolean scanned;
+
+    /**
+     * Create a scalar product: SUM(x_i*c_i) o b, maintained incrementally.
+     * Variables and coefficients are excepted to be ordered wrt to coefficients: first positive ones then negative ones.
+     * @param variables list of integer variables
+     * @param coeffs list of coefficients
+     * @param pos position of the last positive coefficient
+     * @param o operator
+     * @param b bound to respect.
+     */
+    public PropScalarIncr(IntVar[] variables, int[] coeffs, int pos, Operator o, int b) {
+        super(variables, coeffs, pos, o, b, computePriority(variables.length), true);
+        IEnvironment environment = model.getEnvironment();
+        this.rLB = environment.makeInt();
+        this.rUB = environment.makeInt();
+        this.rMaxI = environment.makeInt(Integer.MAX_VALUE);
+        this.lbs = new IStateInt[l];
+        this.ubs = new IStateInt[l];
+        for (int i = 0; i < l; i++) {
+            lbs[i] = environment.makeInt(vars[i].getLB());
+            ubs[i] = environment.makeInt(vars[i].getUB());
+        }
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if (PropagatorEventType.isFullPropagation(evtmask)) {
+            super.prepare();
+            store();
+        }
+        filter();
+        if (scanned) {
+            // the propagator does not receive its own modifications
+            super.prepare();
+            store();
+        }
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        int lb = vars[idxVarInProp].getLB();
+        int ub = vars[idxVarInProp].getUB();
+        int dlb = lb - lbs[idxVarInProp].get();
+        int dub = ub - ubs[idxVarInProp].get();
+        if (dlb != 0) {
+            lbs[idxVarInProp].set(lb);
+        }
+        if (dub != 0) {
+            ubs[idxVarInProp].set(ub);
+        }
+        int ci = c[idxVarInProp];
+        if (ci > 0) {
+            sumLB = rLB.add(dlb * ci);
+            sumUB = rUB.add(dub * ci);
+        } else {
+            sumLB = rLB.add(dub * ci);
+            sumUB = rUB.add(dlb * ci);
+        }
+        maxI = rMaxI.get();
+        if (mayFilter()) {
+            forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+        }
+    }
+
+    @Override
+    protected void prepare() {
+        sumLB = rLB.get();
+        sumUB = rUB.get();
+        maxI = rMaxI.get();
+        scanned = mayFilter();
+        if (scanned) {
+            super.prepare();
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the current sums and the maximal variability
+     * indicate that filtering, or a failure, may happen
+     */
+    private boolean mayFilter() {
+        int F = b - sumLB;
+        int E = sumUB - b;
+        switch (o) {
+            case LE:
+                return F < 0 || maxI > F;
+            case GE:
+                return E < 0 || maxI > E;
+            case EQ:
+                return F < 0 || E < 0 || maxI > F || maxI > E;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Record the current bounds of the variables, the sums and the maximal variability
+     * computed by the last call to {@link PropScalar#prepare()}.
+     */
+    private void store() {
+        for (int i = 0; i < l; i++) {
+            lbs[i].set(vars[i].getLB());
+            ubs[i].set(vars[i].getUB());
+        }
+        rLB.set(sumLB);
+        rUB.set(sumUB);
+        rMaxI.set(maxI);
+    }
+
+    @Override
+    protected PropSum opposite() {
+        Operator op = nop(o);
+        if (op == Operator.NQ) {
+            return super.opposite();
+        }
+        return new PropScalarIncr(vars, c, pos, op, b + nb(o));
+    }
+}
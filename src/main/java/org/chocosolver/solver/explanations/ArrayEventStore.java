@@ -34,9 +34,18 @@ import org.chocosolver.memory.IStateInt;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+
+import java.util.Arrays;
 
 /**
  * A data structure which stores events during search, for lazy explanation purpose.
+ * <p>
+ * Events are also indexed: each event points to the previous event on the same variable,
+ * or to the previous propagator activation in case of propagator activation,
+ * so that events can be scanned backward per variable (see {@link RuleStore#scan(int, int, ArrayEventStore, Explanation, boolean)}).
+ * The last event of each variable is not backtrackable, it is lazily restored on backtrack.
+ * <p>
  * Created by cprudhom on 13/11/14.
  * Project: choco.
  * @author Charles Prud'homme
@@ -72,6 +81,23 @@ public class ArrayEventStore {
      * to store thrid values, in chronological order
      */
     private int[] val3Chunks;
+    /**
+     * to store, for each event, the previous one on the same variable
+     * (or the previous propagator activation, for propagator activation), -1 if none
+     */
+    private int[] prevChunks;
+    /**
+     * Last event of each variable, indexed by variable ID, -1 if none
+     */
+    private int[] heads;
+    /**
+     * Last propagator activation, -1 if none
+     */
+    private int lastActivation;
+    /**
+     * Number of events indexed in {@link #heads}, may be greater than the number of events stored, after backtrack
+     */
+    private int indexed;
     /**
      * Number of event stored
      */
@@ -91,6 +117,10 @@ public class ArrayEventStore {
         val1Chunks = new int[SIZE];
         val2Chunks = new int[SIZE];
         val3Chunks = new int[SIZE];
+        prevChunks = new int[SIZE];
+        heads = new int[SIZE];
+        Arrays.fill(heads, -1);
+        lastActivation = -1;
     }
 
     /**
@@ -108,15 +138,45 @@ public class ArrayEventStore {
         if (idx >= varChunks.length) {
             increase();
         }
+        unindex(idx);
         varChunks[idx] = var;
         cauChunks[idx] = cause;
         masChunks[idx] = mask;
         val1Chunks[idx] = one;
         val2Chunks[idx] = two;
         val3Chunks[idx] = three;
+        if (mask == PropagatorEventType.FULL_PROPAGATION) {
+            prevChunks[idx] = lastActivation;
+            lastActivation = idx;
+        } else {
+            int vid = var.getId();
+            if (vid >= heads.length) {
+                int oldCapacity = heads.length;
+                heads = Arrays.copyOf(heads, Math.max(vid + 1, oldCapacity + (oldCapacity >> 1)));
+                Arrays.fill(heads, oldCapacity, heads.length, -1);
+            }
+            prevChunks[idx] = heads[vid];
+            heads[vid] = idx;
+        }
+        indexed = idx + 1;
         size.add(1);
     }
 
+    /**
+     * Restore the last event of variables as it was when only <i>s</i> events were stored.
+     * @param s number of events stored
+     */
+    private void unindex(int s) {
+        while (indexed > s) {
+            indexed--;
+            if (masChunks[indexed] == PropagatorEventType.FULL_PROPAGATION) {
+                lastActivation = prevChunks[indexed];
+            } else {
+                heads[varChunks[indexed].getId()] = prevChunks[indexed];
+            }
+        }
+    }
+
     /**
      * Forget the last event pushed
      */
@@ -151,6 +211,10 @@ public class ArrayEventStore {
         valBigger = new int[newCapacity];
         System.arraycopy(val3Chunks, 0, valBigger, 0, oldCapacity);
         val3Chunks = valBigger;
+
+        valBigger = new int[newCapacity];
+        System.arraycopy(prevChunks, 0, valBigger, 0, oldCapacity);
+        prevChunks = valBigger;
     }
 
     /**
@@ -208,4 +272,40 @@ public class ArrayEventStore {
         return val3Chunks[evt];
     }
 
+    /**
+     * @param evt event index
+     * @return the index of the previous event on the same variable as the event in position <i>evt</i>
+     * (or of the previous propagator activation, if the event is a propagator activation), -1 if none
+     */
+    public int getPrevious(int evt) {
+        return prevChunks[evt];
+    }
+
+    /**
+     * @param vid ID of a variable
+     * @param evt event index
+     * @return the index of the last event on the variable, propagator activations excluded,
+     * in position lesser than or equal to <i>evt</i>, -1 if none
+     */
+    public int getLastEvent(int vid, int evt) {
+        unindex(size.get());
+        int i = vid < heads.length ? heads[vid] : -1;
+        while (i > evt) {
+            i = prevChunks[i];
+        }
+        return i;
+    }
+
+    /**
+     * @param evt event index
+     * @return the index of the last propagator activation in position lesser than or equal to <i>evt</i>, -1 if none
+     */
+    public int getLastActivation(int evt) {
+        unindex(size.get());
+        int i = lastActivation;
+        while (i > evt) {
+            i = prevChunks[i];
+        }
+        return i;
+    }
 }
@@ -113,13 +113,7 @@ public class ExplanationEngine implements IExplanationEngine{
             explanation.addCause(cex.c); // otherwise, we could miss it ;)
             cex.c.why(ruleStore, null, IntEventType.VOID, 0);
         }
-        int i = eventStore.getSize() - 1;
-        while (i > -1 && !ruleStore.isPreemptedStop()) {
-            if (ruleStore.match(i, eventStore)) {
-                ruleStore.update(i, eventStore, explanation);
-            }
-            i--;
-        }
+        ruleStore.scan(eventStore.getSize() - 1, 0, eventStore, explanation, true);
         if (!enablePartialExplanation) {
             explanation.getRules().clear(); // not required, for assertion purpose only
         }
@@ -115,6 +115,18 @@ public class RuleStore {
      * Reference to the last value popped from the event store.
      */
     private int lastValue;
+    /**
+     * Events to visit next, one per variable with a rule (plus one propagator activation), as a max-heap
+     */
+    private int[] heap;
+    /**
+     * Number of events in {@link #heap}
+     */
+    private int heapSize;
+    /**
+     * Number of variable rules whose events are already in {@link #heap}
+     */
+    private int tracked;
 
     /**
      * Instantiate a rule store to compute explanations
@@ -125,6 +137,7 @@ public class RuleStore {
         this.saveCauses = saveCauses;
         this.enablePartialExplanation = enablePartialExplanation;
         decRefut = new Explanation[16];
+        heap = new int[16];
     }
 
     /**
@@ -144,6 +157,96 @@ public class RuleStore {
         return preemptedStop;
     }
 
+    /**
+     * Scan the events of <i>eventStore</i> backward, from <i>from</i> down to <i>to</i>,
+     * and update <i>explanation</i> with the ones matching a rule.
+     * This is equivalent to calling {@link #match(int, ArrayEventStore)}, and {@link #update(int, ArrayEventStore, Explanation)}
+     * on success, on each event from <i>from</i> down to <i>to</i>,
+     * but only events of variables with a rule and propagator activations are visited,
+     * thanks to the index of <i>eventStore</i>.
+     * The rule store is expected to be initialized, see {@link #init(Explanation)}.
+     *
+     * @param from        index of the first event to visit
+     * @param to          index of the last event to visit
+     * @param eventStore  set of events
+     * @param explanation the explanation to compute
+     * @param preemptable set to <tt>true</tt> to stop as soon as {@link #isPreemptedStop()} returns <tt>true</tt>
+     * @return the index of the event preceding the last one visited on preempted stop, <i>to</i> - 1 otherwise
+     * (or <i>from</i> when it is lesser than <i>to</i>)
+     */
+    public int scan(int from, int to, ArrayEventStore eventStore, Explanation explanation, boolean preemptable) {
+        if (preemptable && preemptedStop) {
+            return from;
+        }
+        heapSize = 0;
+        tracked = 0;
+        int a = eventStore.getLastActivation(from);
+        if (a >= to) {
+            push(a);
+        }
+        track(from, to, eventStore);
+        while (heapSize > 0) {
+            int i = pop();
+            int p = eventStore.getPrevious(i);
+            if (p >= to) {
+                push(p);
+            }
+            if (match(i, eventStore)) {
+                update(i, eventStore, explanation);
+                if (preemptable && preemptedStop) {
+                    return i - 1;
+                }
+                track(i - 1, to, eventStore);
+            }
+        }
+        return Math.min(from, to - 1);
+    }
+
+    /**
+     * Add to the heap the last event, before <i>from</i>, of each variable whose rule has been added since the last call
+     */
+    private void track(int from, int to, ArrayEventStore eventStore) {
+        while (tracked < cRules.nbVariables()) {
+            int e = eventStore.getLastEvent(cRules.getVariable(tracked++), from);
+            if (e >= to) {
+                push(e);
+            }
+        }
+    }
+
+    private void push(int evt) {
+        if (heapSize == heap.length) {
+            int[] tmp = heap;
+            heap = new int[heapSize + (heapSize >> 1)];
+            System.arraycopy(tmp, 0, heap, 0, heapSize);
+        }
+        int i = heapSize++;
+        while (i > 0 && heap[(i - 1) >> 1] < evt) {
+            heap[i] = heap[(i - 1) >> 1];
+            i = (i - 1) >> 1;
+        }
+        heap[i] = evt;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int evt = heap[--heapSize];
+        int i = 0;
+        int c;
+        while ((c = 2 * i + 1) < heapSize) {
+            if (c + 1 < heapSize && heap[c + 1] > heap[c]) {
+                c++;
+            }
+            if (heap[c] <= evt) {
+                break;
+            }
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = evt;
+        return top;
+    }
+
     /**
      * Return true if the event represented by matches one of the active rules.
      *
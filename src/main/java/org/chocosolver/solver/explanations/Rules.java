@@ -34,6 +34,7 @@ import gnu.trove.set.hash.TIntHashSet;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.variables.Variable;
 
+import java.util.Arrays;
 import java.util.BitSet;
 
 /**
@@ -66,6 +67,16 @@ public class Rules {
      */
     private int[] vmMasks;
 
+    /**
+     * Stores index of variables in {@link #vmRules}, in the order they were added
+     */
+    private int[] vmOrder;
+
+    /**
+     * Number of variables in {@link #vmOrder}
+     */
+    private int vmSize;
+
     /**
      * Stores value removals of a given variable ({@link Variable#getId()}), when needed
      */
@@ -81,6 +92,7 @@ public class Rules {
         this.paRules = new BitSet();
         this.vmRules = new BitSet();
         this.vmMasks = new int[i1];
+        this.vmOrder = new int[i1];
         this.remVal = new NoIteratorIntHashSet[i2];
     }
 
@@ -180,6 +192,10 @@ public class Rules {
         if (!vmRules.get(vid)) {
             vmMasks[vid] = mask;
             vmRules.set(vid);
+            if (vmSize == vmOrder.length) {
+                vmOrder = Arrays.copyOf(vmOrder, Math.max(16, vmSize + (vmSize >> 1)));
+            }
+            vmOrder[vmSize++] = vid;
             return true;
         } else {
             int amount = (cmask | mask) - cmask;
@@ -197,6 +213,22 @@ public class Rules {
             if (i < remVal.length && remVal[i] != null) remVal[i].clear();
         }
         vmRules.clear();
+        vmSize = 0;
+    }
+
+    /**
+     * @return the number of variables with a modification rule
+     */
+    public int nbVariables() {
+        return vmSize;
+    }
+
+    /**
+     * @param i index of a variable rule, between 0 and {@link #nbVariables()} (excluded)
+     * @return the ID of the <i>i</i><sup>th</sup> variable with a modification rule, in the order rules were added
+     */
+    public int getVariable(int i) {
+        return vmOrder[i];
     }
 
     /**
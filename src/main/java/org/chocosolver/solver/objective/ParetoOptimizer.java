@@ -29,19 +29,25 @@
  */
 package org.chocosolver.solver.objective;
 
-import org.chocosolver.sat.PropSat;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solution;
-import org.chocosolver.solver.constraints.Operator;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.DominanceIndex;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Class to store the pareto front (multi-objective optimization).
  * Worse solutions are dynamically removed from the solution set.
+ * <p>
+ * The objective values of the front are indexed in a {@link DominanceIndex},
+ * which is also used by a propagator to prevent the search from computing dominated solutions.
  *
  * @author Jean-Guillaume Fages
  */
@@ -51,22 +57,32 @@ public class ParetoOptimizer implements IMonitorSolution {
     // VARIABLES
     //***********************************************************************************
 
-    // Set of incomparable and Pareto-best solutions
-    private LinkedList<Solution> paretoFront;
+    // Objective values of the incomparable and Pareto-best solutions (negated when minimizing)
+    private final DominanceIndex front;
+
+    // Solution of each point of the front, by id
+    private Solution[] solutions;
+
+    // Rank of each point of the front, by id, to list solutions in the order they were found
+    private long[] ranks;
+    private long rank;
+
+    // Set of incomparable and Pareto-best solutions, built on demand
+    private ArrayList<Solution> paretoFront;
 
     private Model model;
 
     // Allow to recycle (dominated) Solution objects
-    private LinkedList<Solution> pool = new LinkedList<>();
+    private ArrayDeque<Solution> pool = new ArrayDeque<>();
 
     // objective function
     private boolean maximize;
     private IntVar[] objectives;
     private int n;
 
-    // to post dynamical constraints
-    private int[] vals, lits;
-    private PropSat psat;
+    // to filter dominated solutions
+    private int[] vals;
+    private PropParetoFront prop;
 
     //***********************************************************************************
     // CONSTRUCTOR
@@ -75,7 +91,7 @@ public class ParetoOptimizer implements IMonitorSolution {
 	/**
      * Create an object to compute the Pareto front of a multi-objective problem.
      * Maintain the set of dominating solutions and
-     * posts constraints dynamically to prevent search from computing dominated ones.
+     * posts a constraint to prevent search from computing dominated ones.
      * This object must be used as follows:
      *
    	 *     model.getSolver().plugMonitor(paretoRecorder);
@@ -89,14 +105,16 @@ public class ParetoOptimizer implements IMonitorSolution {
      * @param objectives objective variables (must all be optimized in the same direction)
      */
     public ParetoOptimizer(final boolean maximize, final IntVar[] objectives) {
-        this.paretoFront = new LinkedList<>();
         this.objectives = objectives.clone();
         this.maximize = maximize;
         n = objectives.length;
         model = objectives[0].getModel();
-        psat = model.getMinisat().getPropSat();
+        front = new DominanceIndex(n);
+        solutions = new Solution[16];
+        ranks = new long[16];
         vals = new int[n];
-        lits = new int[n];
+        prop = new PropParetoFront(this.objectives, maximize, front);
+        model.post(new Constraint("ParetoFront", prop));
     }
 
     //***********************************************************************************
@@ -107,48 +125,46 @@ public class ParetoOptimizer implements IMonitorSolution {
     public void onSolution() {
         // get objective values
         for (int i = 0; i < n; i++) {
-            vals[i] = objectives[i].getValue();
+            vals[i] = maximize ? objectives[i].getValue() : -objectives[i].getValue();
         }
         // remove dominated solutions
-        for (int i = paretoFront.size() - 1; i >= 0; i--) {
-            if (isDominated(paretoFront.get(i), vals)) {
-                pool.add(paretoFront.remove(i));
-            }
-        }
+        front.removeDominatedBy(vals, id -> {
+            pool.add(solutions[id]);
+            solutions[id] = null;
+        });
         // store current solution
+        Solution solution;
         if(pool.isEmpty()){
-            paretoFront.add(new Solution(model).record());
+            solution = new Solution(model);
         }else{
-            Solution solution = pool.remove();
-
-            solution.record();
-            paretoFront.add(solution);
-        }
-        // post dynamical constraints to prevent search from computing dominated solutions
-        Operator symbol = Operator.GT;
-        if (!maximize) {
-            symbol = Operator.LT;
+            solution = pool.remove();
         }
-        for (int i = 0; i < n; i++) {
-            lits[i] = psat.makeLiteral(model.arithm(objectives[i], symbol.toString(), vals[i]).reify(), true);
+        solution.record();
+        int id = front.add(vals);
+        if (id >= solutions.length) {
+            solutions = Arrays.copyOf(solutions, Math.max(id + 1, solutions.length * 3 / 2));
+            ranks = Arrays.copyOf(ranks, solutions.length);
         }
-        psat.addLearnt(lits);
+        solutions[id] = solution;
+        ranks[id] = rank++;
+        paretoFront = null;
+        // wake up the propagator to prevent search from computing dominated solutions
+        prop.onFrontChanged();
     }
 
 	/**
-     * @return the set of Pareto-best (possibly optimal) solutions found so far
+     * @return the set of Pareto-best (possibly optimal) solutions found so far, in the order they were found
      */
     public List<Solution> getParetoFront() {
+        if (paretoFront == null) {
+            int[] ids = new int[front.size()];
+            int[] k = {0};
+            front.forEach(id -> ids[k[0]++] = id);
+            paretoFront = new ArrayList<>(ids.length);
+            Arrays.stream(ids).boxed()
+                    .sorted(Comparator.comparingLong(id -> ranks[id]))
+                    .forEach(id -> paretoFront.add(solutions[id]));
+        }
    		return paretoFront;
    	}
-
-    private boolean isDominated(Solution solution, int[] vals) {
-        for (int i = 0; i < n; i++) {
-            int delta = solution.getIntVal(objectives[i]) - vals[i];
-            if ((delta > 0 && maximize) || (delta < 0 && !maximize)) {
-                return false;
-            }
-        }
-        return true;
-    }
 }
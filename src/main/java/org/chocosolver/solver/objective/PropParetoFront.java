@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.objective;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.util.ESat;
+import org.chocosolver.util.objects.DominanceIndex;
+
+/**
+ * Propagator which forbids the solutions weakly dominated by a point of a Pareto front.
+ * <p>
+ * For each point <i>p</i> of the front, at least one objective has to be strictly better than in <i>p</i>.
+ * Let <i>u</i> be the best values the objectives can take: if a point <i>p</i> is at least as good as <i>u</i>
+ * on every objective but <i>j</i>, then the objective <i>j</i> has to be strictly better than <i>p<sub>j</sub></i>.
+ * Such points are found with a {@link DominanceIndex}, rather than with one clause per point.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 17/10/2016
+ */
+class PropParetoFront extends Propagator<IntVar> {
+
+    /** The front, in the maximization space */
+    private final DominanceIndex front;
+    /** Set to <tt>true</tt> to maximize the objectives, to <tt>false</tt> to minimize them */
+    private final boolean maximize;
+    /** Best values the objectives can take, in the maximization space */
+    private final int[] best;
+
+    /**
+     * @param objectives objectives, all optimized in the same direction
+     * @param maximize   set to <tt>true</tt> to maximize the objectives, to <tt>false</tt> to minimize them
+     * @param front      points of the front, in the maximization space (values are negated when minimizing)
+     */
+    PropParetoFront(IntVar[] objectives, boolean maximize, DominanceIndex front) {
+        super(objectives, PropagatorPriority.LINEAR, false);
+        this.front = front;
+        this.maximize = maximize;
+        this.best = new int[objectives.length];
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return IntEventType.boundAndInst();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if (front.size() == 0) {
+            return;
+        }
+        for (int i = 0; i < vars.length; i++) {
+            best[i] = maximize ? vars[i].getUB() : -vars[i].getLB();
+        }
+        if (front.isDominated(best)) {
+            fails();
+        }
+        for (int j = 0; j < vars.length; j++) {
+            int p = front.maxDominating(best, j, Integer.MIN_VALUE);
+            if (p != Integer.MIN_VALUE) {
+                if (maximize) {
+                    vars[j].updateLowerBound(p + 1, this);
+                } else {
+                    vars[j].updateUpperBound(-p - 1, this);
+                }
+            }
+        }
+    }
+
+    /**
+     * To be called when a point is added to the front
+     */
+    void onFrontChanged() {
+        forcePropagationOnBacktrack();
+    }
+
+    @Override
+    public ESat isEntailed() {
+        for (int i = 0; i < vars.length; i++) {
+            best[i] = maximize ? vars[i].getUB() : -vars[i].getLB();
+        }
+        if (front.isDominated(best)) {
+            return ESat.FALSE;
+        }
+        for (int i = 0; i < vars.length; i++) {
+            best[i] = maximize ? vars[i].getLB() : -vars[i].getUB();
+        }
+        if (!front.isDominated(best)) {
+            return ESat.TRUE;
+        }
+        return ESat.UNDEFINED;
+    }
+}
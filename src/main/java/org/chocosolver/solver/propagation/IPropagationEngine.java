@@ -234,4 +234,21 @@ public interface IPropagationEngine  {
      */
     default void dynamicDeletion(Propagator... ps) {
     }
+
+    //      PROFILING     //
+
+    /**
+     * Plugs a profiler which collects statistics on each propagator executed by this engine.
+     * Engines which do not support profiling ignore it.
+     * @param profiler a profiler, or <tt>null</tt> to stop profiling
+     */
+    default void setProfiler(PropagationProfiler profiler) {
+    }
+
+    /**
+     * @return the profiler plugged into this engine, or <tt>null</tt>
+     */
+    default PropagationProfiler getProfiler() {
+        return null;
+    }
 }
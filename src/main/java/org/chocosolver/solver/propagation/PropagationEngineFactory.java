@@ -30,6 +30,7 @@
 package org.chocosolver.solver.propagation;
 
 import org.chocosolver.solver.Model;
+import org.chocosolver.solver.propagation.hardcoded.SevenQueuesCoalescingEngine;
 import org.chocosolver.solver.propagation.hardcoded.SevenQueuesPropagatorEngine;
 import org.chocosolver.solver.propagation.hardcoded.TwoBucketPropagationEngine;
 
@@ -56,6 +57,18 @@ public enum PropagationEngineFactory {
         }
     },
 
+    /**
+     * Create a seven queue dynamic propagator-oriented propagation engine
+     * which coalesces events per variable before scheduling propagators.
+     * It is well suited for models with a large number of propagators.
+     */
+    PROPAGATORDRIVEN_7QD_COALESCING() {
+        @Override
+        public IPropagationEngine make(Model model) {
+            return new SevenQueuesCoalescingEngine(model);
+        }
+    },
+
     /**
      * Create a propagation engine which handles both priority and separated coarse propagation.
      */
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.propagation;
+
+import org.chocosolver.solver.constraints.Propagator;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Per propagator statistics collected by a propagation engine, see {@link IPropagationEngine#setProfiler(PropagationProfiler)}.
+ * <br/>
+ * For each propagator, it counts:
+ * <ul>
+ *     <li>the number of times it is executed by the engine (a call), each call being made of fine and/or coarse executions,</li>
+ *     <li>the number of fine executions, that is, calls to {@link Propagator#propagate(int, int)},</li>
+ *     <li>the number of coarse executions, that is, calls to {@link Propagator#propagate(int)},</li>
+ *     <li>the number of failures it raised,</li>
+ *     <li>the number of domain reductions it produced, that is, the number of events it generated,</li>
+ *     <li>the time spent in its calls.</li>
+ * </ul>
+ * Since reading the clock is not free, the time is measured on one call out of <i>2<sup>k</sup></i> only,
+ * and then extrapolated to all calls.
+ * Data are stored in arrays directly indexed by propagators' ID.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropagationProfiler {
+
+    /**
+     * Default sampling: time is measured on one call out of 2<sup>4</sup>
+     */
+    public static final int DEFAULT_SAMPLING = 4;
+
+    /**
+     * Mask to select calls which are timed
+     */
+    private final long sampling;
+    /**
+     * Propagators, indexed by ID
+     */
+    private Propagator[] propagators = new Propagator[16];
+    private long[] calls = new long[16];
+    private long[] fines = new long[16];
+    private long[] coarses = new long[16];
+    private long[] failures = new long[16];
+    private long[] reductions = new long[16];
+    private long[] sampledCalls = new long[16];
+    private long[] sampledTimes = new long[16];
+    /**
+     * Number of executions of all propagators
+     */
+    private long totalCalls;
+
+    /**
+     * Create a profiler which measures time on one call out of 2<sup>{@value #DEFAULT_SAMPLING}</sup>
+     */
+    public PropagationProfiler() {
+        this(DEFAULT_SAMPLING);
+    }
+
+    /**
+     * Create a profiler which measures time on one call out of 2<sup>k</sup>
+     * @param k sampling exponent, 0 to measure time on each call
+     */
+    public PropagationProfiler(int k) {
+        if (k < 0 || k > 62) {
+            throw new IllegalArgumentException("Sampling exponent should be in [0,62]");
+        }
+        this.sampling = (1L << k) - 1;
+    }
+
+    private int index(Propagator p) {
+        int id = p.getId();
+        if (id >= calls.length) {
+            int nsize = Math.max(id + 1, calls.length * 3 / 2 + 1);
+            propagators = Arrays.copyOf(propagators, nsize);
+            calls = Arrays.copyOf(calls, nsize);
+            fines = Arrays.copyOf(fines, nsize);
+            coarses = Arrays.copyOf(coarses, nsize);
+            failures = Arrays.copyOf(failures, nsize);
+            reductions = Arrays.copyOf(reductions, nsize);
+            sampledCalls = Arrays.copyOf(sampledCalls, nsize);
+            sampledTimes = Arrays.copyOf(sampledTimes, nsize);
+        }
+        propagators[id] = p;
+        return id;
+    }
+
+    /**
+     * To be called by the engine before executing <i>p</i>.
+     * @param p a propagator
+     * @return a starting time to give to {@link #afterCall(Propagator, long)}, or 0 if this call is not timed
+     */
+    public long beforeCall(Propagator p) {
+        int id = index(p);
+        totalCalls++;
+        if ((calls[id]++ & sampling) == 0) {
+            sampledCalls[id]++;
+            return System.nanoTime();
+        }
+        return 0;
+    }
+
+    /**
+     * To be called by the engine once <i>p</i> has been executed, even if it failed.
+     * @param p a propagator
+     * @param start the value returned by {@link #beforeCall(Propagator)}
+     */
+    public void afterCall(Propagator p, long start) {
+        if (start != 0) {
+            sampledTimes[p.getId()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * To be called by the engine on each call to {@link Propagator#propagate(int, int)}
+     * @param p a propagator
+     */
+    public void onFine(Propagator p) {
+        fines[index(p)]++;
+    }
+
+    /**
+     * To be called by the engine on each call to {@link Propagator#propagate(int)}
+     * @param p a propagator
+     */
+    public void onCoarse(Propagator p) {
+        coarses[index(p)]++;
+    }
+
+    /**
+     * To be called by the engine when <i>p</i> fails
+     * @param p a propagator
+     */
+    public void onFailure(Propagator p) {
+        failures[index(p)]++;
+    }
+
+    /**
+     * To be called by the engine when <i>p</i> modifies a variable
+     * @param p a propagator
+     */
+    public void onReduction(Propagator p) {
+        reductions[index(p)]++;
+    }
+
+    private long get(long[] values, Propagator p) {
+        int id = p.getId();
+        return id < values.length ? values[id] : 0;
+    }
+
+    /**
+     * @param p a propagator
+     * @return the number of times <i>p</i> has been executed by the engine
+     */
+    public long getCalls(Propagator p) {
+        return get(calls, p);
+    }
+
+    /**
+     * @return the number of times propagators have been executed by the engine
+     */
+    public long getTotalCalls() {
+        return totalCalls;
+    }
+
+    /**
+     * @param p a propagator
+     * @return the number of fine executions of <i>p</i>
+     */
+    public long getFineCount(Propagator p) {
+        return get(fines, p);
+    }
+
+    /**
+     * @param p a propagator
+     * @return the number of coarse executions of <i>p</i>
+     */
+    public long getCoarseCount(Propagator p) {
+        return get(coarses, p);
+    }
+
+    /**
+     * @param p a propagator
+     * @return the number of failures raised by <i>p</i>
+     */
+    public long getFailures(Propagator p) {
+        return get(failures, p);
+    }
+
+    /**
+     * @param p a propagator
+     * @return the number of domain reductions produced by <i>p</i>
+     */
+    public long getReductions(Propagator p) {
+        return get(reductions, p);
+    }
+
+    /**
+     * @param p a propagator
+     * @return an estimation of the time spent in <i>p</i>, in nanoseconds
+     */
+    public long getTime(Propagator p) {
+        long s = get(sampledCalls, p);
+        return s == 0 ? 0 : get(sampledTimes, p) * get(calls, p) / s;
+    }
+
+    /**
+     * @return the propagators observed so far, sorted by decreasing estimated time
+     */
+    public List<Propagator> getPropagators() {
+        List<Propagator> props = new ArrayList<>();
+        for (int i = 0; i < propagators.length; i++) {
+            if (propagators[i] != null) {
+                props.add(propagators[i]);
+            }
+        }
+        props.sort(Comparator.comparingLong(this::getTime).reversed().thenComparing(Comparator.comparingLong(this::getCalls).reversed()));
+        return props;
+    }
+
+    /**
+     * Reset all the counters
+     */
+    public void reset() {
+        Arrays.fill(propagators, null);
+        Arrays.fill(calls, 0);
+        Arrays.fill(fines, 0);
+        Arrays.fill(coarses, 0);
+        Arrays.fill(failures, 0);
+        Arrays.fill(reductions, 0);
+        Arrays.fill(sampledCalls, 0);
+        Arrays.fill(sampledTimes, 0);
+        totalCalls = 0;
+    }
+
+    /**
+     * Prints the statistics of the <i>top</i> most time-consuming propagators
+     * @param out where to print
+     * @param top maximum number of propagators to print
+     */
+    public void print(PrintStream out, int top) {
+        List<Propagator> props = getPropagators();
+        out.printf("- Propagation profile (%d/%d propagators)\n", Math.min(top, props.size()), props.size());
+        out.printf("\t%12s %12s %12s %10s %12s %12s  %s\n", "Time (ms)", "Calls", "Fine", "Coarse", "Failures", "Reductions", "Propagator");
+        for (int i = 0; i < props.size() && i < top; i++) {
+            Propagator p = props.get(i);
+            out.printf("\t%,12.3f %,12d %,12d %,10d %,12d %,12d  %s\n",
+                    getTime(p) / 1_000_000d,
+                    getCalls(p),
+                    getFineCount(p),
+                    getCoarseCount(p),
+                    getFailures(p),
+                    getReductions(p),
+                    p);
+        }
+    }
+}
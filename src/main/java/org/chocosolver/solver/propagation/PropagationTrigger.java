@@ -192,11 +192,26 @@ public class PropagationTrigger  {
     public static void execute(Propagator toPropagate, IPropagationEngine engine) throws ContradictionException {
         if (toPropagate.isStateLess()) {
             toPropagate.setActive();
-            toPropagate.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
-            engine.onPropagatorExecution(toPropagate);
+            fullPropagation(toPropagate, engine);
         } else if (toPropagate.isActive()) { // deal with updated propagator
+            fullPropagation(toPropagate, engine);
+        }
+    }
+
+    private static void fullPropagation(Propagator toPropagate, IPropagationEngine engine) throws ContradictionException {
+        PropagationProfiler profiler = engine.getProfiler();
+        long start = 0;
+        if (profiler != null) {
+            start = profiler.beforeCall(toPropagate);
+            profiler.onCoarse(toPropagate);
+        }
+        try {
             toPropagate.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
-            engine.onPropagatorExecution(toPropagate);
+        } finally {
+            if (profiler != null) {
+                profiler.afterCall(toPropagate, start);
+            }
         }
+        engine.onPropagatorExecution(toPropagate);
     }
 }
@@ -0,0 +1,615 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.propagation.hardcoded;
+
+import org.chocosolver.solver.ICause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Settings;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.propagation.IPropagationEngine;
+import org.chocosolver.solver.propagation.PropagationProfiler;
+import org.chocosolver.solver.propagation.PropagationTrigger;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.iterators.EvtScheduler;
+import org.chocosolver.util.objects.IntCircularQueue;
+import org.chocosolver.util.objects.queues.CircularQueue;
+
+import java.util.Arrays;
+
+/**
+ * A variant of {@link SevenQueuesPropagatorEngine} designed for models with a large number of propagators.
+ * <br/>
+ * It differs from it on two points:
+ * <ul>
+ *     <li>
+ *         the data related to a propagator are stored in dense arrays directly indexed by the propagator's ID,
+ *         so no map lookup is needed on scheduling,
+ *     </li>
+ *     <li>
+ *         a call to {@code onVariableUpdate} only records the event on the variable.
+ *         The events of a variable are coalesced until the next propagator execution ends,
+ *         and only then are the propagators of the variable scheduled, once per distinct event type.
+ *     </li>
+ * </ul>
+ * When a variable is modified by different causes between two propagator executions,
+ * no propagator is excluded from the scheduling, even the causes themselves.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SevenQueuesCoalescingEngine implements IPropagationEngine {
+
+    /**
+     * Mask to deal with emptiness (see {@link #notEmpty})
+     */
+    private static final int WORD_MASK = 0xffffffff;
+    /**
+     * Default size of the dense arrays
+     */
+    private static final int DEFAULT_SIZE = 16;
+    /**
+     * For debugging purpose: set to <tt>true</tt> to output debugging information
+     */
+    private final boolean DEBUG;
+    /**
+     * For debugging purpose: set to <tt>true</tt> to use color on console when debugging
+     */
+    private final boolean COLOR;
+    /**
+     * The strategy to use for idempotency (for debugging purpose)
+     */
+    private final Settings.Idem idemStrat;
+
+    /**
+     * Internal unique contradiction exception, used on propagation failures
+     */
+    private final ContradictionException exception;
+    /**
+     * The model declaring this engine
+     */
+    private final Model model;
+    /**
+     * The array of propagators to execute
+     */
+    private Propagator[] propagators;
+    /**
+     * The main structure of this engine: seven circular queues,
+     * each of them is dedicated to store propagator to execute wrt their priority.
+     */
+    private final CircularQueue<Propagator>[] pro_queue;
+    /**
+     * The last propagator executed
+     */
+    private Propagator lastProp;
+    /**
+     * One bit per queue: true if the queue is not empty.
+     */
+    private int notEmpty;
+    /**
+     * Per propagator ID: its position in {@link #propagators}, plus one, or 0 if it is unknown
+     */
+    private int[] positions;
+    /**
+     * Per propagator ID: indicates whether it is scheduled (and in which queue) or not.
+     */
+    private short[] scheduled;
+    /**
+     * Per propagator ID: set of (variable) events to propagate
+     */
+    private IntCircularQueue[] eventsets;
+    /**
+     * Per propagator ID (i) and per variable of the propagator (j): modification event mask of variable j from propagator i
+     * since the last propagation of propagator j.
+     */
+    private int[][] eventmasks;
+    /**
+     * Variables modified since the last scheduling of propagators
+     */
+    private final CircularQueue<Variable> var_queue;
+    /**
+     * Per variable ID: the distinct event types received since the last scheduling of its propagators
+     */
+    private IEventType[][] vevents;
+    /**
+     * Per variable ID: the number of distinct event types received since the last scheduling of its propagators
+     */
+    private int[] vnbEvents;
+    /**
+     * Per variable ID: the cause of the events received since the last scheduling of its propagators,
+     * <tt>null</tt> if there are many of them
+     */
+    private ICause[] vcauses;
+    /**
+     * PropagatorEventType's mask for delayed propagation
+     */
+    private int delayedPropagationType;
+    /**
+     * Set to <tt>true</tt> once {@link #initialize()} has been called.
+     */
+    private boolean init;
+
+    /**
+     * A specific object to deal with first propagation
+     */
+    private final PropagationTrigger trigger; // an object that starts the propagation
+    /**
+     * Collects statistics on propagators, <tt>null</tt> if not profiling
+     */
+    private PropagationProfiler profiler;
+
+
+    /**
+     * A seven-queue propagation engine which coalesces events per variable.
+     * Each of the seven queues deals with on priority.
+     * When a propagator needs to be executed, it is scheduled in the queue corresponding to its priority.
+     * The lowest priority queue is emptied before one element of the second lowest queue is popped, etc.
+     * @param model the declaring model
+     */
+    public SevenQueuesCoalescingEngine(Model model) {
+        this.exception = new ContradictionException();
+        this.trigger = new PropagationTrigger(this, model);
+        this.idemStrat = model.getSettings().getIdempotencyStrategy();
+        this.model = model;
+        //noinspection unchecked
+        this.pro_queue = new CircularQueue[8];
+        this.var_queue = new CircularQueue<>(DEFAULT_SIZE);
+        this.DEBUG = model.getSettings().debugPropagation();
+        this.COLOR = model.getSettings().outputWithANSIColors();
+    }
+
+    @Override
+    public void fails(ICause cause, Variable variable, String message) throws ContradictionException {
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onFailure((Propagator) cause);
+        }
+        throw exception.set(cause, variable, message);
+    }
+
+    @Override
+    public ContradictionException getContradictionException() {
+        return exception;
+    }
+
+    @Override
+    public void initialize() throws SolverException {
+        if (!init) {
+            int nbProp = 0;
+            Constraint[] constraints = model.getCstrs();
+            for (int c = 0; c < constraints.length; c++) {
+                nbProp += constraints[c].getPropagators().length;
+            }
+            propagators = new Propagator[nbProp];
+            for (int c = 0, k = 0; c < constraints.length; c++) {
+                Propagator[] cprops = constraints[c].getPropagators();
+                for (int j = 0; j < cprops.length; j++) {
+                    propagators[k++] = cprops[j];
+                }
+            }
+            positions = new int[DEFAULT_SIZE];
+            scheduled = new short[DEFAULT_SIZE];
+            eventsets = new IntCircularQueue[DEFAULT_SIZE];
+            eventmasks = new int[DEFAULT_SIZE][];
+            vevents = new IEventType[DEFAULT_SIZE][];
+            vnbEvents = new int[DEFAULT_SIZE];
+            vcauses = new ICause[DEFAULT_SIZE];
+            for (int i = 0; i < 8; i++) {
+                pro_queue[i] = new CircularQueue<>(16);
+            }
+            for (int j = 0; j < propagators.length; j++) {
+                declare(propagators[j], j);
+            }
+            notEmpty = 0;
+            init = true;
+        }
+        trigger.addAll(propagators);
+    }
+
+    /**
+     * Stores the data related to the propagator <i>p</i>, at position <i>j</i> in {@link #propagators}.
+     * @param p a propagator
+     * @param j its position
+     * @throws SolverException if <i>p</i> is already declared
+     */
+    private void declare(Propagator p, int j) throws SolverException {
+        int id = p.getId();
+        ensurePropagatorCapacity(id);
+        if (positions[id] > 0) {
+            throw new SolverException("The following propagator " +
+                    "is declared more than once into the propagation engine " +
+                    "(this happens when a constraint is posted twice " +
+                    "or when a posted constraint is also reified.)\n" +
+                    p + " of " + p.getConstraint());
+        }
+        positions[id] = j + 1;
+        scheduled[id] = 0;
+        if (p.reactToFineEvent()) {
+            int nbv = p.getNbVars();
+            eventsets[id] = new IntCircularQueue(nbv);
+            eventmasks[id] = new int[nbv];
+        }
+    }
+
+    private void ensurePropagatorCapacity(int id) {
+        if (id >= positions.length) {
+            int nsize = Math.max(id + 1, positions.length * 3 / 2 + 1);
+            positions = Arrays.copyOf(positions, nsize);
+            scheduled = Arrays.copyOf(scheduled, nsize);
+            eventsets = Arrays.copyOf(eventsets, nsize);
+            eventmasks = Arrays.copyOf(eventmasks, nsize);
+        }
+    }
+
+    private void ensureVariableCapacity(int id) {
+        if (id >= vnbEvents.length) {
+            int nsize = Math.max(id + 1, vnbEvents.length * 3 / 2 + 1);
+            vevents = Arrays.copyOf(vevents, nsize);
+            vnbEvents = Arrays.copyOf(vnbEvents, nsize);
+            vcauses = Arrays.copyOf(vcauses, nsize);
+        }
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return init;
+    }
+
+    @SuppressWarnings({"NullableProblems"})
+    @Override
+    public void propagate() throws ContradictionException {
+        int mask, aid;
+        IntCircularQueue evtset;
+        if (trigger.needToRun()) {
+            trigger.propagate();
+        }
+        schedule();
+        for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
+            while (!pro_queue[i].isEmpty()) {
+                lastProp = pro_queue[i].pollFirst();
+                long start = profiler == null ? 0 : profiler.beforeCall(lastProp);
+                try {
+                    // revision of the variable
+                    aid = lastProp.getId();
+                    scheduled[aid] = 0;
+                    delayedPropagationType = 0;
+                    if (lastProp.reactToFineEvent()) {
+                        evtset = eventsets[aid];
+                        while (evtset.size() > 0) {
+                            int v = evtset.pollFirst();
+                            assert lastProp.isActive() : "propagator is not active:" + lastProp;
+                            if (DEBUG) {
+                                IPropagationEngine.Trace.printPropagation(lastProp.getVar(v), lastProp, COLOR);
+                            }
+                            // clear event
+                            mask = eventmasks[aid][v];
+                            eventmasks[aid][v] = 0;
+                            // run propagation on the specific event
+                            if (profiler != null) {
+                                profiler.onFine(lastProp);
+                            }
+                            lastProp.propagate(v, mask);
+                        }
+                        // now we can check whether a delayed propagation has been scheduled
+                        if (delayedPropagationType > 0) {
+                            if (DEBUG) {
+                                IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+                            }
+                            if (profiler != null) {
+                                profiler.onCoarse(lastProp);
+                            }
+                            lastProp.propagate(delayedPropagationType);
+                        }
+                    } else if (lastProp.isActive()) { // need to be checked due to views
+                        if (DEBUG) {
+                            IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+                        }
+                        if (profiler != null) {
+                            profiler.onCoarse(lastProp);
+                        }
+                        lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
+                    }
+                    // This part is for debugging only!!
+                    if (Settings.Idem.disabled != idemStrat) {
+                        FakeEngine.checkIdempotency(lastProp);
+                    }
+                } finally {
+                    if (profiler != null) {
+                        profiler.afterCall(lastProp, start);
+                    }
+                }
+                // the events generated by the propagator are now turned into propagator schedulings
+                schedule();
+            }
+            notEmpty = notEmpty & ~(1 << i);
+        }
+    }
+
+    private int nextNotEmpty(int fromIndex) {
+        int word = notEmpty & (WORD_MASK << fromIndex);
+        if (word != 0) {
+            return Integer.numberOfTrailingZeros(word);
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    public void flush() {
+        while (!var_queue.isEmpty()) {
+            vnbEvents[var_queue.pollFirst().getId()] = 0;
+        }
+        if (lastProp != null) {
+            flush(lastProp);
+        }
+        for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(i + 1)) {
+            while (!pro_queue[i].isEmpty()) {
+                // revision of the variable
+                flush(pro_queue[i].pollFirst());
+            }
+            notEmpty = notEmpty & ~(1 << i);
+        }
+        lastProp = null;
+    }
+
+    private void flush(Propagator prop) {
+        int aid = prop.getId();
+        if (prop.reactToFineEvent()) {
+            clearEvents(aid);
+        }
+        scheduled[aid] = 0;
+    }
+
+    private void clearEvents(int aid) {
+        IntCircularQueue evtset = eventsets[aid];
+        while (evtset.size() > 0) {
+            int v = evtset.pollFirst();
+            eventmasks[aid][v] = 0;
+        }
+        evtset.clear();
+    }
+
+    /**
+     * Records the event on the variable, the propagators of the variable are scheduled later on,
+     * see {@link #schedule()}.
+     */
+    @Override
+    public void onVariableUpdate(Variable variable, IEventType type, ICause cause) {
+        if (DEBUG) {
+            IPropagationEngine.Trace.printModification(variable, type, cause, COLOR);
+        }
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onReduction((Propagator) cause);
+        }
+        if (!init) {
+            // no propagator can be active yet
+            return;
+        }
+        int vid = variable.getId();
+        ensureVariableCapacity(vid);
+        int n = vnbEvents[vid];
+        if (n == 0) {
+            var_queue.addLast(variable);
+            vcauses[vid] = cause;
+        } else {
+            if (vcauses[vid] != cause) {
+                vcauses[vid] = null;
+            }
+            IEventType[] evts = vevents[vid];
+            for (int i = 0; i < n; i++) {
+                if (evts[i] == type) {
+                    return;
+                }
+            }
+        }
+        IEventType[] evts = vevents[vid];
+        if (evts == null) {
+            evts = vevents[vid] = new IEventType[2];
+        } else if (n == evts.length) {
+            evts = vevents[vid] = Arrays.copyOf(evts, n * 2);
+        }
+        evts[n] = type;
+        vnbEvents[vid] = n + 1;
+    }
+
+    /**
+     * Schedules the propagators of the modified variables, wrt to the events recorded on each of them.
+     */
+    private void schedule() {
+        while (!var_queue.isEmpty()) {
+            Variable variable = var_queue.pollFirst();
+            int vid = variable.getId();
+            IEventType[] evts = vevents[vid];
+            ICause cause = vcauses[vid];
+            int n = vnbEvents[vid];
+            vnbEvents[vid] = 0;
+            vcauses[vid] = null;
+            for (int i = 0; i < n; i++) {
+                schedule(variable, evts[i], cause);
+                evts[i] = null;
+            }
+        }
+    }
+
+    private void schedule(Variable variable, IEventType type, ICause cause) {
+        Propagator[] vpropagators = variable.getPropagators();
+        int[] vindices = variable.getPIndices();
+        Propagator prop;
+        int pindice;
+        EvtScheduler si = variable._schedIter();
+        //noinspection unchecked
+        si.init(type);
+        while (si.hasNext()) {
+            int p = variable.getDindex(si.next());
+            int t = variable.getDindex(si.next());
+            for (; p < t; p++) {
+                prop = vpropagators[p];
+                pindice = vindices[p];
+                if (prop.isActive() && cause != prop) {
+                    int aid = prop.getId();
+                    if (prop.reactToFineEvent()) {
+                        boolean needSched = (eventmasks[aid][pindice] == 0);
+                        eventmasks[aid][pindice] |= type.getMask();
+                        if (needSched) {
+                            if (DEBUG) {
+                                IPropagationEngine.Trace.printFineSchedule(prop, COLOR);
+                            }
+                            eventsets[aid].addLast(pindice);
+                        }
+                    }
+                    if (scheduled[aid] == 0) {
+                        int prio = prop.getPriority().priority;
+                        pro_queue[prio].addLast(prop);
+                        scheduled[aid] = (short) (prio + 1);
+                        notEmpty = notEmpty | (1 << prio);
+                        if (DEBUG) {
+                            IPropagationEngine.Trace.printCoarseSchedule(prop, COLOR);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void delayedPropagation(Propagator propagator, PropagatorEventType type) throws ContradictionException {
+        assert propagator == lastProp;
+        assert delayedPropagationType == 0 || delayedPropagationType == type.getMask();
+        delayedPropagationType = type.getMask();
+    }
+
+    /**
+     * The events recorded so far are turned into propagator schedulings before the ones of <i>propagator</i> are cleared.
+     * Otherwise, an event which occurred before <i>propagator</i> was activated would be given to it,
+     * whereas the full propagation it just ran already took it into account.
+     */
+    @Override
+    public void onPropagatorExecution(Propagator propagator) {
+        schedule();
+        desactivatePropagator(propagator);
+    }
+
+    @Override
+    public void desactivatePropagator(Propagator propagator) {
+        if (propagator.reactToFineEvent()) {
+            int aid = propagator.getId();
+            if (aid < positions.length && positions[aid] > 0) {
+                // we don't remove the element from its master to avoid costly operations
+                clearEvents(aid);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        propagators = null;
+        trigger.clear();
+        for (int i = 0; i < 8; i++) {
+            pro_queue[i] = null;
+        }
+        var_queue.clear();
+        positions = null;
+        scheduled = null;
+        eventsets = null;
+        eventmasks = null;
+        vevents = null;
+        vnbEvents = null;
+        vcauses = null;
+        notEmpty = 0;
+        init = false;
+        lastProp = null;
+    }
+
+    @Override
+    public void dynamicAddition(boolean permanent, Propagator... ps) throws SolverException {
+        int osize = propagators.length;
+        int nbp = ps.length;
+        propagators = Arrays.copyOf(propagators, osize + nbp);
+        for (int j = 0; j < nbp; j++) {
+            propagators[osize + j] = ps[j];
+            declare(ps[j], osize + j);
+            trigger.dynAdd(ps[j], permanent);
+        }
+    }
+
+    @Override
+    public void updateInvolvedVariables(Propagator p) {
+        if (p.reactToFineEvent()) {
+            int i = p.getId();
+            assert scheduled[i] == 0 : "Try to update variable scope during propagation";
+            int nbv = p.getNbVars();
+            eventsets[i] = new IntCircularQueue(nbv);
+            eventmasks[i] = new int[nbv];
+        }
+        propagateOnBacktrack(p); // TODO: when p is not permanent AND a new var is added ... well, one looks for trouble!
+    }
+
+    @Override
+    public void propagateOnBacktrack(Propagator p) {
+        trigger.dynAdd(p, true);
+    }
+
+    @Override
+    public void dynamicDeletion(Propagator... ps) {
+        for (Propagator toDelete : ps) {
+            if (lastProp == toDelete) {
+                lastProp = null;
+            }
+            int idtd = toDelete.getId();
+            assert scheduled[idtd] == 0 : "try to delete a propagator which is scheduled (fine)";
+            assert !toDelete.reactToFineEvent() || eventsets[idtd].isEmpty() : "try to delete a propagator which has events to propagate (fine)";
+            int nsize = propagators.length - 1;
+            int ptd = positions[idtd] - 1;
+            Propagator toMove = propagators[nsize];
+            // the last propagator takes the place of the deleted one
+            propagators[ptd] = toMove;
+            positions[toMove.getId()] = ptd + 1;
+            propagators = Arrays.copyOf(propagators, nsize);
+            positions[idtd] = 0;
+            eventsets[idtd] = null;
+            eventmasks[idtd] = null;
+            trigger.remove(toDelete);
+        }
+    }
+
+    @Override
+    public void setProfiler(PropagationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public PropagationProfiler getProfiler() {
+        return profiler;
+    }
+}
@@ -37,6 +37,7 @@ import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.propagation.IPropagationEngine;
+import org.chocosolver.solver.propagation.PropagationProfiler;
 import org.chocosolver.solver.propagation.PropagationTrigger;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.solver.variables.events.IEventType;
@@ -137,6 +138,10 @@ public class SevenQueuesPropagatorEngine implements IPropagationEngine {
      * A specific object to deal with first propagation
      */
     private final PropagationTrigger trigger; // an object that starts the propagation
+    /**
+     * Collects statistics on propagators, <tt>null</tt> if not profiling
+     */
+    private PropagationProfiler profiler;
 
 
     /**
@@ -160,6 +165,9 @@ public class SevenQueuesPropagatorEngine implements IPropagationEngine {
 
     @Override
     public void fails(ICause cause, Variable variable, String message) throws ContradictionException {
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onFailure((Propagator) cause);
+        }
         throw exception.set(cause, variable, message);
     }
 
@@ -230,43 +238,59 @@ public class SevenQueuesPropagatorEngine implements IPropagationEngine {
         for (int i = nextNotEmpty(0); i > -1; i = nextNotEmpty(0)) {
             while (!pro_queue[i].isEmpty()) {
                 lastProp = pro_queue[i].pollFirst();
-                // revision of the variable
-                aid = p2i.get(lastProp.getId());
-                scheduled[aid] = 0;
-                delayedPropagationType = 0;
-                if (lastProp.reactToFineEvent()) {
-                    evtset = eventsets[aid];
-                    while (evtset.size() > 0) {
-                        int v = evtset.pollFirst();
-                        assert lastProp.isActive() : "propagator is not active:" + lastProp;
-                        if (DEBUG) {
-                            IPropagationEngine.Trace.printPropagation(lastProp.getVar(v), lastProp, COLOR);
+                long start = profiler == null ? 0 : profiler.beforeCall(lastProp);
+                try {
+                    // revision of the variable
+                    aid = p2i.get(lastProp.getId());
+                    scheduled[aid] = 0;
+                    delayedPropagationType = 0;
+                    if (lastProp.reactToFineEvent()) {
+                        evtset = eventsets[aid];
+                        while (evtset.size() > 0) {
+                            int v = evtset.pollFirst();
+                            assert lastProp.isActive() : "propagator is not active:" + lastProp;
+                            if (DEBUG) {
+                                IPropagationEngine.Trace.printPropagation(lastProp.getVar(v), lastProp, COLOR);
+                            }
+                            // clear event
+                            mask = eventmasks[aid][v];
+                            eventmasks[aid][v] = 0;
+                            assert (pendingEvt[aid] > 0) : "number of enqueued records is <= 0 " + this;
+                            pendingEvt[aid]--;
+                            // run propagation on the specific event
+                            if (profiler != null) {
+                                profiler.onFine(lastProp);
+                            }
+                            lastProp.propagate(v, mask);
                         }
-                        // clear event
-                        mask = eventmasks[aid][v];
-                        eventmasks[aid][v] = 0;
-                        assert (pendingEvt[aid] > 0) : "number of enqueued records is <= 0 " + this;
-                        pendingEvt[aid]--;
-                        // run propagation on the specific event
-                        lastProp.propagate(v, mask);
-                    }
-                    // now we can check whether a delayed propagation has been scheduled
-                    if (delayedPropagationType > 0) {
+                        // now we can check whether a delayed propagation has been scheduled
+                        if (delayedPropagationType > 0) {
+                            if (DEBUG) {
+                                IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+                            }
+                            if (profiler != null) {
+                                profiler.onCoarse(lastProp);
+                            }
+                            lastProp.propagate(delayedPropagationType);
+                        }
+                    } else if (lastProp.isActive()) { // need to be checked due to views
+                        //assert lastProp.isActive() : "propagator is not active:" + lastProp;
                         if (DEBUG) {
                             IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
                         }
-                        lastProp.propagate(delayedPropagationType);
+                        if (profiler != null) {
+                            profiler.onCoarse(lastProp);
+                        }
+                        lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
                     }
-                } else if (lastProp.isActive()) { // need to be checked due to views
-                    //assert lastProp.isActive() : "propagator is not active:" + lastProp;
-                    if (DEBUG) {
-                        IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+                    // This part is for debugging only!!
+                    if (Settings.Idem.disabled != idemStrat) {
+                        FakeEngine.checkIdempotency(lastProp);
+                    }
+                } finally {
+                    if (profiler != null) {
+                        profiler.afterCall(lastProp, start);
                     }
-                    lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
-                }
-                // This part is for debugging only!!
-                if (Settings.Idem.disabled != idemStrat) {
-                    FakeEngine.checkIdempotency(lastProp);
                 }
             }
             notEmpty = notEmpty & ~(1 << i);
@@ -318,6 +342,9 @@ public class SevenQueuesPropagatorEngine implements IPropagationEngine {
         if (DEBUG) {
             IPropagationEngine.Trace.printModification(variable, type, cause, COLOR);
         }
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onReduction((Propagator) cause);
+        }
         Propagator[] vpropagators = variable.getPropagators();
         int[] vindices = variable.getPIndices();
         Propagator prop;
@@ -530,4 +557,14 @@ public class SevenQueuesPropagatorEngine implements IPropagationEngine {
             trigger.remove(toDelete);
         }
     }
+
+    @Override
+    public void setProfiler(PropagationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public PropagationProfiler getProfiler() {
+        return profiler;
+    }
 }
@@ -38,6 +38,7 @@ import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.propagation.IPropagationEngine;
+import org.chocosolver.solver.propagation.PropagationProfiler;
 import org.chocosolver.solver.propagation.PropagationTrigger;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.solver.variables.events.IEventType;
@@ -185,6 +186,10 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
      * A specfic propagation engine which only deals with first propagation of propagators.
      */
     private final PropagationTrigger trigger; // an object that starts the propagation
+    /**
+     * Collects statistics on propagators, <tt>null</tt> if not profiling
+     */
+    private PropagationProfiler profiler;
 
     /**
      * For debugging purpose only.
@@ -284,6 +289,9 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
 
     @Override
     public void fails(ICause cause, Variable variable, String message) throws ContradictionException {
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onFailure((Propagator) cause);
+        }
         throw exception.set(cause, variable, message);
     }
 
@@ -335,50 +343,73 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
 
     private void propagateFine(ArrayDeque<Propagator> pro_queue_f) throws ContradictionException {
         lastProp = pro_queue_f.pollFirst();
-        // revision of the variable
-        int aid = p2i.get(lastProp.getId());
-        //assert schedule_f[aid] : "try to propagate an unscheduled propagator";
-        schedule_f[aid] = false;
-        if (lastProp.reactToFineEvent()) {
-            IntCircularQueue evtset = event_f[aid];
-            while (!evtset.isEmpty()) {
-                int v = evtset.pollFirst();
-                assert lastProp.isActive() : "propagator is not active:" + lastProp;
+        long start = profiler == null ? 0 : profiler.beforeCall(lastProp);
+        try {
+            // revision of the variable
+            int aid = p2i.get(lastProp.getId());
+            //assert schedule_f[aid] : "try to propagate an unscheduled propagator";
+            schedule_f[aid] = false;
+            if (lastProp.reactToFineEvent()) {
+                IntCircularQueue evtset = event_f[aid];
+                while (!evtset.isEmpty()) {
+                    int v = evtset.pollFirst();
+                    assert lastProp.isActive() : "propagator is not active:" + lastProp;
+                    if (DEBUG) {
+                        IPropagationEngine.Trace.printPropagation(lastProp.getVar(v), lastProp, COLOR);
+                    }
+                    // clear event
+                    int mask = eventmasks[aid][v];
+                    eventmasks[aid][v] = 0;
+                    // run propagation on the specific event
+                    if (profiler != null) {
+                        profiler.onFine(lastProp);
+                    }
+                    lastProp.propagate(v, mask);
+                }
+            } else if (lastProp.isActive()) { // need to be checked due to views
+                //assert lastProp.isActive() : "propagator is not active:" + lastProp;
                 if (DEBUG) {
-                    IPropagationEngine.Trace.printPropagation(lastProp.getVar(v), lastProp, COLOR);
+                    IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+                }
+                if (profiler != null) {
+                    profiler.onCoarse(lastProp);
                 }
-                // clear event
-                int mask = eventmasks[aid][v];
-                eventmasks[aid][v] = 0;
-                // run propagation on the specific event
-                lastProp.propagate(v, mask);
+                lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
             }
-        } else if (lastProp.isActive()) { // need to be checked due to views
-            //assert lastProp.isActive() : "propagator is not active:" + lastProp;
-            if (DEBUG) {
-                IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+            // This part is for debugging only!!
+            if (Settings.Idem.disabled != idemStrat) {
+                FakeEngine.checkIdempotency(lastProp);
+            }
+        } finally {
+            if (profiler != null) {
+                profiler.afterCall(lastProp, start);
             }
-            lastProp.propagate(PropagatorEventType.FULL_PROPAGATION.getMask());
-        }
-        // This part is for debugging only!!
-        if (Settings.Idem.disabled != idemStrat) {
-            FakeEngine.checkIdempotency(lastProp);
         }
     }
 
     private void propagateCoarse(ArrayDeque<Propagator> pro_queue_c) throws ContradictionException {
         lastProp = pro_queue_c.pollFirst();
-        // revision of the variable
-        int aid = p2i.get(lastProp.getId());
-        assert schedule_c[aid] : "try to propagate an unscheduled propagator";
-        schedule_c[aid] = false;
-        PropagatorEventType evt = event_c[aid];
-        event_c[aid] = PropagatorEventType.VOID;
-        assert lastProp.isActive() : "propagator is not active:" + lastProp;
-        if (DEBUG) {
-            IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+        long start = profiler == null ? 0 : profiler.beforeCall(lastProp);
+        try {
+            // revision of the variable
+            int aid = p2i.get(lastProp.getId());
+            assert schedule_c[aid] : "try to propagate an unscheduled propagator";
+            schedule_c[aid] = false;
+            PropagatorEventType evt = event_c[aid];
+            event_c[aid] = PropagatorEventType.VOID;
+            assert lastProp.isActive() : "propagator is not active:" + lastProp;
+            if (DEBUG) {
+                IPropagationEngine.Trace.printPropagation(null, lastProp, COLOR);
+            }
+            if (profiler != null) {
+                profiler.onCoarse(lastProp);
+            }
+            lastProp.propagate(evt.getMask());
+        } finally {
+            if (profiler != null) {
+                profiler.afterCall(lastProp, start);
+            }
         }
-        lastProp.propagate(evt.getMask());
     }
 
 
@@ -426,6 +457,9 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
         if (DEBUG) {
             IPropagationEngine.Trace.printModification(variable, type, cause, COLOR);
         }
+        if (profiler != null && cause instanceof Propagator) {
+            profiler.onReduction((Propagator) cause);
+        }
         Propagator[] vpropagators = variable.getPropagators();
         int[] vindices = variable.getPIndices();
         Propagator prop;
@@ -645,4 +679,14 @@ public class TwoBucketPropagationEngine implements IPropagationEngine {
             trigger.remove(toDelete);
         }
     }
+
+    @Override
+    public void setProfiler(PropagationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public PropagationProfiler getProfiler() {
+        return profiler;
+    }
 }
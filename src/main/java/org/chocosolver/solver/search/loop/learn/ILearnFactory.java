@@ -66,4 +66,21 @@ public interface ILearnFactory extends ISelf<Solver> {
     default void setDBTLearning(boolean nogoodsOn, boolean userFeedbackOn) {
         _me().setLearner(new LearnDBT(_me().getModel(), nogoodsOn, userFeedbackOn));
     }
+
+    /**
+     * Creates a learning object based on Conflict-based Backjumping (CBJ) explanation strategy,
+     * which records a nogood on each failure into a bounded learnt clause database.
+     * Nogoods are made of "=" and "&le;" literals, derived from the decisions involved in the explanation of the failure.
+     * The database is reduced as soon as it stores <i>firstReduction</i> nogoods,
+     * then each time <i>reductionInc</i> more nogoods are stored, or as soon as it stores more than <i>maxLiterals</i> literals:
+     * the nogoods with the largest literal block distance and the lowest activity are forgotten first.
+     * See {@link org.chocosolver.sat.PropNogoods#setLearntLimits(int, int, long)}.
+     * @param firstReduction number of nogoods which triggers the first reduction
+     * @param reductionInc increment of that number after each reduction
+     * @param maxLiterals maximum number of literals stored in nogoods
+     */
+    default void setNogoodLearning(int firstReduction, int reductionInc, long maxLiterals) {
+        _me().getModel().getNogoodStore().getPropNogoods().setLearntLimits(firstReduction, reductionInc, maxLiterals);
+        _me().setLearner(new LearnCBJ(_me().getModel(), true, false));
+    }
 }
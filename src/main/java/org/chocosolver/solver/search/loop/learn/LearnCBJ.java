@@ -35,8 +35,11 @@ import org.chocosolver.sat.PropNogoods;
 import org.chocosolver.sat.SatSolver;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.decision.DecisionPath;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
 import org.chocosolver.solver.variables.IntVar;
 
 /**
@@ -119,6 +122,8 @@ public class LearnCBJ extends LearnExplained {
 
     /**
      * Extracts a nogod from this explanation (which needs to be complete) and add it to the no-good store.
+     * The nogood is made of the negation of the decisions of the explanation,
+     * expressed with "=" literals for (non-)assignment decisions and with "&le;" literals for domain splits.
      * If this explanation is not complete, it does nothing.
      */
     @SuppressWarnings("unchecked")
@@ -133,8 +138,7 @@ public class LearnCBJ extends LearnExplained {
                 decision = dp.getDecision(last--);
                 if (lastExplanation.getDecisions().get(decision.getPosition())) {
                     assert decision.hasNext();
-                    ps.add(SatSolver.negated(ngstore.Literal(decision.getDecisionVariable(),
-                            (Integer) decision.getDecisionValue(), true)));
+                    ps.add(negation(decision));
                 }
             }
             ngstore.addLearnt(ps.toArray());
@@ -142,6 +146,27 @@ public class LearnCBJ extends LearnExplained {
     }
 
 
+    /**
+     * @param decision a decision on an integer variable
+     * @return the literal which negates <i>decision</i>
+     */
+    private int negation(Decision<IntVar> decision) {
+        IntVar var = decision.getDecisionVariable();
+        int value = (Integer) decision.getDecisionValue();
+        DecisionOperator<IntVar> op = decision instanceof IntDecision ?
+                ((IntDecision) decision).getDecOp() : DecisionOperator.int_eq;
+        if (op == DecisionOperator.int_eq) {
+            return SatSolver.negated(ngstore.Literal(var, value, true));
+        } else if (op == DecisionOperator.int_neq) {
+            return ngstore.Literal(var, value, true);
+        } else if (op == DecisionOperator.int_split) { // x <= value
+            return SatSolver.negated(ngstore.Literal(var, value, false));
+        } else if (op == DecisionOperator.int_reverse_split) { // x >= value
+            return ngstore.Literal(var, value - 1, false);
+        }
+        throw new SolverException("LearnCBJ cannot extract a nogood from decision " + decision);
+    }
+
     /**
      * Compute the world to backtrack to
      *
@@ -158,14 +158,9 @@ public class LearnDBT extends LearnCBJ {
      * @param decIdx        index, in the event store, of the decision to refute
      */
     private void keepUp(Explanation anExplanation, int decIdx) {
-        int i = anExplanation.getEvtstrIdx() - 1; // skip the last known one
         mRuleStore.init(anExplanation);
-        while (i >= decIdx) { // we continue while we did not reach at least 'decIdx'
-            if (mRuleStore.match(i, mEventStore)) {
-                mRuleStore.update(i, mEventStore, anExplanation);
-            }
-            i--;
-        }
+        // skip the last known one, and continue while we did not reach at least 'decIdx'
+        int i = mRuleStore.scan(anExplanation.getEvtstrIdx() - 1, decIdx, mEventStore, anExplanation, false);
         anExplanation.setEvtstrIdx(i + 1); // we store where the search ends, for future research
         if (i == 0) {
             anExplanation.getRules().clear(); // only if we're sure the explanation is complete
@@ -251,14 +251,7 @@ class ExplainingObjective extends ExplainingCut{
         rs.init(explanation);
         rs.addRemovalRule(objective, value);
         ArrayEventStore es = mExplanationEngine.getEventStore();
-        int i = es.getSize() - 1;
-
-        while (i > -1) {
-            if (rs.match(i, es)) {
-                rs.update(i, es, explanation);
-            }
-            i--;
-        }
+        rs.scan(es.getSize() - 1, 0, es, explanation, false);
         for (int b = explanation.getDecisions().nextSetBit(0); b >= 0; b = explanation.getDecisions().nextSetBit(b + 1)) {
             tmpValueDeductions.add(b);
         }
@@ -344,13 +337,7 @@ class ExplainingObjective extends ExplainingCut{
         RuleStore rs = mExplanationEngine.getRuleStore();
         rs.init(explanation);
         rs.addRemovalRule(objective, value);
-
-        while (i > -1) {
-            if (rs.match(i, es)) {
-                rs.update(i, es, explanation);
-            }
-            i--;
-        }
+        rs.scan(i, 0, es, explanation, false);
         for (int b = explanation.getDecisions().nextSetBit(0); b >= 0; b = explanation.getDecisions().nextSetBit(b + 1)) {
             tmpValueDeductions.add(b);
         }
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.lns.neighbors;
+
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.exception.SolverException;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An adaptive neighbor, for models solving the same problem in parallel with LNS.
+ * Each model declares its own neighbors, in the same order, and they share their {@link Scores}:
+ * the k<sup>th</sup> neighbor is selected with a probability proportional to the success rate
+ * of the k<sup>th</sup> neighbors of all models, that is, the ratio of fragments which led to a new solution.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SharedAdaptiveNeighborhood extends SequenceNeighborhood {
+
+    /**
+     * Number of fragments and of solutions of each neighbor, shared among models.
+     * Thread-safe.
+     */
+    public static final class Scores {
+
+        private final AtomicLongArray calls;
+        private final AtomicLongArray successes;
+
+        /**
+         * @param n number of neighbors per model
+         */
+        public Scores(int n) {
+            this.calls = new AtomicLongArray(n);
+            this.successes = new AtomicLongArray(n);
+        }
+
+        /**
+         * @return number of neighbors per model
+         */
+        public int size() {
+            return calls.length();
+        }
+
+        /**
+         * @param k index of a neighbor
+         * @return the number of fragments computed by the k<sup>th</sup> neighbors
+         */
+        public long getCallCount(int k) {
+            return calls.get(k);
+        }
+
+        /**
+         * @param k index of a neighbor
+         * @return the number of fragments computed by the k<sup>th</sup> neighbors which led to a new solution
+         */
+        public long getSuccessCount(int k) {
+            return successes.get(k);
+        }
+
+        /**
+         * Roulette wheel selection, based on success rates (with Laplace smoothing, so that no neighbor is discarded)
+         */
+        private int select(Random random) {
+            int n = calls.length();
+            double sum = 0d;
+            for (int k = 0; k < n; k++) {
+                sum += rate(k);
+            }
+            double r = random.nextDouble() * sum;
+            // scores may be updated concurrently, then the last neighbor absorbs the difference
+            for (int k = 0; k < n - 1; k++) {
+                r -= rate(k);
+                if (r < 0) {
+                    return k;
+                }
+            }
+            return n - 1;
+        }
+
+        private double rate(int k) {
+            return (successes.get(k) + 1d) / (calls.get(k) + 2d);
+        }
+    }
+
+    private final Scores scores;
+    private final Random random;
+    /**
+     * Set to <tt>true</tt> when a fragment has been computed since the last solution
+     */
+    private boolean tried;
+
+    /**
+     * @param seed      seed for random
+     * @param scores    scores shared among the models
+     * @param neighbors neighbors of this model, one per score
+     * @throws SolverException if the number of neighbors does not match the scores
+     */
+    public SharedAdaptiveNeighborhood(long seed, Scores scores, INeighbor... neighbors) {
+        super(neighbors);
+        if (neighbors.length != scores.size()) {
+            throw new SolverException("SharedAdaptiveNeighborhood: expected " + scores.size() + " neighbors, got " + neighbors.length);
+        }
+        this.scores = scores;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void recordSolution() {
+        if (tried) {
+            scores.successes.incrementAndGet(who);
+            tried = false;
+        }
+        super.recordSolution();
+    }
+
+    @Override
+    public void loadFromSolution(Solution solution) {
+        tried = false;
+        super.loadFromSolution(solution);
+    }
+
+    @Override
+    protected void nextNeighbor() {
+        who = scores.select(random);
+        scores.calls.incrementAndGet(who);
+        tried = true;
+    }
+}
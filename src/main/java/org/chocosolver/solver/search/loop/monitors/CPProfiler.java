@@ -49,6 +49,8 @@ import java.io.IOException;
  * It enables to profile and to visualize Constraint Programming.
  * An installation is needed and is described <a href="https://github.com/cp-profiler/cp-profiler">here</a>.
  * This monitor relies on its <a href="https://github.com/cp-profiler/java-integration">java integration</a>.
+ * Each node is sent synchronously, which slows the search down: to profile large searches,
+ * consider {@link SearchEventStreamer} instead.
  * <p>
  * Note that CPProfiler is {@link Closeable} and can be used as follow:
  * <p>
@@ -0,0 +1,432 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.monitors;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A search monitor which streams search events to a compact binary output, without slowing the search down.
+ * <p>
+ * Unlike {@link CPProfiler}, which sends each node synchronously through a socket,
+ * this monitor only copies a few integers per event into a preallocated ring buffer.
+ * A background thread drains the buffer in batches into an {@link OutputStream}
+ * (a file, a local socket, ...). When the buffer is full, the search either waits for the background thread
+ * or drops the event, see {@link #SearchEventStreamer(Model, OutputStream, int, int, boolean)}.
+ * <p>
+ * Nodes can be sampled: only branches whose node id is a multiple of <i>sampling</i> are recorded,
+ * as well as failures occurring in such nodes. Solutions and restarts are always recorded.
+ * Node ids and parent ids are exact, even when sampling, so that the search tree can be partially rebuilt.
+ * <p>
+ * The output starts with {@link #MAGIC} (4 bytes) followed by a sequence of records of {@link #RECORD_SIZE} bytes,
+ * all in big-endian order (see {@link DataOutputStream}):
+ * <ol>
+ *     <li>kind (byte): {@link #BRANCH}, {@link #FAILURE}, {@link #SOLUTION} or {@link #RESTART},</li>
+ *     <li>node (int): id of the node, -1 for the root node,</li>
+ *     <li>parent (int): id of the parent node, -1 for the root node,</li>
+ *     <li>depth (int): depth of the node,</li>
+ *     <li>alternative (byte): 0 for a left branch (the decision is applied), 1 for a right branch (it is refuted),</li>
+ *     <li>variable (int): id of the decision variable, or -1,</li>
+ *     <li>value (int): value of the decision, or the objective value of a solution,</li>
+ *     <li>operator (byte): {@link #OP_EQ}, {@link #OP_NEQ}, {@link #OP_LEQ}, {@link #OP_GEQ} or -1,</li>
+ *     <li>time (long): nanoseconds elapsed since the creation of this monitor.</li>
+ * </ol>
+ * <p>
+ * SearchEventStreamer is {@link Closeable} and can be used as follow:
+ * <p>
+ * <pre> {@code
+ * Model model = ProblemMaker.makeCostasArrays(7);
+ * try (SearchEventStreamer streamer = new SearchEventStreamer(model, new FileOutputStream("search.bin"))) {
+ *      while (model.getSolver().solve()) ;
+ * }
+ * }</pre>
+ * <p>
+ * Project: choco.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SearchEventStreamer implements IMonitorDownBranch, IMonitorSolution, IMonitorContradiction,
+        IMonitorRestart, Closeable {
+
+    /**
+     * Header of the output: 'C', 'S', 'E', version 1.
+     */
+    public static final int MAGIC = 0x43534501;
+    /**
+     * Size of a record, in bytes
+     */
+    public static final int RECORD_SIZE = 31;
+    /**
+     * Default size of the ring buffer, in number of events
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Kinds of event
+     */
+    public static final byte BRANCH = 0, FAILURE = 1, SOLUTION = 2, RESTART = 3;
+    /**
+     * Decision operators
+     */
+    public static final byte OP_EQ = 0, OP_NEQ = 1, OP_LEQ = 2, OP_GEQ = 3;
+
+    /**
+     * Number of ints stored per event: kind, node, parent, depth, alternative, variable, value, operator
+     */
+    private static final int STRIDE = 8;
+    /**
+     * How long the background thread sleeps when there is nothing to drain
+     */
+    private static final long PARK_NANOS = 100_000;
+
+    /**
+     * Reference to the solver
+     */
+    private final Solver mSolver;
+    /**
+     * Ring buffer, {@link #STRIDE} ints per event
+     */
+    private final int[] events;
+    /**
+     * Ring buffer, time stamp of each event
+     */
+    private final long[] times;
+    /**
+     * Capacity - 1, the capacity being a power of 2
+     */
+    private final int mask;
+    /**
+     * Record one node out of <i>sampling</i>
+     */
+    private final int sampling;
+    /**
+     * Set to <i>true</i> to drop events when the buffer is full, to <i>false</i> to wait
+     */
+    private final boolean dropWhenFull;
+    /**
+     * Number of events recorded in the buffer, only written by the search thread
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Number of events written out, only written by the background thread
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * Last value of {@link #tail} read by the search thread
+     */
+    private long tailCache;
+    /**
+     * Number of events dropped because the buffer was full
+     */
+    private long dropped;
+    /**
+     * Output, only accessed by the background thread
+     */
+    private final DataOutputStream out;
+    /**
+     * Background thread which drains the buffer
+     */
+    private final Thread drainer;
+    /**
+     * Set to <i>true</i> when this is closing
+     */
+    private volatile boolean closing;
+    /**
+     * Set to <i>true</i> when the output fails
+     */
+    private volatile boolean failed;
+    /**
+     * Time of creation of this
+     */
+    private final long start;
+    /**
+     * Node count: different from measures.getNodeCount() as we count right branches as well
+     */
+    private int nc;
+    /**
+     * Id of the current node
+     */
+    private int current = -1;
+    /**
+     * Node ids, indexed by world index - {@link #base}
+     */
+    private int[] nodes = new int[16];
+    /**
+     * World index of the first level of the search tree, -1 if unknown
+     */
+    private int base = -1;
+
+    /**
+     * Stream search events of <i>aModel</i> into <i>out</i>, with a buffer of {@link #DEFAULT_CAPACITY} events.
+     * Every node is recorded, and the search waits when the buffer is full.
+     *
+     * @param aModel model to observe resolution
+     * @param out    where events are written, closed when this is closed
+     */
+    public SearchEventStreamer(Model aModel, OutputStream out) {
+        this(aModel, out, DEFAULT_CAPACITY, 1, false);
+    }
+
+    /**
+     * Stream search events of <i>aModel</i> into <i>out</i>.
+     *
+     * @param aModel       model to observe resolution
+     * @param out          where events are written, closed when this is closed
+     * @param capacity     size of the ring buffer, in number of events (rounded up to a power of 2)
+     * @param sampling     record one node out of <i>sampling</i> (set to 1 to record every node)
+     * @param dropWhenFull set to <i>true</i> to drop events when the buffer is full,
+     *                     to <i>false</i> to make the search wait for the buffer to be drained
+     */
+    public SearchEventStreamer(Model aModel, OutputStream out, int capacity, int sampling, boolean dropWhenFull) {
+        if (capacity < 1 || sampling < 1) {
+            throw new IllegalArgumentException("Capacity and sampling must be positive");
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.mSolver = aModel.getSolver();
+        this.events = new int[size * STRIDE];
+        this.times = new long[size];
+        this.mask = size - 1;
+        this.sampling = sampling;
+        this.dropWhenFull = dropWhenFull;
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.start = System.nanoTime();
+        this.drainer = new Thread(this::drain, "search-event-streamer-" + aModel.getName());
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+        mSolver.plugMonitor(this);
+    }
+
+    /**
+     * Unplug this from the solver, write the pending events and close the output.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closing) {
+            mSolver.unplugMonitor(this);
+            closing = true;
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.close();
+        }
+    }
+
+    /**
+     * @return the number of events recorded in the buffer so far
+     */
+    public long getRecordedCount() {
+        return head.get();
+    }
+
+    /**
+     * @return the number of events written out so far
+     */
+    public long getWrittenCount() {
+        return tail.get();
+    }
+
+    /**
+     * @return the number of events dropped because the buffer was full or the output failed
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    @Override
+    public void beforeDownBranch(boolean left) {
+        int w = mSolver.getEnvironment().getWorldIndex();
+        if (left) {
+            if (base == -1) {
+                base = w;
+            }
+        } else if (base == -1 || w < base) {
+            return; // not a branch, may happen after a restart
+        }
+        int d = w - base;
+        if (d >= nodes.length) {
+            int[] tmp = nodes;
+            nodes = new int[Math.max(d + 1, tmp.length * 3 / 2 + 1)];
+            System.arraycopy(tmp, 0, nodes, 0, tmp.length);
+        }
+        int node = nc++;
+        int parent = d > 0 ? nodes[d - 1] : -1;
+        nodes[d] = current = node;
+        if (node % sampling == 0) {
+            Decision dec = mSolver.getDecisionPath().getLastDecision();
+            int var = -1, value = 0, op = -1;
+            if (dec instanceof IntDecision) {
+                IntDecision idec = (IntDecision) dec;
+                var = idec.getDecisionVariable().getId();
+                value = idec.getDecisionValue();
+                op = operator(idec.getDecOp());
+            }
+            record(BRANCH, node, parent, d + 1, left ? 0 : 1, var, value, op);
+        }
+    }
+
+    @Override
+    public void onContradiction(ContradictionException cex) {
+        if (current == -1 || current % sampling == 0) {
+            record(FAILURE, current, parent(), depth(), 0, -1, 0, -1);
+        }
+    }
+
+    @Override
+    public void onSolution() {
+        Variable objective = mSolver.getModel().getObjective();
+        int value = 0;
+        if (objective != null && (objective.getTypeAndKind() & Variable.INT) != 0) {
+            value = ((IntVar) objective).getValue();
+        }
+        record(SOLUTION, current, parent(), depth(), 0, -1, value, -1);
+    }
+
+    @Override
+    public void afterRestart() {
+        record(RESTART, -1, -1, 0, 0, -1, 0, -1);
+        current = -1;
+        base = -1;
+    }
+
+    private int depth() {
+        return current == -1 ? 0 : mSolver.getEnvironment().getWorldIndex() - base + 1;
+    }
+
+    private int parent() {
+        int d = depth() - 1;
+        return d > 0 && d <= nodes.length ? nodes[d - 1] : -1;
+    }
+
+    private static int operator(DecisionOperator<IntVar> op) {
+        if (op == DecisionOperator.int_eq) {
+            return OP_EQ;
+        } else if (op == DecisionOperator.int_neq) {
+            return OP_NEQ;
+        } else if (op == DecisionOperator.int_split) {
+            return OP_LEQ;
+        } else if (op == DecisionOperator.int_reverse_split) {
+            return OP_GEQ;
+        }
+        return -1;
+    }
+
+    /**
+     * Copy an event into the ring buffer. Only called by the search thread.
+     */
+    private void record(int kind, int node, int parent, int depth, int alt, int var, int value, int op) {
+        long h = head.get();
+        if (h - tailCache > mask) {
+            tailCache = tail.get();
+            while (h - tailCache > mask) {
+                if (dropWhenFull || failed || closing) {
+                    dropped++;
+                    return;
+                }
+                LockSupport.unpark(drainer);
+                Thread.yield();
+                tailCache = tail.get();
+            }
+        }
+        int i = (int) (h & mask);
+        int o = i * STRIDE;
+        events[o] = kind;
+        events[o + 1] = node;
+        events[o + 2] = parent;
+        events[o + 3] = depth;
+        events[o + 4] = alt;
+        events[o + 5] = var;
+        events[o + 6] = value;
+        events[o + 7] = op;
+        times[i] = System.nanoTime() - start;
+        head.lazySet(h + 1); // publishes the event to the background thread
+    }
+
+    /**
+     * Main loop of the background thread: write events in batches, until this is closed.
+     */
+    private void drain() {
+        long t = tail.get();
+        boolean flushed = true;
+        try {
+            out.writeInt(MAGIC);
+            while (true) {
+                long h = head.get();
+                if (t == h) {
+                    if (closing && head.get() == t) {
+                        break;
+                    }
+                    if (!flushed) {
+                        out.flush();
+                        flushed = true;
+                    }
+                    LockSupport.parkNanos(PARK_NANOS);
+                    continue;
+                }
+                for (; t < h; t++) {
+                    int i = (int) (t & mask);
+                    int o = i * STRIDE;
+                    out.writeByte(events[o]);
+                    out.writeInt(events[o + 1]);
+                    out.writeInt(events[o + 2]);
+                    out.writeInt(events[o + 3]);
+                    out.writeByte(events[o + 4]);
+                    out.writeInt(events[o + 5]);
+                    out.writeInt(events[o + 6]);
+                    out.writeByte(events[o + 7]);
+                    out.writeLong(times[i]);
+                }
+                tail.lazySet(t); // releases the slots to the search thread
+                flushed = false;
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Unable to write search events. No more information will be recorded.");
+            failed = true;
+        }
+    }
+}
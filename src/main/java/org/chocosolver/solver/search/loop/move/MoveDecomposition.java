@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.move;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.loop.parallel.SubProblem;
+import org.chocosolver.solver.search.strategy.decision.DecisionPath;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A move dedicated to split a search tree into {@link SubProblem}s, as done in Embarrassingly Parallel Search.
+ * <p>
+ * It runs a Depth First Search, bounded in depth:
+ * each node reached at depth <i>depth</i>, or leaf reached above, is consistent wrt the initial propagation
+ * and all the decisions leading to it. Such a node is recorded as a sub-problem and is then considered as failed,
+ * so that the search goes on with the next branch.
+ * Nodes proven to be inconsistent are not recorded.
+ * <p>
+ * Since no solution is ever validated, the search ends by itself when the bounded tree is explored:
+ * {@link #isDone()} should be declared as a stop criterion of the solver.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class MoveDecomposition extends MoveBinaryDFS {
+
+    /**
+     * Maximum number of decisions of a sub-problem
+     */
+    private final int depth;
+    /**
+     * Sub-problems recorded so far
+     */
+    private final List<SubProblem> subproblems;
+    /**
+     * Set to <tt>true</tt> when at least one node has been recorded because of the depth limit
+     */
+    private boolean truncated;
+    /**
+     * Set to <tt>true</tt> when the bounded tree has been entirely explored
+     */
+    private boolean done;
+
+    /**
+     * Create a move which splits the search tree into sub-problems of at most <i>depth</i> decisions.
+     * @param strategy a search strategy, made of integer decisions only
+     * @param depth maximum number of decisions of a sub-problem
+     */
+    public MoveDecomposition(AbstractStrategy strategy, int depth) {
+        super(strategy);
+        this.depth = depth;
+        this.subproblems = new ArrayList<>();
+    }
+
+    @Override
+    public boolean extend(Solver solver) {
+        DecisionPath path = solver.getDecisionPath();
+        if (path.size() - 1 - topDecisionPosition < depth) {
+            if (super.extend(solver)) {
+                return true;
+            }
+        } else {
+            truncated = true;
+        }
+        SubProblem sp = SubProblem.currentNodeOf(path);
+        if (sp == null) {
+            throw new SolverException("Only integer decisions can be recorded as sub-problems.");
+        }
+        subproblems.add(sp);
+        // the node is considered as failed
+        solver.setJumpTo(1);
+        done = !repair(solver);
+        return true;
+    }
+
+    /**
+     * @return <tt>true</tt> when the bounded tree has been entirely explored
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return <tt>true</tt> when the depth limit has been reached at least once,
+     * that is, a deeper decomposition would produce more sub-problems
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return the sub-problems recorded so far, in the order they have been met
+     */
+    public List<SubProblem> getSubProblems() {
+        return subproblems;
+    }
+}
@@ -61,6 +61,10 @@ public class MoveLNS implements Move {
      * Number of solutions found so far
      */
     protected long solutions;
+    /**
+     * Number of solutions loaded so far, see {@link #loadFromSolution(Solution, Solver)}
+     */
+    protected long loaded;
     /**
      * Indicate a restart has been triggered
      */
@@ -86,6 +90,7 @@ public class MoveLNS implements Move {
         this.counter = restartCounter;
         this.frequency = counter.getLimitValue();
         this.solutions = 0;
+        this.loaded = 0;
         this.freshRestart = false;
     }
 
@@ -129,8 +134,8 @@ public class MoveLNS implements Move {
     @Override
     public boolean extend(Solver solver) {
         boolean extend;
-        // when a new fragment is needed (condition: at least one solution has been found)
-        if (solutions > 0) {
+        // when a new fragment is needed (condition: at least one solution has been found or loaded)
+        if (solutions + loaded > 0) {
             if (freshRestart) {
                 assert solver.getDecisionPath().size() == 1;
                 assert solver.getDecisionPath().getDecision(0) == RootDecision.ROOT;
@@ -193,7 +198,7 @@ public class MoveLNS implements Move {
     @Override
     public boolean repair(Solver solver) {
         boolean repair;
-        if(solutions > 0
+        if(solutions + loaded > 0
                 // the second condition is only here for intiale calls, when solutions is not already up to date
                 || solver.getSolutionCount() > 0) {
             // the detection of a new solution can only be met here
@@ -237,8 +242,7 @@ public class MoveLNS implements Move {
      */
     public void loadFromSolution(Solution solution, Solver solver){
         neighbor.loadFromSolution(solution);
-        if(solutions == 0){
-            solutions++;
+        if(solutions + loaded++ == 0){
             freshRestart = true;
         }else{
             doRestart(solver);
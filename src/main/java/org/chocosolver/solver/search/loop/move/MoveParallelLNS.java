@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.move;
+
+import org.chocosolver.solver.Solution;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.limits.ICounter;
+import org.chocosolver.solver.search.loop.lns.neighbors.INeighbor;
+import org.chocosolver.solver.search.loop.parallel.SharedChannel;
+
+/**
+ * This {@link Move}'s implementation defines a Large Neighborhood Search run by one of many workers
+ * which share their incumbent solution through a {@link SharedChannel}.
+ * <p>
+ * Before extending the decision path, if a better solution than the one the neighbor relies on has been
+ * published in the channel by another worker, it is loaded in the neighbor and the search restarts.
+ * Solutions found by this move have to be published in the channel by the caller,
+ * and declared with {@link #setIncumbent(Solution)} to avoid being loaded back.
+ * <p>
+ * The models of all the workers are expected to be built in the very same way,
+ * since solutions are read with variables of this model.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class MoveParallelLNS extends MoveLNS {
+
+    /**
+     * The channel the incumbent solution is read from
+     */
+    private final SharedChannel channel;
+    /**
+     * The last solution read from the channel, or published by this move
+     */
+    private Solution incumbent;
+
+    /**
+     * Create a move which defines a Large Neighborhood Search, relying on the best solution of <i>channel</i>.
+     * @param move how the subtree is explored
+     * @param neighbor how the fragment are computed
+     * @param restartCounter when a restart should occur
+     * @param channel where the best solution is shared
+     */
+    public MoveParallelLNS(Move move, INeighbor neighbor, ICounter restartCounter, SharedChannel channel) {
+        super(move, neighbor, restartCounter);
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean extend(Solver solver) {
+        Solution best = channel.getBoundSolution();
+        if (best != null && best != incumbent) {
+            incumbent = best;
+            neighbor.loadFromSolution(best);
+            loaded++;
+            doRestart(solver);
+            return true;
+        }
+        return super.extend(solver);
+    }
+
+    /**
+     * Declares a solution found by this move and published in the channel,
+     * so that it is not loaded in the neighbor (which already records it).
+     * @param solution a solution published in the channel
+     */
+    public void setIncumbent(Solution solution) {
+        this.incumbent = solution;
+    }
+}
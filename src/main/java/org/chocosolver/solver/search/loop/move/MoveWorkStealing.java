@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.move;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.loop.parallel.SubProblem;
+import org.chocosolver.solver.search.loop.parallel.SubProblemPool;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.DecisionPath;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This {@link Move} implementation enables to explore a search tree shared among many workers.
+ * It is not self-content and needs a underlying {@link Move} to explore the sub-problems
+ * it gets from a {@link SubProblemPool}.
+ * <p>
+ * Each time the pool indicates that a worker is idle, the topmost open node of the current decision path
+ * is given away to the pool, as a {@link SubProblem}, and is not explored by this move anymore.
+ * Each time the current sub-problem is entirely explored, the root node is restored and a new one is taken from the pool.
+ * The search ends when the pool cannot give sub-problems anymore.
+ * <p>
+ * The models of all the workers are expected to be built in the very same way,
+ * so that the sub-problems can be replayed from one model to another.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class MoveWorkStealing implements Move {
+
+    /**
+     * the default {@link Move} to explore sub-problems
+     */
+    private Move move;
+    /**
+     * The pool to get and give sub-problems from and to
+     */
+    private final SubProblemPool pool;
+    /**
+     * The model explored by this move
+     */
+    private final Model model;
+    /**
+     * Integer variables of the model, indexed by their ID
+     */
+    private IntVar[] vars;
+    /**
+     * The sub-problem to explore next, <tt>null</tt> if it has already been pushed
+     */
+    private SubProblem next;
+    /**
+     * Number of sub-problems explored
+     */
+    private long explored;
+    /**
+     * Number of sub-problems given to the pool
+     */
+    private long given;
+    /**
+     * Set to <tt>true</tt> when the pool cannot give sub-problems anymore
+     */
+    private boolean starved;
+    /**
+     * Set to <tt>true</tt> when the pool has been closed while this move was waiting for a sub-problem
+     */
+    private boolean suspended;
+    /**
+     * Set to <tt>true</tt> when a sub-problem has to be taken from the pool on the next call to {@link #extend(Solver)}
+     */
+    private boolean resumed;
+
+    /**
+     * Create a move which explores sub-problems taken from a shared pool
+     * @param model   the model this move is applied to
+     * @param move    how each sub-problem is explored
+     * @param pool    the pool of sub-problems shared among workers
+     */
+    public MoveWorkStealing(Model model, Move move, SubProblemPool pool) {
+        this.model = model;
+        this.move = move;
+        this.pool = pool;
+    }
+
+    /**
+     * Return false when the pool does not give any sub-problem to start with.
+     * @return <tt>false</tt> if the search cannot start
+     */
+    @Override
+    public boolean init() {
+        if (!move.init()) {
+            return false;
+        }
+        vars = SubProblem.intVarsById(model);
+        return (next = takeNext()) != null;
+    }
+
+    @Override
+    public boolean extend(Solver solver) {
+        if (resumed) {
+            resumed = false;
+            if ((next = takeNext()) == null) {
+                // nothing to push, the search is stopped since this move is idle
+                return true;
+            }
+        }
+        if (next != null) {
+            SubProblem sp = next;
+            next = null;
+            if (sp.size() > 0) {
+                sp.pushInto(solver.getDecisionPath(), vars);
+                solver.getEnvironment().worldPush();
+                return true;
+            }
+        } else if (pool.isHungry()) {
+            giveAway(solver.getDecisionPath());
+        }
+        return move.extend(solver);
+    }
+
+    /**
+     * Return false when the current sub-problem has been entirely explored and the entire search tree has been explored.
+     * Otherwise, the root node is restored and the next sub-problem is pushed on the following call to {@link #extend(Solver)}.
+     * If the pool has been closed, this move is suspended: the search is expected to be stopped
+     * (see {@link #isIdle()}) and to take a sub-problem once {@link #resume()}d.
+     * @param solver reference to the solver
+     * @return <tt>true</tt> if the decision path is repaired
+     */
+    @Override
+    public boolean repair(Solver solver) {
+        if (move.repair(solver)) {
+            return true;
+        }
+        next = takeNext();
+        if (starved) {
+            return false;
+        }
+        // the state after initial propagation is restored, the cut is propagated before extending
+        solver.restoreRootNode();
+        solver.getEnvironment().worldPush();
+        return true;
+    }
+
+    private SubProblem takeNext() {
+        SubProblem sp = pool.take();
+        if (sp != null) {
+            explored++;
+        } else if (pool.isExhausted()) {
+            starved = true;
+        } else {
+            // the pool has been closed, and this move has been unregistered
+            suspended = true;
+        }
+        return sp;
+    }
+
+    /**
+     * Gives the topmost open node of <i>path</i> to the pool, if any.
+     * The decision is then considered as refuted by this move.
+     * @param path the current decision path
+     */
+    private void giveAway(DecisionPath path) {
+        for (int i = 1; i < path.size(); i++) {
+            Decision d = path.getDecision(i);
+            if (d.hasNext()) {
+                SubProblem sp = SubProblem.nextBranchOf(path, i);
+                if (sp != null) {
+                    d.setRefutable(false);
+                    given++;
+                    pool.offer(sp);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if this move cannot get sub-problems from the pool anymore
+     */
+    public boolean isStarved() {
+        return starved;
+    }
+
+    /**
+     * @return <tt>true</tt> if this move has been suspended since the pool has been closed
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * @return <tt>true</tt> if this move is either starved or suspended, that is, has nothing to explore
+     */
+    public boolean isIdle() {
+        return starved || suspended;
+    }
+
+    /**
+     * Registers again a suspended move to the pool, a sub-problem will be taken on the next call to {@link #extend(Solver)}.
+     * Must be called before the pool is {@link SubProblemPool#open()}ed again.
+     */
+    public void resume() {
+        if (suspended) {
+            suspended = false;
+            resumed = true;
+            pool.register();
+        }
+    }
+
+    /**
+     * @return the number of sub-problems explored by this move
+     */
+    public long getExploredCount() {
+        return explored;
+    }
+
+    /**
+     * @return the number of sub-problems this move gave to the pool
+     */
+    public long getGivenCount() {
+        return given;
+    }
+
+    @Override
+    public void setTopDecisionPosition(int position) {
+        move.setTopDecisionPosition(position);
+    }
+
+    @Override
+    public <V extends Variable> AbstractStrategy<V> getStrategy() {
+        return move.getStrategy();
+    }
+
+    @Override
+    public <V extends Variable> void setStrategy(AbstractStrategy<V> aStrategy) {
+        move.setStrategy(aStrategy);
+    }
+
+    @Override
+    public List<Move> getChildMoves() {
+        return Collections.singletonList(move);
+    }
+
+    @Override
+    public void setChildMoves(List<Move> someMoves) {
+        if (someMoves.size() == 1) {
+            this.move = someMoves.get(0);
+        } else {
+            throw new UnsupportedOperationException("Only one child move can be attached to it.");
+        }
+    }
+}
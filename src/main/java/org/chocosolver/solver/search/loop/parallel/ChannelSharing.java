@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.parallel;
+
+import org.chocosolver.sat.PropNogoods;
+import org.chocosolver.sat.SatSolver;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ResolutionPolicy;
+import org.chocosolver.solver.objective.IObjectiveManager;
+import org.chocosolver.solver.search.loop.monitors.IMonitorDownBranch;
+import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * A search monitor which connects a model to a {@link SharedChannel}.
+ * <ul>
+ *     <li>
+ *         Before going down in the search tree, the best objective value published in the channel,
+ *         if any, is given to the objective manager of the model.
+ *     </li>
+ *     <li>
+ *         Each clause learnt by the no-good store of the model, with at most <i>maxSize</i> literals,
+ *         is published in the channel.
+ *     </li>
+ *     <li>
+ *         Before going down in the search tree, the no-goods published by other models are read and buffered,
+ *         keeping the latest {@link #BUFFER_SIZE} ones,
+ *         so that the channel can release them even if the model never restarts.
+ *     </li>
+ *     <li>
+ *         Before restarting, the buffered no-goods are added to the no-good store of the model.
+ *     </li>
+ * </ul>
+ * The models connected to the same channel are expected to be built in the very same way,
+ * since variables are referenced by their {@link IntVar#getId()}.
+ * Reading the channel is done by the thread which runs the search, so no synchronization is needed
+ * between the solver and the objective manager or the no-good store.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ChannelSharing implements IMonitorDownBranch, IMonitorRestart {
+
+    /**
+     * Maximum number of no-goods read from the channel and waiting for the next restart
+     */
+    public static final int BUFFER_SIZE = 1024;
+
+    /**
+     * The connected model
+     */
+    private final Model model;
+    /**
+     * The shared channel
+     */
+    private final SharedChannel channel;
+    /**
+     * To read no-goods published by the other models, <tt>null</tt> if no-goods are not shared
+     */
+    private final SharedChannel.Reader reader;
+    /**
+     * No-goods read from the channel, waiting for the next restart
+     */
+    private final ArrayDeque<long[]> pending;
+    /**
+     * Id of the connected model
+     */
+    private final int id;
+    /**
+     * The no-good store of the model, <tt>null</tt> if no-goods are not shared
+     */
+    private final PropNogoods png;
+    /**
+     * Maximum number of literals of a no-good to publish
+     */
+    private final int maxSize;
+    /**
+     * Integer variables of the model, indexed by their ID, lazily built
+     */
+    private IntVar[] vars;
+    /**
+     * Last bound read from the channel
+     */
+    private int lastBound;
+    /**
+     * Set to <tt>true</tt> once a bound has been read
+     */
+    private boolean bounded;
+    /**
+     * Number of no-goods published
+     */
+    private long published;
+    /**
+     * Number of no-goods imported
+     */
+    private long imported;
+    /**
+     * Number of no-goods read but dropped since the buffer was full
+     */
+    private long dropped;
+
+    /**
+     * Connects <i>model</i> to <i>channel</i>.
+     * When <i>maxSize</i> is greater than 0, the no-good store of <i>model</i> is created (if needed)
+     * to share no-goods, and learnt clauses are published in addition to being given to the learnt clause observer
+     * already declared, if any.
+     * This has to be done before the resolution starts.
+     *
+     * @param model   a model
+     * @param id      unique id of the model among the ones connected to <i>channel</i>
+     * @param channel the shared channel
+     * @param maxSize maximum number of literals of a no-good to publish, 0 to disable no-good sharing
+     */
+    public ChannelSharing(Model model, int id, SharedChannel channel, int maxSize) {
+        this.model = model;
+        this.id = id;
+        this.channel = channel;
+        this.maxSize = maxSize;
+        if (maxSize > 0) {
+            reader = channel.newReader(id);
+            pending = new ArrayDeque<>();
+            png = model.getNogoodStore().getPropNogoods();
+            Consumer<int[]> observer = png.getLearntObserver();
+            png.setLearntObserver(observer == null ? this::publish : observer.andThen(this::publish));
+        } else {
+            reader = null;
+            pending = null;
+            png = null;
+        }
+    }
+
+    @Override
+    public void beforeDownBranch(boolean left) {
+        if (channel.hasBound()) {
+            int bound = channel.getBound();
+            if (!bounded || bound != lastBound) {
+                bounded = true;
+                lastBound = bound;
+                IObjectiveManager<?> om = model.getSolver().getObjectiveManager();
+                if (model.getResolutionPolicy() == ResolutionPolicy.MAXIMIZE) {
+                    om.updateBestLB(bound);
+                } else {
+                    om.updateBestUB(bound);
+                }
+            }
+        }
+        if (png != null) {
+            read();
+        }
+    }
+
+    @Override
+    public void beforeRestart() {
+        if (png != null) {
+            read();
+            while (!pending.isEmpty()) {
+                importNogood(pending.pollFirst());
+            }
+        }
+    }
+
+    /**
+     * Moves the no-goods published by other models from the channel to the buffer, dropping the oldest ones if needed
+     */
+    private void read() {
+        long[] nogood;
+        while ((nogood = reader.next()) != null) {
+            if (pending.size() == BUFFER_SIZE) {
+                pending.pollFirst();
+                dropped++;
+            }
+            pending.addLast(nogood);
+        }
+    }
+
+    private void publish(int[] lits) {
+        if (lits.length <= maxSize) {
+            long[] literals = new long[lits.length];
+            for (int i = 0; i < lits.length; i++) {
+                int l = lits[i];
+                literals[i] = SharedChannel.literal(
+                        png.getVariable(l).getId(),
+                        png.getValue(l),
+                        png.isEqualityLiteral(l),
+                        png.isPositive(l));
+            }
+            published++;
+            channel.publish(id, literals);
+        }
+    }
+
+    private void importNogood(long[] literals) {
+        if (vars == null) {
+            vars = SubProblem.intVarsById(model);
+        }
+        int[] lits = new int[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            long l = literals[i];
+            int lit = png.Literal(vars[SharedChannel.id(l)], SharedChannel.value(l), SharedChannel.isEq(l));
+            lits[i] = SharedChannel.sign(l) ? lit : SatSolver.negated(lit);
+        }
+        imported++;
+        png.addLearntSilently(lits);
+    }
+
+    /**
+     * @return the number of no-goods published by the connected model
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+
+    /**
+     * @return the number of no-goods imported into the connected model
+     */
+    public long getImportedCount() {
+        return imported;
+    }
+
+    /**
+     * @return the number of no-goods published by other models but not imported, since too many were waiting
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+}
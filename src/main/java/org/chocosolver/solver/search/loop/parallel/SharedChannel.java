@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.parallel;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ResolutionPolicy;
+import org.chocosolver.solver.Solution;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free channel to exchange information among models solving the same problem in parallel.
+ * It carries two kinds of information:
+ * <ul>
+ *     <li>the best objective value found so far, the model which found it and, optionally, the solution itself,</li>
+ *     <li>no-goods, that is, clauses of literals, expressed independently of any model.</li>
+ * </ul>
+ * <p>
+ * No-goods are stored in an append-only linked list. Each reader, obtained with {@link #newReader(int)},
+ * keeps its own position in the list and reads, once, every no-good published by the other models.
+ * A no-good is garbage collected once every reader has read past it:
+ * a reader which is not read retains all the no-goods published after its position,
+ * so readers are expected to be read regularly (see {@link ChannelSharing}).
+ * <p>
+ * A literal is encoded in a <code>long</code>:
+ * the id of the variable, whether it is "=" or "&le;" literal, its sign and its value.
+ * See {@link #literal(int, int, boolean, boolean)}.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SharedChannel {
+
+    /**
+     * Bits for the value of the literal
+     */
+    private static final long VALUE = 0xFFFFFFFFL;
+    /**
+     * Bit for the sign of the literal
+     */
+    private static final long SIGN = 1L << 32;
+    /**
+     * Bit for the kind of literal: "=" or "&le;"
+     */
+    private static final long EQ = 1L << 33;
+    /**
+     * Shift to get the variable id
+     */
+    private static final int ID = 34;
+
+    /**
+     * An immutable incumbent
+     */
+    private static final class Incumbent {
+        private final int value;
+        private final Model model;
+        private final Solution solution;
+
+        private Incumbent(int value, Model model, Solution solution) {
+            this.value = value;
+            this.model = model;
+            this.solution = solution;
+        }
+    }
+
+    /**
+     * A published no-good
+     */
+    private static final class Node {
+        private final int origin;
+        private final long[] literals;
+        private final AtomicReference<Node> next = new AtomicReference<>();
+
+        private Node(int origin, long[] literals) {
+            this.origin = origin;
+            this.literals = literals;
+        }
+    }
+
+    /**
+     * To read the no-goods published by other models.
+     * A reader is not thread-safe, it must be used by one model only.
+     */
+    public final class Reader {
+        /**
+         * Id of the model reading the no-goods
+         */
+        private final int id;
+        /**
+         * Last no-good read
+         */
+        private Node last;
+
+        private Reader(int id, Node last) {
+            this.id = id;
+            this.last = last;
+        }
+
+        /**
+         * @return the next no-good published by another model, or <tt>null</tt> if all of them have been read.
+         */
+        public long[] next() {
+            Node n;
+            while ((n = last.next.get()) != null) {
+                last = n;
+                if (n.origin != id) {
+                    return n.literals;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The resolution policy shared by the models
+     */
+    private final ResolutionPolicy policy;
+    /**
+     * The best solution found so far
+     */
+    private final AtomicReference<Incumbent> incumbent;
+    /**
+     * Last published no-good
+     */
+    private final AtomicReference<Node> tail;
+
+    /**
+     * Create a channel for models sharing the resolution policy <i>policy</i>
+     * @param policy the resolution policy of the problem
+     */
+    public SharedChannel(ResolutionPolicy policy) {
+        this.policy = policy;
+        this.incumbent = new AtomicReference<>();
+        this.tail = new AtomicReference<>(new Node(-1, new long[0]));
+    }
+
+    /**
+     * Declares a new solution, of value <i>value</i> found by <i>model</i>.
+     * It is kept if it improves the best one found so far, wrt to the resolution policy.
+     * @param model the model which found a solution
+     * @param value the objective value of the solution
+     * @return <tt>true</tt> if the solution improves the best one found so far
+     */
+    public boolean offerBound(Model model, int value) {
+        return offerBound(model, value, null);
+    }
+
+    /**
+     * Declares a new solution, of value <i>value</i> found by <i>model</i>, along with the values of its variables.
+     * It is kept if it improves the best one found so far, wrt to the resolution policy.
+     * <i>solution</i> must not be modified once declared, since it may be read by other models.
+     * @param model the model which found a solution
+     * @param value the objective value of the solution
+     * @param solution the solution, may be <tt>null</tt>
+     * @return <tt>true</tt> if the solution improves the best one found so far
+     */
+    public boolean offerBound(Model model, int value, Solution solution) {
+        Incumbent candidate = new Incumbent(value, model, solution);
+        Incumbent current;
+        do {
+            current = incumbent.get();
+            if (current != null && !improves(value, current.value)) {
+                return false;
+            }
+        } while (!incumbent.compareAndSet(current, candidate));
+        return true;
+    }
+
+    private boolean improves(int value, int best) {
+        return policy == ResolutionPolicy.MAXIMIZE ? value > best : value < best;
+    }
+
+    /**
+     * @return <tt>true</tt> if at least one solution has been declared
+     */
+    public boolean hasBound() {
+        return incumbent.get() != null;
+    }
+
+    /**
+     * @return the objective value of the best solution declared so far, must not be called when {@link #hasBound()} returns <tt>false</tt>
+     */
+    public int getBound() {
+        return incumbent.get().value;
+    }
+
+    /**
+     * @return the model which found the best solution declared so far, or <tt>null</tt>
+     */
+    public Model getBoundOwner() {
+        Incumbent current = incumbent.get();
+        return current == null ? null : current.model;
+    }
+
+    /**
+     * @return the best solution declared so far, or <tt>null</tt> if none, or if it has been declared without its values
+     */
+    public Solution getBoundSolution() {
+        Incumbent current = incumbent.get();
+        return current == null ? null : current.solution;
+    }
+
+    /**
+     * Publishes a no-good.
+     * @param origin the id of the model which learnt the no-good, as given in {@link #newReader(int)}
+     * @param literals literals of the no-good, encoded with {@link #literal(int, int, boolean, boolean)}
+     */
+    public void publish(int origin, long[] literals) {
+        Node node = new Node(origin, literals);
+        while (true) {
+            Node last = tail.get();
+            Node next = last.next.get();
+            if (next == null) {
+                if (last.next.compareAndSet(null, node)) {
+                    tail.compareAndSet(last, node);
+                    return;
+                }
+            } else {
+                // help another publisher to end its insertion
+                tail.compareAndSet(last, next);
+            }
+        }
+    }
+
+    /**
+     * Creates a reader of the no-goods published from now on by other models than <i>id</i>.
+     * @param id id of the model which reads no-goods
+     * @return a new reader
+     */
+    public Reader newReader(int id) {
+        return new Reader(id, tail.get());
+    }
+
+    /**
+     * Encodes a literal.
+     * @param id id of a variable
+     * @param value a value
+     * @param eq <tt>true</tt> for "=", <tt>false</tt> for "&le;"
+     * @param sign the sign of the literal
+     * @return the literal encoded into a <code>long</code>
+     */
+    public static long literal(int id, int value, boolean eq, boolean sign) {
+        return ((long) id << ID) | (eq ? EQ : 0) | (sign ? SIGN : 0) | (value & VALUE);
+    }
+
+    /**
+     * @param literal an encoded literal
+     * @return the id of the variable of the literal
+     */
+    public static int id(long literal) {
+        return (int) (literal >>> ID);
+    }
+
+    /**
+     * @param literal an encoded literal
+     * @return the value of the literal
+     */
+    public static int value(long literal) {
+        return (int) (literal & VALUE);
+    }
+
+    /**
+     * @param literal an encoded literal
+     * @return <tt>true</tt> for "=", <tt>false</tt> for "&le;"
+     */
+    public static boolean isEq(long literal) {
+        return (literal & EQ) != 0;
+    }
+
+    /**
+     * @param literal an encoded literal
+     * @return the sign of the literal
+     */
+    public static boolean sign(long literal) {
+        return (literal & SIGN) != 0;
+    }
+}
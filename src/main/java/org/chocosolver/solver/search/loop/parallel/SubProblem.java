@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.parallel;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.DecisionPath;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+
+/**
+ * A sub-problem, or guiding path, is a model-independent description of a node of a search tree.
+ * It is made of the sequence of integer decisions, in their current form (applied or refuted),
+ * that lead from the root node to the node.
+ * <p>
+ * Variables are referenced by their {@link IntVar#getId()}, so that a sub-problem computed in a model
+ * can be replayed in another one, as long as both models are built in the very same way.
+ * Decision operators being stateless, they are shared among models.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public final class SubProblem {
+
+    /**
+     * The sub-problem which describes the root node: the entire search tree.
+     */
+    public static final SubProblem ROOT = new SubProblem(new int[0], new DecisionOperator[0], new int[0]);
+
+    /**
+     * Ids of the variables of the decisions
+     */
+    private final int[] ids;
+    /**
+     * Operators of the decisions
+     */
+    private final DecisionOperator<IntVar>[] operators;
+    /**
+     * Values of the decisions
+     */
+    private final int[] values;
+
+    private SubProblem(int[] ids, DecisionOperator<IntVar>[] operators, int[] values) {
+        this.ids = ids;
+        this.operators = operators;
+        this.values = values;
+    }
+
+    /**
+     * Creates a sub-problem from the decisions of <i>path</i> that are strictly above <i>position</i>,
+     * followed by the next branch of the decision in <i>position</i>.
+     * Only {@link IntDecision}s can be encoded, the decision in <i>position</i> is expected to be refutable.
+     * @param path a decision path
+     * @param position position of an open decision in <i>path</i>
+     * @return the sub-problem rooted in the next branch of the decision in <i>position</i>,
+     * or <tt>null</tt> if the decisions above <i>position</i> cannot be encoded
+     */
+    public static SubProblem nextBranchOf(DecisionPath path, int position) {
+        return encode(path, position, true);
+    }
+
+    /**
+     * Creates a sub-problem from all the decisions of <i>path</i>, in their current form.
+     * Only {@link IntDecision}s can be encoded.
+     * @param path a decision path
+     * @return the sub-problem rooted in the current node of <i>path</i>,
+     * or <tt>null</tt> if the decisions of <i>path</i> cannot be encoded
+     */
+    public static SubProblem currentNodeOf(DecisionPath path) {
+        return encode(path, path.size() - 1, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SubProblem encode(DecisionPath path, int position, boolean refuteLast) {
+        int size = position; // ROOT is ignored
+        int[] ids = new int[size];
+        DecisionOperator<IntVar>[] ops = new DecisionOperator[size];
+        int[] vals = new int[size];
+        for (int i = 1; i <= position; i++) {
+            Decision d = path.getDecision(i);
+            if (!(d instanceof IntDecision)) {
+                return null;
+            }
+            IntDecision id = (IntDecision) d;
+            // number of branches already explored, an open decision to give away is considered to be refuted
+            int branch = refuteLast && i == position ? 2 : d.getArity() - d.triesLeft();
+            ids[i - 1] = id.getDecisionVariable().getId();
+            if (branch < 2) {
+                ops[i - 1] = id.getDecOp();
+                vals[i - 1] = id.getDecisionValue();
+            } else {
+                encodeRefutation(id, ops, vals, i - 1);
+            }
+        }
+        return new SubProblem(ids, ops, vals);
+    }
+
+    /**
+     * Stores the refutation of <i>decision</i> as a positive decision in position <i>i</i>.
+     * See {@link IntDecision#flip()}.
+     */
+    @SuppressWarnings("unchecked")
+    private static void encodeRefutation(IntDecision decision, DecisionOperator<IntVar>[] ops, int[] vals, int i) {
+        DecisionOperator<IntVar> op = decision.getDecOp();
+        int val = decision.getDecisionValue();
+        if (op == DecisionOperator.int_split) {
+            val++;
+        } else if (op == DecisionOperator.int_reverse_split) {
+            val--;
+        }
+        ops[i] = op.opposite();
+        vals[i] = val;
+    }
+
+    /**
+     * Pushes the decisions of this sub-problem into <i>path</i>.
+     * They belong to the same level and cannot be refuted.
+     * @param path the decision path to extend
+     * @param vars the variables of the target model, indexed by their id
+     */
+    public void pushInto(DecisionPath path, IntVar[] vars) {
+        for (int i = 0; i < ids.length; i++) {
+            IntDecision d = path.makeIntDecision(vars[ids[i]], operators[i], values[i]);
+            d.setRefutable(false);
+            path.pushDecision(d);
+        }
+    }
+
+    /**
+     * Indexes the integer variables of <i>model</i> by their id, as expected by {@link #pushInto(DecisionPath, IntVar[])}.
+     * @param model a model
+     * @return the integer variables of <i>model</i>, indexed by their id
+     */
+    public static IntVar[] intVarsById(Model model) {
+        Variable[] mvars = model.getVars();
+        int max = -1;
+        for (Variable v : mvars) {
+            max = Math.max(max, v.getId());
+        }
+        IntVar[] vars = new IntVar[max + 1];
+        for (Variable v : mvars) {
+            if ((v.getTypeAndKind() & Variable.INT) != 0) {
+                vars[v.getId()] = (IntVar) v;
+            }
+        }
+        return vars;
+    }
+
+    /**
+     * @return the number of decisions which describe this sub-problem
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder st = new StringBuilder("{");
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                st.append(" /\\ ");
+            }
+            st.append('#').append(ids[i]).append(operators[i].toString()).append(values[i]);
+        }
+        return st.append('}').toString();
+    }
+}
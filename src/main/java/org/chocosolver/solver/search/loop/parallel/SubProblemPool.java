@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.parallel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of {@link SubProblem}s shared among workers exploring the same search tree in parallel.
+ * <p>
+ * Idle workers wait in {@link #take()} for a sub-problem to explore,
+ * busy workers check {@link #isHungry()} to know whether they should give part of their own search tree away.
+ * The search tree is entirely explored as soon as all the workers are idle and the pool is empty.
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SubProblemPool {
+
+    /**
+     * Sub-problems waiting to be explored
+     */
+    private final Deque<SubProblem> subproblems;
+    /**
+     * Number of workers using this pool
+     */
+    private int workers;
+    /**
+     * Number of workers currently waiting for a sub-problem
+     */
+    private int idle;
+    /**
+     * Set to <tt>true</tt> when at least one worker waits for a sub-problem which is not available yet
+     */
+    private volatile boolean hungry;
+    /**
+     * Set to <tt>true</tt> when the search has been interrupted
+     */
+    private boolean closed;
+    /**
+     * Set to <tt>true</tt> when the entire search tree has been explored
+     */
+    private boolean exhausted;
+    /**
+     * Number of sub-problems given so far
+     */
+    private long count;
+
+    /**
+     * Create an empty pool of sub-problems
+     */
+    public SubProblemPool() {
+        this.subproblems = new ArrayDeque<>();
+    }
+
+    /**
+     * Declares a new worker.
+     * Must be called by each worker before its first call to {@link #take()}.
+     */
+    public synchronized void register() {
+        workers++;
+    }
+
+    /**
+     * Adds a sub-problem to explore and wakes up a waiting worker, if any.
+     * @param subproblem a sub-problem
+     */
+    public synchronized void offer(SubProblem subproblem) {
+        subproblems.addLast(subproblem);
+        count++;
+        hungry = idle > subproblems.size();
+        notifyAll();
+    }
+
+    /**
+     * Retrieves and removes a sub-problem to explore, waiting if necessary until one becomes available.
+     * When <tt>null</tt> is returned, the calling worker is automatically unregistered.
+     * @return a sub-problem, or <tt>null</tt> if the entire search tree has been explored or the pool has been closed
+     */
+    public synchronized SubProblem take() {
+        idle++;
+        try {
+            while (subproblems.isEmpty() && idle < workers && !closed) {
+                hungry = true;
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+        idle--;
+        SubProblem subproblem = null;
+        if (closed || subproblems.isEmpty()) {
+            exhausted |= !closed;
+            workers--;
+            notifyAll();
+        } else {
+            subproblem = subproblems.pollFirst();
+        }
+        hungry = idle > subproblems.size();
+        return subproblem;
+    }
+
+    /**
+     * Reading this value does not require any synchronization, and is expected to be done frequently.
+     * @return <tt>true</tt> if at least one worker is waiting for a sub-problem which is not available yet
+     */
+    public boolean isHungry() {
+        return hungry;
+    }
+
+    /**
+     * Stops giving sub-problems: waiting workers are woken up and unregistered.
+     * Remaining sub-problems are kept and can be given once the pool is {@link #open()}ed again,
+     * to workers which have {@link #register()}ed again.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Enables giving sub-problems again, after a call to {@link #close()}.
+     */
+    public synchronized void open() {
+        closed = false;
+    }
+
+    /**
+     * @return <tt>true</tt> if the entire search tree has been explored
+     */
+    public synchronized boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * @return the number of sub-problems that have been given to this pool so far
+     */
+    public synchronized long getSubProblemCount() {
+        return count;
+    }
+}
@@ -116,6 +116,37 @@ public interface IMeasures {
      */
     long getCurrentDepth();
 
+    /**
+     * @return the number of entries currently stored in the trails of the environment
+     */
+    long getTrailSize();
+
+    /**
+     * @return the largest number of entries stored in the trails of the environment
+     */
+    long getPeakTrailSize();
+
+    /**
+     * @return an estimation of the number of bytes currently used by the trails of the environment
+     */
+    long getTrailBytes();
+
+    /**
+     * @return an estimation of the largest number of bytes used by the trails of the environment
+     */
+    long getPeakTrailBytes();
+
+    /**
+     * @return the number of times the trails of the environment have been enlarged
+     */
+    long getTrailResizeCount();
+
+    /**
+     * @return true iff the memory used by the trails of the environment is measured,
+     * otherwise the trail measures are equal to 0
+     */
+    boolean isTrailMeasured();
+
     /**
      * @return true iff the problem has an objective variable (i.e. optimization problem)
      */
@@ -222,6 +253,15 @@ public interface IMeasures {
                 getFailCount(),
                 getRestartCount()
         ));
+        if (isTrailMeasured()) {
+            st.append(String.format("\n\tTrail: %,d entries (%,d KB), peak %,d entries (%,d KB), %,d resizes",
+                    getTrailSize(),
+                    getTrailBytes() / 1024,
+                    getPeakTrailSize(),
+                    getPeakTrailBytes() / 1024,
+                    getTrailResizeCount()
+            ));
+        }
         return st.toString();
     }
 
@@ -115,6 +115,36 @@ public class Measures implements IMeasures, Cloneable {
      */
     protected long depth;
 
+    /**
+     * Number of entries stored in the trails.
+     */
+    protected long trailSize;
+
+    /**
+     * Largest number of entries stored in the trails.
+     */
+    protected long peakTrailSize;
+
+    /**
+     * Number of bytes used by the trails.
+     */
+    protected long trailBytes;
+
+    /**
+     * Largest number of bytes used by the trails.
+     */
+    protected long peakTrailBytes;
+
+    /**
+     * Number of times the trails have been enlarged.
+     */
+    protected long trailResizeCount;
+
+    /**
+     * Indicates whether the trails are measured.
+     */
+    protected boolean trailMeasured;
+
 
     //***********************************************************************************
     // CONSTRUCTOR
@@ -147,6 +177,12 @@ public class Measures implements IMeasures, Cloneable {
         failCount = measures.getFailCount();
         depth = measures.getCurrentDepth();
         maxDepth = measures.getMaxDepth();
+        trailSize = measures.getTrailSize();
+        peakTrailSize = measures.getPeakTrailSize();
+        trailBytes = measures.getTrailBytes();
+        peakTrailBytes = measures.getPeakTrailBytes();
+        trailResizeCount = measures.getTrailResizeCount();
+        trailMeasured = measures.isTrailMeasured();
     }
 
     //****************************************************************************************************************//
@@ -197,6 +233,36 @@ public class Measures implements IMeasures, Cloneable {
         return depth;
     }
 
+    @Override
+    public long getTrailSize() {
+        return trailSize;
+    }
+
+    @Override
+    public long getPeakTrailSize() {
+        return peakTrailSize;
+    }
+
+    @Override
+    public long getTrailBytes() {
+        return trailBytes;
+    }
+
+    @Override
+    public long getPeakTrailBytes() {
+        return peakTrailBytes;
+    }
+
+    @Override
+    public long getTrailResizeCount() {
+        return trailResizeCount;
+    }
+
+    @Override
+    public final boolean isTrailMeasured() {
+        return trailMeasured;
+    }
+
     @Override
     public final boolean isObjectiveOptimal() {
         return objectiveOptimal;
@@ -29,6 +29,7 @@
  */
 package org.chocosolver.solver.search.measure;
 
+import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.solver.objective.IBoundsManager;
 import org.chocosolver.solver.search.SearchState;
 
@@ -50,6 +51,11 @@ public final class MeasuresRecorder extends Measures {
 
     private LongSupplier currentNanoTime;
 
+    /**
+     * The environment whose trails are observed, may be <tt>null</tt>
+     */
+    private IEnvironment environment;
+
     /**
      * Create a measures recorder
      */
@@ -64,6 +70,46 @@ public final class MeasuresRecorder extends Measures {
         return super.getTimeCountInNanoSeconds();
     }
 
+    @Override
+    public long getTrailSize() {
+        if (environment != null) {
+            trailSize = environment.getTrailSize();
+        }
+        return super.getTrailSize();
+    }
+
+    @Override
+    public long getPeakTrailSize() {
+        if (environment != null) {
+            peakTrailSize = environment.getPeakTrailSize();
+        }
+        return super.getPeakTrailSize();
+    }
+
+    @Override
+    public long getTrailBytes() {
+        if (environment != null) {
+            trailBytes = environment.getTrailBytes();
+        }
+        return super.getTrailBytes();
+    }
+
+    @Override
+    public long getPeakTrailBytes() {
+        if (environment != null) {
+            peakTrailBytes = environment.getPeakTrailBytes();
+        }
+        return super.getPeakTrailBytes();
+    }
+
+    @Override
+    public long getTrailResizeCount() {
+        if (environment != null) {
+            trailResizeCount = environment.getTrailResizeCount();
+        }
+        return super.getTrailResizeCount();
+    }
+
     /**
      * Start the stopwatch, to compute resolution time
      *
@@ -85,6 +131,18 @@ public final class MeasuresRecorder extends Measures {
     //****************************************************************************************************************//
 
 
+    /**
+     * Set the environment whose trails are observed, to report their memory usage
+     * @param environment the environment of the model, or <tt>null</tt> to stop measuring the trails
+     */
+    public final void setEnvironment(IEnvironment environment) {
+        this.environment = environment;
+        this.trailMeasured = environment != null;
+        if (environment == null) {
+            trailSize = peakTrailSize = trailBytes = peakTrailBytes = trailResizeCount = 0;
+        }
+    }
+
     /**
      * indicates whether or not the optimum has been found and proved
      * @param objectiveOptimal <tt>true</tt> if the objective is proven to be optimal
@@ -30,17 +30,19 @@
 package org.chocosolver.solver.search.strategy.selectors.variables;
 
 
-import gnu.trove.list.TIntList;
-import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.map.hash.TIntDoubleHashMap;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.search.loop.monitors.IMonitorDownBranch;
 import org.chocosolver.solver.search.loop.monitors.IMonitorInitialize;
 import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
 import org.chocosolver.solver.search.loop.move.Move;
 import org.chocosolver.solver.search.loop.move.MoveRestart;
+import org.chocosolver.solver.search.loop.parallel.SubProblem;
 import org.chocosolver.solver.search.restart.MonotonicRestartStrategy;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
 import org.chocosolver.solver.search.strategy.decision.Decision;
@@ -48,12 +50,14 @@ import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.IVariableMonitor;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IEventType;
-import org.chocosolver.util.iterators.DisposableValueIterator;
 import org.chocosolver.util.objects.IntMap;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Comparator;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.Integer.MAX_VALUE;
 
@@ -62,6 +66,13 @@ import static java.lang.Integer.MAX_VALUE;
  * "Activity-Based Search for Black-Box Constraint Propagramming Solver",
  * Laurent Michel and Pascal Van Hentenryck, CPAIOR12.
  * <br/>
+ * Activities of variables and values are stored in flat arrays of primitives:
+ * values of a variable whose initial domain is larger than {@link #MAX_SLOTS} are grouped,
+ * consecutive values sharing the same activity.
+ * <br/>
+ * By default, the sampling phase is done within the search loop, restarting after each failure.
+ * It can also be done at the root node, before the search starts,
+ * in parallel over many models built in the very same way (see {@link #setRootSampling(int, Model...)}).
  *
  * @author Charles Prud'homme
  * @since 07/06/12
@@ -71,6 +82,11 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
 
     private static final double ONE = 1.0f;
 
+    /**
+     * Maximum number of activities stored per variable
+     */
+    private static final int MAX_SLOTS = 512;
+
     private static final double[] distribution = new double[]{// two-sided 95%
             999.99d,
             12.706f, 4.303f, 3.182f, 2.776f, 2.571f, // 1...5
@@ -117,6 +133,7 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
     //////////////////////////////
     //////////////////////////////
 
+
     private final Model model;
     private final IntMap v2i;
     private final IntVar[] vars;
@@ -124,7 +141,12 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
     private final double[] A; // activity of all variables
     private final double[] mA; // the mean -- maintained incrementally
     private final double[] sA; // the variance -- maintained incrementally -- std dev = sqrt(sA/path-1)
-    private final IVal[] vAct; // activity of each value of all variables
+
+    private int[] vStart; // index of the first activity of each variable in vA
+    private int[] vLB; // initial lower bound of each variable
+    private int[] vShift; // 2^vShift consecutive values of a variable share the same activity
+    private double[] vA; // activity of each value of all variables, flattened
+    private double[] mvA; // the mean of activity of each value -- maintained incrementally
 
     private final BitSet affected; // store affected variables
 
@@ -141,8 +163,6 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
 
     private int currentVar = -1, currentVal = -1;
 
-    private TIntList bests = new TIntArrayList();
-
     private boolean restartAfterEachFail = true;
 
     private Move rfMove;
@@ -150,6 +170,10 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
     // enables to detect that the heuristic has been removed
     private boolean hasBeenInitiaized;
 
+    private IntVar[][] samplingVars; // variables of the models sampled at root node, null if sampling is done within the search loop
+
+    private int maxProbes; // maximum number of probes per model for the root sampling
+
     public ActivityBased(final Model model, IntVar[] vars, double g, double d, int a, int samplingIterationForced, long seed) {
         super(vars);
         this.model = model;
@@ -157,7 +181,6 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
         A = new double[vars.length];
         mA = new double[vars.length];
         sA = new double[vars.length];
-        vAct = new IVal[vars.length];
         affected = new BitSet(vars.length);
 
         this.v2i = new IntMap(vars.length);
@@ -193,17 +216,71 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
         this(vars[0].getModel(),vars,0.999d, 0.2d, 8, 1,0);
     }
 
+    /**
+     * Runs the sampling phase at the root node, before the search starts, instead of within the search loop.
+     * Probes are run in parallel, one thread per model, on the model of this strategy and on <i>models</i>.
+     * Each model runs probes until its own estimations are accurate enough or until <i>maxProbes</i> probes are done,
+     * then estimations of all models are merged.
+     * If they are not accurate enough, the sampling phase goes on within the search loop.
+     * <p>
+     * <i>models</i> are expected to be built in the very same way as the model of this strategy,
+     * since variables are matched by their {@link IntVar#getId()}.
+     * They are only used during the sampling phase.
+     * This has to be done before the resolution starts.
+     *
+     * @param maxProbes maximum number of probes run on each model
+     * @param models    copies of the model of this strategy, may be empty
+     * @throws SolverException if <i>maxProbes</i> is not positive or if a variable cannot be found in a model
+     */
+    public void setRootSampling(int maxProbes, Model... models) {
+        if (maxProbes < 1) {
+            throw new SolverException("ActivityBased: the maximum number of probes must be positive");
+        }
+        this.maxProbes = maxProbes;
+        this.samplingVars = new IntVar[models.length + 1][];
+        this.samplingVars[0] = vars;
+        for (int k = 0; k < models.length; k++) {
+            samplingVars[k + 1] = matchVars(vars, models[k]);
+        }
+    }
+
+    /**
+     * @param vars  variables of a model
+     * @param model a model built in the very same way
+     * @return the variables of <i>model</i> with the same IDs as <i>vars</i>
+     * @throws SolverException if a variable cannot be found in <i>model</i>
+     */
+    static IntVar[] matchVars(IntVar[] vars, Model model) {
+        IntVar[] byId = SubProblem.intVarsById(model);
+        IntVar[] mvars = new IntVar[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            int id = vars[i].getId();
+            if (id >= byId.length || byId[id] == null) {
+                throw new SolverException(model.getName() + " is not built in the same way as " + vars[i].getModel().getName());
+            }
+            mvars[i] = byId[id];
+        }
+        return mvars;
+    }
+
     @Override
     public boolean init() {
         hasBeenInitiaized = true;
+        vStart = new int[vars.length + 1];
+        vLB = new int[vars.length];
+        vShift = new int[vars.length];
         for (int i = 0; i < vars.length; i++) {
-            //TODO handle large domain size
-            int ampl = vars[i].getUB() - vars[i].getLB() + 1;
-            if (ampl > 512) {
-                vAct[i] = new MapVal(vars[i].getLB());
-            } else {
-                vAct[i] = new ArrayVal(ampl, vars[i].getLB());
+            vLB[i] = vars[i].getLB();
+            long ampl = (long) vars[i].getUB() - vLB[i];
+            while ((ampl >> vShift[i]) >= MAX_SLOTS) {
+                vShift[i]++;
             }
+            vStart[i + 1] = vStart[i] + (int) (ampl >> vShift[i]) + 1;
+        }
+        vA = new double[vStart[vars.length]];
+        mvA = new double[vStart[vars.length]];
+        if (samplingVars != null) {
+            sampleAtRoot();
         }
         return true;
     }
@@ -213,9 +290,21 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
         if(!hasBeenInitiaized){
             // the strategy has been erased
             model.getSolver().unplugMonitor(this);
+        } else if (!sampling && restartAfterEachFail) {
+            // the sampling phase has been completed at root node
+            unplugRestartMove();
         }
     }
 
+    /**
+     * @param idx   index of a variable
+     * @param value a value of its initial domain
+     * @return index of the activity of <i>value</i> in {@link #vA}
+     */
+    private int slot(int idx, int value) {
+        return vStart[idx] + ((value - vLB[idx]) >>> vShift[idx]);
+    }
+
     @Override
     public Decision<IntVar> computeDecision(IntVar variable) {
         if (variable == null || variable.isInstantiated()) {
@@ -233,38 +322,26 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
 			}
             assert vars[currentVar] == variable;
         }
-        currentVal = variable.getLB();
         if (sampling) {
-            int ds = variable.getDomainSize();
-            int n = random.nextInt(ds);
-            if (variable.hasEnumeratedDomain()) {
-                while (n-- > 0) {
-                    currentVal = variable.nextValue(currentVal);
-                }
-            } else {
-                currentVal += n;
-            }
+            currentVal = randomValue(variable, random);
         } else {
+            int lb = variable.getLB();
+            int ub = variable.getUB();
             if (variable.hasEnumeratedDomain()) {
-                bests.clear();
                 double bestVal = Double.MAX_VALUE;
-                DisposableValueIterator it = variable.getValueIterator(true);
-                while (it.hasNext()) {
-                    int value = it.next();
-                    double current = vAct[currentVar].activity(value);
+                int ties = 0;
+                for (int value = lb; value <= ub; value = variable.nextValue(value)) {
+                    double current = vA[slot(currentVar, value)];
                     if (current < bestVal) {
-                        bests.clear();
-                        bests.add(value);
+                        currentVal = value;
                         bestVal = current;
-                    } else {
-                        bests.add(value);
+                        ties = 1;
+                    } else if (current == bestVal && random.nextInt(++ties) == 0) {
+                        currentVal = value;
                     }
                 }
-                currentVal = bests.get(random.nextInt(bests.size()));
             } else {
-                int lb = variable.getLB();
-                int ub = variable.getUB();
-                currentVal = vAct[currentVar].activity(lb) < vAct[currentVar].activity(ub) ?
+                currentVal = vA[slot(currentVar, lb)] < vA[slot(currentVar, ub)] ?
                         lb : ub;
             }
         }
@@ -274,27 +351,58 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
     @Override
     public Decision<IntVar> getDecision() {
         assert hasBeenInitiaized;
-        IntVar best = null;
-        bests.clear();
+        int best = select(vars, A, random);
+        if (best > -1) {
+            currentVar = best;
+            return computeDecision(vars[best]);
+        }
+        return null;
+    }
+
+    /**
+     * Selects the variable with the largest ratio A(x)/|D(x)|, ties are broken randomly.
+     *
+     * @param vars   variables
+     * @param A      activity of the variables
+     * @param random to break ties
+     * @return index of the selected variable, or -1 if all variables are instantiated
+     */
+    private static int select(IntVar[] vars, double[] A, Random random) {
+        int best = -1;
+        int ties = 0;
         double bestVal = -1.0d;
         for (int i = 0; i < vars.length; i++) {
             int ds = vars[i].getDomainSize();
             if (ds > 1) {
-                double a = A[v2i.get(vars[i].getId())] / ds;
+                double a = A[i] / ds;
                 if (a > bestVal) {
-                    bests.clear();
-                    bests.add(i);
+                    best = i;
                     bestVal = a;
-                } else if (a == bestVal) {
-                    bests.add(i);
+                    ties = 1;
+                } else if (a == bestVal && random.nextInt(++ties) == 0) {
+                    best = i;
                 }
             }
         }
-        if (bests.size() > 0) {
-            currentVar = bests.get(random.nextInt(bests.size()));
-            best = vars[currentVar];
+        return best;
+    }
+
+    /**
+     * @param var    a variable
+     * @param random a random object
+     * @return a value of the domain of <i>var</i>, uniformly chosen
+     */
+    private static int randomValue(IntVar var, Random random) {
+        int value = var.getLB();
+        int n = random.nextInt(var.getDomainSize());
+        if (var.hasEnumeratedDomain()) {
+            while (n-- > 0) {
+                value = var.nextValue(value);
+            }
+        } else {
+            value += n;
         }
-        return computeDecision(best);
+        return value;
     }
 
     @Override
@@ -324,6 +432,12 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
         }
     }
 
+    /**
+     * @return <tt>true</tt> if the sampling phase is not completed yet
+     */
+    public boolean isSampling() {
+        return sampling;
+    }
 
     @Override
     public void onUpdate(IntVar var, IEventType evt) {
@@ -348,11 +462,11 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
                     A[i] += 1;
                 }
             }
-            double act = vAct[currentVar].activity(currentVal);
+            int s = slot(currentVar, currentVal);
             if (sampling) {
-                vAct[currentVar].setactivity(currentVal, act + affected.cardinality());
+                vA[s] += affected.cardinality();
             } else {
-                vAct[currentVar].setactivity(currentVal, (act * (a - 1) + affected.cardinality()) / a);
+                vA[s] = (vA[s] * (a - 1) + affected.cardinality()) / a;
             }
             currentVar = -1;
         }
@@ -366,158 +480,231 @@ public class ActivityBased extends AbstractStrategy<IntVar> implements IMonitorD
     public void afterRestart() {
         if (sampling) {
             nb_probes++;
-            for (int i = 0; i < A.length; i++) {
-                double activity = A[i];
-                double oldmA = mA[i];
-
-                double U = activity - oldmA;
-                mA[i] += (U / nb_probes);
-                sA[i] += (U * (activity - mA[i]));
-                A[i] = 0;
-                vAct[i].update(nb_probes);
+            record(nb_probes, A, mA, sA, vA, mvA);
+            //BEWARE: when it fails very soon (after 1 node), it is worth forcing sampling
+            if (nb_probes > samplingIterationForced && converged(vars, nb_probes, mA, sA, d)) {
+                endSampling();
+                unplugRestartMove();
             }
-            // check if sampling is still required
-            int idx = 0;
-            while (idx < vars.length && checkInterval(idx)) {
-                idx++;
+        }
+    }
+
+    /**
+     * Records the activities of a probe in the means and variances, then resets variable activities.
+     */
+    private static void record(int nb_probes, double[] A, double[] mA, double[] sA, double[] vA, double[] mvA) {
+        for (int i = 0; i < A.length; i++) {
+            double activity = A[i];
+            double oldmA = mA[i];
+
+            double U = activity - oldmA;
+            mA[i] += (U / nb_probes);
+            sA[i] += (U * (activity - mA[i]));
+            A[i] = 0;
+        }
+        for (int j = 0; j < vA.length; j++) {
+            mvA[j] += (vA[j] - mvA[j]) / nb_probes;
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the confidence interval of each variable is small enough
+     */
+    private static boolean converged(IntVar[] vars, int nb_probes, double[] mA, double[] sA, double d) {
+        for (int idx = 0; idx < vars.length; idx++) {
+            if (!checkInterval(vars[idx], nb_probes, mA[idx], sA[idx], d)) {
+                return false;
             }
-            //BEWARE: when it fails very soon (after 1 node), it is worth forcing sampling
-            if (nb_probes > samplingIterationForced && idx == vars.length) {
-                sampling = false;
-                if(restartAfterEachFail){
-                    Solver sl = model.getSolver();
-                    Move m = sl.getMove();
-                    if(m == rfMove){
-                        sl.setMove(rfMove.getChildMoves().get(0));
-                    }else{
-                        while(m.getChildMoves()!= null && m.getChildMoves().get(0)!= rfMove){
-                            m = m.getChildMoves().get(0);
-                        }
-                        if(m.getChildMoves()!= rfMove){
-                            m.setChildMoves(rfMove.getChildMoves());
-                        }
-                    }
-                }
-                restartAfterEachFail = false;
+        }
+        return true;
+    }
 
-                // then copy values estimated
-                System.arraycopy(mA, 0, A, 0, mA.length);
-                for (int i = 0; i < A.length; i++) {
-                    vAct[i].transfer();
+    /**
+     * Ends the sampling phase: the estimated values are copied.
+     */
+    private void endSampling() {
+        sampling = false;
+        System.arraycopy(mA, 0, A, 0, mA.length);
+        System.arraycopy(mvA, 0, vA, 0, mvA.length);
+    }
+
+    /**
+     * Removes the move which restarts after each failure, needed during the sampling phase only.
+     */
+    private void unplugRestartMove() {
+        if(restartAfterEachFail){
+            Solver sl = model.getSolver();
+            Move m = sl.getMove();
+            if(m == rfMove){
+                sl.setMove(rfMove.getChildMoves().get(0));
+            }else{
+                while(m.getChildMoves()!= null && m.getChildMoves().get(0)!= rfMove){
+                    m = m.getChildMoves().get(0);
+                }
+                if(m.getChildMoves()!= rfMove){
+                    m.setChildMoves(rfMove.getChildMoves());
                 }
             }
         }
+        restartAfterEachFail = false;
     }
 
     /**
      * Return true if the interval is small enough
      *
-     * @param idx idx of the variable to check
+     * @param var       the variable to check
+     * @param nb_probes number of probes
+     * @param mA        mean activity of the variable
+     * @param sA        variance of the activity of the variable
+     * @param d         interval size
      * @return true if the confidence interval is small enough, false otherwise
      */
-    private boolean checkInterval(int idx) {
-        if (!vars[idx].isInstantiated()) {
-            double stdev = Math.sqrt(sA[idx] / (nb_probes - 1));
+    private static boolean checkInterval(IntVar var, int nb_probes, double mA, double sA, double d) {
+        if (!var.isInstantiated()) {
+            double stdev = Math.sqrt(sA / (nb_probes - 1));
             double a = distribution(nb_probes) * stdev / Math.sqrt(nb_probes);
 //            logger.debug("m: {}, v: {}, et: {} => {}", new Object[]{mA[idx], sA[idx], stdev, (a / mA[idx])});
-            return (a / mA[idx]) < d;
+            return (a / mA) < d;
         }
         return true;
     }
 
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-
-    private interface IVal {
-
-        double activity(int value);
-
-        void setactivity(int value, double activity);
-
-        void update(int nb_probes);
-
-        void transfer();
-    }
-
-    private static final class ArrayVal implements IVal {
-
-        private final double[] Av;
-        private final double[] mAv;
-        private final int size;
-        private final int os;  // offset
-
-        private ArrayVal(int size, int os) {
-            this.size = size;
-            this.os = os;
-            this.Av = new double[size];
-            this.mAv = new double[size];
+    /**
+     * Runs the sampling phase over all models declared in {@link #setRootSampling(int, Model...)}, in parallel,
+     * and merges their estimations.
+     */
+    private void sampleAtRoot() {
+        Sampler[] samplers = new Sampler[samplingVars.length];
+        for (int k = 0; k < samplers.length; k++) {
+            samplers[k] = new Sampler(samplingVars[k], random.nextLong());
         }
-
-        @Override
-        public double activity(int value) {
-            return Av[value - os];
+        ForkJoinPool forkJoinPool = new ForkJoinPool(samplers.length);
+        try {
+            forkJoinPool.submit(() -> Arrays.stream(samplers).parallel().forEach(Sampler::run)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new SolverException("ActivityBased: the sampling phase failed: " + e.getCause());
+        } finally {
+            forkJoinPool.shutdownNow();
         }
-
-
-        @Override
-        public void setactivity(int value, double activity) {
-            Av[value - os] = activity;
+        // merge means and variances of all samplers
+        int n = 0;
+        for (Sampler s : samplers) {
+            n += s.nb;
         }
-
-        @Override
-        public void update(int nb_probes) {
-            double activity, oldmA, U;
-            for (int j = 0; j < Av.length; j++) {
-                activity = Av[j];
-                oldmA = mAv[j];
-                U = activity - oldmA;
-                mAv[j] += (U / nb_probes);
+        if (n == 0) {
+            return;
+        }
+        for (int i = 0; i < mA.length; i++) {
+            double mean = 0;
+            for (Sampler s : samplers) {
+                mean += s.nb * s.mA[i];
             }
+            mean /= n;
+            double var = 0;
+            for (Sampler s : samplers) {
+                double U = s.mA[i] - mean;
+                var += s.sA[i] + s.nb * U * U;
+            }
+            mA[i] = mean;
+            sA[i] = var;
         }
-
-        @Override
-        public void transfer() {
-            System.arraycopy(mAv, 0, Av, 0, size);
+        for (int j = 0; j < mvA.length; j++) {
+            double act = 0, mean = 0;
+            for (Sampler s : samplers) {
+                act += s.nb * s.vA[j];
+                mean += s.nb * s.mvA[j];
+            }
+            vA[j] = act / n;
+            mvA[j] = mean / n;
         }
-    }
-
-    private static final class MapVal implements IVal {
-
-        private final TIntDoubleHashMap Av;
-        private final TIntDoubleHashMap mAv;
-        private final int os;  // offset
-
-        private MapVal(int os) {
-            this.os = os;
-            this.Av = new TIntDoubleHashMap(32, 0.5f, 0, 0);
-            this.mAv = new TIntDoubleHashMap(32, 0.5f, 0, 0);
+        nb_probes = n;
+        if (nb_probes > samplingIterationForced && converged(vars, nb_probes, mA, sA, d)) {
+            endSampling();
         }
+    }
 
-        @Override
-        public double activity(int value) {
-            return Av.get(value - os);
-        }
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-        @Override
-        public void setactivity(int value, double activity) {
-            Av.put(value - os, activity);
+    /**
+     * Runs probes from the root node of a model, independently of the search loop.
+     * A probe instantiates variables, chosen like in the sampling phase, until a failure occurs
+     * or all variables are instantiated.
+     * Each sampler has its own activities and only reads the structure of {@link #vA}, so samplers
+     * of distinct models can run in parallel.
+     */
+    private final class Sampler {
+
+        private final IntVar[] svars; // variables in the sampled model
+        private final Random rnd;
+        private final int[] sizes; // domain sizes before the last decision
+        private final double[] A;
+        private final double[] mA;
+        private final double[] sA;
+        private final double[] vA;
+        private final double[] mvA;
+        private int nb; // number of probes
+
+        private Sampler(IntVar[] svars, long seed) {
+            this.svars = svars;
+            this.rnd = new Random(seed);
+            this.sizes = new int[svars.length];
+            this.A = new double[svars.length];
+            this.mA = new double[svars.length];
+            this.sA = new double[svars.length];
+            this.vA = new double[vStart[svars.length]];
+            this.mvA = new double[vStart[svars.length]];
         }
 
-        @Override
-        public void update(int nb_probes) {
-            double activity, oldmA, U;
-            for (int k : Av.keys()) {
-                activity = Av.get(k);
-                oldmA = mAv.get(k);
-                U = activity - oldmA;
-                mAv.adjustValue(k, U / nb_probes);
+        private void run() {
+            Model m = svars[0].getModel();
+            IEnvironment env = m.getEnvironment();
+            env.worldPush();
+            try {
+                m.getSolver().propagate();
+                do {
+                    probe(m);
+                    nb++;
+                    record(nb, A, mA, sA, vA, mvA);
+                } while (nb < maxProbes && !(nb > samplingIterationForced && converged(svars, nb, mA, sA, d)));
+            } catch (ContradictionException e) {
+                m.getSolver().getEngine().flush();
             }
+            env.worldPop();
         }
 
-        @Override
-        public void transfer() {
-            Av.clear();
-            Av.putAll(mAv);
+        private void probe(Model m) {
+            IEnvironment env = m.getEnvironment();
+            int root = env.getWorldIndex();
+            for (int i = 0; i < svars.length; i++) {
+                sizes[i] = svars[i].getDomainSize();
+            }
+            boolean fail = false;
+            int x;
+            while (!fail && (x = select(svars, A, rnd)) > -1) {
+                int val = randomValue(svars[x], rnd);
+                env.worldPush();
+                try {
+                    svars[x].instantiateTo(val, Cause.Null);
+                    m.getSolver().getEngine().propagate();
+                } catch (ContradictionException e) {
+                    m.getSolver().getEngine().flush();
+                    fail = true;
+                }
+                int card = 0;
+                for (int i = 0; i < svars.length; i++) {
+                    int ds = svars[i].getDomainSize();
+                    if (ds != sizes[i]) {
+                        sizes[i] = ds;
+                        A[i] += 1;
+                        card++;
+                    }
+                }
+                vA[slot(x, val)] += card;
+            }
+            env.worldPopUntil(root);
         }
     }
-
 }
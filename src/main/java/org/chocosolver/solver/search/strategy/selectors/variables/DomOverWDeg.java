@@ -29,53 +29,122 @@
  */
 package org.chocosolver.solver.search.strategy.selectors.variables;
 
-import gnu.trove.list.TIntList;
-import gnu.trove.list.array.TIntArrayList;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.constraints.Propagator;
-import org.chocosolver.solver.search.loop.monitors.FailPerPropagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.objects.IntHeap;
 import org.chocosolver.util.objects.IntMap;
 
+import java.util.Arrays;
+
 /**
  * Implementation of DowOverWDeg[1].
  *
  * [1]: F. Boussemart, F. Hemery, C. Lecoutre, and L. Sais, Boosting Systematic Search by Weighting Constraints, ECAI-04.
  * <br/>
+ * The weight of a variable is 1 plus the number of failures of its propagators which involve at least
+ * another uninstantiated variable, or whose arity has been evaluated before and not forgotten since.
+ * The latter reproduces the former linear scan, which cached arities in an {@link IntMap}
+ * whose {@link IntMap#clear()} only forgets the first keys, see {@link #forget()}.
+ * Variables are kept in a heap ordered by domain size over weight, which is maintained on domain modifications
+ * and on failures, so that the selection does not scan all the variables.
+ * Ties are broken randomly.
  *
  * @author Charles Prud'homme
  * @since 12/07/12
  */
-public class DomOverWDeg extends AbstractStrategy<IntVar>{
+public class DomOverWDeg extends AbstractStrategy<IntVar> implements IMonitorContradiction {
 
     /**
-     * Failure per propagators counter
+     * The model of the decision variables
      */
-    private FailPerPropagator counter;
+    private final Model model;
 
     /**
-     * Kind of duplicate of pid2ari to limit calls of backtrackable objects
+     * Randomness to break ties
      */
-    private IntMap pid2arity;
+    private java.util.Random random;
 
     /**
-     * Temporary. Stores index of variables with the same (best) score
+     * The way value is selected for a given variable
      */
-    private TIntList bests;
+    private IntValueSelector valueSelector;
 
     /**
-     * Randomness to break ties
+     * Observes the modifications of the variables and of the variables of the failed propagators
      */
-    private java.util.Random random;
+    private final ModificationTracker tracker;
 
     /**
-     * The way value is selected for a given variable
+     * Positions of the variables, ordered by domain size over weight
      */
-    private IntValueSelector valueSelector;
+    private final IntHeap heap;
+
+    /**
+     * Domain size and weight of each variable, as ordered in the heap
+     */
+    private final int[] sizes, weights;
+
+    /**
+     * Positions of the variables whose domain size or weight may have changed since the last decision
+     */
+    private final int[] dirty;
+    private final boolean[] isDirty;
+    private int nbDirty;
+
+    /**
+     * Instantiation of each tracked variable, as last observed
+     */
+    private boolean[] fixed;
+
+    /**
+     * Map (propagator ID - index) of the propagators which failed at least once
+     */
+    private final IntMap pid2idx;
+
+    /**
+     * Propagators which failed at least once, with their number of failures
+     * and their number of uninstantiated variables
+     */
+    private Propagator[] props;
+    private int[] fails, free;
+    private int nbProps;
+
+    /**
+     * Propagators whose arity has been evaluated, as the former linear scan did in each decision,
+     * and number of keys stored in the last decision
+     */
+    private final IntMap pid2arity;
+    private int nbStored;
+
+    /**
+     * Number of uninstantiated decision variables of each propagator, indexed by propagator ID
+     */
+    private int[] nbFree;
+
+    /**
+     * Propagators which got an uninstantiated decision variable since the last decision, indexed by propagator ID
+     */
+    private int[] entered;
+    private boolean[] isEntered;
+    private int nbEntered;
+
+    /**
+     * Link stamp of the model when the propagators of the variables were last counted
+     */
+    private int linkStamp;
+
+    /**
+     * Temporary. Stores positions of variables with the same (best) score, and positions in the heap to visit.
+     */
+    private final int[] bests, toVisit;
 
     /**
      * Creates a DomOverWDeg variable selector
@@ -86,12 +155,43 @@ public class DomOverWDeg extends AbstractStrategy<IntVar>{
      */
     public DomOverWDeg(IntVar[] variables, long seed, IntValueSelector valueSelector) {
         super(variables);
-        Model model = variables[0].getModel();
-        counter = new FailPerPropagator(model.getCstrs(), model);
-        pid2arity = new IntMap(model.getCstrs().length * 3 / 2 + 1, -1);
-        bests = new TIntArrayList();
+        model = variables[0].getModel();
         this.valueSelector = valueSelector;
         random = new java.util.Random(seed);
+        int n = variables.length;
+        sizes = new int[n];
+        weights = new int[n];
+        dirty = new int[n];
+        isDirty = new boolean[n];
+        bests = new int[n];
+        toVisit = new int[n + 1];
+        pid2idx = new IntMap(16, -1);
+        props = new Propagator[16];
+        fails = new int[16];
+        free = new int[16];
+        pid2arity = new IntMap(model.getCstrs().length * 3 / 2 + 1, -1);
+        nbFree = new int[16];
+        entered = new int[16];
+        isEntered = new boolean[16];
+        linkStamp = model.getLinkStamp();
+        tracker = new ModificationTracker(model.getEnvironment(), variables) {
+            @Override
+            void modified(int t) {
+                DomOverWDeg.this.modified(t);
+            }
+
+            @Override
+            void rebuild() {
+                DomOverWDeg.this.rebuild();
+            }
+        };
+        fixed = new boolean[tracker.nbTracked()];
+        heap = new IntHeap(n, this::compare);
+        for (int p = 0; p < n; p++) {
+            heap.add(p);
+        }
+        rebuild();
+        model.getSolver().plugMonitor(this);
     }
 
 
@@ -106,51 +206,341 @@ public class DomOverWDeg extends AbstractStrategy<IntVar>{
 
     @Override
     public Decision<IntVar> getDecision() {
+        tracker.sync();
+        if (linkStamp != model.getLinkStamp()) {
+            // propagators have been posted or removed
+            linkStamp = model.getLinkStamp();
+            countFree();
+            for (int p = 0; p < vars.length; p++) {
+                touch(p);
+            }
+        }
+        forget();
+        while (nbDirty > 0) {
+            int p = dirty[--nbDirty];
+            isDirty[p] = false;
+            sizes[p] = vars[p].getDomainSize();
+            if (sizes[p] > 1) {
+                weights[p] = weight(p);
+            }
+            heap.update(p);
+        }
+        store();
         IntVar best = null;
-        bests.clear();
-        pid2arity.clear();
-        long _d1 = Integer.MAX_VALUE;
-        long _d2 = 0;
-        for (int idx = 0; idx < vars.length; idx++) {
-            int dsize = vars[idx].getDomainSize();
-            if (dsize > 1) {
-                int weight = weight(vars[idx]);
-                long c1 = dsize * _d2;
-                long c2 = _d1 * weight;
-                if (c1 < c2) {
-                    bests.clear();
-                    bests.add(idx);
-                    _d1 = dsize;
-                    _d2 = weight;
-                } else if (c1 == c2) {
-                    bests.add(idx);
+        int top = heap.peek();
+        if (sizes[top] > 1) {
+            // collect the variables with the same score as the top one, which form a subtree of the heap
+            int nbBests = 0;
+            int nbToVisit = 0;
+            toVisit[nbToVisit++] = 0;
+            while (nbToVisit > 0) {
+                int h = toVisit[--nbToVisit];
+                int p = heap.get(h);
+                if (sizes[p] > 1 && (long) sizes[p] * weights[top] == (long) sizes[top] * weights[p]) {
+                    bests[nbBests++] = p;
+                    if (2 * h + 1 < heap.size()) {
+                        toVisit[nbToVisit++] = 2 * h + 1;
+                    }
+                    if (2 * h + 2 < heap.size()) {
+                        toVisit[nbToVisit++] = 2 * h + 2;
+                    }
                 }
             }
-        }
-        if (bests.size() > 0) {
-            int currentVar = bests.get(random.nextInt(bests.size()));
-            best = vars[currentVar];
+            // pick the same variable as when ties are stored in order
+            best = vars[select(bests, nbBests, random.nextInt(nbBests))];
         }
         return computeDecision(best);
     }
 
-    private int weight(IntVar v) {
+    @Override
+    public void onContradiction(ContradictionException cex) {
+        if (cex.c != null && cex.c instanceof Propagator) {
+            tracker.sync();
+            Propagator prop = (Propagator) cex.c;
+            int k = pid2idx.get(prop.getId());
+            if (k == -1) {
+                k = register(prop);
+            }
+            fails[k]++;
+            if (free[k] > 0) {
+                touchScope(k);
+            }
+        }
+    }
+
+    /**
+     * Compares two variables by domain size over weight, instantiated variables last, then by position.
+     */
+    private int compare(int p1, int p2) {
+        int s1 = sizes[p1];
+        int s2 = sizes[p2];
+        if (s1 > 1 && s2 > 1) {
+            // avoid using / operation
+            long c1 = (long) s1 * weights[p2];
+            long c2 = (long) s2 * weights[p1];
+            if (c1 != c2) {
+                return c1 < c2 ? -1 : 1;
+            }
+        } else if (s1 > 1 || s2 > 1) {
+            return s1 > 1 ? -1 : 1;
+        }
+        return Integer.compare(p1, p2);
+    }
+
+    /**
+     * Computes the weight of the variable at position <i>p</i>, as the former linear scan did:
+     * a propagator with a single uninstantiated variable is counted when its arity is already stored,
+     * that is, if it has not been forgotten since a previous decision,
+     * or if it has been met before in the same decision.
+     *
+     * @param p position of an uninstantiated variable
+     * @return its weight
+     */
+    private int weight(int p) {
+        IntVar v = vars[p];
+        boolean first = tracker.firstPosition(tracker.indexOf(v)) == p;
         int w = 1;
-        for (Propagator prop : v.getPropagators()) {
-            int pid = prop.getId();
-            // if the propagator has been already evaluated
+        for (int i = 0; i < v.getNbProps(); i++) {
+            Propagator prop = v.getPropagator(i);
+            int k = pid2idx.get(prop.getId());
+            if (k > -1 && (free[k] > 1 || !first || pid2arity.get(prop.getId()) > -1 || metBefore(v, i))) {
+                w += fails[k];
+            }
+        }
+        return w;
+    }
+
+    /**
+     * @return <tt>true</tt> if the <i>i</i>th propagator of <i>v</i> is also one of its first <i>i</i> propagators
+     */
+    private static boolean metBefore(IntVar v, int i) {
+        Propagator prop = v.getPropagator(i);
+        for (int j = 0; j < i; j++) {
+            if (v.getPropagator(j) == prop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the arities stored, as the former linear scan did at the beginning of each decision:
+     * only the keys lower than the number of keys stored in the last decision are actually forgotten.
+     */
+    private void forget() {
+        int size = pid2arity.size();
+        for (int pid = 1; pid < size; pid++) {
             if (pid2arity.get(pid) > -1) {
-                w += counter.getFails(prop);
-            } else {
-                // the arity of this propagator is not yet known
-                int futVars = prop.arity();
-                assert futVars > -1;
-                pid2arity.put(pid, futVars);
-                if (futVars > 1) {
-                    w += counter.getFails(prop);
+                int k = pid2idx.get(pid);
+                if (k > -1) {
+                    touchScope(k);
                 }
             }
         }
-        return w;
+        pid2arity.clear();
+        nbStored = size;
+    }
+
+    /**
+     * Stores the arity of each propagator with an uninstantiated decision variable, if not stored yet,
+     * as the former linear scan did while computing weights.
+     * Such propagators are either forgotten ones or the ones which got an uninstantiated decision variable.
+     */
+    private void store() {
+        for (int pid = 1; pid < nbStored; pid++) {
+            store(pid);
+        }
+        while (nbEntered > 0) {
+            int pid = entered[--nbEntered];
+            isEntered[pid] = false;
+            store(pid);
+        }
+    }
+
+    private void store(int pid) {
+        if (pid < nbFree.length && nbFree[pid] > 0 && pid2arity.get(pid) == -1) {
+            // the value does not matter
+            pid2arity.put(pid, 0);
+            int k = pid2idx.get(pid);
+            if (k > -1) {
+                touchScope(k);
+            }
+        }
+    }
+
+    /**
+     * Counts, from scratch, the uninstantiated decision variables of each propagator.
+     */
+    private void countFree() {
+        Arrays.fill(nbFree, 0);
+        for (int t = 0; t < tracker.nbTracked(); t++) {
+            if (tracker.firstPosition(t) > -1 && !fixed[t]) {
+                Variable var = tracker.get(t);
+                for (int i = 0; i < var.getNbProps(); i++) {
+                    incFree(var.getPropagator(i).getId());
+                }
+            }
+        }
+    }
+
+    private void incFree(int pid) {
+        if (pid >= nbFree.length) {
+            int nsize = Math.max(pid + 1, nbFree.length * 3 / 2 + 1);
+            nbFree = Arrays.copyOf(nbFree, nsize);
+            entered = Arrays.copyOf(entered, nsize);
+            isEntered = Arrays.copyOf(isEntered, nsize);
+        }
+        if (nbFree[pid]++ == 0 && !isEntered[pid]) {
+            isEntered[pid] = true;
+            entered[nbEntered++] = pid;
+        }
+    }
+
+    private void decFree(int pid) {
+        // may not have been counted if propagators have been posted since the last count
+        if (pid < nbFree.length && nbFree[pid] > 0) {
+            nbFree[pid]--;
+        }
+    }
+
+    /**
+     * Declares a propagator which fails for the first time.
+     * Its variables are tracked to maintain its number of uninstantiated variables.
+     *
+     * @param prop a propagator
+     * @return index of <i>prop</i>
+     */
+    private int register(Propagator prop) {
+        int k = nbProps++;
+        if (k == props.length) {
+            int nsize = props.length * 3 / 2 + 1;
+            Propagator[] tmp = props;
+            props = new Propagator[nsize];
+            System.arraycopy(tmp, 0, props, 0, k);
+            int[] itmp = fails;
+            fails = new int[nsize];
+            System.arraycopy(itmp, 0, fails, 0, k);
+            itmp = free;
+            free = new int[nsize];
+            System.arraycopy(itmp, 0, free, 0, k);
+        }
+        props[k] = prop;
+        pid2idx.put(prop.getId(), k);
+        for (int i = 0; i < prop.getNbVars(); i++) {
+            Variable var = prop.getVar(i);
+            int nb = tracker.nbTracked();
+            int t = tracker.track(var);
+            if (t == nb) {
+                if (t == fixed.length) {
+                    boolean[] tmp = fixed;
+                    fixed = new boolean[tmp.length * 3 / 2 + 1];
+                    System.arraycopy(tmp, 0, fixed, 0, t);
+                }
+                fixed[t] = var.isInstantiated();
+            }
+        }
+        free[k] = prop.arity();
+        return k;
+    }
+
+    /**
+     * Called when a tracked variable is modified, or when its modifications are undone.
+     *
+     * @param t index of the tracked variable
+     */
+    private void modified(int t) {
+        for (int p = tracker.firstPosition(t); p > -1; p = tracker.nextPosition(p)) {
+            touch(p);
+        }
+        Variable var = tracker.get(t);
+        boolean f = var.isInstantiated();
+        if (f != fixed[t]) {
+            fixed[t] = f;
+            boolean decision = tracker.firstPosition(t) > -1;
+            for (int i = 0; i < var.getNbProps(); i++) {
+                int pid = var.getPropagator(i).getId();
+                if (decision) {
+                    if (f) {
+                        decFree(pid);
+                    } else {
+                        incFree(pid);
+                    }
+                }
+                int k = pid2idx.get(pid);
+                if (k > -1) {
+                    int before = free[k];
+                    free[k] += f ? -1 : 1;
+                    if ((before > 1) != (free[k] > 1)) {
+                        touchScope(k);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes all scores from scratch, on the next decision.
+     */
+    private void rebuild() {
+        for (int t = 0; t < tracker.nbTracked(); t++) {
+            fixed[t] = tracker.get(t).isInstantiated();
+        }
+        for (int k = 0; k < nbProps; k++) {
+            free[k] = props[k].arity();
+        }
+        countFree();
+        for (int p = 0; p < vars.length; p++) {
+            touch(p);
+        }
+    }
+
+    private void touch(int p) {
+        if (!isDirty[p]) {
+            isDirty[p] = true;
+            dirty[nbDirty++] = p;
+        }
+    }
+
+    private void touchScope(int k) {
+        Propagator prop = props[k];
+        for (int i = 0; i < prop.getNbVars(); i++) {
+            int t = tracker.indexOf(prop.getVar(i));
+            for (int p = tracker.firstPosition(t); p > -1; p = tracker.nextPosition(p)) {
+                touch(p);
+            }
+        }
+    }
+
+    /**
+     * @param a an array
+     * @param n number of elements of <i>a</i> to consider
+     * @param r a rank, in [0, <i>n</i> - 1]
+     * @return the element of rank <i>r</i> among the first <i>n</i> elements of <i>a</i>, which are reordered
+     */
+    private static int select(int[] a, int n, int r) {
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            int pivot = a[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    int tmp = a[i];
+                    a[i++] = a[j];
+                    a[j--] = tmp;
+                }
+            }
+            if (r <= j) {
+                hi = j;
+            } else if (r >= i) {
+                lo = i;
+            } else {
+                return a[r];
+            }
+        }
+        return a[r];
     }
 }
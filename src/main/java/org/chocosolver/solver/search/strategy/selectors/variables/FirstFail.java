@@ -29,13 +29,17 @@
  */
 package org.chocosolver.solver.search.strategy.selectors.variables;
 
-import org.chocosolver.memory.IStateInt;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.objects.IntHeap;
 
 /**
  * <b>First fail</b> variable selector.
  * It chooses the variable with the smallest domain (instantiated variables are ignored).
+ * Ties are broken by the order of the variables.
+ * <br/>
+ * Variables are kept in a heap ordered by domain size, which is maintained on domain modifications,
+ * so that the selection does not scan all the variables.
  * <br/>
  *
  * @author Charles Prud'homme
@@ -43,44 +47,91 @@ import org.chocosolver.solver.variables.IntVar;
  */
 public class FirstFail implements VariableSelector<IntVar>, VariableEvaluator<IntVar> {
 
-    private IStateInt lastIdx; // index of the last non-instantiated variable
+    private final Model model;
+    private IntVar[] vars; // variables the heap is built on
+    private int[] sizes; // domain size of each variable, as ordered in the heap
+    private IntHeap heap;
+    private ModificationTracker tracker;
+    private int[] dirty; // positions of the variables whose domain size may have changed
+    private boolean[] isDirty;
+    private int nbDirty;
 
     /**
      * <b>First fail</b> variable selector.
      * @param model reference to the model (does not define the variable scope)
      */
     public FirstFail(Model model){
-        lastIdx = model.getEnvironment().makeInt(0);
+        this.model = model;
     }
 
     @Override
     public IntVar getVariable(IntVar[] variables) {
-        int small_idx = -1;
-        int small_dsize = Integer.MAX_VALUE;
-        boolean got = false;
-        for (int idx = lastIdx.get(); idx < variables.length; idx++) {
-            int dsize = variables[idx].getDomainSize();
-
-            if (!got && !variables[idx].isInstantiated()) {
-                //got is just to call 'set' at most once
-                lastIdx.set(idx);
-                got = true;
-            }
-
-            if (dsize > 1 && dsize < small_dsize) {
-                small_dsize = dsize;
-                small_idx = idx;
-            }
-
-            if (small_dsize == 2) {
-                break;
-            }
+        if (variables != vars) {
+            build(variables);
+        }
+        tracker.sync();
+        while (nbDirty > 0) {
+            int p = dirty[--nbDirty];
+            isDirty[p] = false;
+            sizes[p] = vars[p].getDomainSize();
+            heap.update(p);
+        }
+        if (heap.isEmpty()) {
+            return null;
         }
-        return small_idx > -1 ? variables[small_idx] : null;
+        int best = heap.peek();
+        return sizes[best] > 1 ? vars[best] : null;
     }
 
     @Override
     public double evaluate(IntVar variable) {
         return variable.getDomainSize();
     }
+
+    /**
+     * Builds the heap of <i>variables</i>, on the first call to {@link #getVariable(IntVar[])}
+     * and each time other variables are given, the previous tracker being detached.
+     * @param variables variables to select from
+     */
+    private void build(IntVar[] variables) {
+        if (tracker != null) {
+            tracker.detach();
+        }
+        int n = variables.length;
+        vars = variables;
+        sizes = new int[n];
+        dirty = new int[n];
+        isDirty = new boolean[n];
+        nbDirty = 0;
+        heap = new IntHeap(n, (p1, p2) -> {
+            int s1 = sizes[p1] > 1 ? sizes[p1] : Integer.MAX_VALUE;
+            int s2 = sizes[p2] > 1 ? sizes[p2] : Integer.MAX_VALUE;
+            return s1 != s2 ? Integer.compare(s1, s2) : Integer.compare(p1, p2);
+        });
+        for (int p = 0; p < n; p++) {
+            sizes[p] = variables[p].getDomainSize();
+            heap.add(p);
+        }
+        tracker = new ModificationTracker(model.getEnvironment(), variables) {
+            @Override
+            void modified(int t) {
+                for (int p = firstPosition(t); p > -1; p = nextPosition(p)) {
+                    if (!isDirty[p]) {
+                        isDirty[p] = true;
+                        dirty[nbDirty++] = p;
+                    }
+                }
+            }
+
+            @Override
+            void rebuild() {
+                for (int p = 0; p < vars.length; p++) {
+                    isDirty[p] = false;
+                    sizes[p] = vars[p].getDomainSize();
+                }
+                nbDirty = 0;
+                heap.rebuild();
+            }
+        };
+    }
 }
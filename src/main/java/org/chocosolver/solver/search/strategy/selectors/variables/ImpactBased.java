@@ -33,16 +33,18 @@ import org.chocosolver.memory.IStateDouble;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
 import org.chocosolver.solver.search.loop.monitors.IMonitorDownBranch;
 import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.util.iterators.DisposableValueIterator;
-import org.chocosolver.util.objects.IntList;
 
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of the search described in:
@@ -52,6 +54,9 @@ import java.util.Random;
  * <p/>
  * Impacts of variables are first computed on initialisation, (only 3 values are tested for bounded variables);
  * Ties are broken randomly.
+ * Impacts of all values are stored in a flat array of primitives.
+ * The initialisation can be shared out among many models built in the very same way,
+ * and run in parallel (see {@link #setRootSampling(Model...)}).
  *
  * @author Charles Prud'homme
  * @since 21/09/12
@@ -59,15 +64,14 @@ import java.util.Random;
 public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDownBranch, IMonitorContradiction, ICause {
 
     private final int aging; // aging parameter
-    private double[][] Ilabel; // impact per labeling
+    private double[] Ilabel; // impact per labeling, flattened
+    private int[] starts; // index of the first impact of each variable in Ilabel
     private int[] offsets; // initial lower bound of each variable
     private int split; // domains are divided into at most 2^s subdomains
     private IStateDouble searchSpaceSize;
 
     private int currentVar = -1, currentVal = -1;
 
-    private IntList bests = new IntList();
-
     private java.util.Random random; //  a random object to break ties
 
     private int nodeImpact;
@@ -76,10 +80,10 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
 
     private boolean asgntFailed; // does the assignment leads to a failure
 
-    private boolean learnsAndFails; // does the learning pahse leads to a failure
-
     private long timeLimit = Integer.MAX_VALUE; // a time limit for init()
 
+    private IntVar[][] samplingVars; // variables of the models the initialisation is shared out among, null if done sequentially
+
     /**
      * Create an Impact-based search strategy with Node Impact strategy.
      * <p/>
@@ -108,6 +112,27 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
         this(vars,2,3,10,0,initOnly);
     }
 
+    /**
+     * Shares out the computation of impacts on initialisation among the model of this strategy and <i>models</i>,
+     * each of them running in its own thread.
+     * Impacts are the same as the ones computed sequentially.
+     * <p>
+     * <i>models</i> are expected to be built in the very same way as the model of this strategy,
+     * since variables are matched by their {@link IntVar#getId()}.
+     * They are only used on initialisation.
+     * This has to be done before the resolution starts.
+     *
+     * @param models copies of the model of this strategy
+     * @throws SolverException if a variable cannot be found in a model
+     */
+    public void setRootSampling(Model... models) {
+        this.samplingVars = new IntVar[models.length + 1][];
+        this.samplingVars[0] = vars;
+        for (int k = 0; k < models.length; k++) {
+            samplingVars[k + 1] = ActivityBased.matchVars(vars, models[k]);
+        }
+    }
+
     @Override
     public Decision<IntVar> computeDecision(IntVar variable) {
         if (variable == null || variable.isInstantiated()) {
@@ -122,25 +147,21 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
 			}
             assert vars[currentVar] == variable;
         }
-        bests.clear();
-        double bestImpact = 1.0;
         if (variable.hasEnumeratedDomain()) {
-            DisposableValueIterator it = variable.getValueIterator(true);
-            int o = offsets[currentVar];
-            while (it.hasNext()) {
-                int val = it.next();
-                double impact = Ilabel[currentVar][val - o];
+            double bestImpact = 1.0;
+            int ties = 0;
+            int s = starts[currentVar] - offsets[currentVar];
+            int ub = variable.getUB();
+            for (int val = variable.getLB(); val <= ub; val = variable.nextValue(val)) {
+                double impact = Ilabel[s + val];
                 if (impact < bestImpact) {
-                    bests.clear();
-                    bests.add(val);
+                    currentVal = val;
                     bestImpact = impact;
-                } else if (impact == bestImpact) {
-                    bests.add(val);
+                    ties = 1;
+                } else if (impact == bestImpact && random.nextInt(++ties) == 0) {
+                    currentVal = val;
                 }
             }
-            it.dispose();
-
-            currentVal = bests.get(random.nextInt(bests.size()));
         } else {
             int lb = variable.getLB();
             int ub = variable.getUB();
@@ -151,28 +172,28 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
 
     @Override
     public Decision<IntVar> getDecision() {
-        IntVar best = null;
         // 1. first select the variable with the largest impact
-        bests.clear();
+        int best = -1;
+        int ties = 0;
         double bestImpact = -Double.MAX_VALUE;
         for (int i = 0; i < vars.length; i++) {
             if (!vars[i].isInstantiated()) {
                 double imp = computeImpact(i);
                 if (imp > bestImpact) {
-                    bests.clear();
-                    bests.add(i);
+                    best = i;
                     bestImpact = imp;
-                } else if (imp == bestImpact) {
-                    bests.add(i);
+                    ties = 1;
+                } else if (imp == bestImpact && random.nextInt(++ties) == 0) {
+                    best = i;
                 }
             }
         }
-        if (bests.size() > 0) {
+        if (best > -1) {
             // 2. select the variable
-            currentVar = bests.get(random.nextInt(bests.size()));
-            best = vars[currentVar];
+            currentVar = best;
+            return computeDecision(vars[best]);
         }
-        return computeDecision(best);
+        return null;
     }
 
     public void setTimeLimit(long timeLimit) {
@@ -185,85 +206,135 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
     public boolean init(){
         long tl = System.currentTimeMillis() + this.timeLimit;
         // 0. Data structure construction
-        Ilabel = new double[vars.length][];
+        starts = new int[vars.length + 1];
         offsets = new int[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            IntVar v = vars[i];
+            offsets[i] = v.getLB();
+            starts[i + 1] = starts[i] + (v.hasEnumeratedDomain() ? v.getUB() - offsets[i] + 1 : 1);
+        }
+        Ilabel = new double[starts[vars.length]];
         // 1. Estimation of assignment and variable impacts
-        double before = searchSpaceSize();
+        double before = searchSpaceSize(vars);
         searchSpaceSize.set(before);
-        learnsAndFails = false;
+        boolean learnsAndFails;
+        if (samplingVars == null) {
+            learnsAndFails = initImpacts(vars, 0, 1, before, tl);
+        } else {
+            learnsAndFails = initImpactsInParallel(before, tl);
+        }
+        if (learnsAndFails) {
+            // If the initialisation detects a failure, then the problem has no solution!
+//            solver.getEngine().fails(this, lAfVar, "Impact::init:: detect failures");
+            return false;
+        } else if (System.currentTimeMillis() > tl) {
+            if(model.getSettings().warnUser()) model.getSolver().getErr().printf("impact Search stops its init phase -- reach time limit!");
+        }
+        return true;
+    }
+
+    /**
+     * Computes the impacts of the variables of indices <i>from</i>, <i>from</i> + <i>step</i>, ...
+     * Variables are given in the model where impacts are computed, which must be at its root node.
+     *
+     * @param ivars  the variables, in the model where impacts are computed
+     * @param from   index of the first variable
+     * @param step   step between two variables
+     * @param before search space size at root node
+     * @param tl     time limit
+     * @return <tt>true</tt> if a failure is detected, that is, the problem has no solution
+     */
+    private boolean initImpacts(IntVar[] ivars, int from, int step, double before, long tl) {
+        boolean learnsAndFails = false;
         loop:
-        for (int i = 0; i < vars.length; i++) {
-            IntVar v = vars[i];
-            int offset = v.getLB();
-            int UB = v.getUB();
-            int dsz = UB - offset + 1;//v.getDomainSize();
+        for (int i = from; i < ivars.length; i += step) {
+            IntVar v = ivars[i];
+            int s = starts[i] - offsets[i];
+            int dsz = starts[i + 1] - starts[i];
             if (!v.isInstantiated()) { // if the variable is not instantiated
-                Ilabel[i] = new double[v.hasEnumeratedDomain() ? dsz : 1];
-                offsets[i] = offset;
-
                 if (v.hasEnumeratedDomain()) {
+                    int ub = v.getUB();
                     if (v.getDomainSize() < split) { // try each value
-                        DisposableValueIterator it = v.getValueIterator(true);
-                        while (it.hasNext()) {
+                        for (int a = v.getLB(); a <= ub; a = v.nextValue(a)) {
                             if (System.currentTimeMillis() > tl) {
                                 break loop;
                             }
-                            int a = it.next();
-                            double im = computeImpact(v, a, before);
-                            Ilabel[i][a - offset] = im;
+                            double im = computeImpact(ivars, v, a, before);
+                            learnsAndFails |= im > 1.0d;
+                            Ilabel[s + a] = Math.min(im, 1.0d);
                         }
-                        it.dispose();
                     } else { // estimate per subdomains
-                        int step = 0;
+                        int stp = 0;
                         int size = dsz / split;
-                        DisposableValueIterator it = v.getValueIterator(true);
-                        while (it.hasNext()) {
+                        double im = 0.0d;
+                        for (int a = v.getLB(); a <= ub; a = v.nextValue(a)) {
                             if (System.currentTimeMillis() > tl) {
                                 break loop;
                             }
-                            int a = it.next();
-                            double im;
-                            if (step % size == 0) {
-                                im = computeImpact(v, a, before);
-                            } else {
-                                im = Ilabel[i][a - 1 - offset];
+                            if (stp % size == 0) {
+                                im = computeImpact(ivars, v, a, before);
+                                learnsAndFails |= im > 1.0d;
+                                im = Math.min(im, 1.0d);
                             }
-                            Ilabel[i][a - offset] = im;
-                            step++;
+                            Ilabel[s + a] = im;
+                            stp++;
                         }
-                        it.dispose();
                     }
                 } else {
                     if (System.currentTimeMillis() > tl) {
                         break;
                     }
                     // A. choose 3 values in the domain to have an estimation of the impact
-                    double i1 = computeImpact(v, v.getLB(), before);
-                    double i2 = computeImpact(v, v.getUB(), before);
-                    double i3 = computeImpact(v, (v.getLB() + v.getUB()) / 2, before);
-                    Ilabel[i][0] = (i1 + i2 + i3) / 3d;
+                    double i1 = computeImpact(ivars, v, v.getLB(), before);
+                    double i2 = computeImpact(ivars, v, v.getUB(), before);
+                    double i3 = computeImpact(ivars, v, (v.getLB() + v.getUB()) / 2, before);
+                    learnsAndFails |= i1 > 1.0d || i2 > 1.0d || i3 > 1.0d;
+                    Ilabel[starts[i]] = (Math.min(i1, 1.0d) + Math.min(i2, 1.0d) + Math.min(i3, 1.0d)) / 3d;
                 }
             }
         }
-        if (learnsAndFails) {
-            // If the initialisation detects a failure, then the problem has no solution!
-            learnsAndFails = false;
-//            solver.getEngine().fails(this, lAfVar, "Impact::init:: detect failures");
-            return false;
-        } else if (System.currentTimeMillis() > tl) {
-            if(model.getSettings().warnUser()) model.getSolver().getErr().printf("impact Search stops its init phase -- reach time limit!");
-            for (int i = 0; i < vars.length; i++) {  // create arrays to avoid null pointer errors
-                IntVar v = vars[i];
-                int offset = v.getLB();
-                int UB = v.getUB();
-                int dsz = UB - offset + 1;//v.getDomainSize();
-                if (!v.isInstantiated() && Ilabel[i] == null) {
-                    Ilabel[i] = new double[v.hasEnumeratedDomain() ? dsz : 1];
-                    offsets[i] = offset;
+        return learnsAndFails;
+    }
+
+    /**
+     * Shares out the computation of impacts among the models declared in {@link #setRootSampling(Model...)}.
+     * Each model computes the impacts of its own variables, which are stored in distinct cells of {@link #Ilabel}.
+     *
+     * @param before search space size at root node
+     * @param tl     time limit
+     * @return <tt>true</tt> if a failure is detected, that is, the problem has no solution
+     */
+    private boolean initImpactsInParallel(double before, long tl) {
+        int k = samplingVars.length;
+        boolean[] fails = new boolean[k];
+        ForkJoinPool forkJoinPool = new ForkJoinPool(k);
+        try {
+            forkJoinPool.submit(() -> IntStream.range(0, k).parallel().forEach(w -> {
+                IntVar[] ivars = samplingVars[w];
+                Model m = ivars[0].getModel();
+                m.getEnvironment().worldPush();
+                try {
+                    m.getSolver().propagate();
+                    fails[w] = initImpacts(ivars, w, k, before, tl);
+                } catch (ContradictionException e) {
+                    m.getSolver().getEngine().flush();
+                    fails[w] = true;
                 }
+                m.getEnvironment().worldPop();
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new SolverException("ImpactBased: the initialisation failed: " + e.getCause());
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+        for (boolean f : fails) {
+            if (f) {
+                return true;
             }
         }
-        return true;
+        return false;
     }
 
 
@@ -285,7 +356,7 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
                 if (asgntFailed) {
                     updateImpact(1.0d, currentVar, currentVal);
                 } else {
-                    double sssz = searchSpaceSize();
+                    double sssz = searchSpaceSize(vars);
                     updateImpact(sssz / searchSpaceSize.get(), currentVar, currentVal);
                     searchSpaceSize.set(sssz);
                 }
@@ -305,51 +376,52 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
     private double computeImpact(int idx) {
         IntVar var = vars[idx];
         if (var.hasEnumeratedDomain()) {
-            int of = offsets[idx];
-            DisposableValueIterator it = var.getValueIterator(true);
+            int s = starts[idx] - offsets[idx];
+            int ub = var.getUB();
             double impact = 0.0;
-            while (it.hasNext()) {
-                int val = it.next();
-                impact += Ilabel[idx][val - of];
+            for (int val = var.getLB(); val <= ub; val = var.nextValue(val)) {
+                impact += Ilabel[s + val];
             }
-            it.dispose();
             return impact - var.getDomainSize();
         } else {
-            return Ilabel[idx][0] - var.getDomainSize();
+            return Ilabel[starts[idx]] - var.getDomainSize();
         }
     }
 
     /**
-     * Compute the impact of an <b>assignment</b>
+     * Compute the impact of an <b>assignment</b>.
+     * When both the assignment and its refutation fail, the problem has no solution and 2 is returned.
      *
+     * @param ivars  all the variables, in the model of <i>v</i>
      * @param v      the variable
      * @param a      the value
      * @param before search space size before the assignment
-     * @return the impact I(v = a)
+     * @return the impact I(v = a), or 2 if a failure is detected
      */
-    private double computeImpact(IntVar v, int a, double before) {
-        model.getEnvironment().worldPush();
+    private double computeImpact(IntVar[] ivars, IntVar v, int a, double before) {
+        Model m = v.getModel();
+        m.getEnvironment().worldPush();
         double after;
         try {
             v.instantiateTo(a, this);
-            model.getSolver().getEngine().propagate();
-            after = searchSpaceSize();
+            m.getSolver().getEngine().propagate();
+            after = searchSpaceSize(ivars);
             return 1.0d - (after / before);
         } catch (ContradictionException e) {
-            model.getSolver().getEngine().flush();
-            model.getEnvironment().worldPop();
-            model.getEnvironment().worldPush();
+            m.getSolver().getEngine().flush();
+            m.getEnvironment().worldPop();
+            m.getEnvironment().worldPush();
             // if the value leads to fail, then the value can be removed from the domain
             try {
                 v.removeValue(a, this);
-                model.getSolver().getEngine().propagate();
+                m.getSolver().getEngine().propagate();
             } catch (ContradictionException ex) {
-                learnsAndFails = true;
-                model.getSolver().getEngine().flush();
+                m.getSolver().getEngine().flush();
+                return 2.0d;
             }
             return 1.0d;
         }finally {
-            model.getEnvironment().worldPop();
+            m.getEnvironment().worldPop();
         }
     }
 
@@ -361,22 +433,23 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
      * @param valIdx  index of the value
      */
     private void updateImpact(double nImpact, int varIdx, int valIdx) {
-        valIdx = Ilabel[varIdx].length > 1 ? valIdx - offsets[varIdx] : 0;
-        double impact = Ilabel[varIdx][valIdx] * (aging - 1);
+        valIdx = starts[varIdx + 1] - starts[varIdx] > 1 ? starts[varIdx] + valIdx - offsets[varIdx] : starts[varIdx];
+        double impact = Ilabel[valIdx] * (aging - 1);
         impact += nImpact;
         impact /= aging;
-        Ilabel[varIdx][valIdx] = impact;
+        Ilabel[valIdx] = impact;
     }
 
     /**
      * Compute the search space size
      *
+     * @param ivars variables of a model
      * @return search space size
      */
-    private double searchSpaceSize() {
+    private static double searchSpaceSize(IntVar[] ivars) {
         double size = 1;
-        for (int i = 0; i < vars.length; i++) {
-            size *= vars[i].getDomainSize();
+        for (int i = 0; i < ivars.length; i++) {
+            size *= ivars[i].getDomainSize();
             assert size > 0 : "Search space is not correct!";
         }
         if (size == Double.POSITIVE_INFINITY) {
@@ -388,50 +461,38 @@ public class ImpactBased extends AbstractStrategy<IntVar> implements IMonitorDow
     private void reevaluateImpact() {
         if (nodeImpact > 0 && model.getSolver().getNodeCount() % nodeImpact == 0) {
             double before = searchSpaceSize.get();
-            learnsAndFails = false;
             for (int i = 0; i < vars.length; i++) {
                 IntVar v = vars[i];
                 int dsz = v.getDomainSize();
                 if (!v.isInstantiated()) { // if the variable is not instantiated
-                    int offset = v.getLB();
                     if (v.hasEnumeratedDomain()) {
+                        int ub = v.getUB();
                         if (v.getDomainSize() < split) { // try each value
-                            DisposableValueIterator it = v.getValueIterator(true);
-                            while (it.hasNext()) {
-                                int a = it.next();
-                                double im = computeImpact(v, a, before);
-                                updateImpact(im, i, a);
+                            for (int a = v.getLB(); a <= ub; a = v.nextValue(a)) {
+                                double im = computeImpact(vars, v, a, before);
+                                updateImpact(Math.min(im, 1.0d), i, a);
                             }
-                            it.dispose();
                         } else { // estimate per subdomains
                             int step = 0;
                             int size = dsz / split;
-                            DisposableValueIterator it = v.getValueIterator(true);
-                            while (it.hasNext()) {
-                                int a = it.next();
-                                double im;
+                            double im = 0.0d;
+                            for (int a = v.getLB(); a <= ub; a = v.nextValue(a)) {
                                 if (step % size == 0) {
-                                    im = computeImpact(v, a, before);
-                                } else {
-                                    im = Ilabel[i][a - 1 - offset];
+                                    im = Math.min(computeImpact(vars, v, a, before), 1.0d);
                                 }
                                 updateImpact(im, i, a);
                                 step++;
                             }
-                            it.dispose();
                         }
                     } else {
                         // A. choose 3 values in the domain to have an estimation of the impact
-                        double i1 = computeImpact(v, v.getLB(), before);
-                        double i2 = computeImpact(v, v.getUB(), before);
-                        double i3 = computeImpact(v, (v.getLB() + v.getUB()) / 2, before);
+                        double i1 = Math.min(computeImpact(vars, v, v.getLB(), before), 1.0d);
+                        double i2 = Math.min(computeImpact(vars, v, v.getUB(), before), 1.0d);
+                        double i3 = Math.min(computeImpact(vars, v, (v.getLB() + v.getUB()) / 2, before), 1.0d);
                         updateImpact((i1 + i2 + i3) / 3d, i, 0);
                     }
                 }
             }
-            if (learnsAndFails) {
-                learnsAndFails = false;
-            }
         }
     }
 }
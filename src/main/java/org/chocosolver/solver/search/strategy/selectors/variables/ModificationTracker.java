@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.strategy.selectors.variables;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.variables.IVariableMonitor;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IEventType;
+import org.chocosolver.util.objects.IntMap;
+
+/**
+ * Observes the modifications of variables, for selectors which maintain scores of variables incrementally.
+ * <p>
+ * Variable monitors are not notified when domains are restored on backtrack.
+ * So, each variable modified in a world is recorded once in a stack whose size is backtrackable:
+ * on the next call to {@link #sync()}, the variables recorded above the restored size are modified again.
+ * When the environment is restored before the world where the scores were computed,
+ * {@link #rebuild()} is called instead.
+ * <p>
+ * The first variables tracked are the decision variables, referred to by their position,
+ * the same variable may appear at many positions.
+ * Other variables can be tracked later on, see {@link #track(Variable)}.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 17/10/2016
+ */
+abstract class ModificationTracker implements IVariableMonitor<Variable> {
+
+    private final IEnvironment environment;
+    private final IntMap id2t; // variable ID to tracked index
+    private Variable[] tracked;
+    private int nbTracked;
+    private final int[] t2p; // first position of a tracked variable, -1 if not a decision variable
+    private final int[] nextP; // next position of the same decision variable, -1 if none
+    private int[] lastIdx; // index of the last record of each tracked variable in stack
+    private int[] lastWorld; // world of the last record of each tracked variable
+    private int[] stack; // tracked variables modified, in order
+    private final IStateInt top; // size of stack in the current world
+    private int processed; // size of stack the last time it was synchronized
+    private int world; // world of the last call to rebuild()
+
+    /**
+     * Tracks the decision variables <i>vars</i>.
+     *
+     * @param environment the environment of the model
+     * @param vars        decision variables
+     */
+    ModificationTracker(IEnvironment environment, Variable[] vars) {
+        this.environment = environment;
+        this.id2t = new IntMap(vars.length * 3 / 2 + 1, -1);
+        this.tracked = new Variable[vars.length];
+        this.t2p = new int[vars.length];
+        this.nextP = new int[vars.length];
+        this.lastIdx = new int[vars.length];
+        this.lastWorld = new int[vars.length];
+        this.stack = new int[16];
+        this.top = environment.makeInt(0);
+        for (int i = 0; i < vars.length; i++) {
+            int t = track(vars[i]);
+            if (t2p[t] == -1) {
+                t2p[t] = i;
+                nextP[i] = -1;
+            } else {
+                nextP[i] = nextP[t2p[t]];
+                nextP[t2p[t]] = i;
+            }
+        }
+        this.world = environment.getWorldIndex();
+    }
+
+    /**
+     * Tracks a variable, if not already tracked.
+     *
+     * @param var a variable
+     * @return the index of <i>var</i> among tracked variables
+     */
+    final int track(Variable var) {
+        int t = id2t.get(var.getId());
+        if (t == -1) {
+            t = nbTracked++;
+            if (t == tracked.length) {
+                int nsize = tracked.length * 3 / 2 + 1;
+                Variable[] tmp = tracked;
+                tracked = new Variable[nsize];
+                System.arraycopy(tmp, 0, tracked, 0, t);
+                int[] itmp = lastIdx;
+                lastIdx = new int[nsize];
+                System.arraycopy(itmp, 0, lastIdx, 0, t);
+                itmp = lastWorld;
+                lastWorld = new int[nsize];
+                System.arraycopy(itmp, 0, lastWorld, 0, t);
+            }
+            if (t < t2p.length) {
+                t2p[t] = -1;
+            }
+            tracked[t] = var;
+            lastIdx[t] = -1;
+            id2t.put(var.getId(), t);
+            var.addMonitor(this);
+        }
+        return t;
+    }
+
+    /**
+     * @return the number of tracked variables
+     */
+    final int nbTracked() {
+        return nbTracked;
+    }
+
+    /**
+     * @param t index of a tracked variable
+     * @return the tracked variable
+     */
+    final Variable get(int t) {
+        return tracked[t];
+    }
+
+    /**
+     * @param var a variable
+     * @return the index of <i>var</i> among tracked variables, -1 if not tracked
+     */
+    final int indexOf(Variable var) {
+        return id2t.get(var.getId());
+    }
+
+    /**
+     * @param t index of a tracked variable
+     * @return the first position of the variable among decision variables, -1 if it is not a decision variable
+     */
+    final int firstPosition(int t) {
+        return t < t2p.length ? t2p[t] : -1;
+    }
+
+    /**
+     * @param p a position of a decision variable
+     * @return the next position of the same variable among decision variables, -1 if none
+     */
+    final int nextPosition(int p) {
+        return nextP[p];
+    }
+
+    /**
+     * Stops tracking all the variables, the tracker must not be used anymore.
+     */
+    final void detach() {
+        for (int t = 0; t < nbTracked; t++) {
+            tracked[t].removeMonitor(this);
+        }
+    }
+
+    /**
+     * Modifies again the variables whose modifications have been undone since the last call.
+     * To be called before reading the scores.
+     */
+    final void sync() {
+        if (environment.getWorldIndex() < world) {
+            processed = top.get();
+            rebuild();
+            world = environment.getWorldIndex();
+        } else {
+            int tp = top.get();
+            while (processed > tp) {
+                modified(stack[--processed]);
+            }
+        }
+    }
+
+    @Override
+    public final void onUpdate(Variable var, IEventType evt) {
+        sync();
+        int t = id2t.get(var.getId());
+        int w = environment.getWorldIndex();
+        int i = lastIdx[t];
+        if (lastWorld[t] != w || i >= processed || i < 0 || stack[i] != t) {
+            if (processed == stack.length) {
+                int[] tmp = stack;
+                stack = new int[tmp.length * 3 / 2 + 1];
+                System.arraycopy(tmp, 0, stack, 0, processed);
+            }
+            lastIdx[t] = processed;
+            lastWorld[t] = w;
+            stack[processed++] = t;
+            top.set(processed);
+        }
+        modified(t);
+    }
+
+    /**
+     * Called when a tracked variable is modified, or when its modifications are undone.
+     *
+     * @param t index of the tracked variable
+     */
+    abstract void modified(int t);
+
+    /**
+     * Called when the scores have to be computed from scratch.
+     */
+    abstract void rebuild();
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A destination for the metrics periodically collected by a {@link MetricsExporter}.
+ * <p>
+ * Implementations are only called by the exporting thread, never by the search thread,
+ * so they can block on I/O without slowing the search down.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ * @see JsonLinesMetricsSink
+ * @see PrometheusMetricsSink
+ */
+public interface IMetricsSink extends Closeable {
+
+    /**
+     * Write a snapshot of the measures
+     * @param snapshot the measures to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(MetricsSnapshot snapshot) throws IOException;
+
+    /**
+     * Release the resources of this sink, called once the last snapshot is written
+     * @throws IOException if the resources cannot be released
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
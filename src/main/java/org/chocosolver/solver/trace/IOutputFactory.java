@@ -31,6 +31,7 @@ package org.chocosolver.solver.trace;
 
 import org.chocosolver.solver.ISelf;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.propagation.PropagationProfiler;
 import org.chocosolver.solver.search.loop.monitors.*;
 import org.chocosolver.solver.variables.Variable;
 import org.chocosolver.util.tools.StringUtils;
@@ -182,6 +183,39 @@ public interface IOutputFactory extends ISelf<Solver> {
         });
     }
 
+    /**
+     * Output the statistics collected on the <i>top</i> most time-consuming propagators,
+     * if a profiler has been plugged, see {@link Solver#setPropagationProfiler(PropagationProfiler)}.
+     *
+     * @param top maximum number of propagators to output
+     */
+    default void printPropagationProfile(int top) {
+        PropagationProfiler profiler = _me().getPropagationProfiler();
+        if (profiler != null) {
+            profiler.print(getOut(), top);
+        }
+    }
+
+    /**
+     * Plug a propagation profiler, if none is, and a search monitor which calls {@link #printPropagationProfile(int)}
+     * after closing the search.
+     * <p>
+     * Recommended usage: to be called before the resolution step.
+     *
+     * @param top maximum number of propagators to output
+     */
+    default void showPropagationProfile(int top) {
+        if (_me().getPropagationProfiler() == null) {
+            _me().setPropagationProfiler(new PropagationProfiler());
+        }
+        _me().plugMonitor(new IMonitorClose() {
+            @Override
+            public void afterClose() {
+                printPropagationProfile(top);
+            }
+        });
+    }
+
     /**
      * Plug a search monitor which outputs {@code message} on each solution.
      * <p>
@@ -251,6 +285,22 @@ public interface IOutputFactory extends ISelf<Solver> {
         }
     }
 
+    /**
+     * Plug a search monitor which writes a snapshot of the measures into <i>sink</i> every <i>period</i> milliseconds,
+     * from a background thread. The returned monitor has to be closed to write the last snapshot and to close the sink.
+     * <p>
+     * Recommended usage: to be called before the resolution step.
+     *
+     * @param period delay between two snapshots, in milliseconds
+     * @param sink   where snapshots are written, see {@link JsonLinesMetricsSink} and {@link PrometheusMetricsSink}
+     * @return the monitor plugged
+     */
+    default MetricsExporter exportMetrics(long period, IMetricsSink sink) {
+        MetricsExporter exporter = new MetricsExporter(_me(), period, sink);
+        _me().plugMonitor(exporter);
+        return exporter;
+    }
+
 
     //////////////
 
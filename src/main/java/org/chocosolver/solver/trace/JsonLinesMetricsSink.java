@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link IMetricsSink} which appends one JSON object per snapshot, one per line, to an output stream
+ * (a file, a local socket, ...). For instance:
+ * <pre>
+ * {"timestamp":1476700000000,"model":"Costas","state":"RUNNING","time":1.002,"solutions":12,"nodes":53412,
+ *  "nodesPerSecond":53301.2,"fails":26700,"failsPerSecond":26644.8,"backtracks":53398,"restarts":0,"depth":7,
+ *  "maxDepth":14,"propagations":-1,"optimal":false}
+ * </pre>
+ * (on a single line). Bounds of the objective, <i>"lowerBound"</i> and <i>"upperBound"</i>,
+ * are added on optimization problems.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class JsonLinesMetricsSink implements IMetricsSink {
+
+    /**
+     * Where lines are written
+     */
+    private final Writer out;
+
+    /**
+     * Create a sink which writes JSON lines into <i>out</i>
+     * @param out output stream, closed when this is closed
+     */
+    public JsonLinesMetricsSink(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(MetricsSnapshot s) throws IOException {
+        StringBuilder st = new StringBuilder(256);
+        st.append("{\"timestamp\":").append(s.getTimestamp());
+        st.append(",\"model\":\"");
+        escape(s.getModelName(), st);
+        st.append("\",\"state\":\"").append(s.getSearchState()).append('"');
+        st.append(",\"time\":").append(s.getTimeCount());
+        st.append(",\"solutions\":").append(s.getSolutionCount());
+        st.append(",\"nodes\":").append(s.getNodeCount());
+        st.append(",\"nodesPerSecond\":").append(number(s.getNodeRate()));
+        st.append(",\"fails\":").append(s.getFailCount());
+        st.append(",\"failsPerSecond\":").append(number(s.getFailRate()));
+        st.append(",\"backtracks\":").append(s.getBackTrackCount());
+        st.append(",\"restarts\":").append(s.getRestartCount());
+        st.append(",\"depth\":").append(s.getCurrentDepth());
+        st.append(",\"maxDepth\":").append(s.getMaxDepth());
+        st.append(",\"propagations\":").append(s.getPropagationCount());
+        if (s.hasObjective()) {
+            st.append(",\"lowerBound\":").append(number(s.getBestLB()));
+            st.append(",\"upperBound\":").append(number(s.getBestUB()));
+        }
+        st.append(",\"optimal\":").append(s.isObjectiveOptimal());
+        st.append("}\n");
+        out.write(st.toString());
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * JSON has no representation for infinite values
+     */
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value);
+    }
+
+    private static void escape(String value, StringBuilder st) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                st.append('\\').append(c);
+            } else if (c < 0x20) {
+                st.append(String.format("\\u%04x", (int) c));
+            } else {
+                st.append(c);
+            }
+        }
+    }
+}
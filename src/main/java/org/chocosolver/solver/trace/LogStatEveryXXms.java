@@ -32,15 +32,19 @@ package org.chocosolver.solver.trace;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.search.loop.monitors.IMonitorClose;
 import org.chocosolver.solver.search.loop.monitors.IMonitorInitialize;
+import org.chocosolver.solver.search.loop.monitors.IMonitorOpenNode;
+import org.chocosolver.solver.search.measure.IMeasures;
 
 /**
  * A search monitor logger which prints statistics every XX ms.
+ * When the trails are measured (see {@link Solver#setTrailMeasured(boolean)}), their measures are read by the search
+ * thread on the opening of a node, and printed on the next output.
  * <br/>
  *
  * @author Charles Prud'homme
  * @since 18 aug. 2010
  */
-public class LogStatEveryXXms implements IMonitorInitialize, IMonitorClose {
+public class LogStatEveryXXms implements IMonitorInitialize, IMonitorOpenNode, IMonitorClose {
 
     /**
      * A thread which prints short line statistics to {@link Solver#getOut()}.
@@ -52,13 +56,29 @@ public class LogStatEveryXXms implements IMonitorInitialize, IMonitorClose {
      */
     private volatile boolean alive;
 
+    /**
+     * Set by the printer to ask the search thread for a snapshot of the trail measures.
+     */
+    private volatile boolean snapshot;
+
+    /**
+     * Last snapshot of the trail measures, taken by the search thread when the trails are measured:
+     * entries, bytes, peak bytes and resizes.
+     */
+    private volatile long[] trail;
+
+    /**
+     * The solver to instrument
+     */
+    private final Solver solver;
+
     /**
      * Create a monitor which outputs shot-line statistics every <i>duration</i> milliseconds
      * @param solver the solver to instrument
      * @param duration delay between two outputs, in milliseconds
      */
     public LogStatEveryXXms(final Solver solver, final long duration) {
-
+        this.solver = solver;
         printer = new Thread() {
 
             @Override
@@ -68,7 +88,14 @@ public class LogStatEveryXXms implements IMonitorInitialize, IMonitorClose {
                     sleep(duration);
                     //noinspection InfiniteLoopStatement
                     do {
-                        solver.getOut().println(String.format(">> %s", solver.toOneLineString()));
+                        long[] t = trail;
+                        if (t == null) {
+                            solver.getOut().println(String.format(">> %s", solver.toOneLineString()));
+                        } else {
+                            solver.getOut().println(String.format(">> %s, Trail %,d entries (%,d KB), peak %,d KB, %,d resizes",
+                                    solver.toOneLineString(), t[0], t[1] / 1024, t[2] / 1024, t[3]));
+                        }
+                        snapshot = true;
                         sleep(duration);
                     } while (alive);
                 } catch (InterruptedException ignored) {
@@ -80,9 +107,22 @@ public class LogStatEveryXXms implements IMonitorInitialize, IMonitorClose {
 
     @Override
     public void afterInitialize() {
+        snapshot = true;
         printer.start();
     }
 
+    @Override
+    public void beforeOpenNode() {
+        // the trails are modified by the search thread, which is thus the only one to read them
+        if (snapshot) {
+            snapshot = false;
+            IMeasures m = solver.getMeasures();
+            if (m.isTrailMeasured()) {
+                trail = new long[]{m.getTrailSize(), m.getTrailBytes(), m.getPeakTrailBytes(), m.getTrailResizeCount()};
+            }
+        }
+    }
+
     @Override
     public void afterClose() {
         alive = false;
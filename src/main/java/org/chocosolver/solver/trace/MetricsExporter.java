@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.trace;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.propagation.PropagationProfiler;
+import org.chocosolver.solver.search.loop.monitors.IMonitorInitialize;
+import org.chocosolver.solver.search.measure.IMeasures;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A search monitor which periodically writes a snapshot of the measures of a solver into a {@link IMetricsSink}.
+ * <p>
+ * Snapshots are taken and written by a background thread: the search thread is never locked nor slowed down
+ * by I/O, the measures are read while they are updated, at the price of slight inconsistencies between counters.
+ * The number of propagator executions is only available when a {@link PropagationProfiler} is plugged,
+ * see {@link Solver#setPropagationProfiler(PropagationProfiler)}.
+ * <p>
+ * The thread starts with the resolution and a last snapshot is written when this is closed:
+ * <pre> {@code
+ * Solver solver = model.getSolver();
+ * try (MetricsExporter exporter = solver.exportMetrics(1000, new JsonLinesMetricsSink(new FileOutputStream("metrics.jsonl")))) {
+ *      while (solver.solve()) ;
+ * }
+ * }</pre>
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class MetricsExporter implements IMonitorInitialize, Closeable {
+
+    /**
+     * The solver observed
+     */
+    private final Solver solver;
+
+    /**
+     * Where snapshots are written
+     */
+    private final IMetricsSink sink;
+
+    /**
+     * A thread which writes snapshots
+     */
+    private final Thread exporter;
+
+    /**
+     * A boolean to kill the exporter when this is closed.
+     */
+    private volatile boolean alive = true;
+
+    /**
+     * Measures of the previous snapshot, to compute rates
+     */
+    private long lastTime, lastNodes, lastFails;
+
+    /**
+     * Create a monitor which writes a snapshot of the measures of <i>solver</i> every <i>period</i> milliseconds.
+     * It has to be plugged into <i>solver</i> before the resolution starts.
+     *
+     * @param solver the solver to instrument
+     * @param period delay between two snapshots, in milliseconds
+     * @param sink   where snapshots are written, closed when this is closed
+     */
+    public MetricsExporter(final Solver solver, final long period, final IMetricsSink sink) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("The period should be positive");
+        }
+        this.solver = solver;
+        this.sink = sink;
+        this.exporter = new Thread(() -> {
+            try {
+                Thread.sleep(period);
+                while (alive) {
+                    sink.write(snapshot());
+                    Thread.sleep(period);
+                }
+            } catch (InterruptedException ignored) {
+            } catch (IOException e) {
+                System.err.println("Unable to export metrics. No more metrics will be written.");
+            }
+        }, "metrics-exporter-" + solver.getModel().getName());
+        this.exporter.setDaemon(true);
+    }
+
+    @Override
+    public synchronized void afterInitialize() {
+        if (alive && exporter.getState() == Thread.State.NEW) {
+            exporter.start();
+        }
+    }
+
+    /**
+     * Stop the background thread, write a last snapshot and close the sink.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (alive) {
+            alive = false;
+            exporter.interrupt();
+            try {
+                exporter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            solver.unplugMonitor(this);
+            try {
+                sink.write(snapshot());
+            } finally {
+                sink.close();
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the current measures
+     */
+    private MetricsSnapshot snapshot() {
+        IMeasures m = solver.getMeasures();
+        long time = m.getTimeCountInNanoSeconds();
+        long nodes = m.getNodeCount();
+        long fails = m.getFailCount();
+        float dt = (time - lastTime) / IMeasures.IN_SEC;
+        double nodeRate = dt > 0 ? (nodes - lastNodes) / dt : 0;
+        double failRate = dt > 0 ? (fails - lastFails) / dt : 0;
+        lastTime = time;
+        lastNodes = nodes;
+        lastFails = fails;
+        PropagationProfiler profiler = solver.getPropagationProfiler();
+        return new MetricsSnapshot(System.currentTimeMillis(), m,
+                profiler == null ? -1 : profiler.getTotalCalls(), nodeRate, failRate);
+    }
+}
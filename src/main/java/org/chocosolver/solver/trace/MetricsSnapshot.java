@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.trace;
+
+import org.chocosolver.solver.search.SearchState;
+import org.chocosolver.solver.search.measure.IMeasures;
+
+/**
+ * An immutable copy of the measures of a solver, taken at a given time by a {@link MetricsExporter}.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public final class MetricsSnapshot {
+
+    private final long timestamp;
+    private final String modelName;
+    private final SearchState state;
+    private final float timeCount;
+    private final long solutionCount;
+    private final long nodeCount;
+    private final long failCount;
+    private final long backtrackCount;
+    private final long restartCount;
+    private final long currentDepth;
+    private final long maxDepth;
+    private final long propagationCount;
+    private final double nodeRate;
+    private final double failRate;
+    private final boolean objective;
+    private final double bestLB;
+    private final double bestUB;
+    private final boolean optimal;
+
+    /**
+     * Copy the measures.
+     * Note that <i>measures</i> are read while the search goes on, they may be slightly inconsistent with each other.
+     *
+     * @param timestamp        when the snapshot is taken, in milliseconds since epoch
+     * @param measures         the measures to copy
+     * @param propagationCount number of propagator executions, or -1 if unknown
+     * @param nodeRate         number of nodes per second since the previous snapshot
+     * @param failRate         number of failures per second since the previous snapshot
+     */
+    public MetricsSnapshot(long timestamp, IMeasures measures, long propagationCount, double nodeRate, double failRate) {
+        this.timestamp = timestamp;
+        this.modelName = measures.getModelName();
+        this.state = measures.getSearchState();
+        this.timeCount = measures.getTimeCount();
+        this.solutionCount = measures.getSolutionCount();
+        this.nodeCount = measures.getNodeCount();
+        this.failCount = measures.getFailCount();
+        this.backtrackCount = measures.getBackTrackCount();
+        this.restartCount = measures.getRestartCount();
+        this.currentDepth = measures.getCurrentDepth();
+        this.maxDepth = measures.getMaxDepth();
+        this.propagationCount = propagationCount;
+        this.nodeRate = nodeRate;
+        this.failRate = failRate;
+        this.objective = measures.hasObjective();
+        this.bestLB = objective ? measures.getBoundsManager().getBestLB().doubleValue() : Double.NaN;
+        this.bestUB = objective ? measures.getBoundsManager().getBestUB().doubleValue() : Double.NaN;
+        this.optimal = measures.isObjectiveOptimal();
+    }
+
+    /**
+     * @return when this snapshot was taken, in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return name of the model observed
+     */
+    public String getModelName() {
+        return modelName;
+    }
+
+    /**
+     * @return the search state
+     */
+    public SearchState getSearchState() {
+        return state;
+    }
+
+    /**
+     * @return the resolution time, in seconds
+     */
+    public float getTimeCount() {
+        return timeCount;
+    }
+
+    /**
+     * @return the solution count
+     */
+    public long getSolutionCount() {
+        return solutionCount;
+    }
+
+    /**
+     * @return the node count
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the fail count
+     */
+    public long getFailCount() {
+        return failCount;
+    }
+
+    /**
+     * @return the backtrack count
+     */
+    public long getBackTrackCount() {
+        return backtrackCount;
+    }
+
+    /**
+     * @return the restart count
+     */
+    public long getRestartCount() {
+        return restartCount;
+    }
+
+    /**
+     * @return the current depth in the search tree
+     */
+    public long getCurrentDepth() {
+        return currentDepth;
+    }
+
+    /**
+     * @return the maximum depth of the search tree
+     */
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the number of propagator executions, or -1 if no {@link org.chocosolver.solver.propagation.PropagationProfiler}
+     * is plugged
+     */
+    public long getPropagationCount() {
+        return propagationCount;
+    }
+
+    /**
+     * @return the number of nodes per second since the previous snapshot
+     */
+    public double getNodeRate() {
+        return nodeRate;
+    }
+
+    /**
+     * @return the number of failures per second since the previous snapshot
+     */
+    public double getFailRate() {
+        return failRate;
+    }
+
+    /**
+     * @return true iff the problem has an objective variable
+     */
+    public boolean hasObjective() {
+        return objective;
+    }
+
+    /**
+     * @return the best lower bound of the objective, or NaN if there is no objective
+     */
+    public double getBestLB() {
+        return bestLB;
+    }
+
+    /**
+     * @return the best upper bound of the objective, or NaN if there is no objective
+     */
+    public double getBestUB() {
+        return bestUB;
+    }
+
+    /**
+     * @return true iff the optimum has been found and proved
+     */
+    public boolean isObjectiveOptimal() {
+        return optimal;
+    }
+}
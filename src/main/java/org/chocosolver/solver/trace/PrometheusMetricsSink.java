@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A {@link IMetricsSink} which writes the last snapshot into a file, in the Prometheus text exposition format.
+ * The file is replaced on each snapshot, so that it can be read at any time, for instance by
+ * the <i>textfile</i> collector of the Prometheus node exporter.
+ * <p>
+ * Every metric is labelled with the name of the model and, if any, extra labels given on construction,
+ * to tell concurrent resolutions apart.
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PrometheusMetricsSink implements IMetricsSink {
+
+    /**
+     * The file to write
+     */
+    private final Path file;
+
+    /**
+     * Temporary file, moved onto {@link #file} once written
+     */
+    private final Path tmp;
+
+    /**
+     * Extra labels, already formatted
+     */
+    private final String labels;
+
+    /**
+     * Create a sink which writes snapshots into <i>file</i>
+     * @param file   the file to write, replaced on each snapshot
+     * @param labels extra labels, as pairs of name and value, for instance <i>"job", "nightly"</i>
+     */
+    public PrometheusMetricsSink(Path file, String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels should be given as pairs of name and value");
+        }
+        this.file = file;
+        this.tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder st = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            st.append(',').append(labels[i]).append("=\"");
+            escape(labels[i + 1], st);
+            st.append('"');
+        }
+        this.labels = st.toString();
+    }
+
+    @Override
+    public void write(MetricsSnapshot s) throws IOException {
+        StringBuilder l = new StringBuilder("{model=\"");
+        escape(s.getModelName(), l);
+        l.append('"').append(labels).append('}');
+        String ls = l.toString();
+        StringBuilder st = new StringBuilder(2048);
+        metric(st, "choco_resolution_seconds", "gauge", "Resolution time", ls, s.getTimeCount());
+        metric(st, "choco_solutions_total", "counter", "Number of solutions", ls, s.getSolutionCount());
+        metric(st, "choco_nodes_total", "counter", "Number of nodes", ls, s.getNodeCount());
+        metric(st, "choco_nodes_per_second", "gauge", "Nodes per second since the previous snapshot", ls, s.getNodeRate());
+        metric(st, "choco_fails_total", "counter", "Number of failures", ls, s.getFailCount());
+        metric(st, "choco_fails_per_second", "gauge", "Failures per second since the previous snapshot", ls, s.getFailRate());
+        metric(st, "choco_backtracks_total", "counter", "Number of backtracks", ls, s.getBackTrackCount());
+        metric(st, "choco_restarts_total", "counter", "Number of restarts", ls, s.getRestartCount());
+        metric(st, "choco_depth", "gauge", "Current depth in the search tree", ls, s.getCurrentDepth());
+        metric(st, "choco_max_depth", "gauge", "Maximum depth of the search tree", ls, s.getMaxDepth());
+        if (s.getPropagationCount() >= 0) {
+            metric(st, "choco_propagations_total", "counter", "Number of propagator executions", ls, s.getPropagationCount());
+        }
+        if (s.hasObjective()) {
+            metric(st, "choco_objective_lower_bound", "gauge", "Best lower bound of the objective", ls, s.getBestLB());
+            metric(st, "choco_objective_upper_bound", "gauge", "Best upper bound of the objective", ls, s.getBestUB());
+            metric(st, "choco_objective_optimal", "gauge", "1 if the optimum has been proved", ls, s.isObjectiveOptimal() ? 1 : 0);
+        }
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write(st.toString());
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void metric(StringBuilder st, String name, String type, String help, String labels, double value) {
+        st.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        st.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        st.append(name).append(labels).append(' ');
+        if (Double.isNaN(value)) {
+            st.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            st.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            st.append((long) value);
+        } else {
+            st.append(value);
+        }
+        st.append('\n');
+    }
+
+    private static void escape(String value, StringBuilder st) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                st.append('\\').append(c);
+            } else if (c == '\n') {
+                st.append("\\n");
+            } else {
+                st.append(c);
+            }
+        }
+    }
+}
@@ -216,6 +216,7 @@ public abstract class AbstractVariable implements Variable {
         if(pc > 0) { // deal with VOID, when the propagator should not be aware of this variable's modifications
             subscribe(propagator, idxInProp, scheduler.select(pc));
         }
+        model.propagatorLinked();
         return nbPropagators++;
     }
 
@@ -240,6 +241,7 @@ public abstract class AbstractVariable implements Variable {
         if (i < nbPropagators) {
             cancel(i, scheduler.select(propagator.getPropagationConditions(pindices[i])));
             nbPropagators--;
+            model.propagatorLinked();
         }
     }
 
@@ -347,7 +349,14 @@ public abstract class AbstractVariable implements Variable {
 
     @Override
     public void removeMonitor(IVariableMonitor monitor) {
-        throw new UnsupportedOperationException("not yet implemented");
+        for (int i = 0; i < mIdx; i++) {
+            if (monitors[i] == monitor) {
+                // keep the order of the other monitors
+                System.arraycopy(monitors, i + 1, monitors, i, mIdx - i - 1);
+                monitors[--mIdx] = null;
+                return;
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,458 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.util.objects;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of points in <i>k</i> dimensions, indexed to answer dominance queries faster than a linear scan.
+ * The larger a coordinate, the better: a point <i>p</i> weakly dominates a point <i>q</i> when
+ * <i>p<sub>i</sub> &ge; q<sub>i</sub></i> for each dimension <i>i</i>.
+ * <p>
+ * Points are stored in a k-d tree whose nodes record the bounding box of their subtree,
+ * which prunes the subtrees that cannot hold an answer.
+ * New points are first put aside in a small buffer, scanned linearly, and removed points are only marked:
+ * the tree is rebuilt, in O(n.log(n)), once the buffer or the removed points are too many.
+ * <p>
+ * Each point is given an id, in [0, capacity), which is reused once the point is removed.
+ * <p>
+ * <b>Not backtrackable</b>
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 17/10/2016
+ */
+public class DominanceIndex {
+
+    /** Number of dimensions */
+    private final int k;
+    /** Coordinates of the points, <i>k</i> per id */
+    private int[] coords;
+    /** Per id: -2 if free, -1 if pending, 0 if in the tree, 1 if removed from the tree */
+    private byte[] status;
+    /** Ids free to be reused */
+    private int[] free;
+    private int nbFree;
+    /** Next id never used */
+    private int next;
+    /** Number of points in this */
+    private int size;
+    /** Points of the tree, in k-d order */
+    private int[] tree;
+    private int treeSize;
+    /** Number of removed points still in the tree */
+    private int removedInTree;
+    /** Bounding box of the subtree whose root is at position <i>p</i> of {@link #tree}, <i>k</i> per position */
+    private int[] lo, hi;
+    /** Pending points, not in the tree yet */
+    private int[] pending;
+    private int nbPending;
+    /** Temporary list of ids */
+    private int[] tmp;
+
+    /**
+     * Creates an empty index
+     *
+     * @param k number of dimensions
+     */
+    public DominanceIndex(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("At least one dimension is required");
+        }
+        this.k = k;
+        this.coords = new int[16 * k];
+        this.status = new byte[16];
+        this.free = new int[16];
+        this.tree = new int[16];
+        this.lo = new int[16 * k];
+        this.hi = new int[16 * k];
+        this.pending = new int[16];
+        this.tmp = new int[16];
+    }
+
+    /**
+     * @return the number of dimensions
+     */
+    public int getDimension() {
+        return k;
+    }
+
+    /**
+     * @return the number of points in this
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id     id of a point of this
+     * @param dim    a dimension
+     * @return the coordinate of the point <i>id</i> in dimension <i>dim</i>
+     */
+    public int get(int id, int dim) {
+        return coords[id * k + dim];
+    }
+
+    /**
+     * @param id an id
+     * @return <tt>true</tt> if <i>id</i> is the id of a point of this
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < next && (status[id] == 0 || status[id] == -1);
+    }
+
+    /**
+     * Adds a point.
+     *
+     * @param point coordinates of the point, <i>k</i> values (copied)
+     * @return the id of the point
+     */
+    public int add(int[] point) {
+        int id;
+        if (nbFree > 0) {
+            id = free[--nbFree];
+        } else {
+            id = next++;
+            if (id >= status.length) {
+                int ns = status.length * 3 / 2 + 1;
+                status = Arrays.copyOf(status, ns);
+                coords = Arrays.copyOf(coords, ns * k);
+            }
+        }
+        System.arraycopy(point, 0, coords, id * k, k);
+        status[id] = -1;
+        if (nbPending == pending.length) {
+            pending = Arrays.copyOf(pending, nbPending * 3 / 2 + 1);
+        }
+        pending[nbPending++] = id;
+        size++;
+        if (nbPending > 16 + treeSize / 8) {
+            rebuild();
+        }
+        return id;
+    }
+
+    /**
+     * Removes a point, its id can be returned by next calls to {@link #add(int[])}.
+     *
+     * @param id id of a point of this
+     */
+    public void remove(int id) {
+        assert contains(id);
+        size--;
+        if (status[id] == -1) {
+            for (int i = 0; i < nbPending; i++) {
+                if (pending[i] == id) {
+                    pending[i] = pending[--nbPending];
+                    break;
+                }
+            }
+            release(id);
+        } else {
+            status[id] = 1;
+            if (++removedInTree > treeSize / 2) {
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * Removes every point weakly dominated by <i>point</i>.
+     *
+     * @param point    coordinates, <i>k</i> values
+     * @param onRemove called with the id of each point removed, before its removal
+     */
+    public void removeDominatedBy(int[] point, IntConsumer onRemove) {
+        int n = 0;
+        for (int i = 0; i < nbPending; i++) {
+            if (dominates(point, pending[i])) {
+                n = push(n, pending[i]);
+            }
+        }
+        n = dominatedBy(point, 0, treeSize, n);
+        for (int i = 0; i < n; i++) {
+            onRemove.accept(tmp[i]);
+            remove(tmp[i]);
+        }
+    }
+
+    /**
+     * @param point coordinates, <i>k</i> values
+     * @return <tt>true</tt> if at least one point of this weakly dominates <i>point</i>
+     */
+    public boolean isDominated(int[] point) {
+        for (int i = 0; i < nbPending; i++) {
+            if (dominatesExcept(pending[i], point, -1)) {
+                return true;
+            }
+        }
+        return maxDominating(point, -1, 0, treeSize, Long.MIN_VALUE) != Long.MIN_VALUE;
+    }
+
+    /**
+     * Looks for the points which weakly dominate <i>point</i> in every dimension but <i>dim</i>,
+     * and returns the largest coordinate in <i>dim</i> of these points.
+     *
+     * @param point coordinates, <i>k</i> values (the one in dimension <i>dim</i> is ignored)
+     * @param dim   a dimension
+     * @param none  the value to return if there is no such point
+     * @return the largest coordinate in <i>dim</i> of the points which weakly dominate <i>point</i>
+     * in every other dimension, or <i>none</i>
+     */
+    public int maxDominating(int[] point, int dim, int none) {
+        long best = Long.MIN_VALUE;
+        for (int i = 0; i < nbPending; i++) {
+            int id = pending[i];
+            if (dominatesExcept(id, point, dim)) {
+                best = Math.max(best, coords[id * k + dim]);
+            }
+        }
+        best = maxDominating(point, dim, 0, treeSize, best);
+        return best == Long.MIN_VALUE ? none : (int) best;
+    }
+
+    /**
+     * Removes all the points
+     */
+    public void clear() {
+        next = 0;
+        nbFree = 0;
+        size = 0;
+        treeSize = 0;
+        removedInTree = 0;
+        nbPending = 0;
+    }
+
+    /**
+     * Calls <i>action</i> with the id of each point of this
+     *
+     * @param action what to do with each id
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < treeSize; i++) {
+            if (status[tree[i]] == 0) {
+                action.accept(tree[i]);
+            }
+        }
+        for (int i = 0; i < nbPending; i++) {
+            action.accept(pending[i]);
+        }
+    }
+
+    /**
+     * Rebuilds the k-d tree from all the points of this
+     */
+    private void rebuild() {
+        int n = 0;
+        if (tree.length < size) {
+            tree = Arrays.copyOf(tree, size * 3 / 2 + 1);
+        }
+        for (int i = 0; i < treeSize; i++) {
+            int id = tree[i];
+            if (status[id] == 0) {
+                tree[n++] = id;
+            } else {
+                release(id);
+            }
+        }
+        for (int i = 0; i < nbPending; i++) {
+            status[pending[i]] = 0;
+            tree[n++] = pending[i];
+        }
+        assert n == size;
+        nbPending = 0;
+        removedInTree = 0;
+        treeSize = n;
+        if (lo.length < n * k) {
+            lo = new int[tree.length * k];
+            hi = new int[tree.length * k];
+        }
+        build(0, n, 0);
+    }
+
+    private void release(int id) {
+        status[id] = -2;
+        if (nbFree == free.length) {
+            free = Arrays.copyOf(free, nbFree * 3 / 2 + 1);
+        }
+        free[nbFree++] = id;
+    }
+
+    /**
+     * Builds the subtree of the points in [from, to), splitting on dimension <i>dim</i>
+     */
+    private void build(int from, int to, int dim) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, dim);
+        int nd = dim + 1 == k ? 0 : dim + 1;
+        build(from, mid, nd);
+        build(mid + 1, to, nd);
+        // bounding box of the subtree
+        int b = mid * k;
+        System.arraycopy(coords, tree[mid] * k, lo, b, k);
+        System.arraycopy(coords, tree[mid] * k, hi, b, k);
+        if (from < mid) {
+            merge(b, ((from + mid) >>> 1) * k);
+        }
+        if (mid + 1 < to) {
+            merge(b, ((mid + 1 + to) >>> 1) * k);
+        }
+    }
+
+    private void merge(int b, int c) {
+        for (int i = 0; i < k; i++) {
+            lo[b + i] = Math.min(lo[b + i], lo[c + i]);
+            hi[b + i] = Math.max(hi[b + i], hi[c + i]);
+        }
+    }
+
+    /**
+     * Quickselect: puts in position <i>nth</i> of {@link #tree} the point it would have if [l, r] was sorted
+     * on dimension <i>dim</i>
+     */
+    private void select(int l, int r, int nth, int dim) {
+        while (l < r) {
+            int pivot = coords[tree[(l + r) >>> 1] * k + dim];
+            int i = l, j = r;
+            while (i <= j) {
+                while (coords[tree[i] * k + dim] < pivot) i++;
+                while (coords[tree[j] * k + dim] > pivot) j--;
+                if (i <= j) {
+                    int t = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (nth <= j) {
+                r = j;
+            } else if (nth >= i) {
+                l = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects, from position <i>n</i> of {@link #tmp}, the points of the subtree [from, to)
+     * weakly dominated by <i>point</i>
+     */
+    private int dominatedBy(int[] point, int from, int to, int n) {
+        if (from >= to) {
+            return n;
+        }
+        int mid = (from + to) >>> 1;
+        int b = mid * k;
+        for (int i = 0; i < k; i++) {
+            if (lo[b + i] > point[i]) {
+                return n;
+            }
+        }
+        if (status[tree[mid]] == 0 && dominates(point, tree[mid])) {
+            n = push(n, tree[mid]);
+        }
+        n = dominatedBy(point, from, mid, n);
+        return dominatedBy(point, mid + 1, to, n);
+    }
+
+    /**
+     * @return the largest coordinate in <i>dim</i> of the points of the subtree [from, to) which weakly dominate
+     * <i>point</i> in every other dimension, if larger than <i>best</i>, <i>best</i> otherwise.
+     * If <i>dim</i> is -1, returns a value other than <i>Long.MIN_VALUE</i> as soon as a point weakly dominates
+     * <i>point</i>.
+     */
+    private long maxDominating(int[] point, int dim, int from, int to, long best) {
+        if (from >= to) {
+            return best;
+        }
+        int mid = (from + to) >>> 1;
+        int b = mid * k;
+        for (int i = 0; i < k; i++) {
+            if (i != dim && hi[b + i] < point[i]) {
+                return best;
+            }
+        }
+        if (dim >= 0 && hi[b + dim] <= best) {
+            return best;
+        }
+        int id = tree[mid];
+        if (status[id] == 0 && dominatesExcept(id, point, dim)) {
+            if (dim == -1) {
+                return 0;
+            }
+            best = Math.max(best, coords[id * k + dim]);
+        }
+        best = maxDominating(point, dim, from, mid, best);
+        if (dim == -1 && best != Long.MIN_VALUE) {
+            return best;
+        }
+        return maxDominating(point, dim, mid + 1, to, best);
+    }
+
+    /**
+     * @return <tt>true</tt> if <i>point</i> weakly dominates the point <i>id</i>
+     */
+    private boolean dominates(int[] point, int id) {
+        int o = id * k;
+        for (int i = 0; i < k; i++) {
+            if (coords[o + i] > point[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return <tt>true</tt> if the point <i>id</i> weakly dominates <i>point</i>, except in dimension <i>dim</i>
+     */
+    private boolean dominatesExcept(int id, int[] point, int dim) {
+        int o = id * k;
+        for (int i = 0; i < k; i++) {
+            if (i != dim && coords[o + i] < point[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int push(int n, int id) {
+        if (n == tmp.length) {
+            tmp = Arrays.copyOf(tmp, n * 3 / 2 + 1);
+        }
+        tmp[n] = id;
+        return n + 1;
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.util.objects;
+
+import org.chocosolver.util.sort.IntComparator;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of integers in [0, n-1], ordered by an {@link IntComparator}: the smallest element is on top.
+ * The position of each element in the heap is indexed, so the key of an element can be changed
+ * and its position restored in O(log(n)).
+ * <p>
+ * Elements are stored as an implicit binary tree: the children of the element at position <i>i</i>
+ * are at positions <i>2i+1</i> and <i>2i+2</i>.
+ * <p>
+ * <b>Not backtrackable</b>
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 17/10/2016
+ */
+public class IntHeap {
+
+    private final IntComparator comparator;
+    private final int[] heap; // elements, by position
+    private final int[] position; // position of each element, -1 if absent
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param n          number of elements, from 0 to <i>n</i> - 1
+     * @param comparator the order of the elements, must be consistent while elements are in the heap,
+     *                   unless {@link #update(int)} is called
+     */
+    public IntHeap(int n, IntComparator comparator) {
+        this.comparator = comparator;
+        this.heap = new int[n];
+        this.position = new int[n];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * @return the number of elements in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return <tt>true</tt> if the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param e an element
+     * @return <tt>true</tt> if <i>e</i> is in the heap
+     */
+    public boolean contains(int e) {
+        return position[e] > -1;
+    }
+
+    /**
+     * @return the smallest element, without removing it
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @param p a position, in [0, {@link #size()} - 1]
+     * @return the element at position <i>p</i>
+     */
+    public int get(int p) {
+        return heap[p];
+    }
+
+    /**
+     * Removes all the elements.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds an element, in O(log(n)), if not already in the heap.
+     *
+     * @param e an element
+     */
+    public void add(int e) {
+        if (position[e] == -1) {
+            heap[size] = e;
+            position[e] = size;
+            siftUp(size++);
+        }
+    }
+
+    /**
+     * Removes and returns the smallest element, in O(log(n)).
+     *
+     * @return the smallest element
+     */
+    public int pop() {
+        int e = heap[0];
+        position[e] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return e;
+    }
+
+    /**
+     * Restores the position of an element whose key has changed, in O(log(n)).
+     *
+     * @param e an element in the heap
+     */
+    public void update(int e) {
+        int p = position[e];
+        siftUp(p);
+        if (heap[p] == e) {
+            siftDown(p);
+        }
+    }
+
+    /**
+     * Restores the heap property after the keys of many elements have changed, in O(n).
+     */
+    public void rebuild() {
+        for (int p = size / 2 - 1; p >= 0; p--) {
+            siftDown(p);
+        }
+    }
+
+    private void siftUp(int p) {
+        int e = heap[p];
+        while (p > 0) {
+            int parent = (p - 1) >> 1;
+            int pe = heap[parent];
+            if (comparator.compare(e, pe) >= 0) {
+                break;
+            }
+            heap[p] = pe;
+            position[pe] = p;
+            p = parent;
+        }
+        heap[p] = e;
+        position[e] = p;
+    }
+
+    private void siftDown(int p) {
+        int e = heap[p];
+        int half = size >> 1;
+        while (p < half) {
+            int child = 2 * p + 1;
+            int ce = heap[child];
+            if (child + 1 < size && comparator.compare(heap[child + 1], ce) < 0) {
+                ce = heap[++child];
+            }
+            if (comparator.compare(e, ce) <= 0) {
+                break;
+            }
+            heap[p] = ce;
+            position[ce] = p;
+            p = child;
+        }
+        heap[p] = e;
+        position[e] = p;
+    }
+}
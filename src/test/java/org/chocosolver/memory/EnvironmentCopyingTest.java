@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.memory;
+
+import org.chocosolver.memory.copy.EnvironmentCopying;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.function.Supplier;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class EnvironmentCopyingTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testPushPop() {
+        IEnvironment env = new EnvironmentCopying();
+        IStateInt i = env.makeInt(1);
+        IStateBool b = env.makeBool(false);
+        IStateLong l = env.makeLong(10L);
+        IStateDouble d = env.makeFloat(.5);
+        env.worldPush();
+        i.set(2);
+        b.set(true);
+        l.set(20L);
+        d.set(1.5);
+        env.worldPush();
+        i.set(3);
+        l.set(30L);
+        env.worldPop();
+        Assert.assertEquals(i.get(), 2);
+        Assert.assertTrue(b.get());
+        Assert.assertEquals(l.get(), 20L);
+        Assert.assertEquals(d.get(), 1.5);
+        env.worldPop();
+        Assert.assertEquals(i.get(), 1);
+        Assert.assertFalse(b.get());
+        Assert.assertEquals(l.get(), 10L);
+        Assert.assertEquals(d.get(), .5);
+        Assert.assertEquals(env.getWorldIndex(), 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testManyWorlds() {
+        IEnvironment env = new EnvironmentCopying();
+        int n = 200, k = 1000;
+        IStateInt[] si = new IStateInt[n];
+        for (int i = 0; i < n; i++) {
+            si[i] = env.makeInt(i);
+        }
+        for (int w = 0; w < k; w++) {
+            env.worldPush();
+            si[w % n].add(1);
+        }
+        for (int w = k - 1; w >= 0; w--) {
+            env.worldPop();
+            Assert.assertEquals(si[w % n].get(), w % n + w / n);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testVector() {
+        IEnvironment env = new EnvironmentCopying();
+        IStateIntVector v = env.makeIntVector(2, 7);
+        env.worldPush();
+        v.set(0, 1);
+        for (int i = 0; i < 20; i++) {
+            v.add(i);
+        }
+        env.worldPush();
+        v.remove(1);
+        Assert.assertEquals(v.size(), 21);
+        Assert.assertEquals(v.get(1), 0);
+        env.worldPop();
+        Assert.assertEquals(v.size(), 22);
+        Assert.assertEquals(v.get(1), 7);
+        Assert.assertEquals(v.get(21), 19);
+        env.worldPop();
+        Assert.assertEquals(v.size(), 2);
+        Assert.assertEquals(v.get(0), 7);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testOperation() {
+        IEnvironment env = new EnvironmentCopying();
+        int[] value = {0};
+        env.worldPush();
+        value[0] = 1;
+        env.save(() -> value[0] = 0);
+        env.worldPop();
+        Assert.assertEquals(value[0], 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSolve() {
+        for (Supplier<IEnvironment> env : environments()) {
+            Model model = new Model(env.get(), "8-queens");
+            IntVar[] vars = model.intVarArray("Q", 8, 1, 8, false);
+            model.allDifferent(vars, "BC").post();
+            for (int i = 0; i < 7; i++) {
+                for (int j = i + 1; j < 8; j++) {
+                    model.arithm(vars[i], "-", vars[j], "!=", j - i).post();
+                    model.arithm(vars[i], "-", vars[j], "!=", i - j).post();
+                }
+            }
+            model.getSolver().setSearch(inputOrderLBSearch(vars));
+            while (model.getSolver().solve()) ;
+            Assert.assertEquals(model.getSolver().getSolutionCount(), 92);
+        }
+    }
+
+    /**
+     * Compares the environments on a wide and shallow search tree with many modifications per node,
+     * and on a deep search tree with few modifications per node.
+     */
+    @Test(groups="5m", timeOut=300000)
+    public void testBenchmark() {
+        String[] names = {"flat", "chunk", "unified", "copy"};
+        Supplier<IEnvironment>[] envs = environments();
+        for (int i = 0; i < envs.length; i++) {
+            Supplier<IEnvironment> env = envs[i];
+            IEnvironment e = env.get();
+            long t = System.nanoTime();
+            run(e, 5_000, 8, 5_000, 2_000);
+            long wide = System.nanoTime() - t;
+            e = env.get();
+            t = System.nanoTime();
+            run(e, 5_000, 2_000, 5, 50);
+            long deep = System.nanoTime() - t;
+            System.out.printf("%s: wide: %.3fms, deep: %.3fms\n", names[i], wide / 1e6, deep / 1e6);
+        }
+    }
+
+    /**
+     * Descends <i>depth</i> times in a tree, <i>iterations</i> times, each node modifying <i>updates</i>
+     * data out of <i>n</i>.
+     */
+    private static void run(IEnvironment env, int n, int depth, int updates, int iterations) {
+        IStateInt[] si = new IStateInt[n];
+        for (int i = 0; i < n; i++) {
+            si[i] = env.makeInt(i);
+        }
+        int k = 0;
+        for (int it = 0; it < iterations; it++) {
+            for (int d = 0; d < depth; d++) {
+                env.worldPush();
+                for (int u = 0; u < updates; u++) {
+                    si[k++ % n].add(1);
+                }
+            }
+            env.worldPopUntil(0);
+        }
+        Assert.assertEquals(si[n - 1].get(), n - 1);
+    }
+
+    private static Supplier<IEnvironment>[] environments() {
+        //noinspection unchecked
+        return new Supplier[]{
+                () -> new EnvironmentBuilder().fromFlat().build(),
+                () -> new EnvironmentBuilder().fromChunk().build(),
+                () -> new EnvironmentBuilder().fromUnified().build(),
+                () -> new EnvironmentBuilder().buildCopying()
+        };
+    }
+}
@@ -38,14 +38,16 @@ public class PopTest {
 
     @DataProvider(name = "env")
     public Object[][] getEnvs(){
-        return new EnvironmentTrailing[][]{
+        return new IEnvironment[][]{
                 {new EnvironmentBuilder().fromFlat().build()},
-                {new EnvironmentBuilder().fromChunk().build()}
+                {new EnvironmentBuilder().fromChunk().build()},
+                {new EnvironmentBuilder().fromUnified().build()},
+                {new EnvironmentBuilder().buildCopying()}
         };
     }
 
     @Test(groups="1s", timeOut=60000, dataProvider = "env")
-    public void testEnvTPop(EnvironmentTrailing env) {
+    public void testEnvTPop(IEnvironment env) {
         try {
             env.worldPop();
             Assert.fail("poping above 0 is forbidden");
@@ -53,7 +55,7 @@ public class PopTest {
     }
 
     @Test(groups="1s", timeOut=60000, dataProvider = "env")
-    public void testEnvPushPop(EnvironmentTrailing env) {
+    public void testEnvPushPop(IEnvironment env) {
         env.worldPush();
         env.worldPop();
         env = new EnvironmentTrailing();
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.memory;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class TrailMetricsTest {
+
+    @DataProvider(name = "env")
+    public Object[][] getEnvs(){
+        return new IEnvironment[][]{
+                {new EnvironmentBuilder().fromFlat().setWorldSize(4).setWorldNumber(4).build()},
+                {new EnvironmentBuilder().fromChunk().setWorldSize(4).setWorldNumber(4).build()},
+                {new EnvironmentBuilder().fromUnified().setWorldSize(4).setWorldNumber(4).build()},
+                {new EnvironmentBuilder().buildCopying()}
+        };
+    }
+
+    @Test(groups="1s", timeOut=60000, dataProvider = "env")
+    public void testPeak(IEnvironment env) {
+        IStateInt[] is = new IStateInt[10];
+        for (int i = 0; i < is.length; i++) {
+            is[i] = env.makeInt(0);
+        }
+        IStateBool b = env.makeBool(false);
+        Assert.assertEquals(env.getTrailSize(), 0);
+        long size = 0;
+        for (int w = 1; w <= 200; w++) {
+            env.worldPush();
+            for (IStateInt i : is) {
+                i.add(1);
+            }
+            b.set(!b.get());
+            Assert.assertTrue(env.getTrailSize() > size);
+            size = env.getTrailSize();
+        }
+        Assert.assertEquals(env.getPeakTrailSize(), size);
+        Assert.assertTrue(env.getTrailBytes() >= size);
+        Assert.assertTrue(env.getTrailResizeCount() > 0);
+        env.worldPopUntil(0);
+        Assert.assertEquals(env.getTrailSize(), 0);
+        Assert.assertEquals(env.getTrailBytes(), 0);
+        Assert.assertEquals(env.getPeakTrailSize(), size);
+        Assert.assertTrue(env.getPeakTrailBytes() >= size);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testTrails() {
+        IEnvironment env = new EnvironmentBuilder().fromFlat().build();
+        env.makeInt(0);
+        env.makeBool(true);
+        for (IStorage t : env.getTrails()) {
+            Assert.assertTrue(t.getEntryBytes() > 0);
+            Assert.assertEquals(t.getSize(), 0);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testMeasures() {
+        Model model = new Model();
+        IntVar[] qs = model.intVarArray("Q", 8, 1, 8);
+        model.allDifferent(qs).post();
+        for (int i = 0; i < qs.length; i++) {
+            for (int j = i + 1; j < qs.length; j++) {
+                model.arithm(qs[i], "!=", qs[j], "+", j - i).post();
+                model.arithm(qs[i], "!=", qs[j], "-", j - i).post();
+            }
+        }
+        Solver solver = model.getSolver();
+        Assert.assertFalse(solver.isTrailMeasured());
+        Assert.assertFalse(solver.toMultiLineString().contains("Trail"));
+        solver.setTrailMeasured(true);
+        while (solver.solve()) ;
+        Assert.assertEquals(solver.getSolutionCount(), 92);
+        Assert.assertTrue(solver.getPeakTrailSize() > 0);
+        Assert.assertTrue(solver.getPeakTrailBytes() >= solver.getPeakTrailSize());
+        Assert.assertEquals(solver.getPeakTrailSize(), model.getEnvironment().getPeakTrailSize());
+        Assert.assertTrue(solver.toMultiLineString().contains("Trail"));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.memory;
+
+import org.chocosolver.memory.trailing.EnvironmentTrailing;
+import org.chocosolver.memory.trailing.trail.flatten.UnifiedTrail;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class UnifiedTrailTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBuilder() {
+        EnvironmentTrailing env = new EnvironmentBuilder().fromUnified().build();
+        Assert.assertTrue(env.getIntTrail() instanceof UnifiedTrail);
+        Assert.assertSame(env.getIntTrail(), env.getBoolTrail());
+        Assert.assertSame(env.getIntTrail(), env.getLongTrail());
+        Assert.assertSame(env.getIntTrail(), env.getDoubleTrail());
+        Assert.assertSame(env.getIntTrail(), env.getOperationTrail());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testPushPop() {
+        IEnvironment env = new EnvironmentBuilder().fromUnified().setWorldSize(2).setWorldNumber(2).build();
+        IStateInt i = env.makeInt(-1);
+        IStateBool b = env.makeBool(true);
+        IStateLong l = env.makeLong(Long.MIN_VALUE);
+        IStateDouble d = env.makeFloat(-.25);
+        int[] op = {0};
+        for (int w = 1; w <= 10; w++) {
+            env.worldPush();
+            i.set(w);
+            b.set(w % 2 == 0);
+            l.set(w);
+            d.set(w / 2.);
+            op[0] = w;
+            int p = w - 1;
+            env.save(() -> op[0] = p);
+        }
+        for (int w = 9; w >= 0; w--) {
+            env.worldPop();
+            Assert.assertEquals(op[0], w);
+            if (w > 0) {
+                Assert.assertEquals(i.get(), w);
+                Assert.assertEquals(b.get(), w % 2 == 0);
+                Assert.assertEquals(l.get(), w);
+                Assert.assertEquals(d.get(), w / 2.);
+            }
+        }
+        Assert.assertEquals(i.get(), -1);
+        Assert.assertTrue(b.get());
+        Assert.assertEquals(l.get(), Long.MIN_VALUE);
+        Assert.assertEquals(d.get(), -.25);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testCommit() {
+        IEnvironment env = new EnvironmentBuilder().fromUnified().build();
+        IStateInt i = env.makeInt(0);
+        IStateLong l = env.makeLong(0);
+        env.worldPush();
+        i.set(1);
+        env.worldPush();
+        i.set(2);
+        l.set(2);
+        env.worldCommit();
+        Assert.assertEquals(env.getWorldIndex(), 1);
+        Assert.assertEquals(i.get(), 2);
+        env.worldPop();
+        Assert.assertEquals(i.get(), 0);
+        Assert.assertEquals(l.get(), 0);
+    }
+}
@@ -35,6 +35,7 @@ import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.explanations.ExplanationEngine;
 import org.chocosolver.solver.explanations.RuleStore;
 import org.chocosolver.solver.variables.BoolVar;
@@ -309,4 +310,85 @@ public class PropNogoodsTest {
             Assert.fail();
         }
     }
-}
\ No newline at end of file
+
+    private PropNogoods learntStore(int n, int[] lits) {
+        Model model = new Model("learnts");
+        IntVar[] xs = model.intVarArray("X", n, 0, 3, false);
+        PropNogoods png = model.getNogoodStore().getPropNogoods();
+        for (int i = 0; i < n; i++) {
+            lits[i] = png.Literal(xs[i], 0, true);
+        }
+        png.initialize();
+        return png;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLearntReduction() {
+        int[] ls = new int[12];
+        PropNogoods png = learntStore(12, ls);
+        png.setLearntLimits(4, 2, 1000);
+        png.addLearnt(ls[0], ls[1], ls[2]);
+        png.addLearnt(ls[3], ls[4], ls[5]);
+        png.addLearnt(ls[6], ls[7], ls[8]);
+        Assert.assertEquals(png.getNbLearnts(), 3);
+        png.addLearnt(ls[9], ls[10], ls[11]);
+        Assert.assertEquals(png.getNbReductions(), 1);
+        Assert.assertEquals(png.getNbForgottenLearnts(), 2);
+        Assert.assertEquals(png.getNbLearnts(), 2);
+        Assert.assertEquals(png.getNbLearntLiterals(), 6);
+        // glue clauses are kept
+        png.addLearnt(ls[0], ls[3]);
+        png.addLearnt(ls[1], ls[4]);
+        png.addLearnt(ls[2], ls[5], ls[6]);
+        Assert.assertEquals(png.getNbReductions(), 1);
+        png.addLearnt(ls[7], ls[8], ls[9]);
+        Assert.assertEquals(png.getNbReductions(), 2);
+        Assert.assertEquals(png.getNbLearnts(), 4);
+        int glue = 0;
+        for (int k = 0; k < png.getNbLearnts(); k++) {
+            glue += png.getLearntLBD(k) <= 2 ? 1 : 0;
+        }
+        Assert.assertEquals(glue, 2);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLearntMemoryCap() {
+        int[] ls = new int[12];
+        PropNogoods png = learntStore(12, ls);
+        png.setLearntLimits(100, 0, 10);
+        for (int i = 0; i < 12; i += 3) {
+            png.addLearnt(ls[i], ls[i + 1], ls[i + 2]);
+        }
+        Assert.assertEquals(png.getNbReductions(), 1);
+        Assert.assertEquals(png.getNbLearnts(), 2);
+        Assert.assertTrue(png.getNbLearntLiterals() <= 10);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLearntLocked() throws ContradictionException {
+        int[] ls = new int[9];
+        PropNogoods png = learntStore(9, ls);
+        png.setLearntLimits(3, 0, 1000);
+        for (int i = 0; i < 3; i++) {
+            png.getVariable(ls[i]).instantiateTo(1, Cause.Null);
+        }
+        png.addLearnt(ls[0], ls[1], ls[2]);
+        png.addLearnt(ls[3], ls[4], ls[5]);
+        png.addLearnt(ls[6], ls[7], ls[8]);
+        // the first clause may explain the current domains, it is kept despite its low activity
+        Assert.assertEquals(png.getNbReductions(), 1);
+        Assert.assertEquals(png.getNbForgottenLearnts(), 1);
+        Assert.assertEquals(png.getNbLearnts(), 2);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLearntLimitsInvalid() {
+        int[] ls = new int[1];
+        PropNogoods png = learntStore(1, ls);
+        try {
+            png.setLearntLimits(0, 1, 1);
+            Assert.fail();
+        } catch (SolverException ignored) {
+        }
+    }
+}
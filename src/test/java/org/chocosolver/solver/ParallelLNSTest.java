@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.search.loop.lns.neighbors.SharedAdaptiveNeighborhood;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ProblemMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.chocosolver.solver.ModelTest.knapsack;
+import static org.chocosolver.solver.search.loop.lns.INeighborFactory.propagationGuided;
+import static org.chocosolver.solver.search.loop.lns.INeighborFactory.random;
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ParallelLNSTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testKnapsack() {
+        ParallelLNS plns = new ParallelLNS();
+        for (int i = 0; i < 4; i++) {
+            Model m = knapsack();
+            m.getSolver().limitFail(5000);
+            IntVar[] vars = m.retrieveIntVars(true);
+            plns.addModel(m, random(vars), propagationGuided(vars));
+        }
+        int best = Integer.MIN_VALUE;
+        while (plns.solve()) {
+            Model finder = plns.getBestModel();
+            Assert.assertNotNull(finder);
+            int value = finder.getSolver().getObjectiveManager().getBestSolutionValue().intValue();
+            Assert.assertTrue(value > best);
+            best = value;
+        }
+        Assert.assertEquals(best, 51);
+        // the best solution can be read from any of the models
+        for (Model m : plns.getModels()) {
+            Assert.assertEquals(plns.getBestSolution().getIntVal((IntVar) m.getHook("obj")), 51);
+        }
+        SharedAdaptiveNeighborhood.Scores scores = plns.getScores();
+        Assert.assertEquals(scores.size(), 2);
+        Assert.assertTrue(scores.getCallCount(0) + scores.getCallCount(1) > 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testGolomb() {
+        ParallelLNS plns = new ParallelLNS();
+        for (int i = 0; i < 2; i++) {
+            Model m = ProblemMaker.makeGolombRuler(8);
+            IntVar[] ticks = (IntVar[]) m.getHook("ticks");
+            m.getSolver().setSearch(inputOrderLBSearch(ticks));
+            m.getSolver().limitFail(10000);
+            plns.addModel(m, random(ticks), propagationGuided(ticks));
+        }
+        //noinspection StatementWithEmptyBody
+        while (plns.solve()) ;
+        Model finder = plns.getBestModel();
+        Assert.assertNotNull(finder);
+        // LNS does not prove optimality, the best known ruler of order 8 is of length 34
+        Assert.assertTrue(finder.getSolver().getObjectiveManager().getBestSolutionValue().intValue() >= 34);
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = UnsupportedOperationException.class)
+    public void testSatisfaction() {
+        ParallelLNS plns = new ParallelLNS();
+        Model m = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+        plns.addModel(m, random((IntVar[]) m.getHook("vars")));
+        plns.solve();
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+    public void testNeighborMismatch() {
+        ParallelLNS plns = new ParallelLNS();
+        Model m1 = knapsack();
+        plns.addModel(m1, random(m1.retrieveIntVars(true)));
+        Model m2 = knapsack();
+        plns.addModel(m2, random(m2.retrieveIntVars(true)), propagationGuided(m2.retrieveIntVars(true)));
+        plns.solve();
+    }
+}
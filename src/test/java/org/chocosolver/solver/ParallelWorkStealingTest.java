@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.search.restart.MonotonicRestartStrategy;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ProblemMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.chocosolver.solver.ModelTest.knapsack;
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ParallelWorkStealingTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testKnapsack() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        for (int i = 0; i < 4; i++) {
+            pws.addModel(knapsack());
+        }
+        Assert.assertTrue(pws.solve());
+        Assert.assertTrue(pws.isSearchComplete());
+        Model finder = pws.getBestModel();
+        Assert.assertNotNull(finder);
+        Assert.assertEquals(finder.getSolver().getObjectiveManager().getBestSolutionValue(), 51);
+        Assert.assertFalse(pws.solve());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testOneModel() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        pws.addModel(knapsack());
+        Assert.assertTrue(pws.solve());
+        Assert.assertTrue(pws.isSearchComplete());
+        Assert.assertEquals(pws.getSubProblemCount(), 1);
+        Assert.assertEquals(pws.getBestModel().getSolver().getObjectiveManager().getBestSolutionValue(), 51);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testAllSolutions() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        for (int i = 0; i < 4; i++) {
+            Model m = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("vars")));
+            pws.addModel(m);
+        }
+        //noinspection StatementWithEmptyBody
+        while (pws.solve()) ;
+        Assert.assertTrue(pws.isSearchComplete());
+        long nbSols = pws.getModels().stream().mapToLong(m -> m.getSolver().getSolutionCount()).sum();
+        Assert.assertEquals(nbSols, 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testActiveModels() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        for (int i = 0; i < 4; i++) {
+            Model m = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("vars")));
+            pws.addModel(m);
+        }
+        while (pws.solve()) {
+            // models stopped on another model's solution are resumed on the next call
+            Assert.assertEquals(pws.getActiveModelCount(), 4);
+        }
+        Assert.assertEquals(pws.getActiveModelCount(), 0);
+        Assert.assertTrue(pws.isSearchComplete());
+        long nbSols = pws.getModels().stream().mapToLong(m -> m.getSolver().getSolutionCount()).sum();
+        Assert.assertEquals(nbSols, 92);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testGolomb() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        for (int i = 0; i < 4; i++) {
+            Model m = ProblemMaker.makeGolombRuler(7);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("ticks")));
+            pws.addModel(m);
+        }
+        Assert.assertTrue(pws.solve());
+        Assert.assertTrue(pws.isSearchComplete());
+        Assert.assertEquals(pws.getBestModel().getSolver().getObjectiveManager().getBestSolutionValue(), 25);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testInfeasible() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        for (int i = 0; i < 4; i++) {
+            Model m = ProblemMaker.makeNQueenWithBinaryConstraints(3);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("vars")));
+            pws.addModel(m);
+        }
+        Assert.assertFalse(pws.solve());
+        Assert.assertTrue(pws.isSearchComplete());
+        Assert.assertNull(pws.getBestModel());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDecompositionAllSolutions() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        pws.setDecomposition(ParallelWorkStealing.DEFAULT_SUBPROBLEMS_PER_MODEL);
+        for (int i = 0; i < 4; i++) {
+            Model m = ProblemMaker.makeNQueenWithBinaryConstraints(10);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("vars")));
+            pws.addModel(m);
+        }
+        //noinspection StatementWithEmptyBody
+        while (pws.solve()) ;
+        Assert.assertTrue(pws.isSearchComplete());
+        Assert.assertTrue(pws.getSubProblemCount() >= 4 * ParallelWorkStealing.DEFAULT_SUBPROBLEMS_PER_MODEL);
+        long nbSols = pws.getModels().stream().mapToLong(m -> m.getSolver().getSolutionCount()).sum();
+        Assert.assertEquals(nbSols, 724);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDecompositionSmallTree() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        pws.setDecomposition(1000);
+        for (int i = 0; i < 2; i++) {
+            Model m = ProblemMaker.makeNQueenWithBinaryConstraints(4);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("vars")));
+            pws.addModel(m);
+        }
+        //noinspection StatementWithEmptyBody
+        while (pws.solve()) ;
+        Assert.assertTrue(pws.isSearchComplete());
+        // the tree is too small to be split into that many sub-problems: only solutions are recorded
+        Assert.assertEquals(pws.getSubProblemCount(), 2);
+        long nbSols = pws.getModels().stream().mapToLong(m -> m.getSolver().getSolutionCount()).sum();
+        Assert.assertEquals(nbSols, 2);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDecompositionGolomb() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        pws.setDecomposition(ParallelWorkStealing.DEFAULT_SUBPROBLEMS_PER_MODEL);
+        for (int i = 0; i < 4; i++) {
+            Model m = ProblemMaker.makeGolombRuler(7);
+            m.getSolver().setSearch(inputOrderLBSearch((IntVar[]) m.getHook("ticks")));
+            pws.addModel(m);
+        }
+        Assert.assertTrue(pws.solve());
+        Assert.assertTrue(pws.isSearchComplete());
+        Assert.assertEquals(pws.getBestModel().getSolver().getObjectiveManager().getBestSolutionValue(), 25);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDecompositionDefaultSearch() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        pws.setDecomposition(ParallelWorkStealing.DEFAULT_SUBPROBLEMS_PER_MODEL);
+        for (int i = 0; i < 4; i++) {
+            pws.addModel(knapsack());
+        }
+        Assert.assertTrue(pws.solve());
+        Assert.assertTrue(pws.isSearchComplete());
+        Assert.assertEquals(pws.getBestModel().getSolver().getObjectiveManager().getBestSolutionValue(), 51);
+    }
+
+    @Test(groups="1s", timeOut=60000, expectedExceptions = UnsupportedOperationException.class)
+    public void testRestarts() {
+        ParallelWorkStealing pws = new ParallelWorkStealing();
+        Model m = knapsack();
+        m.getSolver().setRestarts(value -> true, new MonotonicRestartStrategy(0), 100);
+        pws.addModel(m);
+        pws.solve();
+    }
+}
@@ -102,6 +102,39 @@ public class PortFolioTest {
     }
 
 
+    @Test(groups="1s", timeOut=60000)
+    public void testNoNogoodSharingByDefault() {
+        ParallelPortfolio pares = new ParallelPortfolio(false);
+        for (int i = 0; i < 3; i++) {
+            Model m = knapsack();
+            m.getSolver().setSearch(randomSearch(m.retrieveIntVars(true), i));
+            pares.addModel(m);
+        }
+        while (pares.solve()) ;
+        for (Model m : pares.getModels()) {
+            Assert.assertNull(m.nogoods);
+        }
+        Assert.assertEquals(pares.getBestModel().getSolver().getObjectiveManager().getBestSolutionValue(), 51);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testNogoodSharing() {
+        ParallelPortfolio pares = new ParallelPortfolio(false);
+        pares.setNogoodSharing(16);
+        for (int i = 0; i < 3; i++) {
+            Model m = knapsack();
+            int limit = 10 * (i + 1);
+            m.getSolver().setSearch(randomSearch(m.retrieveIntVars(true), i));
+            m.getSolver().setRestarts(value -> m.getSolver().getFailCount() >= limit, new MonotonicRestartStrategy(1), 1000);
+            m.getSolver().setNoGoodRecordingFromRestarts();
+            pares.addModel(m);
+        }
+        while (pares.solve()) ;
+        Model finder = pares.getBestModel();
+        Assert.assertNotNull(finder);
+        Assert.assertEquals(finder.getSolver().getObjectiveManager().getBestSolutionValue(), 51);
+    }
+
     @Test(groups="5m", timeOut=300000)
     public void testP2() {
         for (int iter = 0; iter < 500; iter++) {
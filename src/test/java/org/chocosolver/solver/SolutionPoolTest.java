@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver;
+
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ProblemMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SolutionPoolTest {
+
+    /**
+     * Solves the 8-queens problem, recording solutions both in <i>pool</i> and in the returned list
+     */
+    private static List<int[]> solve(Model model, SolutionPool pool) {
+        IntVar[] vars = (IntVar[]) model.getHook("vars");
+        List<int[]> expected = new ArrayList<>();
+        model.getSolver().setSearch(inputOrderLBSearch(vars));
+        model.getSolver().plugMonitor(pool);
+        model.getSolver().plugMonitor((IMonitorSolution) () ->
+                expected.add(Stream.of(vars).mapToInt(IntVar::getValue).toArray()));
+        while (model.getSolver().solve()) ;
+        return expected;
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testInMemory() {
+        Model model = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+        IntVar[] vars = (IntVar[]) model.getHook("vars");
+        SolutionPool pool = new SolutionPool(vars);
+        List<int[]> expected = solve(model, pool);
+        Assert.assertEquals(pool.size(), 92);
+        int i = 0;
+        for (int[] values : pool) {
+            Assert.assertEquals(values, expected.get(i++));
+        }
+        Assert.assertEquals(i, 92);
+        Solution solution = pool.getSolution(42);
+        for (int j = 0; j < vars.length; j++) {
+            Assert.assertEquals(solution.getIntVal(vars[j]), expected.get(42)[j]);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSpill() throws IOException {
+        Model model = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+        IntVar[] vars = (IntVar[]) model.getHook("vars");
+        Path dir = Files.createTempDirectory("choco");
+        try (SolutionPool pool = new SolutionPool(vars, 5, 2, dir)) {
+            List<int[]> expected = solve(model, pool);
+            Assert.assertEquals(pool.size(), 92);
+            Assert.assertEquals(pool.getDroppedCount(), 0);
+            Iterator<int[]> it = pool.iterator();
+            for (int i = 0; i < 92; i++) {
+                Assert.assertTrue(it.hasNext());
+                Assert.assertEquals(it.next(), expected.get(i));
+            }
+            Assert.assertFalse(it.hasNext());
+            // random access, alternating spilled and in-memory blocks
+            int[] values = new int[vars.length];
+            for (int i = 91; i >= 0; i -= 7) {
+                Assert.assertEquals(pool.get(i, values), expected.get(i));
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                Assert.assertEquals(files.count(), 0);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBounded() {
+        Model model = ProblemMaker.makeNQueenWithBinaryConstraints(8);
+        IntVar[] vars = (IntVar[]) model.getHook("vars");
+        SolutionPool pool = new SolutionPool(vars, 10, 2, null);
+        List<int[]> expected = solve(model, pool);
+        Assert.assertEquals(pool.size(), 20);
+        Assert.assertEquals(pool.getDroppedCount(), 72);
+        int i = 0;
+        for (int[] values : pool) {
+            Assert.assertEquals(values, expected.get(i++));
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testWideDomains() {
+        Model model = new Model();
+        IntVar x = model.intVar("x", Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2, true);
+        IntVar y = model.intVar("y", -3, 3);
+        IntVar z = model.intVar("z", 7);
+        SolutionPool pool = new SolutionPool(x, y, z);
+        model.arithm(y, "!=", 0).post();
+        model.getSolver().setSearch(inputOrderLBSearch(y, x));
+        model.getSolver().limitSolution(3);
+        model.getSolver().plugMonitor(pool);
+        while (model.getSolver().solve()) ;
+        Assert.assertEquals(pool.size(), 3);
+        int[] values = new int[3];
+        Assert.assertEquals(pool.get(0, values), new int[]{Integer.MIN_VALUE / 2, -3, 7});
+        Assert.assertEquals(pool.get(2, values), new int[]{Integer.MIN_VALUE / 2 + 2, -3, 7});
+    }
+}
@@ -45,7 +45,8 @@ public class DynamicPostTestFactory {
 
     PropagationEngineFactory[] engines = new PropagationEngineFactory[]{
             PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE,
-            PropagationEngineFactory.PROPAGATORDRIVEN_7QD};
+            PropagationEngineFactory.PROPAGATORDRIVEN_7QD,
+            PropagationEngineFactory.PROPAGATORDRIVEN_7QD_COALESCING};
 
     @Factory
     public Object[] createInstances() {
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.extension.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.chocosolver.solver.constraints.extension.TuplesFactory.allDifferent;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class CompactTableIndexTest {
+
+    private static PropCompactTable table(Model model, IntVar[] vars, Tuples tuples, String algo) {
+        return (PropCompactTable) model.table(vars, tuples, algo).getPropagator(0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testShared() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("X", 3, 0, 4, false);
+        IntVar[] y = model.intVarArray("Y", 3, 0, 4, true);
+        Tuples tuples = allDifferent(x);
+        PropCompactTable p1 = table(model, x, tuples, "CT+");
+        PropCompactTable p2 = table(model, y, tuples, "CT+");
+        Assert.assertSame(p1.index, p2.index);
+        Assert.assertNotSame(p1.residues, p2.residues);
+        // another model
+        Model model2 = new Model();
+        IntVar[] z = model2.intVarArray("Z", 3, 0, 4, false);
+        Assert.assertSame(table(model2, z, tuples, "CT+").index, p1.index);
+        // equal but distinct tuples
+        Assert.assertNotSame(table(model, y, allDifferent(x), "CT+").index, p1.index);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testNotShared() throws ContradictionException {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("X", 3, 0, 4, false);
+        Tuples tuples = allDifferent(x);
+        PropCompactTable p1 = table(model, x, tuples, "CT+");
+        // distinct domains
+        IntVar[] y = model.intVarArray("Y", 3, 0, 3, false);
+        Assert.assertNotSame(table(model, y, tuples, "CT+").index, p1.index);
+        IntVar[] z = model.intVarArray("Z", 3, 0, 4, false);
+        model.arithm(z[1], "!=", 2).post();
+        model.getSolver().propagate();
+        Assert.assertNotSame(table(model, z, tuples, "CT+").index, p1.index);
+        // tuples have been modified
+        tuples.add(0, 0, 0);
+        Assert.assertNotSame(table(model, x, tuples, "CT+").index, p1.index);
+        // forbidden tuples are read differently
+        Tuples neg = new Tuples(false);
+        neg.setUniversalValue(-1);
+        neg.add(-1, 0, 0);
+        PropCompactTable p2 = table(model, x, neg, "CT-");
+        Assert.assertEquals(p2.index.tuples.nbTuples(), 5);
+        Assert.assertSame(table(model, x, neg, "CT-").index, p2.index);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBoundedCache() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("X", 2, 0, 4, false);
+        Tuples tuples = allDifferent(x);
+        PropCompactTable p1 = table(model, x, tuples, "CT+");
+        for (int i = 1; i <= 2 * CompactTableIndex.MAX_INDICES_PER_TUPLES; i++) {
+            // distinct initial domains
+            IntVar[] y = model.intVarArray("Y", 2, 0, 4 + i, false);
+            table(model, y, tuples, "CT+");
+            Assert.assertTrue(CompactTableIndex.cachedIndices(tuples) <= CompactTableIndex.MAX_INDICES_PER_TUPLES);
+        }
+        Assert.assertEquals(CompactTableIndex.cachedIndices(tuples), CompactTableIndex.MAX_INDICES_PER_TUPLES);
+        // the least recently used index has been evicted
+        Assert.assertNotSame(table(model, x, tuples, "CT+").index, p1.index);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSolutions() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("X", 4, 0, 4, false);
+        Tuples tuples = allDifferent(x[0], x[1]);
+        for (int i = 0; i < 3; i++) {
+            model.table(new IntVar[]{x[i], x[i + 1]}, tuples, "CT+").post();
+        }
+        model.getSolver().findAllSolutions();
+        Assert.assertEquals(model.getSolver().getSolutionCount(), 5 * 4 * 4 * 4);
+    }
+}
@@ -32,7 +32,9 @@ package org.chocosolver.solver.constraints.nary;
 import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.alldifferent.conditions.Condition;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainRandom;
 import org.chocosolver.solver.variables.IntVar;
 import org.testng.annotations.Test;
 
@@ -40,6 +42,7 @@ import java.util.Random;
 
 import static org.chocosolver.solver.constraints.checker.DomainBuilder.buildFullDomains;
 import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+import static org.chocosolver.solver.search.strategy.Search.intVarSearch;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -338,4 +341,52 @@ public class AllDifferentTest {
         assertEquals(X[14].getLB(), -16);
         assertEquals(X[14].getDomainSize(), 2);
     }
-}
\ No newline at end of file
+
+    private static long[] incrementalAC(int seed, boolean reference) {
+        Random rnd = new Random(seed);
+        Model model = new Model();
+        int n = 3 + rnd.nextInt(4);
+        int nv = n + rnd.nextInt(3);
+        boolean sparse = rnd.nextInt(4) == 0;
+        IntVar[] vars = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            if (sparse) {
+                int[] values = new int[2 + rnd.nextInt(nv)];
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = rnd.nextInt(nv) * 100_000;
+                }
+                vars[i] = model.intVar("v_" + i, values);
+            } else {
+                int lb = rnd.nextInt(3);
+                vars[i] = model.intVar("v_" + i, lb, lb + 1 + rnd.nextInt(nv), rnd.nextBoolean());
+            }
+        }
+        if (reference) {
+            // relies on a non-incremental AC algorithm
+            model.allDifferentUnderCondition(vars, Condition.TRUE, true).post();
+        } else {
+            model.allDifferent(vars, "AC").post();
+        }
+        for (int k = 0; k < n / 2; k++) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            if (a != b) {
+                model.arithm(vars[a], "<", vars[b], "+", sparse ? 100_000 : 1).post();
+            }
+        }
+        Solver solver = model.getSolver();
+        solver.setSearch(intVarSearch(new org.chocosolver.solver.search.strategy.selectors.variables.Random<>(seed),
+                new IntDomainRandom(seed), vars));
+        while (solver.solve()) ;
+        return new long[]{solver.getSolutionCount(), solver.getNodeCount()};
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrementalAC() {
+        for (int seed = 0; seed < 60; seed++) {
+            long[] inc = incrementalAC(seed, false);
+            long[] ref = incrementalAC(seed, true);
+            assertEquals(inc[0], ref[0], "solutions, seed " + seed);
+            assertEquals(inc[1], ref[1], "nodes, seed " + seed);
+        }
+    }
+}
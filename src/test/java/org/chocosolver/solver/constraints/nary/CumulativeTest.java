@@ -29,13 +29,19 @@
  */
 package org.chocosolver.solver.constraints.nary;
 
+import org.chocosolver.memory.IEnvironment;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.cumulative.CumulProfile;
 import org.chocosolver.solver.constraints.nary.cumulative.Cumulative;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Task;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Random;
+
 import static org.chocosolver.solver.search.strategy.Search.lastConflict;
 import static org.chocosolver.solver.search.strategy.Search.randomSearch;
 
@@ -173,4 +179,90 @@ public class CumulativeTest {
 				throw new UnsupportedOperationException();
 		}
 	}
+	@Test(groups="1s", timeOut=60000)
+	public void testEdgeFinding(){
+		for(long seed = 0; seed < 10; seed++){
+			for(int capa : new int[]{1, 3}){
+				long ref = count(5, capa, seed, Cumulative.Filter.TIME);
+				Assert.assertEquals(count(5, capa, seed, Cumulative.Filter.TIME, Cumulative.Filter.EDGE_FINDING), ref);
+				Assert.assertEquals(count(5, capa, seed, Cumulative.Filter.TIME, Cumulative.Filter.TIME_TABLE_EDGE_FINDING), ref);
+			}
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testProfile(){
+		for(long seed = 0; seed < 10; seed++){
+			for(int capa : new int[]{1, 3}){
+				long ref = count(5, capa, seed, Cumulative.Filter.TIME);
+				Assert.assertEquals(count(5, capa, seed, Cumulative.Filter.PROFILE), ref);
+				Assert.assertEquals(count(5, capa, seed, Cumulative.Filter.PROFILE, Cumulative.Filter.TIME_TABLE_EDGE_FINDING), ref);
+			}
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCumulProfile(){
+		Model model = new Model();
+		IEnvironment env = model.getEnvironment();
+		CumulProfile profile = new CumulProfile(env, 3, 0, 1000);
+		profile.set(0, 10, 20, 2);
+		profile.set(1, 15, 30, 1);
+		Assert.assertEquals(profile.getMax(), 3);
+		Assert.assertEquals(profile.firstAbove(0, 1000, 2), 15);
+		Assert.assertEquals(profile.firstAtMost(15, 1000, 2), 20);
+		Assert.assertEquals(profile.lastAbove(0, 1000, 0), 29);
+		env.worldPush();
+		profile.set(0, 5, 25, 3);
+		profile.set(2, 900, 1000, 4);
+		Assert.assertEquals(profile.getMax(), 4);
+		Assert.assertEquals(profile.getMax(0, 900), 4);
+		Assert.assertEquals(profile.lastAtMost(0, 25, 3), 14);
+		env.worldPop();
+		Assert.assertEquals(profile.getMax(), 3);
+		Assert.assertEquals(profile.getFrom(0), 10);
+		Assert.assertEquals(profile.getHeight(2), 0);
+		Assert.assertEquals(profile.firstAbove(0, 1000, 2), 15);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testEdgeFindingDetection(){
+		// the first two tasks fill [0,4), the third one can only start after them
+		Model model = new Model();
+		IntVar[] s = model.intVarArray("s", 3, 0, 10, false);
+		Task[] t = new Task[]{
+				new Task(s[0], model.intVar(2), model.intVar("e0", 0, 12, false)),
+				new Task(s[1], model.intVar(2), model.intVar("e1", 0, 12, false)),
+				new Task(s[2], model.intVar(3), model.intVar("e2", 0, 13, false))
+		};
+		model.arithm(t[0].getEnd(), "<=", 4).post();
+		model.arithm(t[1].getEnd(), "<=", 4).post();
+		IntVar[] h = new IntVar[]{model.intVar(2), model.intVar(2), model.intVar(1)};
+		model.cumulative(t, h, model.intVar(2), false, Cumulative.Filter.TIME, Cumulative.Filter.EDGE_FINDING).post();
+		try {
+			model.getSolver().propagate();
+		} catch (ContradictionException e) {
+			Assert.fail();
+		}
+		Assert.assertEquals(s[2].getLB(), 4);
+	}
+
+	private static long count(int n, int capa, long seed, Cumulative.Filter... filters){
+		Random rnd = new Random(seed);
+		Model model = new Model();
+		Task[] t = new Task[n];
+		IntVar[] h = new IntVar[n];
+		IntVar[] s = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			int d = 1 + rnd.nextInt(3);
+			s[i] = model.intVar("s" + i, 0, 8 - d, false);
+			t[i] = new Task(s[i], model.intVar(d), model.intVar("e" + i, d, 8, false));
+			h[i] = model.intVar(1 + rnd.nextInt(capa));
+		}
+		model.cumulative(t, h, model.intVar(capa), false, filters).post();
+		Solver r = model.getSolver();
+		r.setSearch(randomSearch(s, seed));
+		while (r.solve());
+		return r.getSolutionCount();
+	}
 }
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * Tests the diffN constraint
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class DiffNTest {
+
+	@Test(groups="1s", timeOut=60000)
+	public void testSweepVsPairwise(){
+		for (long seed = 0; seed < 10; seed++) {
+			Assert.assertEquals(count2D(seed, true), count2D(seed, false), "seed " + seed);
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testSweep3D(){
+		for (long seed = 0; seed < 5; seed++) {
+			Assert.assertEquals(count3D(seed, true), count3D(seed, false), "seed " + seed);
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testSweepPruning(){
+		// a fixed 3x3 box at (0,0) pushes a 2x2 box whose y is in [0,1]
+		Model model = new Model();
+		IntVar[][] o = new IntVar[][]{
+				{model.intVar(0), model.intVar(0)},
+				{model.intVar("x", 0, 4, false), model.intVar("y", 0, 1, false)}};
+		IntVar[][] l = new IntVar[][]{
+				{model.intVar(3), model.intVar(3)},
+				{model.intVar(2), model.intVar(2)}};
+		model.diffN(o, l).post();
+		try {
+			model.getSolver().propagate();
+		} catch (ContradictionException e) {
+			Assert.fail();
+		}
+		Assert.assertEquals(o[1][0].getLB(), 3);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testEnergy(){
+		// four 2x2 boxes and a 1x1 box cannot fit in a 4x4 square
+		Model model = new Model();
+		IntVar[][] o = new IntVar[5][];
+		IntVar[][] l = new IntVar[5][];
+		for (int i = 0; i < 4; i++) {
+			o[i] = model.intVarArray("o" + i, 2, 0, 2, false);
+			l[i] = new IntVar[]{model.intVar(2), model.intVar(2)};
+		}
+		o[4] = model.intVarArray("o4", 2, 0, 3, false);
+		l[4] = new IntVar[]{model.intVar(1), model.intVar(1)};
+		model.diffN(o, l).post();
+		try {
+			model.getSolver().propagate();
+			Assert.fail();
+		} catch (ContradictionException ignored) {
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testLarge(){
+		int n = 150;
+		Model model = new Model();
+		IntVar[] x = model.intVarArray("x", n, 0, 19, false);
+		IntVar[] y = model.intVarArray("y", n, 0, 19, false);
+		IntVar[] w = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			w[i] = model.intVar(1);
+		}
+		Constraint diffN = model.diffN(x, y, w, w, false);
+		Assert.assertTrue(diffN.getPropagator(0) instanceof PropDiffNSweep);
+		diffN.post();
+		Assert.assertTrue(model.getSolver().solve());
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				Assert.assertTrue(x[i].getValue() != x[j].getValue() || y[i].getValue() != y[j].getValue());
+			}
+		}
+	}
+
+	private static long count2D(long seed, boolean sweep){
+		Random rnd = new Random(seed);
+		Model model = new Model();
+		int n = 4;
+		IntVar[] x = new IntVar[n];
+		IntVar[] y = new IntVar[n];
+		IntVar[] w = new IntVar[n];
+		IntVar[] h = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = model.intVar("x" + i, 0, 2, false);
+			y[i] = model.intVar("y" + i, 0, 2, false);
+			w[i] = model.intVar("w" + i, 1, 1 + rnd.nextInt(2), false);
+			h[i] = model.intVar(1 + rnd.nextInt(3));
+		}
+		if (sweep) {
+			IntVar[][] o = new IntVar[n][];
+			IntVar[][] l = new IntVar[n][];
+			for (int i = 0; i < n; i++) {
+				o[i] = new IntVar[]{x[i], y[i]};
+				l[i] = new IntVar[]{w[i], h[i]};
+			}
+			model.diffN(o, l).post();
+		} else {
+			model.diffN(x, y, w, h, false).post();
+		}
+		while (model.getSolver().solve());
+		return model.getSolver().getSolutionCount();
+	}
+
+	private static long count3D(long seed, boolean sweep){
+		Random rnd = new Random(seed);
+		Model model = new Model();
+		int n = 3, k = 3;
+		IntVar[][] o = new IntVar[n][k];
+		IntVar[][] l = new IntVar[n][k];
+		int[][] len = new int[n][k];
+		for (int i = 0; i < n; i++) {
+			for (int d = 0; d < k; d++) {
+				len[i][d] = 1 + rnd.nextInt(2);
+				o[i][d] = model.intVar("o" + i + "_" + d, 0, 2, false);
+				l[i][d] = model.intVar(len[i][d]);
+			}
+		}
+		if (sweep) {
+			model.diffN(o, l).post();
+		} else {
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					Constraint[] disj = new Constraint[2 * k];
+					for (int d = 0; d < k; d++) {
+						disj[2 * d] = model.arithm(o[j][d], "-", o[i][d], ">=", len[i][d]);
+						disj[2 * d + 1] = model.arithm(o[i][d], "-", o[j][d], ">=", len[j][d]);
+					}
+					model.or(disj).post();
+				}
+			}
+		}
+		while (model.getSolver().solve());
+		return model.getSolver().getSolutionCount();
+	}
+}
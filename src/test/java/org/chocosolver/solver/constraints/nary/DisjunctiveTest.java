@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.constraints.nary;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Task;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.chocosolver.solver.search.strategy.Search.randomSearch;
+
+/**
+ * Tests the disjunctive constraint
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class DisjunctiveTest {
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCount(){
+		for (long seed = 0; seed < 30; seed++) {
+			int n = 2 + (int) (seed % 4);
+			Assert.assertEquals(count(n, seed, true), count(n, seed, false), "seed " + seed);
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testVariableDuration(){
+		Model model = new Model();
+		Task[] t = new Task[4];
+		for (int i = 0; i < 4; i++) {
+			t[i] = new Task(model.intVar("s" + i, 0, 6), model.intVar("d" + i, 0, 3), model.intVar("e" + i, 0, 8));
+		}
+		model.disjunctive(t).post();
+		Solver r = model.getSolver();
+		while (r.solve()) {
+			for (int i = 0; i < 4; i++) {
+				for (int j = i + 1; j < 4; j++) {
+					Assert.assertTrue(t[i].getDuration().getValue() == 0 || t[j].getDuration().getValue() == 0
+							|| t[i].getEnd().getValue() <= t[j].getStart().getValue()
+							|| t[j].getEnd().getValue() <= t[i].getStart().getValue());
+				}
+			}
+		}
+		Model ref = new Model();
+		Task[] t2 = new Task[4];
+		IntVar[] h = new IntVar[4];
+		for (int i = 0; i < 4; i++) {
+			t2[i] = new Task(ref.intVar("s" + i, 0, 6), ref.intVar("d" + i, 0, 3), ref.intVar("e" + i, 0, 8));
+			h[i] = ref.intVar(1);
+		}
+		ref.cumulative(t2, h, ref.intVar(1)).post();
+		while (ref.getSolver().solve());
+		Assert.assertEquals(r.getSolutionCount(), ref.getSolver().getSolutionCount());
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testEdgeFinding() throws ContradictionException {
+		// A, B and C fit in [0,11), D cannot be processed before or between them
+		Model model = new Model();
+		Task a = new Task(model.intVar(0, 7), model.intVar(4), model.intVar(4, 11));
+		Task b = new Task(model.intVar(1, 8), model.intVar(3), model.intVar(4, 11));
+		Task c = new Task(model.intVar(1, 8), model.intVar(3), model.intVar(4, 11));
+		Task d = new Task(model.intVar(0, 20), model.intVar(5), model.intVar(5, 25));
+		model.disjunctive(new Task[]{a, b, c, d}).post();
+		model.getSolver().propagate();
+		Assert.assertEquals(d.getStart().getLB(), 10);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testDetectablePrecedence() throws ContradictionException {
+		// A and B must both precede C, edge-finding cannot prove it
+		Model model = new Model();
+		Task a = new Task(model.intVar(0, 14), model.intVar(11), model.intVar(11, 25));
+		Task b = new Task(model.intVar(1, 17), model.intVar(10), model.intVar(11, 27));
+		Task c = new Task(model.intVar(14, 30), model.intVar(5), model.intVar(19, 35));
+		model.disjunctive(new Task[]{a, b, c}).post();
+		model.getSolver().propagate();
+		Assert.assertEquals(c.getStart().getLB(), 21);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testOverload() {
+		Model model = new Model();
+		Task[] t = new Task[3];
+		for (int i = 0; i < 3; i++) {
+			t[i] = new Task(model.intVar(0, 5), model.intVar(3), model.intVar(3, 8));
+		}
+		model.disjunctive(t).post();
+		Assert.assertFalse(model.getSolver().solve());
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testJobShop() {
+		// 3 jobs x 3 machines, optimal makespan is 12
+		int[][] mach = {{0, 1, 2}, {1, 0, 2}, {1, 2, 0}};
+		int[][] dur = {{3, 3, 3}, {2, 4, 2}, {3, 2, 3}};
+		Model model = new Model();
+		int hor = 40;
+		Task[][] t = new Task[3][3];
+		IntVar[] ends = new IntVar[3];
+		for (int j = 0; j < 3; j++) {
+			for (int k = 0; k < 3; k++) {
+				t[j][k] = new Task(model.intVar("s" + j + k, 0, hor), model.intVar(dur[j][k]), model.intVar("e" + j + k, 0, hor));
+				if (k > 0) {
+					model.arithm(t[j][k - 1].getEnd(), "<=", t[j][k].getStart()).post();
+				}
+			}
+			ends[j] = t[j][2].getEnd();
+		}
+		for (int m = 0; m < 3; m++) {
+			Task[] onM = new Task[3];
+			for (int j = 0; j < 3; j++) {
+				for (int k = 0; k < 3; k++) {
+					if (mach[j][k] == m) {
+						onM[j] = t[j][k];
+					}
+				}
+			}
+			model.disjunctive(onM).post();
+		}
+		IntVar makespan = model.intVar("makespan", 0, hor);
+		model.max(makespan, ends).post();
+		model.setObjective(Model.MINIMIZE, makespan);
+		Solver r = model.getSolver();
+		int best = -1;
+		while (r.solve()) {
+			best = makespan.getValue();
+		}
+		Assert.assertEquals(best, 12);
+	}
+
+	private static long count(int n, long seed, boolean disjunctive){
+		Random rnd = new Random(seed);
+		Model model = new Model();
+		Task[] t = new Task[n];
+		IntVar[] h = new IntVar[n];
+		IntVar[] s = new IntVar[n];
+		for (int i = 0; i < n; i++) {
+			int d = 1 + rnd.nextInt(3);
+			int lb = rnd.nextInt(4);
+			s[i] = model.intVar("s" + i, lb, 10 - d, false);
+			t[i] = new Task(s[i], model.intVar(d), model.intVar("e" + i, lb + d, 10, false));
+			h[i] = model.intVar(1);
+		}
+		if (disjunctive) {
+			model.disjunctive(t).post();
+		} else {
+			model.cumulative(t, h, model.intVar(1)).post();
+		}
+		Solver r = model.getSolver();
+		r.setSearch(randomSearch(s, seed));
+		while (r.solve());
+		return r.getSolutionCount();
+	}
+}
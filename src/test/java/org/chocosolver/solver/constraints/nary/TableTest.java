@@ -45,6 +45,7 @@ import org.chocosolver.solver.constraints.extension.nary.TuplesLargeTable;
 import org.chocosolver.solver.constraints.extension.nary.TuplesTable;
 import org.chocosolver.solver.constraints.extension.nary.TuplesVeryLargeTable;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ESat;
@@ -52,6 +53,7 @@ import org.chocosolver.util.objects.graphs.MultivaluedDecisionDiagram;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import static java.lang.System.out;
@@ -529,4 +531,148 @@ public class TableTest {
 		Assert.assertEquals(s2.getSolver().getSolutionCount(), s1.getSolver().getSolutionCount());
 		Assert.assertEquals(s2.getSolver().getNodeCount(), s1.getSolver().getNodeCount());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Expands the universal value of <i>tuples</i> over [lb,ub]
+	 */
+	private static Tuples expand(Tuples tuples, int lb, int ub) {
+		Tuples expanded = new Tuples(tuples.isFeasible());
+		for (int ti = 0; ti < tuples.nbTuples(); ti++) {
+			expand(tuples.get(ti).clone(), 0, tuples.getUniversalValue(), lb, ub, expanded);
+		}
+		return expanded;
+	}
+
+	private static void expand(int[] tuple, int i, int star, int lb, int ub, Tuples expanded) {
+		if (i == tuple.length) {
+			expanded.add(tuple.clone());
+		} else if (tuple[i] == star) {
+			for (int v = lb; v <= ub; v++) {
+				tuple[i] = v;
+				expand(tuple, i + 1, star, lb, ub, expanded);
+			}
+			tuple[i] = star;
+		} else {
+			expand(tuple, i + 1, star, lb, ub, expanded);
+		}
+	}
+
+	private static Tuples randomTuples(Random rnd, boolean feasible, boolean star, int n, int lb, int ub, int nb) {
+		Tuples tuples = new Tuples(feasible);
+		if (star) {
+			tuples.setUniversalValue(-1);
+		}
+		for (int t = 0; t < nb; t++) {
+			int[] tuple = new int[n];
+			for (int i = 0; i < n; i++) {
+				tuple[i] = star && rnd.nextInt(4) == 0 ? -1 : lb + rnd.nextInt(ub - lb + 1);
+			}
+			tuples.add(tuple);
+		}
+		return tuples;
+	}
+
+	private static long[] solve(Tuples tuples, String algo, int n, int lb, int ub, boolean bounded, long seed) {
+		Model model = new Model();
+		IntVar[] vars = model.intVarArray("X", n, lb, ub, bounded);
+		if (algo == null) {
+			model.table(vars, tuples).post();
+		} else {
+			model.table(vars, tuples, algo).post();
+		}
+		model.getSolver().setSearch(randomSearch(vars, seed));
+		while (model.getSolver().solve()) ;
+		return new long[]{model.getSolver().getSolutionCount(), model.getSolver().getNodeCount()};
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCTStar() {
+		Random rnd = new Random();
+		for (long seed = 0; seed < 20; seed++) {
+			rnd.setSeed(seed);
+			Tuples tuples = randomTuples(rnd, true, true, 4, 0, 3, 20);
+			long[] ref = solve(expand(tuples, 0, 3), "CT+", 4, 0, 3, false, seed);
+			long[] ct = solve(tuples, "CT+", 4, 0, 3, false, seed);
+			assertEquals(ct[0], ref[0]);
+			assertEquals(ct[1], ref[1]);
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCTNeg() {
+		Random rnd = new Random();
+		for (long seed = 0; seed < 20; seed++) {
+			for (boolean bounded : new boolean[]{false, true}) {
+				rnd.setSeed(seed);
+				Tuples tuples = randomTuples(rnd, false, false, 3, 0, 2, 5 + rnd.nextInt(25));
+				long[] ref = solve(tuples, "GAC3rm", 3, 0, 2, bounded, seed);
+				long[] ct = solve(tuples, "CT-", 3, 0, 2, bounded, seed);
+				assertEquals(ct[0], ref[0]);
+				if (!bounded) {
+					assertEquals(ct[1], ref[1]);
+				}
+			}
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCTNegStar() {
+		Random rnd = new Random();
+		for (long seed = 0; seed < 20; seed++) {
+			rnd.setSeed(seed);
+			Tuples tuples = randomTuples(rnd, false, true, 4, 0, 2, 10);
+			long[] ref = solve(expand(tuples, 0, 2), "GAC3rm", 4, 0, 2, false, seed);
+			long[] ct = solve(tuples, "CT-", 4, 0, 2, false, seed);
+			assertEquals(ct[0], ref[0]);
+			assertEquals(ct[1], ref[1]);
+		}
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testCTNegAllForbidden() {
+		Model model = new Model();
+		IntVar[] vars = model.intVarArray("X", 3, 0, 1, false);
+		Tuples tuples = new Tuples(false);
+		tuples.setUniversalValue(-1);
+		tuples.add(0, -1, -1);
+		tuples.add(1, 0, -1);
+		tuples.add(1, 1, 0);
+		tuples.add(1, 1, 0);
+		model.table(vars, tuples, "CT-").post();
+		while (model.getSolver().solve()) ;
+		assertEquals(model.getSolver().getSolutionCount(), 1);
+		assertEquals(model.getSolver().getNodeCount(), 1);
+	}
+
+	@Test(groups="1s", timeOut=60000)
+	public void testTableRouting() {
+		Model model = new Model();
+		IntVar[] vars = model.intVarArray("X", 3, 0, 9, false);
+		Tuples neg = randomTuples(new Random(0), false, false, 3, 0, 9, 600);
+		Assert.assertEquals(model.table(vars, neg).getName(), "Table(CT-)");
+		Tuples star = randomTuples(new Random(0), true, true, 3, 0, 9, 10);
+		Assert.assertEquals(model.table(vars, star).getName(), "Table(CT+)");
+		Assert.assertEquals(model.table(vars[0], vars[1], randomTuples(new Random(0), true, true, 2, 0, 9, 10)).getName(), "Table(CT+)");
+		star = randomTuples(new Random(0), false, true, 3, 0, 9, 10);
+		Assert.assertEquals(model.table(vars, star).getName(), "Table(CT-)");
+	}
+
+	@Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+	public void testTableStarUnsupported() {
+		Model model = new Model();
+		IntVar[] vars = model.intVarArray("X", 3, 0, 9, false);
+		model.table(vars, randomTuples(new Random(0), true, true, 3, 0, 9, 10), "GAC3rm+");
+	}
+
+	@Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+	public void testCTNegTooManyShortTuples() {
+		Model model = new Model();
+		IntVar[] vars = model.intVarArray("X", 20, 0, 9, false);
+		Tuples tuples = new Tuples(false);
+		tuples.setUniversalValue(-1);
+		int[] tuple = new int[20];
+		Arrays.fill(tuple, -1);
+		tuples.add(tuple);
+		model.table(vars, tuples);
+	}
+}
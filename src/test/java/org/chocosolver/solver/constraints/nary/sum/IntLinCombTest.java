@@ -44,6 +44,7 @@ import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.util.tools.ArrayUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -1031,4 +1032,109 @@ public class IntLinCombTest {
 			assertEquals(c1,18);
         }
     }
+    private static Model incrementalModel(boolean incr) {
+        Model model = new Model();
+        model.set(new Settings() {
+            @Override
+            public int getMaxTupleSizeForSubstitution() {
+                return 0;
+            }
+
+            @Override
+            public boolean enableIncrementalityOnSum(int nbvars) {
+                return incr;
+            }
+        });
+        return model;
+    }
+
+    private static long countScalar(int n, int seed, Operator op, boolean incr, boolean reified) {
+        Random random = new Random(seed);
+        Model model = incrementalModel(incr);
+        IntVar[] vars = new IntVar[n];
+        int[] coeffs = new int[n];
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            vars[i] = model.intVar("v_" + i, -2 + random.nextInt(2), 2 + random.nextInt(2), random.nextBoolean());
+            coeffs[i] = (1 + random.nextInt(4)) * (random.nextBoolean() ? 1 : -1);
+            sum += coeffs[i];
+        }
+        Constraint c = model.scalar(vars, coeffs, op.toString(), sum / 2);
+        Assert.assertEquals(c.getPropagator(0) instanceof PropScalarIncr, incr);
+        if (reified) {
+            BoolVar r = c.reify();
+            model.getSolver().setSearch(Search.randomSearch(vars, seed), Search.inputOrderLBSearch(r));
+        } else {
+            c.post();
+            model.getSolver().setSearch(Search.randomSearch(vars, seed));
+        }
+        while (model.getSolver().solve()) ;
+        return model.getSolver().getSolutionCount();
+    }
+
+    private static long countSum(int n, int seed, Operator op, boolean incr) {
+        Random random = new Random(seed);
+        Model model = incrementalModel(incr);
+        IntVar[] vars = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            vars[i] = model.intVar("v_" + i, -1 - random.nextInt(2), 1 + random.nextInt(2), random.nextBoolean());
+        }
+        IntVar res = model.intVar("r", -n, n, true);
+        Constraint c = model.sum(vars, op.toString(), res);
+        Assert.assertEquals(c.getPropagator(0) instanceof PropScalarIncr, incr);
+        c.post();
+        model.getSolver().setSearch(Search.randomSearch(ArrayUtils.append(vars, new IntVar[]{res}), seed));
+        while (model.getSolver().solve()) ;
+        return model.getSolver().getSolutionCount();
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrScalar() {
+        for (Operator op : new Operator[]{Operator.EQ, Operator.LE, Operator.GE}) {
+            for (int seed = 0; seed < 10; seed++) {
+                Assert.assertEquals(countScalar(6, seed, op, true, false), countScalar(6, seed, op, false, false),
+                        op + ", seed " + seed);
+            }
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrScalarReified() {
+        for (Operator op : new Operator[]{Operator.EQ, Operator.LE, Operator.GE}) {
+            for (int seed = 0; seed < 10; seed++) {
+                Assert.assertEquals(countScalar(5, seed, op, true, true), countScalar(5, seed, op, false, true),
+                        op + ", seed " + seed);
+            }
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrSum() {
+        for (Operator op : new Operator[]{Operator.EQ, Operator.LE, Operator.GE}) {
+            for (int seed = 0; seed < 10; seed++) {
+                Assert.assertEquals(countSum(6, seed, op, true), countSum(6, seed, op, false),
+                        op + ", seed " + seed);
+            }
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIncrDefaultThreshold() {
+        Model model = new Model();
+        IntVar[] vars = model.intVarArray("X", 200, 0, 10, true);
+        int[] coeffs = new int[200];
+        fill(coeffs, 3);
+        Constraint c = model.scalar(vars, coeffs, "<=", 1000);
+        Assert.assertTrue(c.getPropagator(0) instanceof PropScalarIncr);
+        c.post();
+        model.arithm(vars[0], ">=", 4).post();
+        model.arithm(vars[1], ">=", 5).post();
+        Assert.assertTrue(model.getSolver().solve());
+        int s = 0;
+        for (IntVar v : vars) {
+            s += v.getValue() * 3;
+        }
+        Assert.assertTrue(s <= 1000);
+        Assert.assertFalse(model.sum(model.intVarArray("Y", 3, 0, 2), "<=", 2).getPropagator(0) instanceof PropScalarIncr);
+    }
 }
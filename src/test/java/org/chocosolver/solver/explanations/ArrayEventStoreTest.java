@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.explanations;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.chocosolver.solver.search.strategy.Search.randomSearch;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class ArrayEventStoreTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testIndex() {
+        Model model = new Model();
+        IntVar x = model.intVar("X", 0, 200);
+        IntVar y = model.intVar("Y", 0, 200);
+        IEnvironment env = model.getEnvironment();
+        ArrayEventStore es = new ArrayEventStore(env);
+        for (int i = 0; i < 150; i++) {
+            es.pushEvent(i % 3 == 0 ? y : x, Cause.Null, IntEventType.REMOVE, i, -1, -1);
+        }
+        Assert.assertEquals(es.getLastEvent(x.getId(), 149), 149);
+        Assert.assertEquals(es.getLastEvent(y.getId(), 149), 147);
+        Assert.assertEquals(es.getPrevious(147), 144);
+        Assert.assertEquals(es.getPrevious(0), -1);
+        Assert.assertEquals(es.getLastEvent(x.getId(), 0), -1);
+        Assert.assertEquals(es.getLastActivation(149), -1);
+        env.worldPush();
+        es.pushEvent(x, Cause.Null, IntEventType.REMOVE, 150, -1, -1);
+        es.pushEvent(y, Cause.Null, IntEventType.REMOVE, 151, -1, -1);
+        Assert.assertEquals(es.getLastEvent(y.getId(), 200), 151);
+        env.worldPop();
+        // lazily restored
+        Assert.assertEquals(es.getLastEvent(y.getId(), 200), 147);
+        es.pushEvent(x, Cause.Null, IntEventType.REMOVE, 150, -1, -1);
+        Assert.assertEquals(es.getPrevious(150), 149);
+        es.forgetLast();
+        es.pushEvent(y, Cause.Null, IntEventType.REMOVE, 150, -1, -1);
+        Assert.assertEquals(es.getPrevious(150), 147);
+        Assert.assertEquals(es.getLastEvent(x.getId(), 200), 149);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testActivations() {
+        Model model = new Model();
+        IntVar x = model.intVar("X", 0, 10);
+        Propagator p = model.arithm(x, ">", 2).getPropagator(0);
+        ArrayEventStore es = new ArrayEventStore(model.getEnvironment());
+        es.pushEvent(x, p, PropagatorEventType.FULL_PROPAGATION, p.getId(), 0, 0);
+        es.pushEvent(x, Cause.Null, IntEventType.REMOVE, 1, -1, -1);
+        es.pushEvent(x, p, PropagatorEventType.FULL_PROPAGATION, p.getId(), 0, 0);
+        Assert.assertEquals(es.getLastActivation(2), 2);
+        Assert.assertEquals(es.getPrevious(2), 0);
+        Assert.assertEquals(es.getLastEvent(x.getId(), 2), 1);
+        Assert.assertEquals(es.getPrevious(1), -1);
+    }
+
+    /**
+     * Explanations computed through the index are the same as the ones computed by a full backward scan
+     */
+    @Test(groups="1s", timeOut=60000)
+    public void testScan() {
+        for (int seed = 0; seed < 10; seed++) {
+            Model model = new Model();
+            int n = 7;
+            IntVar[] vars = model.intVarArray("Q", n, 1, n, false);
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    int k = j - i;
+                    model.arithm(vars[i], "!=", vars[j]).post();
+                    model.arithm(vars[i], "!=", vars[j], "+", -k).post();
+                    model.arithm(vars[i], "!=", vars[j], "+", k).post();
+                }
+            }
+            model.getSolver().setCBJLearning(false, seed % 2 == 0);
+            model.getSolver().setSearch(randomSearch(vars, seed));
+            ExplanationEngine ee = (ExplanationEngine) model.getSolver().getExplainer();
+            int[] nb = new int[1];
+            model.getSolver().plugMonitor((IMonitorContradiction) cex -> {
+                Explanation indexed = ee.explain(cex);
+                Explanation full = explainFully(ee, cex);
+                Assert.assertEquals(indexed.getDecisions(), full.getDecisions());
+                Assert.assertEquals(indexed.getCauses(), full.getCauses());
+                nb[0]++;
+            });
+            while (model.getSolver().solve()) ;
+            Assert.assertEquals(model.getSolver().getSolutionCount(), 40);
+            Assert.assertTrue(nb[0] > 0);
+        }
+    }
+
+    private static Explanation explainFully(ExplanationEngine ee, ContradictionException cex) {
+        Explanation explanation = new Explanation(null, ee.isSaveCauses());
+        RuleStore rs = ee.getRuleStore();
+        ArrayEventStore es = ee.getEventStore();
+        rs.init(explanation);
+        if (cex.v != null) {
+            rs.addFullDomainRule((IntVar) cex.v);
+        } else {
+            explanation.addCause(cex.c);
+            cex.c.why(rs, null, IntEventType.VOID, 0);
+        }
+        for (int i = es.getSize() - 1; i > -1 && !rs.isPreemptedStop(); i--) {
+            if (rs.match(i, es)) {
+                rs.update(i, es, explanation);
+            }
+        }
+        return explanation;
+    }
+}
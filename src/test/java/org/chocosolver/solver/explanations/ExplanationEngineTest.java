@@ -29,16 +29,23 @@
  */
 package org.chocosolver.solver.explanations;
 
+import org.chocosolver.sat.PropNogoods;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.binary.PropGreaterOrEqualX_YC;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.loop.learn.LearnCBJ;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperator;
 import org.chocosolver.solver.search.strategy.decision.Decision;
 import org.chocosolver.solver.search.strategy.decision.IntDecision;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMax;
 import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMiddle;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainRandom;
+import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
 import org.chocosolver.solver.search.strategy.selectors.variables.FirstFail;
+import org.chocosolver.solver.search.strategy.selectors.variables.Random;
 import org.chocosolver.solver.search.strategy.strategy.IntStrategy;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
@@ -53,7 +60,7 @@ import static java.lang.System.out;
 import static java.util.Arrays.copyOfRange;
 import static java.util.Arrays.fill;
 import static org.chocosolver.solver.search.strategy.Search.*;
-import static org.chocosolver.solver.search.strategy.assignments.DecisionOperator.int_split;
+import static org.chocosolver.solver.search.strategy.assignments.DecisionOperator.*;
 import static org.testng.Assert.*;
 
 /**
@@ -964,4 +971,31 @@ public class ExplanationEngineTest {
         out.printf("%s\n", model);
     }
 
+
+    @Test(groups="1s", timeOut=60000)
+    public void testNogoodLearning() {
+        DecisionOperator<IntVar>[] ops = new DecisionOperator[]{int_eq, int_neq, int_split, int_reverse_split};
+        for (int seed = 0; seed < 5; seed++) {
+            for (DecisionOperator<IntVar> op : ops) {
+                Model model = new Model();
+                int n = 7;
+                IntVar[] qs = model.intVarArray("Q", n, 1, n, false);
+                for (int i = 0; i < n - 1; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        model.arithm(qs[i], "!=", qs[j]).post();
+                        model.arithm(qs[i], "-", qs[j], "!=", j - i).post();
+                        model.arithm(qs[j], "-", qs[i], "!=", j - i).post();
+                    }
+                }
+                IntValueSelector vsel = op == int_split ? new IntDomainMin() :
+                        op == int_reverse_split ? new IntDomainMax() : new IntDomainRandom(seed);
+                Solver r = model.getSolver();
+                r.setSearch(intVarSearch(new Random<>(seed), vsel, op, qs));
+                r.setNogoodLearning(8, 4, 100);
+                assertEquals(r.findAllSolutions().size(), 40, op + ", seed " + seed);
+                PropNogoods png = model.getNogoodStore().getPropNogoods();
+                assertTrue(png.getNbReductions() > 0, op + ", seed " + seed);
+            }
+        }
+    }
 }
@@ -36,6 +36,7 @@ import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.propagation.hardcoded.SevenQueuesCoalescingEngine;
 import org.chocosolver.solver.propagation.hardcoded.SevenQueuesPropagatorEngine;
 import org.chocosolver.solver.propagation.hardcoded.TwoBucketPropagationEngine;
 import org.chocosolver.solver.variables.IntVar;
@@ -69,6 +70,7 @@ public class PropEngineTest {
         return new PropagationEngineFactory[][]{
                 {PropagationEngineFactory.PROPAGATORDRIVEN_7QD},
                 {PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE},
+                {PropagationEngineFactory.PROPAGATORDRIVEN_7QD_COALESCING},
         };
     }
 
@@ -164,6 +166,18 @@ public class PropEngineTest {
         assertEquals(model.getSolver().getSolutionCount(), 92);
     }
 
+    @Test(groups="1s", timeOut=60000)
+    public void test4b() {
+        Model model = makeNQueenWithBinaryConstraints(8);
+        model.getSolver().setEngine(new SevenQueuesCoalescingEngine(model));
+        while (model.getSolver().solve()) ;
+        assertEquals(model.getSolver().getSolutionCount(), 92);
+        Model ref = makeNQueenWithBinaryConstraints(8);
+        ref.getSolver().setEngine(new SevenQueuesPropagatorEngine(ref));
+        while (ref.getSolver().solve()) ;
+        assertEquals(model.getSolver().getNodeCount(), ref.getSolver().getNodeCount());
+    }
+
     @Test(groups="10s", timeOut=60000)
     public void test5(){
         Model model = ProblemMaker.makeGolombRuler(10);
@@ -190,6 +204,19 @@ public class PropEngineTest {
         Assert.assertEquals(obj, 55);
     }
     
+    @Test(groups="10s", timeOut=60000)
+    public void test6b(){
+        Model model = ProblemMaker.makeGolombRuler(10);
+        model.getSolver().setEngine(new SevenQueuesCoalescingEngine(model));
+        model.getSolver().setSearch(minDomLBSearch((IntVar[])model.getHook("ticks")));
+        int obj = Integer.MAX_VALUE;
+        while(model.getSolver().solve()){
+            obj = ((IntVar)(model.getObjective())).getValue();
+        }
+        Assert.assertEquals(model.getSolver().getSolutionCount(), 1);
+        Assert.assertEquals(obj, 55);
+    }
+
     @Test(groups="1s", timeOut=60000)
     public void testGregy41(){
         for(int i = 0 ; i < 20; i++) {
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.propagation;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+import static org.chocosolver.util.ProblemMaker.makeNQueenWithBinaryConstraints;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class PropagationProfilerTest {
+
+    @DataProvider(name = "engines")
+    public Object[][] engines(){
+        return new PropagationEngineFactory[][]{
+                {PropagationEngineFactory.PROPAGATORDRIVEN_7QD},
+                {PropagationEngineFactory.TWOBUCKETPROPAGATIONENGINE},
+                {PropagationEngineFactory.PROPAGATORDRIVEN_7QD_COALESCING},
+        };
+    }
+
+    @Test(groups="1s", timeOut=60000, dataProvider = "engines")
+    public void testCounters(PropagationEngineFactory ef) {
+        Model model = makeNQueenWithBinaryConstraints(8);
+        Solver solver = model.getSolver();
+        PropagationProfiler profiler = new PropagationProfiler(0);
+        solver.setPropagationProfiler(profiler);
+        solver.setEngine(ef.make(model));
+        while (solver.solve()) ;
+        Assert.assertEquals(solver.getSolutionCount(), 92);
+        Assert.assertSame(solver.getEngine().getProfiler(), profiler);
+        List<Propagator> props = profiler.getPropagators();
+        Assert.assertEquals(props.size(), model.getCstrs().length);
+        long failures = 0, reductions = 0, coarses = 0;
+        for (Propagator p : props) {
+            Assert.assertTrue(profiler.getCalls(p) > 0);
+            Assert.assertTrue(profiler.getTime(p) >= 0);
+            failures += profiler.getFailures(p);
+            reductions += profiler.getReductions(p);
+            coarses += profiler.getCoarseCount(p);
+        }
+        Assert.assertEquals(failures, solver.getFailCount());
+        Assert.assertTrue(reductions > 0);
+        Assert.assertTrue(coarses >= props.size());
+        for (int i = 1; i < props.size(); i++) {
+            Assert.assertTrue(profiler.getTime(props.get(i - 1)) >= profiler.getTime(props.get(i)));
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000, dataProvider = "engines")
+    public void testFine(PropagationEngineFactory ef) {
+        Model model = new Model();
+        IntVar[] vars = model.intVarArray("X", 5, 0, 5);
+        model.allDifferent(vars, "FC").post();
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch(vars));
+        solver.setEngine(ef.make(model));
+        solver.setPropagationProfiler(new PropagationProfiler());
+        solver.solve();
+        Propagator p = model.getCstrs()[0].getPropagator(0);
+        // one fine propagation per decision (X0 to X4), whatever the engine
+        Assert.assertEquals(solver.getPropagationProfiler().getFineCount(p), 5);
+        Assert.assertTrue(solver.getPropagationProfiler().getReductions(p) > 0);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testShow() {
+        Model model = makeNQueenWithBinaryConstraints(6);
+        Solver solver = model.getSolver();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        solver.setOut(new PrintStream(bos));
+        solver.showPropagationProfile(5);
+        Assert.assertNotNull(solver.getPropagationProfiler());
+        solver.solve();
+        String out = bos.toString();
+        Assert.assertTrue(out.contains("Propagation profile (5/"), out);
+        Assert.assertEquals(out.split("\n").length, 7, out);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testNoProfiler() {
+        Model model = makeNQueenWithBinaryConstraints(6);
+        Solver solver = model.getSolver();
+        while (solver.solve()) ;
+        Assert.assertNull(solver.getPropagationProfiler());
+        Assert.assertNull(solver.getEngine().getProfiler());
+    }
+}
@@ -31,8 +31,10 @@ package org.chocosolver.solver.search;
 
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.variables.ActivityBased;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.ProblemMaker;
 import org.testng.annotations.Test;
@@ -40,6 +42,7 @@ import org.testng.annotations.Test;
 import static java.lang.System.out;
 import static org.chocosolver.solver.search.strategy.Search.activityBasedSearch;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 
 /**
  * @author Jean-Guillaume Fages
@@ -62,6 +65,26 @@ public class ActivityTest {
 		assertEquals(s1.getSolver().getSolutionCount(), s2.getSolver().getSolutionCount());
 	}
 
+	@Test(groups="1s", timeOut=60000)
+	public void testRootSampling() {
+		Model s1 = costasArray(6, false);
+		Model s2 = costasArray(6, true);
+		ActivityBased abs = (ActivityBased) s2.getSolver().<IntVar>getSearch();
+		abs.setRootSampling(50, ProblemMaker.makeCostasArrays(6), ProblemMaker.makeCostasArrays(6));
+
+		while (s1.getSolver().solve()) ;
+		while (s2.getSolver().solve()) ;
+
+		assertFalse(abs.isSampling());
+		assertEquals(s2.getSolver().getSolutionCount(), s1.getSolver().getSolutionCount());
+	}
+
+	@Test(groups="1s", timeOut=60000, expectedExceptions = SolverException.class)
+	public void testRootSamplingOtherModel() {
+		Model s1 = costasArray(6, true);
+		((ActivityBased) s1.getSolver().<IntVar>getSearch()).setRootSampling(10, ProblemMaker.makeCostasArrays(5));
+	}
+
 	private Model costasArray(int n, boolean activity){
 		Model model = ProblemMaker.makeCostasArrays(n);
 		IntVar[] vectors = (IntVar[]) model.getHook("vectors");
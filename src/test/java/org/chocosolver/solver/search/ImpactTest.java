@@ -61,6 +61,21 @@ public class ImpactTest {
 		assertEquals(s1.getSolver().getSolutionCount(), s2.getSolver().getSolutionCount());
 	}
 
+	@Test(groups="1s", timeOut=60000)
+	public void testParallelInit() {
+		Model s1 = costasArray(6, true);
+		Model s2 = costasArray(6, true);
+		ImpactBased ibs = (ImpactBased) s2.getSolver().<IntVar>getSearch();
+		ibs.setRootSampling(ProblemMaker.makeCostasArrays(6), ProblemMaker.makeCostasArrays(6));
+
+		while (s1.getSolver().solve()) ;
+		while (s2.getSolver().solve()) ;
+
+		// impacts are the same, so is the search tree
+		assertEquals(s2.getSolver().getSolutionCount(), s1.getSolver().getSolutionCount());
+		assertEquals(s2.getSolver().getNodeCount(), s1.getSolver().getNodeCount());
+	}
+
 	private Model costasArray(int n, boolean impact){
 		Model model = ProblemMaker.makeCostasArrays(n);
 		IntVar[] vectors = (IntVar[]) model.getHook("vectors");
@@ -38,6 +38,8 @@ import org.chocosolver.solver.variables.IntVar;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static java.lang.Integer.parseInt;
 import static java.lang.Math.max;
 
@@ -59,6 +61,38 @@ public class ParetoTest {
         Assert.assertTrue(bestProfit1 > 60);
     }
 
+    @Test(groups="1s", timeOut=60000)
+    public void testParetoMax() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 3, 0, 4);
+        model.sum(x, "<=", 6).post();
+        ParetoOptimizer pareto = new ParetoOptimizer(Model.MAXIMIZE, x);
+        model.getSolver().plugMonitor(pareto);
+        while (model.getSolver().solve()) ;
+        List<Solution> front = pareto.getParetoFront();
+        // every point of the front sums to 6
+        Assert.assertEquals(front.size(), 19);
+        for (Solution sol : front) {
+            Assert.assertEquals(sol.getIntVal(x[0]) + sol.getIntVal(x[1]) + sol.getIntVal(x[2]), 6);
+        }
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testParetoMin() {
+        Model model = new Model();
+        IntVar[] x = model.intVarArray("x", 3, 0, 4);
+        model.sum(x, ">=", 6).post();
+        ParetoOptimizer pareto = new ParetoOptimizer(Model.MINIMIZE, x);
+        model.getSolver().setSearch(Search.inputOrderUBSearch(x));
+        model.getSolver().plugMonitor(pareto);
+        while (model.getSolver().solve()) ;
+        List<Solution> front = pareto.getParetoFront();
+        Assert.assertEquals(front.size(), 19);
+        for (Solution sol : front) {
+            Assert.assertEquals(sol.getIntVal(x[0]) + sol.getIntVal(x[1]) + sol.getIntVal(x[2]), 6);
+        }
+    }
+
     private void runKnapsackPareto(final int capacity, final String... items) {
         int[] nbItems = new int[items.length];
         int[] weights = new int[items.length];
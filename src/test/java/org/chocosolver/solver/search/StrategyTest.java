@@ -30,6 +30,7 @@
 package org.chocosolver.solver.search;
 
 import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.exception.ContradictionException;
@@ -41,6 +42,7 @@ import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.search.strategy.strategy.LastConflict;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.SetVar;
+import org.chocosolver.util.ProblemMaker;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -266,6 +268,80 @@ public class StrategyTest {
         Assert.assertEquals(5.0, va);
     }
 
+    @Test(groups="1s", timeOut=60000)
+    public void testFirstFail3() throws ContradictionException {
+        Model model = new Model();
+        IEnvironment env = model.getEnvironment();
+        IntVar[] vs = model.intVarArray("v", 4, 0, 5, false);
+        VariableSelector<IntVar> eval = new FirstFail(model);
+        Assert.assertEquals(eval.getVariable(vs), vs[0]);
+        env.worldPush();
+        vs[2].updateUpperBound(2, Cause.Null);
+        Assert.assertEquals(eval.getVariable(vs), vs[2]);
+        env.worldPush();
+        vs[3].updateUpperBound(1, Cause.Null);
+        vs[2].instantiateTo(0, Cause.Null);
+        Assert.assertEquals(eval.getVariable(vs), vs[3]);
+        env.worldPop();
+        Assert.assertEquals(eval.getVariable(vs), vs[2]);
+        env.worldPop();
+        Assert.assertEquals(eval.getVariable(vs), vs[0]);
+        // restored before the selector was built
+        env.worldPush();
+        vs[1].updateUpperBound(3, Cause.Null);
+        eval = new FirstFail(model);
+        Assert.assertEquals(eval.getVariable(vs), vs[1]);
+        env.worldPop();
+        Assert.assertEquals(eval.getVariable(vs), vs[0]);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testFirstFail4() throws ContradictionException {
+        // the selector is given other variables, then the first ones again
+        Model model = new Model();
+        IEnvironment env = model.getEnvironment();
+        IntVar[] vs = model.intVarArray("v", 4, 0, 5, false);
+        IntVar[] ws = {vs[3], vs[2]};
+        VariableSelector<IntVar> eval = new FirstFail(model);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(eval.getVariable(vs), vs[0]);
+            Assert.assertEquals(eval.getVariable(ws), vs[3]);
+        }
+        env.worldPush();
+        vs[2].updateUpperBound(2, Cause.Null);
+        Assert.assertEquals(eval.getVariable(ws), vs[2]);
+        vs[1].updateUpperBound(1, Cause.Null);
+        Assert.assertEquals(eval.getVariable(vs), vs[1]);
+        Assert.assertEquals(eval.getVariable(ws), vs[2]);
+        env.worldPop();
+        Assert.assertEquals(eval.getVariable(ws), vs[3]);
+        Assert.assertEquals(eval.getVariable(vs), vs[0]);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDomOverWDeg1() {
+        Model s1 = ProblemMaker.makeCostasArrays(7);
+        Model s2 = ProblemMaker.makeCostasArrays(7);
+        s1.getSolver().setSearch(inputOrderLBSearch((IntVar[]) s1.getHook("vars")));
+        s2.getSolver().setSearch(Search.domOverWDegSearch((IntVar[]) s2.getHook("vars")));
+        while (s1.getSolver().solve()) ;
+        while (s2.getSolver().solve()) ;
+        assertEquals(s2.getSolver().getSolutionCount(), s1.getSolver().getSolutionCount());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testDomOverWDeg2() {
+        // same seed, same search tree
+        long[] nodes = new long[2];
+        for (int k = 0; k < 2; k++) {
+            Model model = ProblemMaker.makeCostasArrays(7);
+            model.getSolver().setSearch(Search.domOverWDegSearch((IntVar[]) model.getHook("vars")));
+            while (model.getSolver().solve()) ;
+            nodes[k] = model.getSolver().getNodeCount();
+        }
+        assertEquals(nodes[1], nodes[0]);
+    }
+
     @Test(groups="1s", timeOut=60000)
     public void testAntiFirstFail2() {
         Model model = new Model();
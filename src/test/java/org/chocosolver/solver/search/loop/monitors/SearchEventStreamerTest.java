@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.monitors;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.search.loop.lns.neighbors.RandomNeighborhood;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ProblemMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.chocosolver.solver.search.loop.monitors.SearchEventStreamer.*;
+
+/**
+ * <p>
+ * Project: choco-solver.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SearchEventStreamerTest {
+
+    /**
+     * @return records as arrays: kind, node, parent, depth, alternative, variable, value, operator
+     */
+    private static List<int[]> read(byte[] bytes) throws IOException {
+        Assert.assertEquals((bytes.length - 4) % RECORD_SIZE, 0);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        Assert.assertEquals(in.readInt(), MAGIC);
+        List<int[]> records = new ArrayList<>();
+        long time = 0;
+        for (int i = 0; i < (bytes.length - 4) / RECORD_SIZE; i++) {
+            records.add(new int[]{in.readByte(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readByte(), in.readInt(), in.readInt(), in.readByte()});
+            long t = in.readLong();
+            Assert.assertTrue(t >= time);
+            time = t;
+        }
+        return records;
+    }
+
+    private static long count(List<int[]> records, int kind) {
+        return records.stream().filter(r -> r[0] == kind).count();
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void test1() throws IOException {
+        Model model = ProblemMaker.makeCostasArrays(7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SearchEventStreamer streamer = new SearchEventStreamer(model, bytes);
+        while (model.getSolver().solve()) ;
+        streamer.close();
+        List<int[]> records = read(bytes.toByteArray());
+        Assert.assertEquals(records.size(), streamer.getRecordedCount());
+        Assert.assertEquals(streamer.getWrittenCount(), streamer.getRecordedCount());
+        Assert.assertEquals(streamer.getDroppedCount(), 0);
+        Assert.assertEquals(count(records, SOLUTION), model.getSolver().getSolutionCount());
+        Assert.assertEquals(count(records, FAILURE), model.getSolver().getFailCount());
+        Set<Integer> nodes = new HashSet<>();
+        nodes.add(-1);
+        for (int[] r : records) {
+            if (r[0] == BRANCH) {
+                Assert.assertTrue(nodes.contains(r[2]), "unknown parent " + r[2]);
+                Assert.assertTrue(nodes.add(r[1]));
+                Assert.assertTrue(r[3] > 0);
+                Assert.assertTrue(r[5] >= 0);
+                Assert.assertTrue(r[7] >= OP_EQ && r[7] <= OP_GEQ);
+            } else {
+                Assert.assertTrue(nodes.contains(r[1]), "unknown node " + r[1]);
+            }
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testSampling() throws IOException {
+        Model model = ProblemMaker.makeCostasArrays(7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SearchEventStreamer streamer = new SearchEventStreamer(model, bytes, 1024, 10, false)) {
+            while (model.getSolver().solve()) ;
+        }
+        List<int[]> records = read(bytes.toByteArray());
+        Assert.assertEquals(count(records, SOLUTION), model.getSolver().getSolutionCount());
+        Assert.assertTrue(count(records, FAILURE) < model.getSolver().getFailCount());
+        for (int[] r : records) {
+            if (r[0] != SOLUTION && r[1] != -1) {
+                Assert.assertEquals(r[1] % 10, 0);
+            }
+        }
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testDrop() throws IOException {
+        Model model = ProblemMaker.makeCostasArrays(7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SearchEventStreamer streamer = new SearchEventStreamer(model, bytes, 2, 1, true);
+        while (model.getSolver().solve()) ;
+        streamer.close();
+        Assert.assertTrue(model.getSolver().getSolutionCount() > 0);
+        List<int[]> records = read(bytes.toByteArray());
+        Assert.assertEquals(records.size(), streamer.getRecordedCount());
+        Assert.assertEquals(streamer.getWrittenCount(), streamer.getRecordedCount());
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testLNS() throws IOException {
+        Model model = ProblemMaker.makeGolombRuler(11);
+        model.getSolver().setLNS(new RandomNeighborhood((IntVar[]) model.getHook("ticks"), 10, 0));
+        model.getSolver().limitSolution(10);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SearchEventStreamer streamer = new SearchEventStreamer(model, bytes)) {
+            while (model.getSolver().solve()) ;
+        }
+        List<int[]> records = read(bytes.toByteArray());
+        Assert.assertEquals(count(records, SOLUTION), model.getSolver().getSolutionCount());
+        Assert.assertEquals(count(records, RESTART), model.getSolver().getRestartCount());
+    }
+}
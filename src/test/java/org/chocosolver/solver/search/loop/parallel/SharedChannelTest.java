@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.search.loop.parallel;
+
+import org.chocosolver.sat.PropNogoods;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.ResolutionPolicy;
+import org.chocosolver.solver.variables.IntVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * <p>
+ * Project: choco.
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class SharedChannelTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testLiteral() {
+        long l = SharedChannel.literal(12, -5, true, false);
+        Assert.assertEquals(SharedChannel.id(l), 12);
+        Assert.assertEquals(SharedChannel.value(l), -5);
+        Assert.assertTrue(SharedChannel.isEq(l));
+        Assert.assertFalse(SharedChannel.sign(l));
+        l = SharedChannel.literal(Integer.MAX_VALUE >> 4, Integer.MIN_VALUE, false, true);
+        Assert.assertEquals(SharedChannel.id(l), Integer.MAX_VALUE >> 4);
+        Assert.assertEquals(SharedChannel.value(l), Integer.MIN_VALUE);
+        Assert.assertFalse(SharedChannel.isEq(l));
+        Assert.assertTrue(SharedChannel.sign(l));
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBound() {
+        Model m1 = new Model();
+        Model m2 = new Model();
+        SharedChannel channel = new SharedChannel(ResolutionPolicy.MINIMIZE);
+        Assert.assertFalse(channel.hasBound());
+        Assert.assertNull(channel.getBoundOwner());
+        Assert.assertTrue(channel.offerBound(m1, 10));
+        Assert.assertFalse(channel.offerBound(m2, 10));
+        Assert.assertFalse(channel.offerBound(m2, 12));
+        Assert.assertEquals(channel.getBoundOwner(), m1);
+        Assert.assertTrue(channel.offerBound(m2, 7));
+        Assert.assertEquals(channel.getBound(), 7);
+        Assert.assertEquals(channel.getBoundOwner(), m2);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testReaders() {
+        SharedChannel channel = new SharedChannel(ResolutionPolicy.SATISFACTION);
+        SharedChannel.Reader r0 = channel.newReader(0);
+        SharedChannel.Reader r1 = channel.newReader(1);
+        long[] n0 = {SharedChannel.literal(0, 1, true, true)};
+        long[] n1 = {SharedChannel.literal(1, 2, false, true)};
+        channel.publish(0, n0);
+        channel.publish(1, n1);
+        Assert.assertEquals(r0.next(), n1);
+        Assert.assertNull(r0.next());
+        Assert.assertEquals(r1.next(), n0);
+        Assert.assertNull(r1.next());
+        SharedChannel.Reader r2 = channel.newReader(2);
+        Assert.assertNull(r2.next());
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testChainedObserver() {
+        SharedChannel channel = new SharedChannel(ResolutionPolicy.SATISFACTION);
+        Model model = new Model();
+        IntVar x = model.intVar("x", 0, 5);
+        PropNogoods png = model.getNogoodStore().getPropNogoods();
+        int[] observed = new int[1];
+        png.setLearntObserver(lits -> observed[0]++);
+        ChannelSharing sharing = new ChannelSharing(model, 0, channel, 4);
+        png.addLearnt(png.Literal(x, 2, true));
+        Assert.assertEquals(observed[0], 1);
+        Assert.assertEquals(sharing.getPublishedCount(), 1);
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testBufferedNogoods() {
+        SharedChannel channel = new SharedChannel(ResolutionPolicy.SATISFACTION);
+        Model model = new Model();
+        IntVar x = model.intVar("x", 0, 5);
+        ChannelSharing sharing = new ChannelSharing(model, 0, channel, 4);
+        SharedChannel.Reader other = channel.newReader(1);
+        for (int i = 0; i < ChannelSharing.BUFFER_SIZE + 5; i++) {
+            channel.publish(1, new long[]{SharedChannel.literal(x.getId(), i % 6, true, true)});
+        }
+        // read without restarting
+        sharing.beforeDownBranch(true);
+        Assert.assertEquals(sharing.getDroppedCount(), 5);
+        Assert.assertEquals(sharing.getImportedCount(), 0);
+        sharing.beforeRestart();
+        Assert.assertEquals(sharing.getImportedCount(), ChannelSharing.BUFFER_SIZE);
+        Assert.assertNull(other.next());
+    }
+
+    @Test(groups="10s", timeOut=60000)
+    public void testConcurrentPublish() throws InterruptedException {
+        SharedChannel channel = new SharedChannel(ResolutionPolicy.SATISFACTION);
+        SharedChannel.Reader reader = channel.newReader(-2);
+        int n = 4, k = 10000;
+        Thread[] threads = new Thread[n];
+        for (int t = 0; t < n; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < k; i++) {
+                    channel.publish(id, new long[]{SharedChannel.literal(id, i, true, true)});
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        int[] last = new int[n];
+        java.util.Arrays.fill(last, -1);
+        long[] nogood;
+        int count = 0;
+        while ((nogood = reader.next()) != null) {
+            int id = SharedChannel.id(nogood[0]);
+            Assert.assertEquals(SharedChannel.value(nogood[0]), last[id] + 1);
+            last[id]++;
+            count++;
+        }
+        Assert.assertEquals(count, n * k);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.solver.trace;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.propagation.PropagationProfiler;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ProblemMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
+
+/**
+ * <p>
+ * Project: choco-solver.
+ *
+ * @author Charles Prud'homme
+ * @since 4.0.1
+ */
+public class MetricsExporterTest {
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testJsonLines() throws IOException {
+        Model model = ProblemMaker.makeCostasArrays(7);
+        Solver solver = model.getSolver();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MetricsExporter ignored = solver.exportMetrics(5, new JsonLinesMetricsSink(bytes))) {
+            while (solver.solve()) ;
+        }
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assert.assertTrue(lines.length >= 1);
+        for (String line : lines) {
+            Assert.assertTrue(line.startsWith("{\"timestamp\":"), line);
+            Assert.assertTrue(line.endsWith("}"), line);
+            Assert.assertFalse(line.contains("lowerBound"));
+        }
+        String last = lines[lines.length - 1];
+        Assert.assertTrue(last.contains("\"solutions\":" + solver.getSolutionCount() + ","), last);
+        Assert.assertTrue(last.contains("\"nodes\":" + solver.getNodeCount() + ","), last);
+        Assert.assertTrue(last.contains("\"propagations\":-1,"), last);
+    }
+
+    @Test(groups = "1s", timeOut = 60000)
+    public void testPrometheus() throws IOException {
+        Model model = ProblemMaker.makeGolombRuler(7);
+        Solver solver = model.getSolver();
+        solver.setSearch(inputOrderLBSearch((IntVar[]) model.getHook("ticks")));
+        solver.setPropagationProfiler(new PropagationProfiler());
+        Path file = Files.createTempFile("choco", ".prom");
+        try {
+            try (MetricsExporter ignored = solver.exportMetrics(5, new PrometheusMetricsSink(file, "job", "test"))) {
+                while (solver.solve()) ;
+            }
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            String labels = "{model=\"" + model.getName() + "\",job=\"test\"}";
+            Assert.assertTrue(text.contains("choco_solutions_total" + labels + " " + solver.getSolutionCount() + "\n"), text);
+            Assert.assertTrue(text.contains("choco_fails_total" + labels + " " + solver.getFailCount() + "\n"), text);
+            Assert.assertTrue(text.contains("choco_objective_upper_bound" + labels + " 25\n"), text);
+            Assert.assertTrue(text.contains("choco_objective_optimal" + labels + " 1\n"), text);
+            Assert.assertTrue(text.contains("# TYPE choco_propagations_total counter\n"), text);
+            Assert.assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
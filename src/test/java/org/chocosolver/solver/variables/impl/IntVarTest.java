@@ -31,6 +31,7 @@ package org.chocosolver.solver.variables.impl;
 
 import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IVariableMonitor;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableBitSet;
 import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableRangeSet;
@@ -188,6 +189,29 @@ public abstract class IntVarTest {
     }
 
 
+    //------------------------------------
+    //------------ Monitors --------------
+    //------------------------------------
+
+    @Test(groups = "1s", timeOut=60000)
+    public void testRemoveMonitor() throws ContradictionException {
+        int[] updates = new int[2];
+        IVariableMonitor<IntVar> m0 = (v, e) -> updates[0]++;
+        IVariableMonitor<IntVar> m1 = (v, e) -> updates[1]++;
+        var.addMonitor(m0);
+        var.addMonitor(m1);
+        var.updateUpperBound(3, Cause.Null);
+        var.removeMonitor(m0);
+        var.updateUpperBound(2, Cause.Null);
+        assertEquals(updates[0], 1);
+        assertEquals(updates[1], 2);
+        var.removeMonitor(m0);
+        var.removeMonitor(m1);
+        var.updateLowerBound(2, Cause.Null);
+        assertEquals(updates[1], 2);
+    }
+
+
     //------------------------------------
     //----------- Utilities  -------------
     //------------------------------------
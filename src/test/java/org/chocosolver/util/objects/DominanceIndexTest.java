@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2016, Ecole des Mines de Nantes
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. All advertising materials mentioning features or use of this software
+ *    must display the following acknowledgement:
+ *    This product includes software developed by the <organization>.
+ * 4. Neither the name of the <organization> nor the
+ *    names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY <COPYRIGHT HOLDER> ''AS IS'' AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.chocosolver.util.objects;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * <br/>
+ *
+ * @author Charles Prud'homme
+ * @since 17/10/2016
+ */
+public class DominanceIndexTest {
+
+    @Test(groups="1s", timeOut=60000)
+    public void testSimple() {
+        DominanceIndex index = new DominanceIndex(2);
+        int a = index.add(new int[]{1, 5});
+        int b = index.add(new int[]{3, 3});
+        index.add(new int[]{5, 1});
+        Assert.assertEquals(index.size(), 3);
+        Assert.assertTrue(index.isDominated(new int[]{2, 3}));
+        Assert.assertFalse(index.isDominated(new int[]{2, 4}));
+        Assert.assertEquals(index.maxDominating(new int[]{0, 2}, 0, -1), 3);
+        Assert.assertEquals(index.maxDominating(new int[]{0, 6}, 0, -1), -1);
+        Set<Integer> removed = new HashSet<>();
+        index.removeDominatedBy(new int[]{3, 5}, removed::add);
+        Assert.assertEquals(removed.size(), 2);
+        Assert.assertTrue(removed.contains(a));
+        Assert.assertTrue(removed.contains(b));
+        Assert.assertEquals(index.size(), 1);
+        Assert.assertFalse(index.contains(a));
+    }
+
+    @Test(groups="1s", timeOut=60000)
+    public void testRandom() {
+        Random r = new Random(1);
+        for (int t = 0; t < 100; t++) {
+            int k = 1 + r.nextInt(5), range = 3 + r.nextInt(40);
+            DominanceIndex index = new DominanceIndex(k);
+            Map<Integer, int[]> points = new HashMap<>();
+            for (int op = 0; op < 1000; op++) {
+                int[] p = new int[k];
+                for (int i = 0; i < k; i++) {
+                    p[i] = r.nextInt(range) - range / 2;
+                }
+                int c = r.nextInt(10);
+                if (c < 4) {
+                    int id = index.add(p);
+                    Assert.assertNull(points.put(id, p.clone()));
+                } else if (c < 5 && !points.isEmpty()) {
+                    int id = new ArrayList<>(points.keySet()).get(r.nextInt(points.size()));
+                    index.remove(id);
+                    points.remove(id);
+                } else if (c < 7) {
+                    Set<Integer> expected = new HashSet<>();
+                    for (Map.Entry<Integer, int[]> e : points.entrySet()) {
+                        if (dominates(p, e.getValue(), -1)) {
+                            expected.add(e.getKey());
+                        }
+                    }
+                    Set<Integer> removed = new HashSet<>();
+                    index.removeDominatedBy(p, removed::add);
+                    Assert.assertEquals(removed, expected);
+                    points.keySet().removeAll(removed);
+                } else if (c < 8) {
+                    boolean expected = points.values().stream().anyMatch(q -> dominates(q, p, -1));
+                    Assert.assertEquals(index.isDominated(p), expected);
+                } else {
+                    int dim = r.nextInt(k);
+                    int expected = points.values().stream().filter(q -> dominates(q, p, dim))
+                            .mapToInt(q -> q[dim]).max().orElse(Integer.MIN_VALUE);
+                    Assert.assertEquals(index.maxDominating(p, dim, Integer.MIN_VALUE), expected);
+                }
+                Assert.assertEquals(index.size(), points.size());
+            }
+            Set<Integer> ids = new HashSet<>();
+            index.forEach(ids::add);
+            Assert.assertEquals(ids, points.keySet());
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if <i>p</i> weakly dominates <i>q</i>, except in dimension <i>dim</i>
+     */
+    private static boolean dominates(int[] p, int[] q, int dim) {
+        for (int i = 0; i < p.length; i++) {
+            if (i != dim && p[i] < q[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}